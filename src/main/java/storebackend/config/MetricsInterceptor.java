@@ -4,11 +4,18 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
 import storebackend.service.MetricsService;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+import java.util.Map;
+
+/**
+ * Request-Metriken je Route-Template (BEST_MATCHING_PATTERN_ATTRIBUTE) statt je roher URI –
+ * sonst wird jede /api/stores/123/products/456 zu einer eigenen Zeitreihe.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
@@ -17,9 +24,12 @@ public class MetricsInterceptor implements HandlerInterceptor {
     private final MetricsService metricsService;
     private static final String START_TIME_ATTRIBUTE = "startTime";
 
+    /** Requests ohne Handler-Match (z.B. 404 auf unbekannte Pfade) teilen sich eine Zeitreihe. */
+    static final String UNMATCHED_ROUTE = "UNMATCHED";
+
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
-        request.setAttribute(START_TIME_ATTRIBUTE, System.currentTimeMillis());
+        request.setAttribute(START_TIME_ATTRIBUTE, System.nanoTime());
         return true;
     }
 
@@ -27,38 +37,34 @@ public class MetricsInterceptor implements HandlerInterceptor {
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
                                 Object handler, Exception ex) {
 
-        long startTime = (Long) request.getAttribute(START_TIME_ATTRIBUTE);
-        long duration = System.currentTimeMillis() - startTime;
+        if (!(request.getAttribute(START_TIME_ATTRIBUTE) instanceof Long startTime)) {
+            return;
+        }
+        long durationNanos = System.nanoTime() - startTime;
 
-        String endpoint = request.getRequestURI();
+        String route = routeOf(request);
         String method = request.getMethod();
         int status = response.getStatus();
 
-        // Response-Zeit tracken
-        metricsService.recordResponseTime(endpoint, method, duration);
+        metricsService.recordRequest(route, method, status, storeIdOf(request), durationNanos);
 
-        // Erfolg oder Fehler tracken
-        if (status >= 200 && status < 300) {
-            metricsService.recordApiSuccess(endpoint, method);
-        } else if (status >= 400) {
-            String errorType = determineErrorType(status);
-            metricsService.recordApiError(endpoint, method, status, errorType);
+        if (log.isDebugEnabled()) {
+            log.debug("📊 API Call: {} {} - Status: {} - Duration: {}ms",
+                      method, route, status, durationNanos / 1_000_000);
         }
+    }
 
-        log.debug("📊 API Call: {} {} - Status: {} - Duration: {}ms",
-                  method, endpoint, status, duration);
+    static String routeOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : UNMATCHED_ROUTE;
     }
 
-    private String determineErrorType(int status) {
-        return switch (status) {
-            case 400 -> "BAD_REQUEST";
-            case 401 -> "UNAUTHORIZED";
-            case 403 -> "FORBIDDEN";
-            case 404 -> "NOT_FOUND";
-            case 500 -> "INTERNAL_ERROR";
-            case 503 -> "SERVICE_UNAVAILABLE";
-            default -> "ERROR_" + status;
-        };
+    @SuppressWarnings("unchecked")
+    private static String storeIdOf(HttpServletRequest request) {
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables instanceof Map<?, ?> map) {
+            return ((Map<String, String>) map).get("storeId");
+        }
+        return null;
     }
 }
-
@@ -4,6 +4,9 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 @ConfigurationProperties(prefix = "minio")
 @Data
@@ -17,6 +20,24 @@ public class MinioProperties {
     private String region = "us-east-1";
     private boolean secure = false;
 
+    /**
+     * Object-Präfixe im öffentlichen Bucket, die public-read sind (z.B. "default-assets/").
+     * Für diese liefert MinioService.resolveUrl() eine permanente URL ohne Signatur.
+     */
+    private List<String> publicReadPrefixes = new ArrayList<>();
+
+    /**
+     * Sicherheitsabstand: gecachte Presigned URLs werden spätestens so lange vor Ablauf neu signiert.
+     * Muss Catalog-Cache-TTL + Bootstrap-TTL + Browser-max-age abdecken (Prüfung beim Start).
+     */
+    private int presignedUrlRefreshMarginMinutes = 25;
+
+    /**
+     * Part-Größe für Streaming-Uploads unbekannter Länge (MinioService.uploadStream).
+     * Begrenzt den Heap-Bedarf pro Upload; S3/MinIO verlangen mindestens 5 MiB.
+     */
+    private long uploadPartSizeBytes = 5L * 1024 * 1024;
+
     // Explizite Getter für Lombok-Kompatibilität
     public String getEndpoint() {
         return endpoint;
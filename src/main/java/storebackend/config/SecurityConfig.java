@@ -93,6 +93,7 @@ public class SecurityConfig {
                 // Product Reviews - Public read access for storefront
                 .requestMatchers(HttpMethod.GET, "/api/products/*/reviews").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/products/*/reviews/stats").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/reviews/ratings").permitAll()
                 // Delivery Partner Marketplace - GET ist öffentlich (Marktplatz durchsuchen)
                 .requestMatchers(HttpMethod.GET, "/api/delivery-partners").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/delivery-partners/featured").permitAll()
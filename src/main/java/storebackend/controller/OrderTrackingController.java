@@ -14,6 +14,7 @@ import storebackend.enums.OrderStatus;
 import storebackend.repository.OrderRepository;
 import storebackend.repository.UserRepository;
 import storebackend.service.AuthService;
+import storebackend.service.OrderService;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -80,10 +81,14 @@ public class OrderTrackingController {
     /**
      * Holt Detail-Informationen einer bestimmten Bestellung
      * GET /api/public/customer/orders/{orderNumber}
+     *
+     * Eingeloggte Kunden sehen ihre eigenen Bestellungen; alle anderen (Gäste) nur mit ?email=
+     * passend zur Bestellung – Bestellnummern sind fortlaufend und damit erratbar.
      */
     @GetMapping("/customer/orders/{orderNumber}")
     public ResponseEntity<?> getOrderDetails(
             @PathVariable String orderNumber,
+            @RequestParam(required = false) String email,
             @RequestHeader(value = "Authorization", required = false) String authHeader) {
 
         try {
@@ -94,9 +99,11 @@ public class OrderTrackingController {
             Order order = orderRepository.findByOrderNumber(orderNumber)
                 .orElseThrow(() -> new RuntimeException("Order not found: " + orderNumber));
 
-            // Security: Prüfe ob Order dem User gehört
-            if (userId != null && order.getCustomer() != null &&
-                !order.getCustomer().getId().equals(userId)) {
+            // Security: eigene Bestellung oder passende E-Mail (Gastbestellung)
+            boolean ownOrder = userId != null && order.getCustomer() != null
+                && order.getCustomer().getId().equals(userId);
+            String accountEmail = order.getCustomer() != null ? order.getCustomer().getEmail() : null;
+            if (!ownOrder && !OrderService.emailMatchesOrder(email, order.getCustomerEmail(), accountEmail)) {
                 return ResponseEntity.status(403).body(Map.of(
                     "error", "Access denied",
                     "message", "This order does not belong to you"
@@ -328,7 +328,9 @@ public class ProductController {
             @Parameter(description = "Product ID") @PathVariable Long productId) {
 
         log.info("Incrementing view count for product {} in store {}", productId, storeId);
-        productService.incrementViewCount(productId);
+        if (!productService.incrementViewCount(storeId, productId)) {
+            return ResponseEntity.notFound().build();
+        }
         return ResponseEntity.ok().build();
     }
 
@@ -10,6 +10,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import storebackend.dto.CreateReviewRequest;
+import storebackend.dto.ProductRatingSummary;
 import storebackend.dto.ProductReviewDTO;
 import storebackend.dto.ProductReviewStats;
 import storebackend.entity.Store;
@@ -31,6 +32,8 @@ import java.util.Map;
 @Tag(name = "Product Reviews", description = "Product review and rating management")
 public class ProductReviewController {
 
+    private static final int MAX_RATING_SUMMARY_IDS = 200;
+
     private final ProductReviewService reviewService;
     private final StoreRepository storeRepository;
 
@@ -59,6 +62,21 @@ public class ProductReviewController {
         return ResponseEntity.ok(stats);
     }
 
+    /**
+     * PUBLIC: Star ratings for product listings (one query for the whole page)
+     * GET /api/reviews/ratings?productIds=1,2,3
+     */
+    @GetMapping("/reviews/ratings")
+    @Operation(summary = "Get average rating and review count for several products (public access)")
+    public ResponseEntity<?> getRatingSummaries(@RequestParam List<Long> productIds) {
+        if (productIds.size() > MAX_RATING_SUMMARY_IDS) {
+            return ResponseEntity.badRequest().body(Map.of("error",
+                    "At most " + MAX_RATING_SUMMARY_IDS + " product IDs per request"));
+        }
+        Map<Long, ProductRatingSummary> summaries = reviewService.getRatingSummaries(productIds);
+        return ResponseEntity.ok(summaries.values());
+    }
+
     /**
      * AUTHENTICATED: Create a review
      * POST /api/products/{productId}/reviews
@@ -275,19 +275,11 @@ public class PublicOrderController {
 
             OrderDetailsDTO orderDetails = orderService.getOrderDetailsByNumber(orderNumber);
 
-            // Verify email access - allow if:
-            // 1. Order has no customer (guest order)
-            // 2. Customer email matches the provided email
-            if (orderDetails.getCustomer() != null) {
-                String customerEmail = orderDetails.getCustomer().getEmail();
-                if (customerEmail != null && !customerEmail.equalsIgnoreCase(email)) {
-                    log.warn("❌ Email mismatch for order {}: expected {}, got {}",
-                        orderNumber, customerEmail, email);
-                    return ResponseEntity.status(403).body(Map.of("error", "Access denied"));
-                }
-            } else {
-                // Guest order - allow access (no customer associated)
-                log.info("✅ Allowing access to guest order {}", orderNumber);
+            // Bestellnummern sind fortlaufend – auch Gastbestellungen nur mit passender E-Mail
+            String accountEmail = orderDetails.getCustomer() != null ? orderDetails.getCustomer().getEmail() : null;
+            if (!OrderService.emailMatchesOrder(email, orderDetails.getCustomerEmail(), accountEmail)) {
+                log.warn("❌ Email mismatch for order {}", orderNumber);
+                return ResponseEntity.status(403).body(Map.of("error", "Access denied"));
             }
 
             log.info("✅ Bestellung erfolgreich abgerufen: {}", orderNumber);
@@ -102,7 +102,9 @@ public class PublicProductController {
             @Parameter(description = "Product ID") @PathVariable Long productId) {
 
         log.debug("Tracking view for product {} in store {}", productId, storeId);
-        productService.incrementViewCount(productId);
+        if (!productService.incrementViewCount(storeId, productId)) {
+            return ResponseEntity.notFound().build();
+        }
 
         return ResponseEntity.ok().build();
     }
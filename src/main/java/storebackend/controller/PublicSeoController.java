@@ -1,13 +1,17 @@
 package storebackend.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import storebackend.dto.seo.RedirectResolveResponse;
 import storebackend.service.PublicStoreService;
 import storebackend.service.seo.RedirectService;
 import storebackend.service.seo.SitemapService;
 
+import java.io.IOException;
+
 /**
  * Public endpoints for redirects, sitemaps, and robots.txt.
  * No authentication required - host-based resolution.
@@ -98,27 +102,31 @@ public class PublicSeoController {
 
     /**
      * GET /public/sitemap-products.xml?page=1
-     * Generate product sitemap page.
+     * Product sitemap page, streamed directly to the response.
+     * Conditional GET via ETag / Last-Modified (max updatedAt of the page) → 304.
      */
     @GetMapping(value = "/sitemap-products.xml", produces = "application/xml")
-    public ResponseEntity<String> productSitemap(
+    public void productSitemap(
             @RequestHeader("Host") String host,
-            @RequestParam(defaultValue = "1") int page) {
+            @RequestParam(defaultValue = "1") int page,
+            ServletWebRequest webRequest,
+            HttpServletResponse response) throws IOException {
 
         var storeConfig = publicStoreService.resolveStoreByHost(host);
         if (storeConfig == null) {
-            return ResponseEntity.notFound().build();
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
         }
 
-        String canonicalBase = "https://" + host;
-        String sitemap = sitemapService.generateProductSitemap(
-            storeConfig.getStoreId(),
-            page,
-            canonicalBase
-        );
+        var sitemapPage = sitemapService.getProductSitemapPage(storeConfig.getStoreId(), page);
 
-        return ResponseEntity.ok()
-                .header("Cache-Control", "public, max-age=600")
-                .body(sitemap);
+        response.setHeader("Cache-Control", "public, max-age=600");
+        if (webRequest.checkNotModified(sitemapPage.etag(), sitemapPage.lastModifiedMillis())) {
+            return;
+        }
+
+        response.setContentType("application/xml;charset=UTF-8");
+        String canonicalBase = "https://" + host;
+        sitemapService.writeProductSitemap(sitemapPage, canonicalBase, response.getOutputStream());
     }
 }
@@ -2,15 +2,20 @@ package storebackend.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import storebackend.config.SaasProperties;
 import storebackend.dto.PublicStoreDTO;
 import storebackend.entity.Domain;
 import storebackend.service.DomainService;
+import storebackend.service.StorefrontBootstrapService;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/public")
@@ -20,25 +25,24 @@ public class PublicStoreController {
 
     private final DomainService domainService;
     private final SaasProperties saasProperties;
+    private final StorefrontBootstrapService bootstrapService;
+
+    /** Browser/CDN dürfen die Bootstrap-Antwort so lange ohne Rückfrage nutzen, danach per ETag revalidieren */
+    @Value("${storefront.bootstrap.max-age-seconds:60}")
+    private long bootstrapMaxAgeSeconds;
 
     @GetMapping("/store/resolve")
     public ResponseEntity<PublicStoreDTO> resolveStore(
             @RequestParam(required = false) String host,
             HttpServletRequest request) {
 
-        // Host aus Parameter oder Header extrahieren
-        String targetHost = host != null ? host : request.getHeader("Host");
+        String targetHost = targetHost(host, request);
 
         if (targetHost == null) {
             log.warn("No host provided for store resolution");
             return ResponseEntity.badRequest().build();
         }
 
-        // Port entfernen falls vorhanden (z.B. localhost:8080)
-        if (targetHost.contains(":")) {
-            targetHost = targetHost.substring(0, targetHost.indexOf(":"));
-        }
-
         log.info("Resolving store for host: {}", targetHost);
 
         // ✅ FIX: Verwende die neue Service-Methode die direkt DTO zurückgibt
@@ -55,6 +59,44 @@ public class PublicStoreController {
         return ResponseEntity.ok(storeDTO.get());
     }
 
+    /**
+     * Storefront-Start in einem Request: Store, Theme, Slider, Sektionen, Banner, featured/top/new Produkte.
+     * Strong ETag je Inhaltsversion – If-None-Match beantwortet Spring mit 304 (ohne DB-Zugriff, solange gecacht).
+     */
+    @GetMapping("/storefront/bootstrap")
+    public ResponseEntity<byte[]> bootstrapStorefront(
+            @RequestParam(required = false) String host,
+            @RequestParam(defaultValue = "10") int limit,
+            HttpServletRequest request) {
+
+        String targetHost = targetHost(host, request);
+
+        if (targetHost == null) {
+            log.warn("No host provided for storefront bootstrap");
+            return ResponseEntity.badRequest().build();
+        }
+
+        Optional<PublicStoreDTO> storeDTO = domainService.resolveStoreByHost(targetHost);
+
+        if (storeDTO.isEmpty()) {
+            log.info("No active verified domain found for host: {}", targetHost);
+            return ResponseEntity.notFound().build();
+        }
+
+        StorefrontBootstrapService.Snapshot snapshot = bootstrapService.getBootstrap(storeDTO.get(), targetHost, limit);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .cacheControl(CacheControl.maxAge(bootstrapMaxAgeSeconds, TimeUnit.SECONDS)
+                        .cachePublic()
+                        .mustRevalidate())
+                .contentType(MediaType.APPLICATION_JSON);
+        if (host == null) {
+            response.varyBy("Host");
+        }
+        return response.body(snapshot.body());
+    }
+
     @GetMapping("/store/by-slug/{slug}")
     public ResponseEntity<PublicStoreDTO> resolveStoreBySlug(@PathVariable String slug) {
 
@@ -102,4 +144,15 @@ public class PublicStoreController {
 
         return ResponseEntity.ok(available);
     }
+
+    /**
+     * Host aus Parameter oder Header, ohne Port (z.B. localhost:8080)
+     */
+    private static String targetHost(String host, HttpServletRequest request) {
+        String targetHost = host != null ? host : request.getHeader("Host");
+        if (targetHost != null && targetHost.contains(":")) {
+            targetHost = targetHost.substring(0, targetHost.indexOf(":"));
+        }
+        return targetHost;
+    }
 }
@@ -19,6 +19,7 @@ import storebackend.enums.MailType;
 import storebackend.repository.PlanRepository;
 import storebackend.repository.StoreRepository;
 import storebackend.repository.UserRepository;
+import storebackend.security.UserPrincipalCache;
 import storebackend.security.JwtUtil;
 import storebackend.service.EmailService;
 import storebackend.service.StarterPackService;
@@ -62,6 +63,7 @@ public class PublicStoreCreationController {
     private final JwtUtil jwtUtil;
     private final PasswordEncoder passwordEncoder;
     private final StarterPackService starterPackService;
+    private final UserPrincipalCache principalCache;
     private final StorePostCreateService storePostCreateService;
     private final SaasProperties saasProperties;
     private final EmailService emailService;
@@ -378,6 +380,7 @@ public class PublicStoreCreationController {
 
             user.setEmail(req.email());
             userRepository.save(user);
+            principalCache.evictUser(user.getId());
             log.info("✅ [SaveEmail] E-Mail für User {} gesetzt: {}", userId, req.email());
 
             // Store-URL und Dashboard-URL ermitteln
@@ -9,6 +9,7 @@ import storebackend.repository.*;
 import storebackend.service.MinioService;
 import storebackend.service.AuthService;
 import storebackend.service.ProductService;
+import storebackend.service.ProductCatalogCache;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -36,6 +37,7 @@ public class SimpleCartController {
     private final ProductService productService;
     private final AuthService authService;
     private final UserRepository userRepository;
+    private final ProductCatalogCache catalogCache;
 
     /**
      * FIXED: Extrahiert User-ID aus JWT Token (falls vorhanden)
@@ -483,6 +485,7 @@ public class SimpleCartController {
         variant.setSku(defaultSku);
         variant.setPrice(product.getBasePrice());
         variant.setStockQuantity(999); // Hoher Lagerbestand für Default-Varianten
+        catalogCache.evictProduct(product.getId());
 
         return productVariantRepository.save(variant);
     }
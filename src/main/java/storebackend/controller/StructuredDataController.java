@@ -68,10 +68,9 @@ public class StructuredDataController {
             @PathVariable Long storeId,
             @RequestBody RenderStructuredDataRequest request) {
 
-        String rendered = structuredDataService.render(
-            request.getTemplateJson(),
-            request.getContext()
-        );
+        String rendered = request.getTemplateId() != null
+            ? structuredDataService.renderTemplate(storeId, request.getTemplateId(), request.getContext())
+            : structuredDataService.render(storeId, request.getTemplateJson(), request.getContext());
         return ResponseEntity.ok(rendered);
     }
 }
@@ -463,10 +463,12 @@ public class SupplierInvoiceDocumentController {
     /**
      * Parse-Endpunkt mit Cache: OCR + strukturiertes Parsing.
      * Verwendet den neuen InvoiceParseService mit Checksummen und Cache.
+     * Cache-Treffer → 200 mit Ergebnis, sonst 202 und asynchroner Parse-Job.
      */
     @Operation(summary = "Parse invoice with cache", 
                description = "Parse invoice using OCR + field extraction with intelligent caching. " +
-                            "Results are cached based on document checksum and parser version.")
+                            "Results are cached based on document checksum and parser version. " +
+                            "Returns 202 while the parse job runs; poll parse-result for the outcome.")
     @PostMapping("/documents/{documentId}/parse")
     @PreAuthorize("@storeAccessChecker.isStoreAdmin(#storeId)")
     public ResponseEntity<Map<String, Object>> parseInvoiceWithCache(
@@ -488,56 +490,20 @@ public class SupplierInvoiceDocumentController {
         try {
             SupplierInvoiceParseResult result = invoiceParseService.parse(storeId, documentId, psmMode, force);
             
-            // Response zusammenstellen
-            Map<String, Object> response = new LinkedHashMap<>();
-            response.put("documentId", documentId);
-            response.put("status", result.getParseStatus().name());
-            response.put("cached", !force && result.getParsedAt() != null);
-            response.put("parsedAt", result.getParsedAt());
-            response.put("parserVersion", result.getParserVersion());
-            
-            // OCR Metadaten
-            Map<String, Object> ocrInfo = new LinkedHashMap<>();
-            ocrInfo.put("engine", result.getOcrEngine() != null ? result.getOcrEngine() : result.getExtractionMethod());
-            ocrInfo.put("languages", result.getOcrLanguages() != null ? 
-                List.of(result.getOcrLanguages().split(",")) : List.of());
-            ocrInfo.put("pageCount", result.getPageCount());
-            ocrInfo.put("durationMs", result.getDurationMs());
-            ocrInfo.put("rawTextLength", result.getRawText() != null ? result.getRawText().length() : 0);
-            response.put("ocr", ocrInfo);
-            
-            // Strukturierte Felder
-            Map<String, Object> fields = new LinkedHashMap<>();
-            fields.put("supplierName", result.getSupplierName());
-            fields.put("invoiceNumber", result.getInvoiceNumber());
-            fields.put("invoiceDate", result.getInvoiceDate());
-            fields.put("deliveryDate", result.getDeliveryDate());
-            fields.put("netAmount", result.getNetAmount());
-            fields.put("taxAmount", result.getTaxAmount());
-            fields.put("grossAmount", result.getGrossAmount());
-            fields.put("currency", result.getCurrency());
-            response.put("fields", fields);
-            
-            // Phase 3A: Field Sources
-            Map<String, Object> fieldSources = new LinkedHashMap<>();
-            if (result.getSupplierNameSource() != null) {
-                fieldSources.put("supplierName", result.getSupplierNameSource());
+            // Parse-Job läuft asynchron → 202, Client fragt /parse-result ab
+            if (result.getParseStatus() != InvoiceParseStatus.OCR_COMPLETED) {
+                Map<String, Object> response = new LinkedHashMap<>();
+                response.put("documentId", documentId);
+                response.put("status", result.getParseStatus().name());
+                response.put("startedAt", result.getStartedAt());
+                response.put("pollUrl", "/api/stores/" + storeId + "/supplier-invoices/documents/"
+                        + documentId + "/parse-result");
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .cacheControl(CacheControl.noStore())
+                        .body(response);
             }
-            response.put("fieldSources", fieldSources);
             
-            // Confidence und Warnings
-            response.put("confidence", result.getConfidenceJson());
-            response.put("warnings", result.getWarningsJson());
-            
-            // Rohtext (für Debugging)
-            response.put("rawText", result.getRawText());
-            
-            // Phase 3B-1B: Line items
-            List<storebackend.entity.SupplierInvoiceLine> lines = invoiceParseService.getLineItems(storeId, documentId);
-            response.put("lines", lineDTOMapper.toDTOList(lines));
-            response.put("lineSummary", lineDTOMapper.calculateSummary(lines));
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(buildParseResponse(storeId, documentId, result));
             
         } catch (Exception e) {
             log.error("Parse failed for documentId={}: {}", documentId, e.getMessage(), e);
@@ -565,56 +531,69 @@ public class SupplierInvoiceDocumentController {
         log.debug("GET parse-result: storeId={}, documentId={}", storeId, documentId);
         
         return invoiceParseService.getParseResult(storeId, documentId)
-                .map(result -> {
-                    Map<String, Object> response = new LinkedHashMap<>();
-                    response.put("documentId", documentId);
-                    response.put("status", result.getParseStatus().name());
-                    response.put("cached", true);
-                    response.put("parsedAt", result.getParsedAt());
-                    response.put("parserVersion", result.getParserVersion());
-                    
-                    // OCR Metadaten
-                    Map<String, Object> ocrInfo = new LinkedHashMap<>();
-                    ocrInfo.put("engine", result.getOcrEngine() != null ? result.getOcrEngine() : result.getExtractionMethod());
-                    ocrInfo.put("languages", result.getOcrLanguages() != null ? 
-                        List.of(result.getOcrLanguages().split(",")) : List.of());
-                    ocrInfo.put("pageCount", result.getPageCount());
-                    ocrInfo.put("durationMs", result.getDurationMs());
-                    ocrInfo.put("rawTextLength", result.getRawText() != null ? result.getRawText().length() : 0);
-                    response.put("ocr", ocrInfo);
-                    
-                    Map<String, Object> fields = new LinkedHashMap<>();
-                    fields.put("supplierName", result.getSupplierName());
-                    fields.put("invoiceNumber", result.getInvoiceNumber());
-                    fields.put("invoiceDate", result.getInvoiceDate());
-                    fields.put("deliveryDate", result.getDeliveryDate());
-                    fields.put("netAmount", result.getNetAmount());
-                    fields.put("taxAmount", result.getTaxAmount());
-                    fields.put("grossAmount", result.getGrossAmount());
-                    fields.put("currency", result.getCurrency());
-                    response.put("fields", fields);
-                    
-                    // Phase 3A: Field Sources
-                    Map<String, Object> fieldSources = new LinkedHashMap<>();
-                    if (result.getSupplierNameSource() != null) {
-                        fieldSources.put("supplierName", result.getSupplierNameSource());
-                    }
-                    response.put("fieldSources", fieldSources);
-                    
-                    response.put("confidence", result.getConfidenceJson());
-                    response.put("warnings", result.getWarningsJson());
-                    response.put("rawText", result.getRawText());
-                    
-                    // Phase 3B-1B: Line items
-                    List<storebackend.entity.SupplierInvoiceLine> lines = invoiceParseService.getLineItems(storeId, documentId);
-                    response.put("lines", lineDTOMapper.toDTOList(lines));
-                    response.put("lineSummary", lineDTOMapper.calculateSummary(lines));
-                    
-                    return ResponseEntity.ok(response);
-                })
+                .map(result -> ResponseEntity.ok()
+                        .cacheControl(CacheControl.noStore())
+                        .body(buildParseResponse(storeId, documentId, result)))
                 .orElse(ResponseEntity.notFound().build());
     }
     
+    /**
+     * Antwort für ein gespeichertes Parse-Ergebnis (auch Zwischenstand eines laufenden Jobs).
+     */
+    private Map<String, Object> buildParseResponse(Long storeId, Long documentId, SupplierInvoiceParseResult result) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("documentId", documentId);
+        response.put("status", result.getParseStatus().name());
+        response.put("cached", result.getParseStatus() == InvoiceParseStatus.OCR_COMPLETED);
+        response.put("parsedAt", result.getParsedAt());
+        response.put("parserVersion", result.getParserVersion());
+        response.put("startedAt", result.getStartedAt());
+        response.put("errorMessage", result.getErrorMessage());
+        
+        // OCR Metadaten
+        Map<String, Object> ocrInfo = new LinkedHashMap<>();
+        ocrInfo.put("engine", result.getOcrEngine() != null ? result.getOcrEngine() : result.getExtractionMethod());
+        ocrInfo.put("languages", result.getOcrLanguages() != null && !result.getOcrLanguages().isEmpty() ? 
+            List.of(result.getOcrLanguages().split(",")) : List.of());
+        ocrInfo.put("pageCount", result.getPageCount());
+        ocrInfo.put("durationMs", result.getDurationMs());
+        ocrInfo.put("rawTextLength", result.getRawText() != null ? result.getRawText().length() : 0);
+        response.put("ocr", ocrInfo);
+        
+        // Strukturierte Felder
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("supplierName", result.getSupplierName());
+        fields.put("invoiceNumber", result.getInvoiceNumber());
+        fields.put("invoiceDate", result.getInvoiceDate());
+        fields.put("deliveryDate", result.getDeliveryDate());
+        fields.put("netAmount", result.getNetAmount());
+        fields.put("taxAmount", result.getTaxAmount());
+        fields.put("grossAmount", result.getGrossAmount());
+        fields.put("currency", result.getCurrency());
+        response.put("fields", fields);
+        
+        // Phase 3A: Field Sources
+        Map<String, Object> fieldSources = new LinkedHashMap<>();
+        if (result.getSupplierNameSource() != null) {
+            fieldSources.put("supplierName", result.getSupplierNameSource());
+        }
+        response.put("fieldSources", fieldSources);
+        
+        // Confidence und Warnings
+        response.put("confidence", result.getConfidenceJson());
+        response.put("warnings", result.getWarningsJson());
+        
+        // Rohtext (für Debugging)
+        response.put("rawText", result.getRawText());
+        
+        // Phase 3B-1B: Line items
+        List<storebackend.entity.SupplierInvoiceLine> lines = invoiceParseService.getLineItems(storeId, documentId);
+        response.put("lines", lineDTOMapper.toDTOList(lines));
+        response.put("lineSummary", lineDTOMapper.calculateSummary(lines));
+        
+        return response;
+    }
+    
     /**
      * Confirm supplier name correction (Phase 3A Learning System).
      * Stores user-confirmed corrections for future invoices.
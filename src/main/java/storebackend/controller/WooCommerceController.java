@@ -28,6 +28,9 @@ import java.util.stream.Collectors;
  * - PUT /config - Save WooCommerce config
  * - POST /test - Test WooCommerce connection
  * - POST /preview - Preview products before import
+ * - POST /import - Start import (asynchron, 202 + jobId)
+ * - GET /import/jobs/{jobId} - Import progress (throughput, ETA)
+ * - GET /import/jobs/{jobId}/result - Import result after completion
  * 
  * Security:
  * - All endpoints require store owner authentication
@@ -278,16 +281,11 @@ public class WooCommerceController {
             request.getCustomerPageSize());
         
         try {
-            WooCommerceImportResponse response = importService.startImport(storeId, request, user);
+            WooCommerceImportResponse response = importService.submitImport(storeId, request, user);
             
-            log.info("✅ WooCommerce import completed for store {}: {} imported, {} skipped, {} failed", 
-                storeId, 
-                response.getImportedCount(),
-                response.getSkippedCount(),
-                response.getFailedCount()
-            );
+            log.info("✅ WooCommerce import job {} queued for store {}", response.getJobId(), storeId);
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
             
         } catch (Exception e) {
             log.error("❌ WooCommerce import failed for store {}: {}", storeId, e.getMessage());
@@ -305,6 +303,40 @@ public class WooCommerceController {
         }
     }
 
+    // ─────────────────────────────────────────────────────────────────────────
+    // GET Import Status
+    // ─────────────────────────────────────────────────────────────────────────
+
+    @GetMapping("/import/jobs/{jobId}")
+    public ResponseEntity<WooCommerceImportStatusResponse> getImportStatus(
+            @PathVariable Long storeId,
+            @PathVariable Long jobId,
+            @AuthenticationPrincipal User user) {
+        
+        verifyOwnership(storeId, user);
+        
+        try {
+            return ResponseEntity.ok(importService.getImportStatus(storeId, jobId));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    @GetMapping("/import/jobs/{jobId}/result")
+    public ResponseEntity<WooCommerceImportResponse> getImportResult(
+            @PathVariable Long storeId,
+            @PathVariable Long jobId,
+            @AuthenticationPrincipal User user) {
+        
+        verifyOwnership(storeId, user);
+        
+        try {
+            return ResponseEntity.ok(importService.getImportResult(storeId, jobId));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
     // ─────────────────────────────────────────────────────────────────────────
     // Helper Methods
     // ─────────────────────────────────────────────────────────────────────────
@@ -0,0 +1,25 @@
+package storebackend.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Daten einer Abandoned-Cart-Erinnerung (eine E-Mail).
+ * Wird von CartCleanupService gesammelt und als Batch an EmailService übergeben.
+ *
+ * @param items Zeilen für das Template (name, variantTitle, quantity, price, total, currency)
+ * @param cartUrl null → Default-URL aus EmailService (baseUrl + "/cart")
+ */
+public record AbandonedCartReminder(
+    String toEmail,
+    String name,
+    String storeName,
+    String storeLogo,
+    int itemCount,
+    Double totalAmount,
+    String currency,
+    List<Map<String, Object>> items,
+    String cartUrl,
+    String lang
+) {
+}
@@ -34,6 +34,8 @@ public class ProductDTO {
     // Bilder-Informationen (nutzt standalone ProductMediaDTO)
     private List<ProductMediaDTO> media;
     private String primaryImageUrl;
+    /** srcset zum Primary-Bild (responsive JPEG-Ableitungen), null = keine vorhanden */
+    private String primaryImageSrcset;
     /** Direkte Bild-URL (Fallback, z.B. Starter-Pack-Default-Asset). */
     private String imageUrl;
 
@@ -8,6 +8,8 @@ public class ProductMediaDTO {
     private Long productId;
     private Long mediaId;
     private String url;
+    private String srcset;      // Responsive JPEG-Ableitungen ("url 160w, url 480w, …"), null = noch keine
+    private String webpSrcset;  // Wie srcset als WebP (nur wenn erzeugt)
     private String filename;
     private String contentType;
     private Long sizeBytes;
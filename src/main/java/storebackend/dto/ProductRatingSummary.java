@@ -0,0 +1,19 @@
+package storebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Sterne-Bewertung eines Produkts für Listen (Kategorie, Suche, Startseite)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductRatingSummary {
+    private Long productId;
+    private Double averageRating; // e.g. 4.3
+    private Integer reviewCount;
+}
@@ -13,6 +13,8 @@ public class StoreSliderImageDTO {
     private Long storeId;
     private Long mediaId;
     private String imageUrl;
+    private String srcset;      // Responsive JPEG-Ableitungen, null = noch keine
+    private String webpSrcset;
     private SliderImageType imageType;
     private Integer displayOrder;
     private Boolean isActive;
@@ -0,0 +1,28 @@
+package storebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Alles, was die Storefront beim Start braucht, in einer Antwort
+ * (GET /api/public/storefront/bootstrap).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StorefrontBootstrapDTO {
+    private Long version;                       // Inhaltsversion des Stores (storefront_versions)
+    private PublicStoreDTO store;
+    private StoreThemeDTO theme;                // null = kein aktives Theme
+    private List<StoreSliderImageDTO> sliderImages;
+    private List<HomepageSectionDTO> sections;
+    private StoreBannerSettingsDTO banner;      // null = nicht konfiguriert → Client-Default
+    private List<ProductDTO> featuredProducts;
+    private List<ProductDTO> topProducts;
+    private List<ProductDTO> newProducts;
+}
@@ -0,0 +1,15 @@
+package storebackend.dto.seo;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sitemap-Zeile eines Produkts (Projektion, keine Entity).
+ *
+ * @param id Produkt-ID (Storefront-URL: /products/{id})
+ * @param updatedAt letzte Änderung → &lt;lastmod&gt;
+ */
+public record ProductSitemapEntry(
+    Long id,
+    LocalDateTime updatedAt
+) {
+}
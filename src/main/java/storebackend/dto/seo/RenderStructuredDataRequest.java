@@ -12,7 +12,8 @@ import java.util.Map;
 @AllArgsConstructor
 @Builder
 public class RenderStructuredDataRequest {
-    private String templateJson;
+    private Long templateId;      // gespeichertes Template (gecacht kompiliert)
+    private String templateJson;  // ad-hoc Vorschau, wenn templateId null ist
     private Map<String, Object> context;
 }
 
@@ -0,0 +1,15 @@
+package storebackend.dto.seo;
+
+import java.time.LocalDateTime;
+
+/**
+ * Kennzahlen einer Sitemap-Seite für Conditional GET (ETag / Last-Modified).
+ *
+ * @param urlCount Anzahl URLs der Seite
+ * @param lastModified größtes updatedAt der Seite (null bei leerer Seite)
+ */
+public record SitemapPageStats(
+    Long urlCount,
+    LocalDateTime lastModified
+) {
+}
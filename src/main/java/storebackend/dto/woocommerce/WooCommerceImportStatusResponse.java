@@ -15,7 +15,7 @@ import java.time.LocalDateTime;
 public class WooCommerceImportStatusResponse {
     
     private Long jobId;
-    private String status;            // RUNNING | SUCCESS | FAILED | CANCELLED
+    private String status;            // IN_PROGRESS | COMPLETED | FAILED
     
     // Progress
     private Integer progress;         // 0-100
@@ -29,6 +29,8 @@ public class WooCommerceImportStatusResponse {
     
     // Current Activity
     private String currentProductName;
+    private Double throughputPerSecond; // Produkte pro Sekunde
+    private Long etaSeconds;            // Geschätzte Restlaufzeit
     
     // Timestamps
     private LocalDateTime startedAt;
@@ -41,13 +43,13 @@ public class WooCommerceImportStatusResponse {
      * Ist der Job noch aktiv?
      */
     public Boolean isRunning() {
-        return "RUNNING".equals(status);
+        return "IN_PROGRESS".equals(status);
     }
     
     /**
      * Ist der Job erfolgreich abgeschlossen?
      */
     public Boolean isSuccess() {
-        return "SUCCESS".equals(status);
+        return "COMPLETED".equals(status);
     }
 }
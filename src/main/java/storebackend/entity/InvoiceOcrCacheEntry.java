@@ -0,0 +1,64 @@
+package storebackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Inhaltsadressierter OCR-Cache: Rohtext pro Seite für eine Datei (SHA-256 der Bytes),
+ * unabhängig von Dokument und Store. Dieselbe Lieferantenrechnung muss nur einmal erkannt werden.
+ */
+@Entity
+@Table(name = "invoice_ocr_cache",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"content_hash", "parser_version", "psm_mode"}),
+       indexes = @Index(name = "idx_invoice_ocr_cache_last_used", columnList = "last_used_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceOcrCacheEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(name = "parser_version", nullable = false, length = 20)
+    private String parserVersion;
+
+    @Column(name = "psm_mode", nullable = false)
+    private Integer psmMode;
+
+    /** JSON-Array mit dem Text pro Seite (Index 0 = Seite 1) */
+    @Column(name = "page_texts_json", nullable = false, columnDefinition = "TEXT")
+    private String pageTextsJson;
+
+    /** Gespeicherte Textgröße in Bytes (UTF-8) – Grundlage für die Eviction */
+    @Column(name = "text_bytes", nullable = false)
+    private Long textBytes;
+
+    @Column(name = "page_count", nullable = false)
+    private Integer pageCount;
+
+    @Column(name = "ocr_engine", length = 50)
+    private String ocrEngine;
+
+    @Column(name = "ocr_languages", length = 200)
+    private String ocrLanguages;
+
+    @Column(name = "ocr_duration_ms")
+    private Long ocrDurationMs;
+
+    @Column(name = "hit_count", nullable = false)
+    private Long hitCount = 0L;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "last_used_at", nullable = false)
+    private LocalDateTime lastUsedAt;
+}
@@ -44,6 +44,29 @@ public class Media {
     @Column(name = "alt_text")
     private String altText;
 
+    /** Pixelmaße des Originals – gesetzt, sobald die Ableitungen erzeugt wurden */
+    @Column(name = "image_width")
+    private Integer imageWidth;
+
+    @Column(name = "image_height")
+    private Integer imageHeight;
+
+    /** Breiten der responsiven Ableitungen, z.B. "160,480,960" (leer = keine) */
+    @Column(name = "derivative_widths", length = 64)
+    private String derivativeWidths;
+
+    /** Formate der Ableitungen, z.B. "jpg" oder "jpg,webp" */
+    @Column(name = "derivative_formats", length = 32)
+    private String derivativeFormats;
+
+    /** NULL = Ableitungen noch offen (Upload-Job oder nächtlicher Backfill) */
+    @Column(name = "derivatives_processed_at")
+    private LocalDateTime derivativesProcessedAt;
+
+    /** Fehlgeschlagene Versuche; nach media.derivatives.max-attempts gilt das Bild als erledigt */
+    @Column(name = "derivative_attempts", nullable = false)
+    private Integer derivativeAttempts = 0;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
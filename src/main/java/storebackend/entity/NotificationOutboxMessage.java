@@ -0,0 +1,90 @@
+package storebackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import storebackend.enums.NotificationChannel;
+
+import java.time.LocalDateTime;
+
+/**
+ * Transactional Outbox: eine zu versendende Benachrichtigung (E-Mail, WhatsApp, Telegram).
+ *
+ * Wird in derselben Transaktion wie die Bestell-/Abo-Änderung geschrieben und danach vom
+ * NotificationOutboxDispatcher zugestellt – geht bei Rollback nicht raus und bei Neustart nicht verloren.
+ */
+@Entity
+@Table(name = "notification_outbox",
+       indexes = {
+           @Index(name = "idx_notification_outbox_poll", columnList = "status, channel, next_attempt_at"),
+           @Index(name = "idx_notification_outbox_aggregate", columnList = "aggregate_type, aggregate_id")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationOutboxMessage {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_PROCESSING = "PROCESSING";
+    public static final String STATUS_SENT = "SENT";
+    public static final String STATUS_FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private NotificationChannel channel;
+
+    /** ORDER | SUBSCRIPTION – bestimmt den Handler */
+    @Column(name = "aggregate_type", nullable = false, length = 30)
+    private String aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    /** z.B. ORDER_CONFIRMATION_EMAIL */
+    @Column(name = "message_type", nullable = false, length = 60)
+    private String messageType;
+
+    /** JSON: Empfänger, Sprache und Event-Daten zum Zeitpunkt der Änderung */
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+    /** PENDING | PROCESSING | SENT | FAILED */
+    @Column(nullable = false, length = 20)
+    private String status = STATUS_PENDING;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "locked_at")
+    private LocalDateTime lockedAt;
+
+    @Column(name = "locked_by", length = 100)
+    private String lockedBy;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+}
@@ -15,6 +15,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 @Entity
 @Table(name = "orders")
@@ -298,7 +299,8 @@ public class Order {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         if (orderNumber == null) {
-            orderNumber = "ORD-" + System.currentTimeMillis();
+            // Fallback ohne OrderNumberAllocator – Zeitstempel kollidiert bei parallelen Bestellungen
+            orderNumber = "ORD-" + UUID.randomUUID().toString().substring(0, 13).toUpperCase();
         }
         
         // ─── VALIDIERUNG statt automatischer Synchronisierung ─────────────────────────
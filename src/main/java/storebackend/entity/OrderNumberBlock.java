@@ -0,0 +1,34 @@
+package storebackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Hi/Lo-Zähler für Bestellnummern je Store und Jahr.
+ *
+ * nextValue = erste noch nicht vergebene Nummer. OrderNumberAllocator reserviert
+ * daraus ganze Blöcke und vergibt sie ohne weiteren DB-Zugriff.
+ */
+@Entity
+@Table(name = "order_number_blocks",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"store_id", "order_year"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderNumberBlock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "store_id", nullable = false)
+    private Long storeId;
+
+    @Column(name = "order_year", nullable = false)
+    private Integer orderYear;
+
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+}
@@ -12,7 +12,14 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+    // Storefront-Widgets (Top/Trending/New) mit LIMIT – siehe ProductRepository
+    @Index(name = "idx_products_store_sales_count", columnList = "store_id, sales_count"),
+    @Index(name = "idx_products_store_view_count", columnList = "store_id, view_count"),
+    @Index(name = "idx_products_store_created_at", columnList = "store_id, created_at"),
+    // Sitemap-Seiten (Keyset über id) – siehe SitemapService
+    @Index(name = "idx_products_store_sitemap", columnList = "store_id, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,54 @@
+package storebackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Voraggregierte Bewertungs-Statistik eines Produkts (nur freigegebene Reviews).
+ * Wird von ProductReviewStatsService inkrementell gepflegt und nächtlich gegen product_reviews abgeglichen.
+ */
+@Entity
+@Table(name = "product_review_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductReviewAggregate {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "review_count", nullable = false)
+    private Integer reviewCount = 0;
+
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum = 0L;
+
+    @Column(name = "rating_1_count", nullable = false)
+    private Integer rating1Count = 0;
+
+    @Column(name = "rating_2_count", nullable = false)
+    private Integer rating2Count = 0;
+
+    @Column(name = "rating_3_count", nullable = false)
+    private Integer rating3Count = 0;
+
+    @Column(name = "rating_4_count", nullable = false)
+    private Integer rating4Count = 0;
+
+    @Column(name = "rating_5_count", nullable = false)
+    private Integer rating5Count = 0;
+
+    @Column(name = "helpful_count", nullable = false)
+    private Long helpfulCount = 0L;
+
+    @Column(name = "not_helpful_count", nullable = false)
+    private Long notHelpfulCount = 0L;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,45 @@
+package storebackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Tages-Rollup: Anzahl Orders je Status bzw. Zahlungsart eines Stores.
+ *
+ * dimension = STATUS → dimensionValue = OrderStatus-Name
+ * dimension = PAYMENT_METHOD → dimensionValue = PaymentMethod-Name
+ */
+@Entity
+@Table(name = "sales_daily_breakdowns",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"store_id", "sales_date", "dimension", "dimension_value"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesDailyBreakdown {
+
+    public static final String STATUS = "STATUS";
+    public static final String PAYMENT_METHOD = "PAYMENT_METHOD";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "store_id", nullable = false)
+    private Long storeId;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(nullable = false, length = 20)
+    private String dimension;
+
+    @Column(name = "dimension_value", nullable = false, length = 30)
+    private String dimensionValue;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount = 0L;
+}
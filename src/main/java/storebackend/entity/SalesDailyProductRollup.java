@@ -0,0 +1,44 @@
+package storebackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Tages-Rollup: verkaufte Menge und Umsatz je Produkt (nur bezahlte Orders).
+ * orderCount ist über Tage summierbar, da jede Order genau einem Tag (created_at) zugeordnet ist.
+ */
+@Entity
+@Table(name = "sales_daily_product_rollups",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"store_id", "sales_date", "product_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesDailyProductRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "store_id", nullable = false)
+    private Long storeId;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Long quantity = 0L;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount = 0L;
+}
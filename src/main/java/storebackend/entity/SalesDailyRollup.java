@@ -0,0 +1,45 @@
+package storebackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Tages-Rollup der Umsatzkennzahlen eines Stores (Analytics-Dashboard).
+ *
+ * Wird von SalesRollupService aus orders neu berechnet – nie direkt schreiben.
+ * - revenue: SUM(total_gross) bezahlter Orders ohne CANCELLED/PAYMENT_FAILED
+ * - paidOrderCount: Anzahl Orders mit paymentStatus=PAID
+ */
+@Entity
+@Table(name = "sales_daily_rollups",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"store_id", "sales_date"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "store_id", nullable = false)
+    private Long storeId;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "paid_order_count", nullable = false)
+    private Long paidOrderCount = 0L;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,37 @@
+package storebackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Welche Tage eines Stores vollständig in den Sales-Rollups stehen.
+ * Tage außerhalb [coveredFrom, coveredThrough] beantwortet StoreAnalyticsService live aus orders.
+ */
+@Entity
+@Table(name = "sales_rollup_coverage")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesRollupCoverage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "store_id", nullable = false, unique = true)
+    private Long storeId;
+
+    @Column(name = "covered_from", nullable = false)
+    private LocalDate coveredFrom;
+
+    @Column(name = "covered_through", nullable = false)
+    private LocalDate coveredThrough;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
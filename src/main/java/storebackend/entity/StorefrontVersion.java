@@ -0,0 +1,30 @@
+package storebackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Inhaltsversion der Storefront eines Stores. Jede Admin-Änderung an Store, Theme, Slider,
+ * Homepage-Sektionen, Banner oder Produkten erhöht den Zähler (StorefrontVersionService).
+ */
+@Entity
+@Table(name = "storefront_versions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StorefrontVersion {
+
+    @Id
+    @Column(name = "store_id")
+    private Long storeId;
+
+    @Column(name = "version", nullable = false)
+    private Long version = 0L;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
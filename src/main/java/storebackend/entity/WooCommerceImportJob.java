@@ -71,6 +71,18 @@ public class WooCommerceImportJob {
     @Column(name = "imported_categories", nullable = false)
     private Integer importedCategories = 0;
 
+    /**
+     * Durchsatz seit Beginn des Produkt-Imports (Produkte pro Sekunde)
+     */
+    @Column(name = "throughput_per_second")
+    private Double throughputPerSecond;
+
+    /**
+     * Geschätzte Restlaufzeit in Sekunden (null solange unbekannt)
+     */
+    @Column(name = "eta_seconds")
+    private Long etaSeconds;
+
     /**
      * Aktuell verarbeitetes Produkt (für Progress-Anzeige)
      */
@@ -107,7 +119,7 @@ public class WooCommerceImportJob {
         if (totalProducts == 0) {
             return 0;
         }
-        int processed = importedProducts + skippedProducts + failedProducts;
+        int processed = importedProducts + updatedProducts + skippedProducts + failedProducts;
         return (int) ((processed * 100.0) / totalProducts);
     }
 
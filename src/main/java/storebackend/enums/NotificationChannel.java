@@ -0,0 +1,10 @@
+package storebackend.enums;
+
+/**
+ * Versandkanal einer Benachrichtigung aus der Outbox – je Kanal eigenes Parallelitätslimit.
+ */
+public enum NotificationChannel {
+    EMAIL,
+    WHATSAPP,
+    TELEGRAM
+}
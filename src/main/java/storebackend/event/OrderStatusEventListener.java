@@ -3,38 +3,35 @@ package storebackend.event;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
-import storebackend.dto.EmailDeliveryResult;
 import storebackend.entity.Order;
-import storebackend.entity.OrderItem;
 import storebackend.entity.Store;
 import storebackend.entity.TelegramStoreConfig;
+import storebackend.enums.NotificationChannel;
 import storebackend.enums.OrderStatus;
 import storebackend.repository.TelegramStoreConfigRepository;
-import storebackend.repository.OrderRepository;
-import storebackend.service.EmailService;
 import storebackend.service.TelegramBotService;
-import storebackend.service.WhatsAppService;
+import storebackend.service.outbox.NotificationOutboxService;
+import storebackend.service.outbox.OrderNotificationHandler;
 
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Listener für Order-Status-Änderungen.
- * Sendet automatisch mehrsprachige HTML-E-Mails an Kunden wenn sich der Status ändert.
+ * Reiht mehrsprachige E-Mails sowie WhatsApp-/Telegram-Nachrichten in die Outbox ein –
+ * synchron in der Order-Transaktion, d.h. nur bei Commit und ohne Verlust bei Neustart.
+ * Versendet wird durch den NotificationOutboxDispatcher (siehe OrderNotificationHandler).
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class OrderStatusEventListener {
 
-    private final EmailService emailService;
-    private final WhatsAppService whatsAppService;
+    private final NotificationOutboxService outboxService;
     private final TelegramBotService telegramBotService;
     private final TelegramStoreConfigRepository telegramConfigRepository;
-    private final OrderRepository orderRepository;  // Für Idempotenz-Flag
 
-    @Async
     @EventListener
     public void handleOrderStatusChange(OrderStatusChangedEvent event) {
         Order order = event.getOrder();
@@ -45,12 +42,10 @@ public class OrderStatusEventListener {
 
         String customerEmail = order.getCustomerEmail();
         String orderNumber   = order.getOrderNumber();
-        String storeName     = order.getStore() != null ? order.getStore().getName() : "Markt.ma";
-        String storeLogo     = order.getStore() != null ? order.getStore().getLogoUrl() : null;
 
         // Sprache des Kunden ermitteln – Fallback "en"
         String lang = "en";
-        if (order.getCustomer() != null) {
+        if (order.getCustomer() != null && order.getCustomer().getPreferredLanguage() != null) {
             lang = order.getCustomer().getPreferredLanguage();
         }
 
@@ -64,7 +59,9 @@ public class OrderStatusEventListener {
         String ownerLang  = "en";
         if (order.getStore() != null && order.getStore().getOwner() != null) {
             ownerEmail = order.getStore().getOwner().getEmail();
-            ownerLang  = order.getStore().getOwner().getPreferredLanguage();
+            if (order.getStore().getOwner().getPreferredLanguage() != null) {
+                ownerLang = order.getStore().getOwner().getPreferredLanguage();
+            }
         }
 
         // WhatsApp: Kundennummer aus Lieferadresse + Store-Flag prüfen
@@ -74,16 +71,10 @@ public class OrderStatusEventListener {
         if (waEnabled && order.getShippingAddress() != null) {
             customerPhone = order.getShippingAddress().getPhone();
         }
+        boolean waCustomer = customerPhone != null && !customerPhone.isBlank();
         // Owner-WhatsApp: die im Store hinterlegte Nummer des Inhabers
         String ownerWhatsapp = (store != null) ? store.getWhatsappNumber() : null;
 
-        // Telegram-Konfiguration des Stores laden (für Bot-Notifications)
-        TelegramStoreConfig telegramCfg = (store != null)
-            ? telegramConfigRepository.findByStoreId(store.getId()).orElse(null)
-            : null;
-
-        List<OrderItem> items = order.getOrderItems() != null ? order.getOrderItems() : List.of();
-
         switch (newStatus) {
             // ═══════════════════════════════════════════════════════════════════════════
             // PENDING: Alte Logik - wird NICHT mehr verwendet
@@ -117,131 +108,55 @@ public class OrderStatusEventListener {
                     break;
                 }
                 
-                log.info("Order confirmed with valid payment - sending notifications: orderId={}, paymentStatus={}", 
+                log.info("Order confirmed with valid payment - queueing notifications: orderId={}, paymentStatus={}", 
                     order.getId(), paymentStatus);
                 
-                // 1) E-Mail-Bestätigung an den Kunden – ZENTRAL mit strukturiertem Result
-                EmailDeliveryResult confirmationResult = emailService.sendOrderConfirmationWithResult(
-                    customerEmail, orderNumber, storeName,
-                    order.getTotalAmount().doubleValue(),
-                    items, storeLogo, lang,
-                    order.getShippingAddress(),  // B2B: Lieferadresse mit company
-                    order.getCustomerReference()  // B2B: Kundenreferenz
-                );
-                
-                if (!confirmationResult.isSent()) {
-                    log.warn(
-                        "Order confirmation email failed: orderId={}, orderNumber={}, errorCode={}, message={}",
-                        order.getId(), orderNumber, confirmationResult.errorCode(), confirmationResult.userMessage()
-                    );
-                }
+                // 1) E-Mail-Bestätigung an den Kunden (setzt nach Versand das Idempotenz-Flag)
+                enqueue(order, NotificationChannel.EMAIL, OrderNotificationHandler.CONFIRMATION_EMAIL, customerEmail, lang);
                 
                 // 2) WhatsApp-Bestätigung an den Kunden (wenn aktiviert + Nummer vorhanden)
-                if (waEnabled && customerPhone != null && !customerPhone.isBlank()) {
-                    boolean waCustomerSuccess = whatsAppService.sendOrderConfirmation(
-                        customerPhone, orderNumber, storeName,
-                        order.getTotalAmount().doubleValue(), lang);
-                    if (waCustomerSuccess) {
-                        log.info("[WA] Order confirmation sent to customer {}", customerPhone);
-                    } else {
-                        log.warn("[WA] Order confirmation FAILED for customer {}", customerPhone);
-                    }
+                if (waCustomer) {
+                    enqueue(order, NotificationChannel.WHATSAPP, OrderNotificationHandler.CONFIRMATION_WHATSAPP, customerPhone, lang);
                 }
                 
                 // 3) Neue-Bestellung-Benachrichtigung an den Store-Owner (E-Mail)
-                String customerName   = order.getCustomer() != null ? order.getCustomer().getName()  : null;
-                String paymentMethod  = order.getPaymentMethod() != null ? order.getPaymentMethod().name() : null;
-                boolean ownerEmailSuccess = emailService.sendNewOrderNotificationToOwner(
-                    ownerEmail, ownerLang,
-                    orderNumber, storeName, storeLogo,
-                    order.getTotalAmount().doubleValue(),
-                    customerEmail, customerName, paymentMethod, items
-                );
-                if (ownerEmailSuccess) {
-                    log.info("[Email] New order notification sent to owner {}", ownerEmail);
-                } else {
-                    log.warn("[Email] New order notification FAILED for owner {}", ownerEmail);
+                if (ownerEmail != null) {
+                    enqueue(order, NotificationChannel.EMAIL, OrderNotificationHandler.OWNER_NEW_ORDER_EMAIL, ownerEmail, ownerLang);
                 }
                 
                 // 4) Neue-Bestellung-Benachrichtigung an Owner via WhatsApp
                 if (ownerWhatsapp != null && !ownerWhatsapp.isBlank()) {
-                    boolean waOwnerSuccess = whatsAppService.sendNewOrderToOwner(
-                        ownerWhatsapp, orderNumber, storeName,
-                        order.getTotalAmount().doubleValue(), customerEmail, ownerLang);
-                    if (waOwnerSuccess) {
-                        log.info("[WA] New order notification sent to owner {}", ownerWhatsapp);
-                    } else {
-                        log.warn("[WA] New order notification FAILED for owner {}", ownerWhatsapp);
-                    }
+                    enqueue(order, NotificationChannel.WHATSAPP, OrderNotificationHandler.OWNER_NEW_ORDER_WHATSAPP, ownerWhatsapp, ownerLang);
                 }
                 
                 // 5) Neue-Bestellung-Benachrichtigung an Owner via Telegram Bot
+                TelegramStoreConfig telegramCfg = (store != null)
+                    ? telegramConfigRepository.findByStoreId(store.getId()).orElse(null)
+                    : null;
                 if (telegramCfg != null && telegramBotService.isConfigured(telegramCfg)) {
-                    boolean tgSuccess = telegramBotService.sendNewOrderNotification(telegramCfg, order);
-                    if (tgSuccess) {
-                        log.info("[Telegram] New order notification sent via Bot for store {}", store.getId());
-                    } else {
-                        log.warn("[Telegram] New order notification FAILED for store {}", store.getId());
-                    }
-                }
-                
-                // ═══ IDEMPOTENZ-FLAG SETZEN ═══
-                // NUR bei erfolgreichem E-Mail-Versand an Kunden!
-                if (confirmationResult.isSent()) {
-                    order.setConfirmationEmailSent(true);
-                    orderRepository.save(order);
-                    log.info("✅ Confirmation email sent and flagged for order {}", orderNumber);
-                } else {
-                    log.warn("⚠️ Confirmation email FAILED - order NOT flagged, retry remains possible: order={}, errorCode={}", 
-                        orderNumber, confirmationResult.errorCode());
+                    enqueue(order, NotificationChannel.TELEGRAM, OrderNotificationHandler.OWNER_NEW_ORDER_TELEGRAM, null, ownerLang);
                 }
                 
                 break;
 
             case SHIPPED:
-                String trackingUrl = order.getTrackingUrl();
-                String carrier     = order.getTrackingCarrier();
-                
-                // Versandbenachrichtigung – ZENTRAL mit strukturiertem Result
-                EmailDeliveryResult shippingResult = emailService.sendShippingNotificationWithResult(
-                    customerEmail, orderNumber, storeName,
-                    order.getTrackingNumber(), trackingUrl, carrier, storeLogo, lang
-                );
-                
-                if (!shippingResult.isSent()) {
-                    log.warn(
-                        "Shipping notification email failed: orderId={}, orderNumber={}, errorCode={}, message={}",
-                        order.getId(), orderNumber, shippingResult.errorCode(), shippingResult.userMessage()
-                    );
-                }
-                
-                if (waEnabled && customerPhone != null && !customerPhone.isBlank()) {
-                    whatsAppService.sendShippingNotification(
-                        customerPhone, orderNumber, storeName, order.getTrackingNumber(), lang);
-                    log.info("[WA] Shipping notification sent to customer {}", customerPhone);
+                enqueue(order, NotificationChannel.EMAIL, OrderNotificationHandler.SHIPPING_EMAIL, customerEmail, lang);
+                if (waCustomer) {
+                    enqueue(order, NotificationChannel.WHATSAPP, OrderNotificationHandler.SHIPPING_WHATSAPP, customerPhone, lang);
                 }
                 break;
 
             case DELIVERED:
-                emailService.sendDeliveryConfirmation(
-                    customerEmail, orderNumber, storeName, storeLogo, lang
-                );
-                if (waEnabled && customerPhone != null && !customerPhone.isBlank()) {
-                    whatsAppService.sendDeliveryConfirmation(
-                        customerPhone, orderNumber, storeName, lang);
-                    log.info("[WA] Delivery confirmation sent to customer {}", customerPhone);
+                enqueue(order, NotificationChannel.EMAIL, OrderNotificationHandler.DELIVERY_EMAIL, customerEmail, lang);
+                if (waCustomer) {
+                    enqueue(order, NotificationChannel.WHATSAPP, OrderNotificationHandler.DELIVERY_WHATSAPP, customerPhone, lang);
                 }
                 break;
 
             case CANCELLED:
-                emailService.sendOrderCancellation(
-                    customerEmail, orderNumber, storeName,
-                    order.getNotes(), storeLogo, lang
-                );
-                if (waEnabled && customerPhone != null && !customerPhone.isBlank()) {
-                    whatsAppService.sendOrderCancellation(
-                        customerPhone, orderNumber, storeName, lang);
-                    log.info("[WA] Cancellation notification sent to customer {}", customerPhone);
+                enqueue(order, NotificationChannel.EMAIL, OrderNotificationHandler.CANCELLATION_EMAIL, customerEmail, lang);
+                if (waCustomer) {
+                    enqueue(order, NotificationChannel.WHATSAPP, OrderNotificationHandler.CANCELLATION_WHATSAPP, customerPhone, lang);
                 }
                 break;
 
@@ -254,4 +169,11 @@ public class OrderStatusEventListener {
                 break;
         }
     }
+
+    private void enqueue(Order order, NotificationChannel channel, String messageType, String recipient, String lang) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("recipient", recipient);
+        payload.put("lang", lang);
+        outboxService.enqueue(channel, OrderNotificationHandler.AGGREGATE_TYPE, order.getId(), messageType, payload);
+    }
 }
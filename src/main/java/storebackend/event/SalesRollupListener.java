@@ -0,0 +1,27 @@
+package storebackend.event;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import storebackend.entity.Order;
+import storebackend.service.SalesRollupService;
+
+/**
+ * Markiert bei Order-Status-Änderungen den Bestelltag für die Sales-Rollups als dirty.
+ * Erst nach dem Commit – sonst würde der Neuaufbau noch den alten Stand lesen.
+ */
+@Component
+@RequiredArgsConstructor
+public class SalesRollupListener {
+
+    private final SalesRollupService salesRollupService;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        Order order = event.getOrder();
+        if (order.getStore() != null) {
+            salesRollupService.markDirty(order.getStore().getId(), order.getCreatedAt());
+        }
+    }
+}
@@ -3,89 +3,56 @@ package storebackend.event;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import storebackend.entity.Subscription;
-import storebackend.entity.User;
-import storebackend.repository.UserRepository;
-import storebackend.service.EmailService;
+import storebackend.enums.NotificationChannel;
+import storebackend.service.outbox.NotificationOutboxService;
+import storebackend.service.outbox.SubscriptionNotificationHandler;
 
-import java.util.Optional;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
- * Reagiert auf Subscription-Events und sendet die passenden i18n-HTML-E-Mails.
- * Async damit der Listener Transaktionen / Scheduler nicht blockiert.
+ * Reagiert auf Subscription-Events und reiht die passenden i18n-HTML-E-Mails in die Outbox ein.
+ * Synchron in der Transaktion des Aufrufers – versendet wird erst nach dem Commit
+ * durch den NotificationOutboxDispatcher (siehe SubscriptionNotificationHandler).
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class SubscriptionEventListener {
 
-    private final EmailService emailService;
-    private final UserRepository userRepository;
+    private final NotificationOutboxService outboxService;
 
-    @Async
     @EventListener
     public void onRenewed(SubscriptionEvent.Renewed event) {
-        Subscription s = event.getSubscription();
-        loadUser(s).ifPresent(u -> emailService.sendSubscriptionRenewed(
-            u.getEmail(),
-            u.getName(),
-            s.getPlan().name(),
-            s.getAmount() != null ? s.getAmount().doubleValue() : 0.0,
-            "EUR",
-            s.getRenewalDate(),
-            lang(u)
-        ));
+        enqueue(event.getSubscription(), SubscriptionNotificationHandler.RENEWED_EMAIL, Map.of());
     }
 
-    @Async
     @EventListener
     public void onExpired(SubscriptionEvent.Expired event) {
-        Subscription s = event.getSubscription();
-        loadUser(s).ifPresent(u -> emailService.sendSubscriptionExpired(
-            u.getEmail(), u.getName(), s.getPlan().name(), lang(u)
-        ));
+        enqueue(event.getSubscription(), SubscriptionNotificationHandler.EXPIRED_EMAIL, Map.of());
     }
 
-    @Async
     @EventListener
     public void onCancelled(SubscriptionEvent.Cancelled event) {
-        Subscription s = event.getSubscription();
-        loadUser(s).ifPresent(u -> emailService.sendSubscriptionCancelled(
-            u.getEmail(), u.getName(), s.getPlan().name(), s.getEndDate(), lang(u)
-        ));
+        enqueue(event.getSubscription(), SubscriptionNotificationHandler.CANCELLED_EMAIL, Map.of());
     }
 
-    @Async
     @EventListener
     public void onUpgraded(SubscriptionEvent.Upgraded event) {
-        Subscription s = event.getSubscription();
-        loadUser(s).ifPresent(u -> emailService.sendSubscriptionUpgraded(
-            u.getEmail(), u.getName(),
-            event.getPreviousPlan() != null ? event.getPreviousPlan().name() : "FREE",
-            s.getPlan().name(),
-            lang(u)
+        enqueue(event.getSubscription(), SubscriptionNotificationHandler.UPGRADED_EMAIL, Map.of(
+            "previousPlan", event.getPreviousPlan() != null ? event.getPreviousPlan().name() : "FREE"
         ));
     }
 
-    @Async
     @EventListener
     public void onReminderDue(SubscriptionEvent.ReminderDue event) {
-        Subscription s = event.getSubscription();
-        loadUser(s).ifPresent(u -> emailService.sendSubscriptionRenewalReminder(
-            u.getEmail(),
-            u.getName(),
-            s.getPlan().name(),
-            event.getDaysLeft(),
-            s.getAmount() != null ? s.getAmount().doubleValue() : 0.0,
-            "EUR",
-            s.getRenewalDate(),
-            lang(u)
+        enqueue(event.getSubscription(), SubscriptionNotificationHandler.REMINDER_EMAIL, Map.of(
+            "daysLeft", event.getDaysLeft()
         ));
     }
 
-    @Async
     @EventListener
     public void onTrialStarted(SubscriptionEvent.TrialStarted event) {
         Subscription s = event.getSubscription();
@@ -94,13 +61,11 @@ public class SubscriptionEventListener {
         // (Optional: separate Trial-Welcome-Mail – aktuell nicht eingebaut)
     }
 
-    private Optional<User> loadUser(Subscription s) {
-        if (s == null || s.getUserId() == null) return Optional.empty();
-        return userRepository.findById(s.getUserId());
-    }
-
-    private String lang(User u) {
-        return u.getPreferredLanguage() != null ? u.getPreferredLanguage() : "en";
+    private void enqueue(Subscription s, String messageType, Map<String, Object> extra) {
+        if (s == null || s.getId() == null || s.getUserId() == null) return;
+        Map<String, Object> payload = new HashMap<>(extra);
+        payload.put("plan", s.getPlan().name());
+        outboxService.enqueue(NotificationChannel.EMAIL, SubscriptionNotificationHandler.AGGREGATE_TYPE,
+            s.getId(), messageType, payload);
     }
 }
-
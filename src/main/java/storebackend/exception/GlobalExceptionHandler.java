@@ -128,6 +128,23 @@ public class GlobalExceptionHandler {
             .body(errorResponse);
     }
 
+    /**
+     * Behandelt InsufficientStockException → HTTP 409 Conflict.
+     */
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<Map<String, Object>> handleInsufficientStockException(InsufficientStockException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now().toString());
+        errorResponse.put("status", HttpStatus.CONFLICT.value());
+        errorResponse.put("error", "Insufficient Stock");
+        errorResponse.put("message", ex.getMessage());
+        errorResponse.put("variantId", ex.getVariantId());
+
+        return ResponseEntity
+            .status(HttpStatus.CONFLICT)
+            .body(errorResponse);
+    }
+
     /**
      * Allgemeiner Exception Handler als Fallback → HTTP 500.
      */
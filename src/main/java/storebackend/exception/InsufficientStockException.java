@@ -0,0 +1,20 @@
+package storebackend.exception;
+
+/**
+ * Exception die geworfen wird, wenn eine Bestandsreservierung mangels Bestand scheitert.
+ * Die umgebende Transaktion wird zurückgerollt – bereits reservierte Positionen derselben
+ * Order werden damit ebenfalls freigegeben.
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    private final Long variantId;
+
+    public InsufficientStockException(Long variantId, String message) {
+        super(message);
+        this.variantId = variantId;
+    }
+
+    public Long getVariantId() {
+        return variantId;
+    }
+}
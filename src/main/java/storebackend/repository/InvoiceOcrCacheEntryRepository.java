@@ -0,0 +1,25 @@
+package storebackend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import storebackend.entity.InvoiceOcrCacheEntry;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface InvoiceOcrCacheEntryRepository extends JpaRepository<InvoiceOcrCacheEntry, Long> {
+
+    Optional<InvoiceOcrCacheEntry> findByContentHashAndParserVersionAndPsmMode(
+        String contentHash, String parserVersion, Integer psmMode);
+
+    @Modifying
+    @Query("UPDATE InvoiceOcrCacheEntry e SET e.hitCount = e.hitCount + 1, e.lastUsedAt = :now WHERE e.id = :id")
+    int markUsed(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Query("SELECT COALESCE(SUM(e.textBytes), 0) FROM InvoiceOcrCacheEntry e")
+    long sumTextBytes();
+}
@@ -0,0 +1,20 @@
+package storebackend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import storebackend.entity.NotificationOutboxMessage;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutboxMessage, Long> {
+
+    /**
+     * Doppelte Events (z.B. Webhook + Capture) nicht doppelt einreihen
+     */
+    boolean existsByAggregateTypeAndAggregateIdAndMessageTypeAndStatusIn(
+        String aggregateType, Long aggregateId, String messageType, Collection<String> statuses);
+
+    List<NotificationOutboxMessage> findByAggregateTypeAndAggregateIdOrderByIdAsc(String aggregateType, Long aggregateId);
+}
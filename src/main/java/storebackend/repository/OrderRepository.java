@@ -3,9 +3,11 @@ package storebackend.repository;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import storebackend.entity.Order;
 import storebackend.enums.OrderStatus;
 import storebackend.enums.PaymentMethod;
@@ -41,6 +43,14 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT o FROM Order o WHERE o.id = :id")
     Optional<Order> findByIdForUpdate(@Param("id") Long id);
     
+    /**
+     * Idempotenz-Flag nach erfolgreichem Versand der Bestätigungs-E-Mail (Outbox-Worker)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Order o SET o.confirmationEmailSent = true WHERE o.id = :id")
+    int markConfirmationEmailSent(@Param("id") Long id);
+    
     // ============================================
     // ANALYTICS QUERIES
     // ============================================
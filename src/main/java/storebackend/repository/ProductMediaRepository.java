@@ -6,6 +6,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import storebackend.entity.ProductMedia;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,5 +19,9 @@ public interface ProductMediaRepository extends JpaRepository<ProductMedia, Long
     @Query("SELECT pm FROM ProductMedia pm JOIN FETCH pm.media WHERE pm.product.id = :productId AND pm.isPrimary = true")
     Optional<ProductMedia> findByProductIdAndIsPrimaryTrue(@Param("productId") Long productId);
 
+    // Batch-Variante für ProductDTOAssembler (ein Statement für viele Produkte)
+    @Query("SELECT pm FROM ProductMedia pm JOIN FETCH pm.media WHERE pm.product.id IN :productIds ORDER BY pm.sortOrder ASC, pm.id ASC")
+    List<ProductMedia> findByProductIdInOrderBySortOrderAsc(@Param("productIds") Collection<Long> productIds);
+
     void deleteByProductId(Long productId);
 }
@@ -1,16 +1,24 @@
 package storebackend.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import storebackend.dto.seo.ProductSitemapEntry;
+import storebackend.dto.seo.SitemapPageStats;
 import storebackend.entity.Product;
 import storebackend.entity.Store;
 import storebackend.enums.ProductStatus;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
@@ -30,7 +38,36 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     // For SEO sitemap generation
     long countByStoreId(Long storeId);
-    List<Product> findByStoreId(Long storeId);
+    long countByStoreIdAndStatus(Long storeId, ProductStatus status);
+
+    /**
+     * Sitemap-Seitengrenzen: ID an Position offset (PageRequest.of(offset, 1)).
+     * Über idx_products_store_sitemap (store_id, id) ohne Entity-Hydrierung.
+     */
+    @Query("SELECT p.id FROM Product p WHERE p.store.id = :storeId AND p.status = :status ORDER BY p.id ASC")
+    List<Long> findIdsByStoreIdAndStatus(@Param("storeId") Long storeId,
+                                         @Param("status") ProductStatus status,
+                                         Pageable pageable);
+
+    @Query("SELECT new storebackend.dto.seo.SitemapPageStats(COUNT(p), MAX(p.updatedAt)) FROM Product p " +
+           "WHERE p.store.id = :storeId AND p.status = :status AND p.id >= :fromId AND p.id < :toId")
+    SitemapPageStats findSitemapPageStats(@Param("storeId") Long storeId,
+                                          @Param("status") ProductStatus status,
+                                          @Param("fromId") Long fromId,
+                                          @Param("toId") Long toId);
+
+    /**
+     * Streamt (id, updatedAt) einer Sitemap-Seite (Keyset fromId ≤ id &lt; toId).
+     * Nur innerhalb einer Transaktion verwenden und den Stream schließen.
+     */
+    @Query("SELECT new storebackend.dto.seo.ProductSitemapEntry(p.id, p.updatedAt) FROM Product p " +
+           "WHERE p.store.id = :storeId AND p.status = :status AND p.id >= :fromId AND p.id < :toId " +
+           "ORDER BY p.id ASC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<ProductSitemapEntry> streamSitemapEntries(@Param("storeId") Long storeId,
+                                                     @Param("status") ProductStatus status,
+                                                     @Param("fromId") Long fromId,
+                                                     @Param("toId") Long toId);
 
     // Featured Products - WITH JOIN FETCH
     @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.store = :store AND p.isFeatured = true ORDER BY p.featuredOrder ASC")
@@ -43,8 +80,12 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.store = :store ORDER BY p.salesCount DESC")
     List<Product> findTop10ByStoreOrderBySalesCountDesc(@Param("store") Store store);
 
+    /**
+     * Bestseller mit echtem LIMIT (Pageable) – nutzt idx_products_store_sales_count.
+     * Nur die angeforderte Anzahl Zeilen wird geladen, unabhängig von der Kataloggröße.
+     */
     @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.store.id = :storeId ORDER BY p.salesCount DESC")
-    List<Product> findTop10ByStoreIdOrderBySalesCountDesc(@Param("storeId") Long storeId);
+    List<Product> findByStoreIdOrderBySalesCountDesc(@Param("storeId") Long storeId, Pageable pageable);
 
     // Trending Products (meistgesehen) - WITH JOIN FETCH
     @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.store = :store ORDER BY p.viewCount DESC")
@@ -53,16 +94,26 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     // WooCommerce Import: Duplikat-Check
     Optional<Product> findByStoreIdAndExternalSourceAndExternalId(Long storeId, String externalSource, String externalId);
     Optional<Product> findByStoreIdAndSku(Long storeId, String sku);
+    
+    // WooCommerce Import: Duplikat-Check pro Chunk (ein IN-Query statt einer Abfrage pro Produkt)
+    List<Product> findByStoreIdAndExternalSourceAndExternalIdIn(Long storeId, String externalSource, Collection<String> externalIds);
+    List<Product> findByStoreIdAndSkuIn(Long storeId, Collection<String> skus);
 
+    /**
+     * Meistgesehene Produkte mit echtem LIMIT (Pageable) – nutzt idx_products_store_view_count.
+     */
     @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.store.id = :storeId ORDER BY p.viewCount DESC")
-    List<Product> findTop10ByStoreIdOrderByViewCountDesc(@Param("storeId") Long storeId);
+    List<Product> findByStoreIdOrderByViewCountDesc(@Param("storeId") Long storeId, Pageable pageable);
 
     // New Arrivals - WITH JOIN FETCH
     @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.store = :store ORDER BY p.createdAt DESC")
     List<Product> findTop10ByStoreOrderByCreatedAtDesc(@Param("store") Store store);
 
+    /**
+     * Neueste Produkte mit echtem LIMIT (Pageable) – nutzt idx_products_store_created_at.
+     */
     @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.store.id = :storeId ORDER BY p.createdAt DESC")
-    List<Product> findTop10ByStoreIdOrderByCreatedAtDesc(@Param("storeId") Long storeId);
+    List<Product> findByStoreIdOrderByCreatedAtDesc(@Param("storeId") Long storeId, Pageable pageable);
 
     /** Anzahl aller Produkte über alle Stores eines Owners. */
     @Query("SELECT COUNT(p) FROM Product p WHERE p.store.owner.id = :ownerId")
@@ -0,0 +1,9 @@
+package storebackend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import storebackend.entity.ProductReviewAggregate;
+
+@Repository
+public interface ProductReviewAggregateRepository extends JpaRepository<ProductReviewAggregate, Long> {
+}
@@ -55,16 +55,6 @@ public interface ProductReviewRepository extends JpaRepository<ProductReview, Lo
 
     Optional<ProductReview> findByProductIdAndCustomerId(Long productId, Long customerId);
 
-    // Statistics queries
-    @Query("SELECT AVG(r.rating) FROM ProductReview r WHERE r.product.id = :productId AND r.isApproved = true")
-    java.math.BigDecimal getAverageRating(@Param("productId") Long productId);
-
-    @Query("SELECT COUNT(r) FROM ProductReview r WHERE r.product.id = :productId AND r.isApproved = true")
-    Long countApprovedReviews(@Param("productId") Long productId);
-
-    @Query("SELECT COUNT(r) FROM ProductReview r WHERE r.product.id = :productId AND r.isApproved = true AND r.rating = :rating")
-    Integer countByRating(@Param("productId") Long productId, @Param("rating") Integer rating);
-
     // Get reviews for store owner (all reviews for their products) with eager loading
     @Query("SELECT r FROM ProductReview r " +
            "JOIN FETCH r.customer " +
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import storebackend.entity.ProductTierPrice;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +22,11 @@ public interface ProductTierPriceRepository extends JpaRepository<ProductTierPri
      */
     List<ProductTierPrice> findByProductIdAndActiveTrueOrderByMinimumQuantityAsc(Long productId);
     
+    /**
+     * Findet alle aktiven Preisstufen für mehrere Produkte (Batch für ProductDTOAssembler).
+     */
+    List<ProductTierPrice> findByProductIdInAndActiveTrueOrderByMinimumQuantityAsc(Collection<Long> productIds);
+    
     /**
      * Findet eine spezifische Preisstufe für ein Produkt und eine Mindestmenge.
      */
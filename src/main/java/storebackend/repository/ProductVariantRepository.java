@@ -1,6 +1,8 @@
 package storebackend.repository;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -8,6 +10,7 @@ import org.springframework.transaction.annotation.Transactional;
 import storebackend.entity.Product;
 import storebackend.entity.ProductVariant;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,9 +25,17 @@ public interface ProductVariantRepository extends JpaRepository<ProductVariant,
     @Query("SELECT pv FROM ProductVariant pv JOIN FETCH pv.product WHERE pv.id = :id")
     Optional<ProductVariant> findByIdWithProduct(@Param("id") Long id);
 
+    // Variante mit Schreibsperre laden (manuelle Bestandskorrektur, read-check-write)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT pv FROM ProductVariant pv WHERE pv.id = :id")
+    Optional<ProductVariant> findByIdForUpdate(@Param("id") Long id);
+
     // Find all variants by product ID
     List<ProductVariant> findByProductId(Long productId);
 
+    // Batch-Variante für ProductDTOAssembler (ein Statement für viele Produkte)
+    List<ProductVariant> findByProductIdInOrderByIdAsc(Collection<Long> productIds);
+
     // Find variant by SKU
     Optional<ProductVariant> findBySku(String sku);
 
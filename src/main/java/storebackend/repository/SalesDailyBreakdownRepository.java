@@ -0,0 +1,27 @@
+package storebackend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import storebackend.entity.SalesDailyBreakdown;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SalesDailyBreakdownRepository extends JpaRepository<SalesDailyBreakdown, Long> {
+
+    /**
+     * Summierte Order-Anzahl je Wert einer Dimension (STATUS / PAYMENT_METHOD)
+     * Ergebnis: [dimensionValue (String), count (Long)]
+     */
+    @Query("SELECT b.dimensionValue, SUM(b.orderCount) FROM SalesDailyBreakdown b " +
+           "WHERE b.storeId = :storeId AND b.dimension = :dimension " +
+           "AND b.salesDate >= :from AND b.salesDate <= :to " +
+           "GROUP BY b.dimensionValue")
+    List<Object[]> sumByDimension(@Param("storeId") Long storeId,
+                                  @Param("dimension") String dimension,
+                                  @Param("from") LocalDate from,
+                                  @Param("to") LocalDate to);
+}
@@ -0,0 +1,55 @@
+package storebackend.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import storebackend.dto.analytics.TopProductDTO;
+import storebackend.entity.SalesDailyProductRollup;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SalesDailyProductRollupRepository extends JpaRepository<SalesDailyProductRollup, Long> {
+
+    /**
+     * Top-Produkte nach Umsatz aus den Tages-Rollups (gelöschte Produkte fallen wie live heraus)
+     */
+    @Query("""
+        SELECT new storebackend.dto.analytics.TopProductDTO(
+            p.id, p.title, SUM(r.quantity), SUM(r.revenue), SUM(r.orderCount))
+        FROM SalesDailyProductRollup r, Product p
+        WHERE p.id = r.productId
+        AND r.storeId = :storeId
+        AND r.salesDate >= :from
+        AND r.salesDate <= :to
+        GROUP BY p.id, p.title
+        ORDER BY SUM(r.revenue) DESC
+    """)
+    List<TopProductDTO> findTopProducts(@Param("storeId") Long storeId,
+                                        @Param("from") LocalDate from,
+                                        @Param("to") LocalDate to,
+                                        Pageable pageable);
+
+    /**
+     * Rollup-Summen für bestimmte Produkte (Zusammenführen mit dem Live-Anteil)
+     */
+    @Query("""
+        SELECT new storebackend.dto.analytics.TopProductDTO(
+            p.id, p.title, SUM(r.quantity), SUM(r.revenue), SUM(r.orderCount))
+        FROM SalesDailyProductRollup r, Product p
+        WHERE p.id = r.productId
+        AND r.storeId = :storeId
+        AND r.productId IN :productIds
+        AND r.salesDate >= :from
+        AND r.salesDate <= :to
+        GROUP BY p.id, p.title
+    """)
+    List<TopProductDTO> sumForProducts(@Param("storeId") Long storeId,
+                                       @Param("productIds") Collection<Long> productIds,
+                                       @Param("from") LocalDate from,
+                                       @Param("to") LocalDate to);
+}
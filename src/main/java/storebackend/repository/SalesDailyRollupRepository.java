@@ -0,0 +1,26 @@
+package storebackend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import storebackend.entity.SalesDailyRollup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Repository
+public interface SalesDailyRollupRepository extends JpaRepository<SalesDailyRollup, Long> {
+
+    @Query("SELECT COALESCE(SUM(r.revenue), 0) FROM SalesDailyRollup r " +
+           "WHERE r.storeId = :storeId AND r.salesDate >= :from AND r.salesDate <= :to")
+    BigDecimal sumRevenue(@Param("storeId") Long storeId,
+                          @Param("from") LocalDate from,
+                          @Param("to") LocalDate to);
+
+    @Query("SELECT COALESCE(SUM(r.paidOrderCount), 0) FROM SalesDailyRollup r " +
+           "WHERE r.storeId = :storeId AND r.salesDate >= :from AND r.salesDate <= :to")
+    Long sumPaidOrders(@Param("storeId") Long storeId,
+                       @Param("from") LocalDate from,
+                       @Param("to") LocalDate to);
+}
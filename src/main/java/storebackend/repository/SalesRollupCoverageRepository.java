@@ -0,0 +1,13 @@
+package storebackend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import storebackend.entity.SalesRollupCoverage;
+
+import java.util.Optional;
+
+@Repository
+public interface SalesRollupCoverageRepository extends JpaRepository<SalesRollupCoverage, Long> {
+
+    Optional<SalesRollupCoverage> findByStoreId(Long storeId);
+}
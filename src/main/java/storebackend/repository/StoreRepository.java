@@ -16,6 +16,10 @@ public interface StoreRepository extends JpaRepository<Store, Long> {
 
     List<Store> findByOwnerId(Long ownerId);
 
+    // Nur IDs – für die Owner-Prüfung im UserPrincipalCache
+    @Query("SELECT s.id FROM Store s WHERE s.owner.id = :ownerId")
+    List<Long> findIdsByOwnerId(@Param("ownerId") Long ownerId);
+
     Optional<Store> findBySlug(String slug);
     boolean existsBySlug(String slug);
     long countByOwner(User owner);
@@ -6,6 +6,7 @@ import storebackend.entity.Store;
 import storebackend.entity.WooCommerceImportJob;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface WooCommerceImportJobRepository extends JpaRepository<WooCommerceImportJob, Long> {
@@ -24,4 +25,9 @@ public interface WooCommerceImportJobRepository extends JpaRepository<WooCommerc
      * Findet laufende Jobs für einen Store
      */
     List<WooCommerceImportJob> findByStoreIdAndStatus(Long storeId, String status);
+    
+    /**
+     * Findet Job mandantensicher (für Status-Abfrage)
+     */
+    Optional<WooCommerceImportJob> findByIdAndStoreId(Long id, Long storeId);
 }
@@ -10,6 +10,8 @@ import storebackend.entity.TelegramStoreConfig;
 import storebackend.repository.ProductRepository;
 import storebackend.repository.StoreRepository;
 import storebackend.repository.TelegramStoreConfigRepository;
+import storebackend.service.ProductCatalogCache;
+import storebackend.service.StorefrontVersionService;
 import storebackend.service.TelegramBotService;
 import storebackend.service.WhatsAppService;
 
@@ -42,6 +44,8 @@ public class ExpiryNotificationScheduler {
     private final storebackend.service.EmailService emailService;
     private final TelegramBotService telegramBotService;
     private final TelegramStoreConfigRepository telegramStoreConfigRepository;
+    private final ProductCatalogCache catalogCache;
+    private final StorefrontVersionService storefrontVersions;
 
     /**
      * Täglich 09:00 — MHD-Warnung für ablaufende Produkte.
@@ -219,7 +223,7 @@ public class ExpiryNotificationScheduler {
         if (emailSuccess || whatsappRealSuccess || telegramRealSuccess) {
             log.info("✅ [MHD] Store {}: Mindestens 1 Kanal erfolgreich (E-Mail: {}, WhatsApp: {}, Telegram: {}) - Produkte werden markiert",
                 store.getId(), emailSuccess, whatsappRealSuccess, telegramRealSuccess);
-            markProductsAsNotified(expiringProducts);
+            markProductsAsNotified(store, expiringProducts);
             return true;
         } else {
             log.warn("⚠️ [MHD] Store {}: ALLE Kanäle fehlgeschlagen oder DEV Mode - Produkte bleiben unmarkiert (Retry möglich)",
@@ -366,11 +370,13 @@ public class ExpiryNotificationScheduler {
      * lastExpiryNotificationDate = aktuelles expiryDate
      * → nächster Scheduler-Lauf überspringt diese Produkte
      */
-    private void markProductsAsNotified(List<Product> products) {
+    private void markProductsAsNotified(Store store, List<Product> products) {
         for (Product product : products) {
             product.setLastExpiryNotificationDate(product.getExpiryDate());
         }
         productRepository.saveAll(products);
+        products.forEach(product -> catalogCache.evictProduct(product.getId()));
+        storefrontVersions.bump(store.getId());
         log.debug("✓ [MHD] {} Produkte als benachrichtigt markiert", products.size());
     }
 }
@@ -1,6 +1,7 @@
 package storebackend.security;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,18 +10,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import storebackend.entity.User;
-import storebackend.repository.UserRepository;
 
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -28,12 +25,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
     private final JwtUtil jwtUtil;
-    private final UserRepository userRepository;
+    private final UserPrincipalCache principalCache;
     private final ObjectMapper objectMapper;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserRepository userRepository, ObjectMapper objectMapper) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserPrincipalCache principalCache, ObjectMapper objectMapper) {
         this.jwtUtil = jwtUtil;
-        this.userRepository = userRepository;
+        this.principalCache = principalCache;
         this.objectMapper = objectMapper;
     }
 
@@ -71,65 +68,48 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             logger.debug("Bearer token present, length: {}", token.length());
 
             try {
-                String email = jwtUtil.extractEmail(token);
+                // Ein Parse-Durchgang: Signatur + Ablauf werden hier geprüft (wirft bei ungültigem Token)
+                Claims claims = jwtUtil.parseClaims(token);
+                String email = claims.getSubject();
                 logger.debug("Extracted email from token: {}", email);
 
                 if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    User user = userRepository.findByEmail(email).orElse(null);
+                    UserPrincipalCache.CachedPrincipal principal = principalCache.resolve(claims).orElse(null);
 
-                    if (user == null) {
+                    if (principal == null) {
                         logger.error("❌ User not found in database: {}", email);
                         logger.error("❌ This will result in 401 Unauthorized");
                     } else {
                         // Nur userId + email loggen – KEIN passwordHash, KEIN toString()
-                        logger.debug("✅ Found user: id={}, email={}", user.getId(), user.getEmail());
-
-                        try {
-                            boolean isValid = jwtUtil.validateToken(token, email);
-                            logger.debug("Token validation: {}", isValid ? "VALID" : "INVALID");
-
-                            if (isValid) {
-                                // SECURITY: Prüfe ob Email-Adresse bestätigt ist
-                                if (!Boolean.TRUE.equals(user.getEmailVerified())) {
-                                    logger.warn("❌ Email not verified for user: {}", email);
-                                    logger.warn("❌ Access denied - returning 401 with EMAIL_NOT_VERIFIED");
-                                    
-                                    // Sende 401 Unauthorized mit JSON-Response
-                                    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                                    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-                                    
-                                    Map<String, String> error = new HashMap<>();
-                                    error.put("code", "EMAIL_NOT_VERIFIED");
-                                    error.put("message", "Please verify your email address before continuing");
-                                    
-                                    response.getWriter().write(objectMapper.writeValueAsString(error));
-                                    return;  // Request wird HIER beendet, nicht weitergeleitet
-                                }
-                                
-                                var authorities = user.getRoles().stream()
-                                        .map(role -> {
-                                            String roleName = role.name();
-                                            return roleName.startsWith("ROLE_") ? roleName : "ROLE_" + roleName;
-                                        })
-                                        .map(SimpleGrantedAuthority::new)
-                                        .collect(Collectors.toList());
-
-                                logger.debug("Setting authorities for {}: {}", email, authorities);
-
-                                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                                        user, null, authorities);
-                                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                                SecurityContextHolder.getContext().setAuthentication(authToken);
-
-                                logger.debug("✅ Authenticated: email={}, roles={}", email, authorities);
-                            } else {
-                                logger.error("❌ Token validation failed for user: {}", email);
-                                logger.error("❌ This will result in 401 Unauthorized");
-                            }
-                        } catch (Exception validationEx) {
-                            logger.error("❌ Exception during token validation: {}", validationEx.getMessage());
-                            logger.error("❌ This will result in 401 Unauthorized");
+                        logger.debug("✅ Found user: id={}, email={}", principal.user().getId(), email);
+
+                        // SECURITY: Prüfe ob Email-Adresse bestätigt ist
+                        if (!principal.emailVerified()) {
+                            logger.warn("❌ Email not verified for user: {}", email);
+                            logger.warn("❌ Access denied - returning 401 with EMAIL_NOT_VERIFIED");
+
+                            // Sende 401 Unauthorized mit JSON-Response
+                            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+                            Map<String, String> error = new HashMap<>();
+                            error.put("code", "EMAIL_NOT_VERIFIED");
+                            error.put("message", "Please verify your email address before continuing");
+
+                            response.getWriter().write(objectMapper.writeValueAsString(error));
+                            return;  // Request wird HIER beendet, nicht weitergeleitet
                         }
+
+                        var authorities = principal.authorities();
+                        logger.debug("Setting authorities for {}: {}", email, authorities);
+
+                        // Eigene Kopie pro Request – der gecachte Snapshot bleibt unverändert
+                        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                                UserPrincipalCache.copyOf(principal.user()), null, authorities);
+                        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                        SecurityContextHolder.getContext().setAuthentication(authToken);
+
+                        logger.debug("✅ Authenticated: email={}, roles={}", email, authorities);
                     }
                 } else if (email == null) {
                     logger.error("❌ Could not extract email from token");
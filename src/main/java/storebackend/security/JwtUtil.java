@@ -1,8 +1,10 @@
 package storebackend.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import storebackend.enums.Role;
@@ -24,8 +26,18 @@ public class JwtUtil {
     @Value("${jwt.expiration:86400000}")
     private Long expiration;
 
+    // Schlüssel und Parser sind unveränderlich/thread-safe – einmal bauen statt pro Aufruf
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+    }
+
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        return signingKey;
     }
 
     public String generateToken(String email, Long userId) {
@@ -71,12 +83,18 @@ public class JwtUtil {
         return extractAllClaims(token).getExpiration().before(new Date());
     }
 
+    /**
+     * Parst und verifiziert den Token in einem Durchgang (Signatur + Ablauf).
+     * Für den Request-Pfad statt extractEmail/validateToken/extractUserId einzeln.
+     *
+     * @throws io.jsonwebtoken.JwtException bei ungültiger Signatur, abgelaufenem oder kaputtem Token
+     */
+    public Claims parseClaims(String token) {
+        return extractAllClaims(token);
+    }
+
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public int getSecretLength() {
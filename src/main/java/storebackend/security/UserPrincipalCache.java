@@ -0,0 +1,173 @@
+package storebackend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import storebackend.entity.User;
+import storebackend.repository.StoreRepository;
+import storebackend.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Kurzlebiger Principal-Cache für JwtAuthenticationFilter und StoreAccessChecker.
+ *
+ * Admin-Dashboards feuern pro Seite Dutzende parallele XHRs mit demselben Token –
+ * statt pro Request den User per E-Mail zu laden und Rollen neu aufzubauen:
+ * - principals: (userId, Token-iat) → User-Snapshot + Authorities + emailVerified
+ * - ownedStores: userId → IDs der Stores, deren Owner der User ist
+ *
+ * Jeder Request bekommt eine eigene Kopie des Snapshots (Services verändern den
+ * Principal teilweise und speichern ihn). Neue User-Felder müssen in {@link #copyOf} ergänzt werden.
+ *
+ * Invalidierung bei Rollen-, Passwort-, Verifizierungs-, E-Mail- und Plan-Änderungen
+ * sowie Store-Anlage/-Löschung über {@link #evictUser}, bei aktiver Transaktion nach dem Commit.
+ */
+@Component
+@Slf4j
+public class UserPrincipalCache {
+
+    record PrincipalKey(Long userId, long issuedAt) {}
+
+    /** Unveränderlicher Snapshot eines authentifizierten Users. */
+    public record CachedPrincipal(User user, List<GrantedAuthority> authorities, boolean emailVerified) {}
+
+    private final UserRepository userRepository;
+    private final StoreRepository storeRepository;
+
+    private final Cache<PrincipalKey, CachedPrincipal> principals;
+    private final Cache<Long, Set<Long>> ownedStores;
+
+    public UserPrincipalCache(
+            UserRepository userRepository,
+            StoreRepository storeRepository,
+            MeterRegistry meterRegistry,
+            @Value("${security.principal-cache.max-size:10000}") long maxSize,
+            @Value("${security.principal-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.storeRepository = storeRepository;
+
+        this.principals = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+
+        this.ownedStores = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "security.principals");
+        CaffeineCacheMetrics.monitor(meterRegistry, ownedStores, "security.owned_stores");
+    }
+
+    /**
+     * Liefert den Principal zu bereits verifizierten Claims.
+     * Tokens ohne userId-Claim werden ungecacht per E-Mail aufgelöst.
+     * Leer, wenn der User nicht (mehr) existiert oder die E-Mail nicht mehr zum Token passt.
+     */
+    public Optional<CachedPrincipal> resolve(Claims claims) {
+        String email = claims.getSubject();
+        Long userId = claims.get("userId", Long.class);
+        if (email == null) {
+            return Optional.empty();
+        }
+        if (userId == null) {
+            return userRepository.findByEmail(email).map(UserPrincipalCache::toPrincipal);
+        }
+
+        long issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0L;
+        CachedPrincipal principal = principals.get(new PrincipalKey(userId, issuedAt),
+            key -> userRepository.findById(key.userId()).map(UserPrincipalCache::toPrincipal).orElse(null));
+
+        if (principal == null || !email.equals(principal.user().getEmail())) {
+            return Optional.empty();
+        }
+        return Optional.of(principal);
+    }
+
+    /**
+     * IDs der Stores, deren Owner der User ist.
+     */
+    public Set<Long> ownedStoreIds(Long userId) {
+        if (userId == null) {
+            return Set.of();
+        }
+        return ownedStores.get(userId, id -> Set.copyOf(storeRepository.findIdsByOwnerId(id)));
+    }
+
+    /**
+     * Verwirft alle Principals (alle Tokens) und die Store-Zuordnung eines Users.
+     */
+    public void evictUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        afterCommit(() -> {
+            principals.asMap().keySet().removeIf(key -> key.userId().equals(userId));
+            ownedStores.invalidate(userId);
+            log.debug("Principal cache: evicted user {}", userId);
+        });
+    }
+
+    /**
+     * Eigene Kopie pro Request – Änderungen am Principal dürfen den Cache nicht verändern.
+     */
+    public static User copyOf(User source) {
+        User copy = new User();
+        copy.setId(source.getId());
+        copy.setEmail(source.getEmail());
+        copy.setName(source.getName());
+        copy.setPasswordHash(source.getPasswordHash());
+        copy.setRoles(new HashSet<>(source.getRoles()));
+        copy.setPlan(source.getPlan());
+        copy.setCreatedAt(source.getCreatedAt());
+        copy.setUpdatedAt(source.getUpdatedAt());
+        copy.setEmailVerified(source.getEmailVerified());
+        copy.setActivationEmailSentAt(source.getActivationEmailSentAt());
+        copy.setPreferredLanguage(source.getPreferredLanguage());
+        copy.setPhoneNumber(source.getPhoneNumber());
+        copy.setAiCallsThisMonth(source.getAiCallsThisMonth());
+        copy.setAiCallsPeriodStart(source.getAiCallsPeriodStart());
+        return copy;
+    }
+
+    private static CachedPrincipal toPrincipal(User user) {
+        List<GrantedAuthority> authorities = user.getRoles().stream()
+            .map(role -> {
+                String roleName = role.name();
+                return roleName.startsWith("ROLE_") ? roleName : "ROLE_" + roleName;
+            })
+            .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+            .toList();
+        return new CachedPrincipal(copyOf(user), authorities, Boolean.TRUE.equals(user.getEmailVerified()));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
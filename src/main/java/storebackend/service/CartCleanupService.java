@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import storebackend.dto.AbandonedCartReminder;
 import storebackend.entity.Cart;
 import storebackend.entity.CartItem;
 import storebackend.entity.Store;
@@ -28,7 +29,7 @@ import java.util.Map;
  * Wiederverwendete Bausteine:
  *  - {@link CartRepository} (vorhandene Methoden + neue {@code findAbandonedCarts})
  *  - {@link CartItemRepository#findByCartId} / {@link CartItemRepository#deleteByCartId}
- *  - {@link EmailService#sendAbandonedCartReminder}
+ *  - {@link EmailService#sendAbandonedCartReminders} (Batch, ein Template-Render-Durchlauf)
  */
 @Service
 @RequiredArgsConstructor
@@ -70,7 +71,9 @@ public class CartCleanupService {
      * Kandidaten: eingeloggter User, mind. 1 Item, seit {@code idleHours} h inaktiv,
      * noch nicht abgelaufen, noch keine Erinnerung gesendet.
      *
-     * Markiert {@code reminderSentAt} damit jeder Cart nur EINMAL erinnert wird.
+     * Markiert {@code reminderSentAt} (nur bei erfolgreichem Versand) damit jeder Cart nur EINMAL erinnert wird.
+     * Ist der Mailversand deaktiviert, werden die Kandidaten als übersprungen markiert – sonst würden
+     * sie bei jedem Lauf erneut geladen.
      */
     @Transactional
     public int sendAbandonedCartReminders(int idleHours) {
@@ -81,35 +84,61 @@ public class CartCleanupService {
             log.debug("[CartCleanup] Keine Abandoned-Carts (cutoff={}).", cutoff);
             return 0;
         }
-        int sent = 0;
+        List<Cart> remindedCarts = new ArrayList<>();
+        List<AbandonedCartReminder> reminders = new ArrayList<>();
         for (Cart cart : abandoned) {
             try {
-                if (sendReminderFor(cart)) {
-                    cart.setReminderSentAt(now);
-                    cartRepository.save(cart);
-                    sent++;
+                AbandonedCartReminder reminder = buildReminderFor(cart);
+                if (reminder != null) {
+                    remindedCarts.add(cart);
+                    reminders.add(reminder);
                 }
             } catch (Exception e) {
                 log.error("[CartCleanup] Reminder fehlgeschlagen für Cart {}: {}", cart.getId(), e.getMessage());
             }
         }
-        log.info("[CartCleanup] {} Abandoned-Cart-Reminder versendet (von {} Kandidaten).", sent, abandoned.size());
-        return sent;
+        if (reminders.isEmpty()) {
+            return 0;
+        }
+
+        if (!emailService.isMailEnabled()) {
+            remindedCarts.forEach(cart -> cart.setReminderSentAt(now));
+            cartRepository.saveAll(remindedCarts);
+            log.info("[CartCleanup] Mail deaktiviert – {} Abandoned-Carts ohne Reminder abgeschlossen.", remindedCarts.size());
+            return 0;
+        }
+
+        List<Boolean> delivered = emailService.sendAbandonedCartReminders(reminders);
+
+        // Nur tatsächlich versendete Erinnerungen markieren – der Rest wird beim nächsten Lauf erneut versucht
+        List<Cart> sentCarts = new ArrayList<>();
+        for (int i = 0; i < remindedCarts.size(); i++) {
+            if (delivered.get(i)) {
+                Cart cart = remindedCarts.get(i);
+                cart.setReminderSentAt(now);
+                sentCarts.add(cart);
+            }
+        }
+        cartRepository.saveAll(sentCarts);
+
+        log.info("[CartCleanup] {} Abandoned-Cart-Reminder versendet (von {} Kandidaten).", sentCarts.size(), abandoned.size());
+        return sentCarts.size();
     }
 
     // ==============================================================
     // Private Helpers
     // ==============================================================
 
-    private boolean sendReminderFor(Cart cart) {
+    /** Baut die Erinnerung für einen Cart, oder null wenn es nichts zu erinnern gibt. */
+    private AbandonedCartReminder buildReminderFor(Cart cart) {
         User user = cart.getUser();
         Store store = cart.getStore();
         if (user == null || user.getEmail() == null || user.getEmail().isBlank()) {
-            return false;
+            return null;
         }
         List<CartItem> items = cartItemRepository.findByCartId(cart.getId());
         if (items.isEmpty()) {
-            return false;
+            return null;
         }
 
         BigDecimal total = BigDecimal.ZERO;
@@ -134,7 +163,7 @@ public class CartCleanupService {
         String storeLogo = store != null ? store.getLogoUrl() : null;
         String lang = user.getPreferredLanguage() != null ? user.getPreferredLanguage() : "en";
 
-        emailService.sendAbandonedCartReminder(
+        return new AbandonedCartReminder(
             user.getEmail(),
             user.getName(),
             storeName,
@@ -146,7 +175,6 @@ public class CartCleanupService {
             null, // → Default-URL aus EmailService (baseUrl + "/cart")
             lang
         );
-        return true;
     }
 
     /** Baut einen sprachneutralen Variant-Titel aus den Optionsfeldern. */
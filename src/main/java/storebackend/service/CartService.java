@@ -25,6 +25,7 @@ public class CartService {
     private final ProductVariantRepository productVariantRepository;
     private final ProductRepository productRepository;
     private final ProductTierPriceService tierPriceService;
+    private final ProductCatalogCache catalogCache;
 
     @Transactional
     public Cart getOrCreateCart(String sessionId, User user, Store store) {
@@ -220,6 +221,7 @@ public class CartService {
                     variant.setPrice(product.getBasePrice() != null ? product.getBasePrice() : java.math.BigDecimal.ZERO);
                     variant.setStockQuantity(999);
                     log.info("✅ Erstelle Default-Variante für Produkt {}", product.getId());
+                    catalogCache.evictProduct(product.getId());
                     return productVariantRepository.save(variant);
                 });
     }
@@ -17,12 +17,21 @@ import storebackend.repository.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ChatbotService {
 
+    /**
+     * Bestellnummern aus OrderNumberAllocator (ORD-&lt;storeId&gt;-&lt;year&gt;-&lt;seq&gt;) sowie
+     * ältere Bestellungen im Format ORD-&lt;year&gt;-&lt;nummer&gt;
+     */
+    private static final Pattern ORDER_NUMBER_PATTERN =
+        Pattern.compile("\\b([A-Z]{2,10}-(?:\\d+-)?\\d{4}-\\d+)\\b");
+
     private final ChatSessionRepository chatSessionRepository;
     private final ChatMessageRepository chatMessageRepository;
     private final ChatbotIntentRepository chatbotIntentRepository;
@@ -199,7 +208,8 @@ public class ChatbotService {
         }
 
         // Search for order
-        Optional<Order> orderOpt = orderRepository.findByOrderNumber(orderNumber);
+        Optional<Order> orderOpt = orderRepository.findByOrderNumber(orderNumber)
+                .filter(order -> order.getStore().getId().equals(session.getStore().getId()));
 
         if (orderOpt.isEmpty()) {
             return new ChatbotResponse(null, getOrderNotFoundMessage(language, orderNumber));
@@ -213,10 +223,8 @@ public class ChatbotService {
                        "status", order.getStatus().name()));
     }
 
-    private String extractOrderNumber(String message) {
-        // Try to find order number pattern (ORD-YYYY-XXXXXX or similar)
-        java.util.regex.Pattern pattern = java.util.regex.Pattern.compile("\\b([A-Z]{3}-\\d{4}-\\d{6})\\b");
-        java.util.regex.Matcher matcher = pattern.matcher(message.toUpperCase());
+    static String extractOrderNumber(String message) {
+        Matcher matcher = ORDER_NUMBER_PATTERN.matcher(message.toUpperCase());
 
         if (matcher.find()) {
             return matcher.group(1);
@@ -13,6 +13,7 @@ import storebackend.entity.CustomerProfile;
 import storebackend.entity.User;
 import storebackend.repository.CustomerProfileRepository;
 import storebackend.repository.UserRepository;
+import storebackend.security.UserPrincipalCache;
 
 @Slf4j
 @Service
@@ -22,6 +23,7 @@ public class CustomerProfileService {
     private final CustomerProfileRepository customerProfileRepository;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserPrincipalCache principalCache;
 
     @Transactional
     public CustomerProfileDTO getOrCreateProfile(Long userId) {
@@ -115,6 +117,7 @@ public class CustomerProfileService {
         String encodedPassword = passwordEncoder.encode(request.getNewPassword());
         user.setPasswordHash(encodedPassword);
         userRepository.save(user);
+        principalCache.evictUser(userId);
 
         log.info("[PASSWORD-CHANGE] Password successfully changed for userId={}, hashPrefix={}",
             userId,
@@ -38,6 +38,8 @@ public class DemoContentService {
 
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
+    private final ProductCatalogCache catalogCache;
+    private final StorefrontVersionService storefrontVersions;
 
     /**
      * Branchen-Demo-Kataloge.
@@ -196,6 +198,9 @@ public class DemoContentService {
             }
         }
 
+        catalogCache.evictStoreListings(store.getId());
+        storefrontVersions.bump(store.getId());
+
         log.info("✅ Demo-Content für Store {} angelegt: {} Kategorien, {} Produkte (Template: {})",
                 store.getId(), savedCategories.size(), productsCreated, templateCode);
         return productsCreated;
@@ -31,6 +31,7 @@ public class DomainService {
     private final StoreRepository storeRepository;
     private final SaasProperties saasProperties;
     private final StoreDeliverySettingsRepository deliverySettingsRepository;
+    private final StoreHostCache storeHostCache;
     private final SecureRandom secureRandom = new SecureRandom();
 
     public List<Domain> getDomainsForStore(Long storeId, User currentUser) {
@@ -71,6 +72,8 @@ public class DomainService {
         domain.setIsVerified(true); // Subdomains sind automatisch verifiziert
         domain.setIsPrimary(existingSubdomains == 0); // Erste Domain wird primary
 
+        // Evtl. gecachter Miss für diesen Host (Eviction läuft nach dem Commit)
+        storeHostCache.evictHost(domain.getHost());
         return domainRepository.save(domain);
     }
 
@@ -105,6 +108,8 @@ public class DomainService {
         domain.setVerificationToken(generateVerificationToken());
         domain.setIsPrimary(false);
 
+        // Evtl. gecachter Miss für diesen Host (Eviction läuft nach dem Commit)
+        storeHostCache.evictHost(domain.getHost());
         return domainRepository.save(domain);
     }
 
@@ -134,16 +139,22 @@ public class DomainService {
     @Transactional(readOnly = true)
     public Optional<PublicStoreDTO> resolveStoreByHost(String host) {
 
-        log.info("🔍 resolveStoreByHost called with host: '{}'", host);
-
         String normalized = normalizeHost(host);
-        log.info("📝 Normalized host: '{}'", normalized);
 
         if (normalized == null) {
             log.warn("⚠️ Normalized host is null, returning empty");
             return Optional.empty();
         }
 
+        // Treffer und Misses werden gecacht (StoreHostCache) – DB nur beim ersten Aufruf
+        return storeHostCache.resolve(StoreHostCache.Resolver.DOMAIN, normalized,
+                () -> loadStoreByHost(host, normalized));
+    }
+
+    private Optional<PublicStoreDTO> loadStoreByHost(String host, String normalized) {
+
+        log.info("🔍 Resolving store for host: '{}' (normalized: '{}')", host, normalized);
+
         // 1) Exaktes Host-Matching (nach Normalisierung)
         log.debug("🔎 Step 1: Searching for exact host match in database...");
         Optional<PublicStoreDTO> direct = domainRepository.findActiveVerifiedDomainWithStoreByHost(normalized)
@@ -310,6 +321,7 @@ public class DomainService {
         if (verified) {
             domain.setIsVerified(true);
             domainRepository.save(domain);
+            storeHostCache.evictHost(domain.getHost());
             log.info("Domain {} verified successfully", domain.getHost());
         }
 
@@ -337,6 +349,8 @@ public class DomainService {
 
         domain.setIsPrimary(true);
         domainRepository.save(domain);
+        // Gecachte Store-DTOs enthalten primaryDomain
+        storeHostCache.evictStore(domain.getStore().getId());
     }
 
     public void deleteDomain(Long domainId, User currentUser) {
@@ -361,6 +375,8 @@ public class DomainService {
         }
 
         domainRepository.delete(domain);
+        // Nach Store statt Host: über den Slug-Fallback aufgelöste Hosts sind unter anderem Key gecacht
+        storeHostCache.evictStore(domain.getStore().getId());
     }
 
     private String generateVerificationToken() {
@@ -7,11 +7,13 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
+import storebackend.dto.AbandonedCartReminder;
 import storebackend.dto.EmailDeliveryResult;
 import storebackend.entity.Address;
 import storebackend.entity.OrderItem;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -1067,50 +1069,93 @@ public class EmailService {
     // CART E-MAILS (Abandoned Cart Reminder)
     // ==================================================================================
 
+    /** false = mail.enabled aus, es wird nichts versendet (Reminder-Jobs können ihre Kandidaten abschließen) */
+    public boolean isMailEnabled() {
+        return mailEnabled;
+    }
+
     /**
      * Sendet eine Erinnerung an einen verlassenen Warenkorb.
      * @param items Liste von Maps mit Keys: name, variantTitle, quantity, price, total, currency
      */
     public void sendAbandonedCartReminder(String toEmail, String name, String storeName,
                                           String storeLogo, int itemCount, Double totalAmount,
-                                          String currency, java.util.List<Map<String, Object>> items,
+                                          String currency, List<Map<String, Object>> items,
                                           String cartUrl, String lang) {
-        if (!mailEnabled) { log.info("Mail disabled – abandoned cart reminder to: {}", toEmail); return; }
-        try {
-            Map<String, Object> vars = new HashMap<>();
-            vars.put("storeName",        storeName);
-            vars.put("storeLogo",        storeLogo);
-            vars.put("itemCount",        itemCount);
-            vars.put("totalAmount",      totalAmount != null ? String.format("%.2f", totalAmount) : "-");
-            vars.put("currency",         currency != null ? currency : "MAD");
-            vars.put("cartUrl",          cartUrl != null ? cartUrl : (baseUrl + "/cart"));
-            vars.put("greeting",         buildGreeting(lang, name));
-            vars.put("title",            t(lang, "cart.abandoned.title",         "You left items in your cart"));
-            vars.put("intro",            t(lang, "cart.abandoned.intro",         "Your cart is still waiting for you!"));
-            vars.put("labelStore",       t(lang, "orderConfirmation.labelStore", "Store"));
-            vars.put("labelItems",       t(lang, "cart.abandoned.labelItems",    "Items"));
-            vars.put("labelTotal",       t(lang, "orderConfirmation.labelTotal", "Total"));
-            vars.put("labelProduct",     t(lang, "orderConfirmation.labelProduct","Item"));
-            vars.put("labelQty",         t(lang, "orderConfirmation.labelQty",   "Qty"));
-            vars.put("labelPrice",       t(lang, "orderConfirmation.labelPrice", "Price"));
-            vars.put("labelItemTotal",   t(lang, "orderConfirmation.labelItemTotal","Total"));
-            vars.put("outro",            t(lang, "cart.abandoned.outro",         "Complete your order before items sell out."));
-            vars.put("btnCheckout",      t(lang, "cart.abandoned.btnCheckout",   "Return to Cart"));
-            addFooter(lang, vars);
+        sendAbandonedCartReminders(List.of(new AbandonedCartReminder(
+            toEmail, name, storeName, storeLogo, itemCount, totalAmount, currency, items, cartUrl, lang)));
+    }
 
-            if (items != null && !items.isEmpty()) {
-                vars.put("hasItems", true);
-                vars.put("items", items);
+    /**
+     * Versendet einen Batch Abandoned-Cart-Erinnerungen.
+     * Alle HTML-Bodies werden über {@link EmailTemplateService#renderAll} gerendert;
+     * Fehler beim Versand einzelner E-Mails brechen den Batch nicht ab.
+     *
+     * @return je Reminder, ob die E-Mail versendet wurde (gleiche Reihenfolge wie {@code reminders})
+     */
+    public List<Boolean> sendAbandonedCartReminders(List<AbandonedCartReminder> reminders) {
+        List<Boolean> delivered = new ArrayList<>(Collections.nCopies(reminders.size(), false));
+        if (reminders.isEmpty()) {
+            return delivered;
+        }
+        if (!mailEnabled) {
+            reminders.forEach(r -> log.info("Mail disabled – abandoned cart reminder to: {}", r.toEmail()));
+            return delivered;
+        }
+
+        List<Map<String, Object>> varsList = new ArrayList<>(reminders.size());
+        List<EmailTemplateService.RenderRequest> requests = new ArrayList<>(reminders.size());
+        for (AbandonedCartReminder reminder : reminders) {
+            Map<String, Object> vars = abandonedCartVars(reminder);
+            varsList.add(vars);
+            requests.add(new EmailTemplateService.RenderRequest(reminder.lang(), vars));
+        }
+        List<String> htmls = templateService.renderAll("cart-abandoned.html", requests);
+
+        for (int i = 0; i < reminders.size(); i++) {
+            AbandonedCartReminder reminder = reminders.get(i);
+            try {
+                String subjectTpl = t(reminder.lang(), "cart.abandoned.subject",
+                        "You left {{itemCount}} items in your cart - {{storeName}}");
+                sendHtml(reminder.toEmail(), templateService.renderSubject(subjectTpl, varsList.get(i)), htmls.get(i));
+                log.info("Abandoned cart reminder (HTML/{}) sent to: {} ({} items)",
+                         reminder.lang(), reminder.toEmail(), reminder.itemCount());
+                delivered.set(i, true);
+            } catch (Exception e) {
+                log.error("Failed to send abandoned cart reminder to: {}", reminder.toEmail(), e);
             }
+        }
+        return delivered;
+    }
 
-            String subjectTpl = t(lang, "cart.abandoned.subject",
-                    "You left {{itemCount}} items in your cart - {{storeName}}");
-            sendHtml(toEmail, templateService.renderSubject(subjectTpl, vars),
-                     templateService.render("cart-abandoned.html", lang, vars));
-            log.info("Abandoned cart reminder (HTML/{}) sent to: {} ({} items)", lang, toEmail, itemCount);
-        } catch (Exception e) {
-            log.error("Failed to send abandoned cart reminder to: {}", toEmail, e);
+    private Map<String, Object> abandonedCartVars(AbandonedCartReminder reminder) {
+        String lang = reminder.lang();
+        Map<String, Object> vars = new HashMap<>();
+        vars.put("storeName",        reminder.storeName());
+        vars.put("storeLogo",        reminder.storeLogo());
+        vars.put("itemCount",        reminder.itemCount());
+        vars.put("totalAmount",      reminder.totalAmount() != null ? String.format("%.2f", reminder.totalAmount()) : "-");
+        vars.put("currency",         reminder.currency() != null ? reminder.currency() : "MAD");
+        vars.put("cartUrl",          reminder.cartUrl() != null ? reminder.cartUrl() : (baseUrl + "/cart"));
+        vars.put("greeting",         buildGreeting(lang, reminder.name()));
+        vars.put("title",            t(lang, "cart.abandoned.title",         "You left items in your cart"));
+        vars.put("intro",            t(lang, "cart.abandoned.intro",         "Your cart is still waiting for you!"));
+        vars.put("labelStore",       t(lang, "orderConfirmation.labelStore", "Store"));
+        vars.put("labelItems",       t(lang, "cart.abandoned.labelItems",    "Items"));
+        vars.put("labelTotal",       t(lang, "orderConfirmation.labelTotal", "Total"));
+        vars.put("labelProduct",     t(lang, "orderConfirmation.labelProduct","Item"));
+        vars.put("labelQty",         t(lang, "orderConfirmation.labelQty",   "Qty"));
+        vars.put("labelPrice",       t(lang, "orderConfirmation.labelPrice", "Price"));
+        vars.put("labelItemTotal",   t(lang, "orderConfirmation.labelItemTotal","Total"));
+        vars.put("outro",            t(lang, "cart.abandoned.outro",         "Complete your order before items sell out."));
+        vars.put("btnCheckout",      t(lang, "cart.abandoned.btnCheckout",   "Return to Cart"));
+        addFooter(lang, vars);
+
+        if (reminder.items() != null && !reminder.items().isEmpty()) {
+            vars.put("hasItems", true);
+            vars.put("items", reminder.items());
         }
+        return vars;
     }
 
     // ==================================================================================
@@ -12,7 +12,9 @@ import org.springframework.stereotype.Service;
 import java.io.InputStreamReader;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -20,6 +22,11 @@ import java.util.concurrent.ConcurrentHashMap;
  * Rendert HTML-E-Mail-Templates mit Mustache.
  * Texte werden aus den gemeinsamen i18n JSON-Dateien geladen (de/en/ar).
  * Gleiche JSON-Struktur wie das Angular-Frontend unter storeFrontend/src/assets/i18n/
+ *
+ * Pro Sprache wird der email.*-Baum einmalig flach in einen unveränderlichen
+ * Basis-Kontext überführt. Beim Rendern liegen die Aufruf-Variablen als eigener
+ * Mustache-Scope darüber (kein Kopieren). Kompilierte Templates werden pro
+ * Sprache und Template explizit gehalten.
  */
 @Service
 @Slf4j
@@ -28,8 +35,24 @@ public class EmailTemplateService {
     private final ObjectMapper objectMapper;
     private final MustacheFactory mustacheFactory;
 
-    // Cache für geladene Übersetzungen
-    private final ConcurrentHashMap<String, JsonNode> translationCache = new ConcurrentHashMap<>();
+    /**
+     * Vorberechnete Übersetzungen einer Sprache.
+     *
+     * @param baseContext flacher Mustache-Basis-Kontext (lang, dir, email.*) – unveränderlich
+     * @param values      exakte Pfade relativ zu "email" → Text (für getI18nValue)
+     */
+    record Translations(Map<String, Object> baseContext, Map<String, String> values) {}
+
+    record TemplateKey(String lang, String templateName) {}
+
+    /** Kompiliertes Template mit dem Basis-Kontext seiner Sprache. */
+    record CompiledEmailTemplate(Mustache mustache, Map<String, Object> baseContext) {}
+
+    /** Einzelner Eintrag für {@link #renderAll}. */
+    public record RenderRequest(String lang, Map<String, Object> variables) {}
+
+    private final ConcurrentHashMap<String, Translations> translationCache = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<TemplateKey, CompiledEmailTemplate> compiledTemplates = new ConcurrentHashMap<>();
 
     private static final String SUPPORTED_LANGS_REGEX = "de|en|ar";
 
@@ -48,52 +71,67 @@ public class EmailTemplateService {
      */
     public String render(String templateName, String lang, Map<String, Object> variables) {
         String resolvedLang = resolveLanguage(lang);
-        JsonNode translations = loadTranslations(resolvedLang);
-
-        // Basis-Variablen aus i18n JSON laden
-        Map<String, Object> ctx = new HashMap<>();
-        ctx.put("lang", resolvedLang);
-        ctx.put("dir", "ar".equals(resolvedLang) ? "rtl" : "ltr");
+        return execute(templateName, resolvedLang, lookup(resolvedLang, templateName), variables);
+    }
 
-        // Alle email.* Keys flach in den Kontext einfügen
-        JsonNode emailNode = translations.get("email");
-        if (emailNode != null) {
-            flattenNode("", emailNode, ctx);
+    /**
+     * Rendert ein Template für viele Empfänger (z.B. Abandoned-Cart-Reminder-Batches).
+     * Die Requests werden nach Sprache gruppiert: Template und Basis-Kontext werden
+     * pro Sprache nur einmal nachgeschlagen.
+     *
+     * @return HTML je Request, gleiche Reihenfolge wie {@code requests}
+     */
+    public List<String> renderAll(String templateName, List<RenderRequest> requests) {
+        Map<String, List<Integer>> indicesByLang = new HashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            indicesByLang.computeIfAbsent(resolveLanguage(requests.get(i).lang()), l -> new ArrayList<>()).add(i);
         }
 
-        // Übergebene Variablen überschreiben i18n-Werte (höhere Priorität)
-        ctx.putAll(variables);
+        String[] rendered = new String[requests.size()];
+        indicesByLang.forEach((resolvedLang, indices) -> {
+            CompiledEmailTemplate template = lookup(resolvedLang, templateName);
+            for (int i : indices) {
+                rendered[i] = execute(templateName, resolvedLang, template, requests.get(i).variables());
+            }
+        });
+        return new ArrayList<>(List.of(rendered));
+    }
 
+    /** Kompiliertes Template oder null, wenn es nicht geladen werden kann (→ Fallback-HTML). */
+    private CompiledEmailTemplate lookup(String resolvedLang, String templateName) {
         try {
-            Mustache mustache = mustacheFactory.compile(templateName);
-            StringWriter writer = new StringWriter();
-            mustache.execute(writer, ctx).flush();
-            return writer.toString();
+            return compiledTemplates.computeIfAbsent(new TemplateKey(resolvedLang, templateName), this::compile);
         } catch (Exception e) {
-            log.error("Failed to render email template '{}': {}", templateName, e.getMessage(), e);
-            // Fallback: einfaches Text-HTML
-            return buildFallbackHtml(ctx);
+            log.error("Failed to load email template '{}' ({}): {}", templateName, resolvedLang, e.getMessage(), e);
+            return null;
         }
     }
 
+    private String execute(String templateName, String resolvedLang, CompiledEmailTemplate template,
+                           Map<String, Object> variables) {
+        Map<String, Object> vars = variables != null ? variables : Map.of();
+
+        if (template != null) {
+            try {
+                // Scopes: später = höhere Priorität → übergebene Variablen überschreiben i18n-Werte
+                StringWriter writer = new StringWriter(8 * 1024);
+                template.mustache().execute(writer, new Object[]{template.baseContext(), vars}).flush();
+                return writer.toString();
+            } catch (Exception e) {
+                log.error("Failed to render email template '{}': {}", templateName, e.getMessage(), e);
+            }
+        }
+        // Fallback: einfaches Text-HTML
+        return buildFallbackHtml(loadTranslations(resolvedLang).baseContext(), vars);
+    }
+
     /**
      * Gibt einen einzelnen i18n-Wert zurück.
      * Key ist relativ zum "email"-Block der JSON: z.B. "verification.title"
      */
     public String getI18nValue(String lang, String key, String fallback) {
         String resolvedLang = resolveLanguage(lang);
-        JsonNode translations = loadTranslations(resolvedLang);
-        JsonNode emailNode = translations.get("email");
-        if (emailNode == null) return fallback;
-
-        // Dot-Notation traversieren: "verification.title" → email → verification → title
-        String[] parts = key.split("\\.");
-        JsonNode current = emailNode;
-        for (String part : parts) {
-            current = current.get(part);
-            if (current == null) return fallback;
-        }
-        return current.isTextual() ? current.asText() : fallback;
+        return loadTranslations(resolvedLang).values().getOrDefault(key, fallback);
     }
 
     /**
@@ -120,26 +158,64 @@ public class EmailTemplateService {
         return "en";
     }
 
-    private JsonNode loadTranslations(String lang) {
-        return translationCache.computeIfAbsent(lang, l -> {
+    private CompiledEmailTemplate compile(TemplateKey key) {
+        Mustache mustache = mustacheFactory.compile(key.templateName());
+        return new CompiledEmailTemplate(mustache, loadTranslations(key.lang()).baseContext());
+    }
+
+    private Translations loadTranslations(String lang) {
+        return translationCache.computeIfAbsent(lang, l -> buildTranslations(l, readTranslations(l)));
+    }
+
+    /**
+     * Baut Basis-Kontext und Pfad-Map einer Sprache (einmal pro Sprache).
+     */
+    private Translations buildTranslations(String lang, JsonNode translations) {
+        Map<String, Object> ctx = new HashMap<>();
+        ctx.put("lang", lang);
+        ctx.put("dir", "ar".equals(lang) ? "rtl" : "ltr");
+
+        Map<String, String> values = new HashMap<>();
+
+        // Alle email.* Keys flach in den Kontext einfügen
+        JsonNode emailNode = translations.get("email");
+        if (emailNode != null) {
+            flattenNode("", emailNode, ctx);
+            collectPaths("", emailNode, values);
+        }
+        return new Translations(Map.copyOf(ctx), Map.copyOf(values));
+    }
+
+    private JsonNode readTranslations(String lang) {
+        try {
+            ClassPathResource resource = new ClassPathResource("i18n/" + lang + ".json");
+            return objectMapper.readTree(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)
+            );
+        } catch (Exception e) {
+            log.warn("Could not load i18n/{}.json, falling back to en.json", lang);
             try {
-                ClassPathResource resource = new ClassPathResource("i18n/" + l + ".json");
+                ClassPathResource fallback = new ClassPathResource("i18n/en.json");
                 return objectMapper.readTree(
-                    new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)
+                    new InputStreamReader(fallback.getInputStream(), StandardCharsets.UTF_8)
                 );
-            } catch (Exception e) {
-                log.warn("Could not load i18n/{}.json, falling back to en.json", l);
-                try {
-                    ClassPathResource fallback = new ClassPathResource("i18n/en.json");
-                    return objectMapper.readTree(
-                        new InputStreamReader(fallback.getInputStream(), StandardCharsets.UTF_8)
-                    );
-                } catch (Exception ex) {
-                    log.error("Could not load fallback i18n/en.json", ex);
-                    return objectMapper.createObjectNode();
-                }
+            } catch (Exception ex) {
+                log.error("Could not load fallback i18n/en.json", ex);
+                return objectMapper.createObjectNode();
             }
-        });
+        }
+    }
+
+    /**
+     * Exakte Pfade relativ zu "email" (z.B. "verification.title") → Text.
+     */
+    private void collectPaths(String prefix, JsonNode node, Map<String, String> values) {
+        if (node.isObject()) {
+            node.fields().forEachRemaining(entry -> collectPaths(
+                prefix.isEmpty() ? entry.getKey() : prefix + "." + entry.getKey(), entry.getValue(), values));
+        } else if (node.isTextual()) {
+            values.put(prefix, node.asText());
+        }
     }
 
     /**
@@ -162,12 +238,19 @@ public class EmailTemplateService {
         }
     }
 
-    private String buildFallbackHtml(Map<String, Object> ctx) {
-        String title = ctx.getOrDefault("title", "Markt.ma").toString();
-        String intro = ctx.getOrDefault("intro", "").toString();
+    private String buildFallbackHtml(Map<String, Object> baseContext, Map<String, Object> variables) {
+        String title = String.valueOf(lookup("title", "Markt.ma", baseContext, variables));
+        String intro = String.valueOf(lookup("intro", "", baseContext, variables));
         return "<!DOCTYPE html><html><body style='font-family:Arial,sans-serif;padding:20px'>" +
                "<h2>" + title + "</h2><p>" + intro + "</p>" +
                "<p>Markt.ma Team</p></body></html>";
     }
+
+    private static Object lookup(String key, Object fallback, Map<String, Object> baseContext, Map<String, Object> variables) {
+        if (variables.containsKey(key)) {
+            return variables.get(key);
+        }
+        return baseContext.getOrDefault(key, fallback);
+    }
 }
 
@@ -11,6 +11,7 @@ import storebackend.entity.User;
 import storebackend.exception.RateLimitExceededException;
 import storebackend.repository.EmailVerificationRepository;
 import storebackend.repository.UserRepository;
+import storebackend.security.UserPrincipalCache;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -23,6 +24,7 @@ public class EmailVerificationService {
     private final EmailVerificationRepository emailVerificationRepository;
     private final UserRepository userRepository;
     private final EmailService emailService;
+    private final UserPrincipalCache principalCache;
 
     private static final int RESEND_COOLDOWN_MINUTES = 2; // Cooldown zwischen Resend-Requests
 
@@ -90,6 +92,7 @@ public class EmailVerificationService {
         User user = verification.getUser();
         user.setEmailVerified(true);
         userRepository.save(user);
+        principalCache.evictUser(user.getId());
 
         // Lösche Token nach erfolgreicher Verification
         emailVerificationRepository.delete(verification);
@@ -21,6 +21,7 @@ public class HomepageSectionService {
 
     private final HomepageSectionRepository sectionRepository;
     private final StoreRepository storeRepository;
+    private final StorefrontVersionService storefrontVersions;
 
     @Transactional(readOnly = true)
     public List<HomepageSectionDTO> getStoreSections(Long storeId) {
@@ -49,6 +50,7 @@ public class HomepageSectionService {
         section.setSettings(request.getSettings());
 
         HomepageSection saved = sectionRepository.save(section);
+        storefrontVersions.bump(store.getId());
         log.info("Created homepage section {} for store {}", saved.getId(), store.getId());
 
         return convertToDTO(saved);
@@ -70,6 +72,7 @@ public class HomepageSectionService {
         }
 
         HomepageSection saved = sectionRepository.save(section);
+        storefrontVersions.bump(section.getStore().getId());
         log.info("Updated homepage section {}", sectionId);
 
         return convertToDTO(saved);
@@ -77,6 +80,8 @@ public class HomepageSectionService {
 
     @Transactional
     public void deleteSection(Long sectionId) {
+        sectionRepository.findById(sectionId)
+                .ifPresent(section -> storefrontVersions.bump(section.getStore().getId()));
         sectionRepository.deleteById(sectionId);
         log.info("Deleted homepage section {}", sectionId);
     }
@@ -93,6 +98,7 @@ public class HomepageSectionService {
                 }
             });
         }
+        storefrontVersions.bump(storeId);
         log.info("Reordered sections for store {}", storeId);
     }
 
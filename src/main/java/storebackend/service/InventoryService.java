@@ -12,7 +12,10 @@ import storebackend.entity.User;
 import storebackend.repository.InventoryLogRepository;
 import storebackend.repository.ProductVariantRepository;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Slf4j
@@ -20,6 +23,8 @@ import java.util.List;
 public class InventoryService {
     private final InventoryLogRepository inventoryLogRepository;
     private final ProductVariantRepository productVariantRepository;
+    private final StockReservationService stockReservationService;
+    private final ProductCatalogCache catalogCache;
 
     @Transactional(readOnly = true)
     public List<InventoryLog> getInventoryLogsByVariant(Long variantId) {
@@ -33,7 +38,8 @@ public class InventoryService {
 
     @Transactional
     public InventoryLog adjustInventory(Long variantId, Integer quantityChange, String reason, String notes, User user) {
-        ProductVariant variant = productVariantRepository.findById(variantId)
+        // Schreibsperre: parallele Korrekturen/Checkouts dürfen den Bestand nicht überschreiben
+        ProductVariant variant = productVariantRepository.findByIdForUpdate(variantId)
                 .orElseThrow(() -> new RuntimeException("Product variant not found"));
 
         // Update variant stock
@@ -43,6 +49,7 @@ public class InventoryService {
         }
         variant.setStockQuantity(newQuantity);
         productVariantRepository.save(variant);
+        catalogCache.evictProduct(variant.getProduct().getId());
 
         // Create inventory log
         InventoryLog log = new InventoryLog();
@@ -67,27 +74,63 @@ public class InventoryService {
             log.warn("No order items found for order {}", order.getId());
             return;
         }
-        
-        for (OrderItem item : order.getOrderItems()) {
+
+        try {
+            reserveForOrder(order.getOrderItems(), "ORDER_CONFIRMED",
+                "Order #" + order.getOrderNumber() + " confirmed", null);
+            log.info("Inventory adjusted for order {}", order.getOrderNumber());
+        } catch (Exception e) {
+            log.error("Failed to adjust inventory for order {}: {}", order.getOrderNumber(), e.getMessage());
+            throw new RuntimeException("Failed to adjust inventory for order " + order.getOrderNumber(), e);
+        }
+    }
+
+    /**
+     * Reserviert Bestand für alle Items einer Order atomar (ein Batch, alles oder nichts)
+     * und schreibt je Variante einen Inventory-Log.
+     *
+     * @throws storebackend.exception.InsufficientStockException wenn eine Variante nicht genug Bestand hat
+     */
+    @Transactional
+    public void reserveForOrder(List<OrderItem> items, String reason, String notes, User user) {
+        Map<Long, Integer> quantities = quantitiesByVariant(items);
+        stockReservationService.reserve(quantities);
+        saveLogs(quantities, -1, reason, notes, user);
+    }
+
+    /**
+     * Gibt den Bestand aller Items einer Order wieder frei (Storno, fehlgeschlagene Zahlung).
+     */
+    @Transactional
+    public void releaseForOrder(List<OrderItem> items, String notes, User user) {
+        Map<Long, Integer> quantities = quantitiesByVariant(items);
+        stockReservationService.release(quantities);
+        saveLogs(quantities, 1, "RETURN", notes, user);
+    }
+
+    private Map<Long, Integer> quantitiesByVariant(List<OrderItem> items) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItem item : items) {
             if (item.getVariant() == null) {
                 log.warn("Order item {} has no variant, skipping inventory adjustment", item.getId());
                 continue;
             }
-            
-            Long variantId = item.getVariant().getId();
-            int quantityChange = -item.getQuantity(); // Negativ = Bestand reduzieren
-            String reason = "ORDER_CONFIRMED";
-            String notes = "Order #" + order.getOrderNumber() + " confirmed";
-            
-            try {
-                adjustInventory(variantId, quantityChange, reason, notes, null);
-                log.info("Inventory adjusted: variantId={}, quantity={}, order={}", 
-                    variantId, quantityChange, order.getOrderNumber());
-            } catch (Exception e) {
-                log.error("Failed to adjust inventory for variant {} in order {}: {}", 
-                    variantId, order.getOrderNumber(), e.getMessage());
-                throw new RuntimeException("Failed to adjust inventory for order " + order.getOrderNumber(), e);
-            }
+            quantities.merge(item.getVariant().getId(), item.getQuantity(), Integer::sum);
         }
+        return quantities;
+    }
+
+    private void saveLogs(Map<Long, Integer> quantities, int sign, String reason, String notes, User user) {
+        List<InventoryLog> logs = new ArrayList<>(quantities.size());
+        quantities.forEach((variantId, quantity) -> {
+            InventoryLog entry = new InventoryLog();
+            entry.setVariant(productVariantRepository.getReferenceById(variantId));
+            entry.setQuantityChange(sign * quantity);
+            entry.setReason(reason);
+            entry.setNotes(notes);
+            entry.setUser(user);
+            logs.add(entry);
+        });
+        inventoryLogRepository.saveAll(logs);
     }
 }
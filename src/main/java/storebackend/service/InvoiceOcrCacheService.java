@@ -0,0 +1,203 @@
+package storebackend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import storebackend.entity.InvoiceOcrCacheEntry;
+import storebackend.enums.InvoiceParseStatus;
+import storebackend.repository.InvoiceOcrCacheEntryRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Inhaltsadressierter Cache für OCR-Rohtext (invoice_ocr_cache, V019).
+ *
+ * Schlüssel: SHA-256 der Datei + Parser-Version + PSM-Modus – über Dokumente und Stores hinweg.
+ * Bei einem Treffer wird die Rechnung aus dem gespeicherten Seitentext geparst, ohne Tesseract.
+ *
+ * Eviction: übersteigt der gespeicherte Text {@code invoice.ocr-cache.max-size-mb}, werden die
+ * am längsten nicht genutzten Einträge gelöscht (LRU über last_used_at).
+ */
+@Service
+@Slf4j
+public class InvoiceOcrCacheService {
+
+    private static final TypeReference<List<String>> PAGE_LIST = new TypeReference<>() {};
+
+    private final InvoiceOcrCacheEntryRepository cacheRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final long maxBytes;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final AtomicLong storedBytes = new AtomicLong(-1);
+
+    public InvoiceOcrCacheService(
+            InvoiceOcrCacheEntryRepository cacheRepository,
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${invoice.ocr-cache.max-size-mb:256}") long maxSizeMb) {
+        this.cacheRepository = cacheRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxSizeMb * 1024 * 1024;
+
+        this.hits = Counter.builder("invoice.ocr.cache.requests")
+            .tag("result", "hit")
+            .description("OCR cache lookups answered from stored page text")
+            .register(meterRegistry);
+        this.misses = Counter.builder("invoice.ocr.cache.requests")
+            .tag("result", "miss")
+            .description("OCR cache lookups that required Tesseract")
+            .register(meterRegistry);
+        this.evictions = Counter.builder("invoice.ocr.cache.evictions")
+            .description("OCR cache entries removed to stay within the size limit")
+            .register(meterRegistry);
+        Gauge.builder("invoice.ocr.cache.size.bytes", storedBytes, bytes -> Math.max(0, bytes.get()))
+            .description("Total OCR text stored in the cache")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Gespeichertes OCR-Ergebnis für eine Datei, falls vorhanden.
+     */
+    @Transactional
+    public Optional<LocalInvoiceOcrService.OcrExtractionResult> lookup(String contentHash, String parserVersion, int psmMode) {
+        long start = System.currentTimeMillis();
+        Optional<InvoiceOcrCacheEntry> entry =
+            cacheRepository.findByContentHashAndParserVersionAndPsmMode(contentHash, parserVersion, psmMode);
+        if (entry.isEmpty()) {
+            misses.increment();
+            return Optional.empty();
+        }
+
+        InvoiceOcrCacheEntry cached = entry.get();
+        List<String> pages;
+        try {
+            pages = objectMapper.readValue(cached.getPageTextsJson(), PAGE_LIST);
+        } catch (JsonProcessingException e) {
+            log.warn("Corrupt OCR cache entry {} - ignoring: {}", cached.getId(), e.getMessage());
+            misses.increment();
+            return Optional.empty();
+        }
+
+        cacheRepository.markUsed(cached.getId(), LocalDateTime.now());
+        hits.increment();
+        log.info("⚡ OCR cache hit for {} ({} pages, originally {} ms)",
+            contentHash.substring(0, 12), pages.size(), cached.getOcrDurationMs());
+
+        return Optional.of(new LocalInvoiceOcrService.OcrExtractionResult(
+            LocalInvoiceOcrService.joinPages(pages),
+            pages,
+            cached.getPageCount(),
+            cached.getOcrEngine(),
+            cached.getOcrLanguages() != null && !cached.getOcrLanguages().isEmpty()
+                ? Arrays.asList(cached.getOcrLanguages().split(",")) : List.of(),
+            psmMode,
+            System.currentTimeMillis() - start,
+            InvoiceParseStatus.OCR_COMPLETED,
+            null
+        ));
+    }
+
+    /**
+     * Erfolgreiches OCR-Ergebnis speichern (ersetzt einen vorhandenen Eintrag).
+     * Parallel gespeicherte Duplikate werden ignoriert.
+     */
+    public void store(String contentHash, String parserVersion, int psmMode,
+                      LocalInvoiceOcrService.OcrExtractionResult result) {
+        if (result.status() != InvoiceParseStatus.OCR_COMPLETED) {
+            return;
+        }
+
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(result.textPerPage());
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize OCR pages for cache: {}", e.getMessage());
+            return;
+        }
+        long bytes = json.getBytes(StandardCharsets.UTF_8).length;
+        if (bytes > maxBytes) {
+            return;
+        }
+
+        // Neu erkannt (z.B. force) → vorhandenen Eintrag ersetzen
+        LocalDateTime now = LocalDateTime.now();
+        InvoiceOcrCacheEntry entry = cacheRepository
+            .findByContentHashAndParserVersionAndPsmMode(contentHash, parserVersion, psmMode)
+            .orElseGet(InvoiceOcrCacheEntry::new);
+        long previousBytes = entry.getTextBytes() != null ? entry.getTextBytes() : 0;
+        entry.setContentHash(contentHash);
+        entry.setParserVersion(parserVersion);
+        entry.setPsmMode(psmMode);
+        entry.setPageTextsJson(json);
+        entry.setTextBytes(bytes);
+        entry.setPageCount(result.pageCount());
+        entry.setOcrEngine(result.engine());
+        entry.setOcrLanguages(result.languages() != null ? String.join(",", result.languages()) : null);
+        entry.setOcrDurationMs(result.durationMs());
+        entry.setHitCount(0L);
+        entry.setCreatedAt(now);
+        entry.setLastUsedAt(now);
+
+        try {
+            cacheRepository.save(entry);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("OCR cache entry for {} already stored", contentHash);
+            return;
+        } catch (DataAccessException e) {
+            // Cache ist optional – ein Fehler hier darf den Parse-Job nicht abbrechen
+            log.warn("Could not store OCR cache entry for {}: {}", contentHash, e.getMessage());
+            return;
+        }
+
+        if (storedBytes.get() < 0 || storedBytes.addAndGet(bytes - previousBytes) > maxBytes) {
+            evict();
+        }
+    }
+
+    /**
+     * Älteste (zuletzt genutzte) Einträge löschen, bis der Cache wieder in das Größenlimit passt.
+     */
+    @Scheduled(fixedDelayString = "${invoice.ocr-cache.eviction-interval-ms:600000}", initialDelay = 60000)
+    public synchronized void evict() {
+        List<Long> evict = new ArrayList<>();
+        long[] kept = {0};
+        jdbcTemplate.query("SELECT id, text_bytes FROM invoice_ocr_cache ORDER BY last_used_at DESC, id DESC", rs -> {
+            long bytes = rs.getLong("text_bytes");
+            if (kept[0] + bytes <= maxBytes) {
+                kept[0] += bytes;
+            } else {
+                evict.add(rs.getLong("id"));
+            }
+        });
+
+        if (!evict.isEmpty()) {
+            cacheRepository.deleteAllByIdInBatch(evict);
+            evictions.increment(evict.size());
+            log.info("🧹 Evicted {} OCR cache entries, {} bytes remain", evict.size(), kept[0]);
+        }
+        storedBytes.set(kept[0]);
+    }
+}
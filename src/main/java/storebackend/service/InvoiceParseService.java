@@ -2,10 +2,17 @@ package storebackend.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import storebackend.dto.ParsedInvoiceFields;
 import storebackend.dto.ParsedInvoiceLine;
 import storebackend.entity.SupplierInvoiceDocument;
@@ -26,17 +33,25 @@ import java.util.ArrayList;
 import java.util.HexFormat;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Zentraler Service für das Parsen von Lieferantenrechnungen mit Cache-System.
  * 
  * Features:
  * - SHA-256 Checksummen zur Cache-Invalidierung
+ * - Inhaltsadressierter OCR-Cache: gleiche Datei (auch in anderem Dokument/Store) ohne erneutes OCR
  * - Parser-Version-Tracking für Upgrades
  * - Transaktionale Speicherung
  * - Force-Reload-Unterstützung
  * - OCR + Regex-basiertes Field-Parsing
  * - Phase 3B-1B: Line item parsing + product mapping
+ * - Asynchrone Parse-Jobs: OCR läuft außerhalb von Request und DB-Transaktion,
+ *   der Status (OCR_RUNNING → OCR_COMPLETED/FAILED) wird über das Parse-Result abgefragt
  */
 @Service
 @RequiredArgsConstructor
@@ -50,20 +65,60 @@ public class InvoiceParseService {
     private final SupplierInvoiceLineRepository lineRepository;
     private final SupplierInvoiceDocumentService documentService;
     private final LocalInvoiceOcrService ocrService;
+    private final InvoiceOcrCacheService ocrCacheService;
     private final InvoiceFieldParser fieldParser;
     private final InvoiceLineItemParser lineItemParser;
     private final SupplierCorrectionService supplierCorrectionService;
     private final SupplierProductMappingService productMappingService;
     private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+    
+    @Value("${invoice.parse.worker-threads:2}")
+    private int workerThreads;
+    
+    @Value("${invoice.parse.queue-capacity:50}")
+    private int queueCapacity;
+    
+    /** Läuft ein Job länger, gilt er als verwaist (z.B. nach Neustart) und wird neu gestartet */
+    @Value("${invoice.parse.stale-after-minutes:15}")
+    private long staleAfterMinutes;
+    
+    private ThreadPoolExecutor jobExecutor;
+    private TransactionTemplate transactionTemplate;
+    
+    @PostConstruct
+    void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        jobExecutor = new ThreadPoolExecutor(
+            workerThreads, workerThreads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "invoice-parse-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        jobExecutor.allowCoreThreadTimeOut(true);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        jobExecutor.shutdownNow();
+    }
     
     /**
      * Parse-Ergebnis mit Cache-Logik.
      * 
+     * Gültiger Cache → sofort OCR_COMPLETED. Sonst wird ein Parse-Job eingereiht und das
+     * Ergebnis mit Status OCR_RUNNING zurückgegeben; der Client fragt {@link #getParseResult} ab.
+     * Ein bereits laufender Job für dasselbe Dokument wird nicht doppelt gestartet.
+     * 
      * @param storeId Store-ID (für Mandantentrennung)
      * @param documentId Dokument-ID
      * @param psmMode Tesseract PSM Mode (6 = assume uniform block)
      * @param force true = Cache ignorieren und neu parsen
-     * @return Parse-Ergebnis (aus Cache oder frisch geparst)
+     * @return Parse-Ergebnis (aus Cache oder laufender Job)
      */
     @Transactional
     public SupplierInvoiceParseResult parse(Long storeId, Long documentId, Integer psmMode, boolean force) {
@@ -78,42 +133,44 @@ public class InvoiceParseService {
         String checksum = calculateChecksum(storeId, documentId);
         log.debug("Document checksum: {}", checksum);
         
+        Optional<SupplierInvoiceParseResult> existing = parseResultRepository
+            .findByDocumentIdAndStoreId(documentId, storeId);
+        
         // 3. Cache prüfen (wenn nicht force)
-        if (!force) {
-            Optional<SupplierInvoiceParseResult> cached = parseResultRepository
-                .findByDocumentIdAndStoreId(documentId, storeId);
+        if (!force && existing.isPresent()) {
+            SupplierInvoiceParseResult result = existing.get();
             
-            if (cached.isPresent()) {
-                SupplierInvoiceParseResult result = cached.get();
-                
-                // Cache nur verwenden, wenn:
-                // - Status = OCR_COMPLETED
-                // - Checksumme stimmt
-                // - Parser-Version stimmt
-                boolean cacheValid = 
-                    result.getParseStatus() == InvoiceParseStatus.OCR_COMPLETED &&
-                    checksum.equals(result.getDocumentChecksum()) &&
-                    PARSER_VERSION.equals(result.getParserVersion());
-                
-                if (cacheValid) {
-                    log.info("Using cached result for documentId={} (parsed at {})", 
-                        documentId, result.getParsedAt());
-                    return result;
-                } else {
-                    log.info("Cache invalid for documentId={}: status={}, checksumMatch={}, versionMatch={}", 
-                        documentId, result.getParseStatus(),
-                        checksum.equals(result.getDocumentChecksum()),
-                        PARSER_VERSION.equals(result.getParserVersion()));
-                }
+            // Cache nur verwenden, wenn:
+            // - Status = OCR_COMPLETED
+            // - Checksumme stimmt
+            // - Parser-Version stimmt
+            boolean cacheValid = 
+                result.getParseStatus() == InvoiceParseStatus.OCR_COMPLETED &&
+                checksum.equals(result.getDocumentChecksum()) &&
+                PARSER_VERSION.equals(result.getParserVersion());
+            
+            if (cacheValid) {
+                log.info("Using cached result for documentId={} (parsed at {})", 
+                    documentId, result.getParsedAt());
+                return result;
+            } else {
+                log.info("Cache invalid for documentId={}: status={}, checksumMatch={}, versionMatch={}", 
+                    documentId, result.getParseStatus(),
+                    checksum.equals(result.getDocumentChecksum()),
+                    PARSER_VERSION.equals(result.getParserVersion()));
             }
         }
         
-        // 4. Neues Parsing durchführen
-        log.info("Starting fresh parse for documentId={}", documentId);
+        // 4. Läuft bereits ein Job? Dann nur dessen Status zurückgeben
+        if (existing.isPresent() && isRunning(existing.get())) {
+            log.info("Parse job for documentId={} already running since {}", documentId, existing.get().getStartedAt());
+            return existing.get();
+        }
+        
+        // 5. Neuen Parse-Job anlegen
+        log.info("Queueing fresh parse for documentId={}", documentId);
         
-        SupplierInvoiceParseResult result = parseResultRepository
-            .findByDocumentIdAndStoreId(documentId, storeId)
-            .orElse(new SupplierInvoiceParseResult());
+        SupplierInvoiceParseResult result = existing.orElse(new SupplierInvoiceParseResult());
         
         result.setDocument(document);
         result.setStoreId(storeId);
@@ -122,16 +179,71 @@ public class InvoiceParseService {
         result.setDocumentChecksum(checksum);
         result.setParseStatus(InvoiceParseStatus.OCR_RUNNING);
         result.setStartedAt(LocalDateTime.now());
+        result.setCompletedAt(null);
+        result.setErrorMessage(null);
         
         // Speichern um OCR_RUNNING zu signalisieren (verhindert gleichzeitige Aufrufe)
         result = parseResultRepository.save(result);
+        Long resultId = result.getId();
         
+        // 6. Datei schon einmal erkannt? Dann direkt aus dem gespeicherten Text parsen
+        if (!force) {
+            Optional<LocalInvoiceOcrService.OcrExtractionResult> cachedOcr =
+                ocrCacheService.lookup(checksum, PARSER_VERSION, psmMode);
+            if (cachedOcr.isPresent()) {
+                LocalInvoiceOcrService.OcrExtractionResult ocrResult = cachedOcr.get();
+                saveParseResult(resultId, storeId, documentId, false, ocrResult.rawText(), ocrResult,
+                    fieldParser.parse(ocrResult.rawText()));
+                return parseResultRepository.findById(resultId).orElse(result);
+            }
+        }
+        
+        // Job erst nach Commit starten – sonst sieht der Worker den OCR_RUNNING-Stand nicht
+        afterCommit(() -> submitJob(resultId, storeId, documentId, psmMode, force, checksum));
+        
+        return result;
+    }
+    
+    private boolean isRunning(SupplierInvoiceParseResult result) {
+        return result.getParseStatus() == InvoiceParseStatus.OCR_RUNNING
+            && result.getStartedAt() != null
+            && result.getStartedAt().isAfter(LocalDateTime.now().minusMinutes(staleAfterMinutes));
+    }
+    
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+    
+    private void submitJob(Long resultId, Long storeId, Long documentId, Integer psmMode, boolean force,
+                           String checksum) {
+        try {
+            jobExecutor.execute(() -> runParseJob(resultId, storeId, documentId, psmMode, force, checksum));
+        } catch (RejectedExecutionException e) {
+            log.warn("⚠️ Parse queue full, rejecting documentId={}", documentId);
+            markFailed(resultId, "Rechnungsanalyse ausgelastet. Bitte später erneut versuchen.");
+        }
+    }
+    
+    /**
+     * Parse-Job: OCR ohne offene DB-Transaktion, danach Ergebnis und Positionen in einer kurzen Transaktion speichern.
+     */
+    void runParseJob(Long resultId, Long storeId, Long documentId, Integer psmMode, boolean force, String checksum) {
         try {
-            // 5. OCR durchführen
+            // OCR durchführen
             String rawText;
             LocalInvoiceOcrService.OcrExtractionResult ocrResult;
             try (InputStream input = documentService.getDocumentContent(documentId, storeId)) {
-                ocrResult = ocrService.extractTextWithOcr(input, psmMode);
+                // Job-Pool kann größer sein als max-concurrent-jobs: auf freien OCR-Slot warten statt scheitern
+                ocrResult = ocrService.extractTextWithOcr(input, psmMode, true);
                 
                 if (ocrResult.status() != InvoiceParseStatus.OCR_COMPLETED) {
                     throw new RuntimeException("OCR fehlgeschlagen: " + ocrResult.errorMessage());
@@ -141,93 +253,109 @@ public class InvoiceParseService {
             }
             log.debug("OCR extracted {} characters from {} pages in {}ms", 
                 rawText.length(), ocrResult.pageCount(), ocrResult.durationMs());
+            ocrCacheService.store(checksum, PARSER_VERSION, psmMode, ocrResult);
             
-            // 6. Felder parsen
+            // Felder parsen
             ParsedInvoiceFields fields = fieldParser.parse(rawText);
             log.debug("Parser found {} fields", countNonNullFields(fields));
             
-            // 6a. Apply learned supplier name correction (Phase 3A)
-            String supplierName = fields.supplierName();
-            String supplierNameSource = "PARSER";
-            
-            if (supplierName != null && !supplierName.isEmpty()) {
-                Optional<storebackend.entity.SupplierFieldCorrection> correction =
-                    supplierCorrectionService.findSupplierNameCorrection(storeId, supplierName);
-                
-                if (correction.isPresent()) {
-                    String correctedName = correction.get().getCorrectedValue();
-                    log.info("Applying learned supplier correction: '{}' → '{}'", 
-                        supplierName, correctedName);
-                    supplierName = correctedName;
-                    supplierNameSource = "LEARNED_CORRECTION";
-                }
-            }
-            
-            // 7. Ergebnis speichern
-            result.setRawText(rawText);
-            result.setSupplierName(supplierName);
-            result.setSupplierNameSource(supplierNameSource);
-            result.setInvoiceNumber(fields.invoiceNumber());
-            result.setInvoiceDate(fields.invoiceDate());
-            result.setDeliveryDate(fields.deliveryDate());
-            result.setNetAmount(fields.netAmount());
-            result.setTaxAmount(fields.taxAmount());
-            result.setGrossAmount(fields.grossAmount());
-            result.setCurrency(fields.currency());
-            result.setConfidenceJson(fields.confidence());
-            result.setWarningsJson(fields.warnings());
-            
-            // OCR-Metadaten speichern
-            result.setPageCount(ocrResult.pageCount());
-            result.setDurationMs(ocrResult.durationMs());
-            result.setOcrEngine(ocrResult.engine());
-            result.setOcrLanguages(ocrResult.languages() != null ? 
-                String.join(",", ocrResult.languages()) : null);
-            
-            result.setParseStatus(InvoiceParseStatus.OCR_COMPLETED);
-            result.setParsedAt(LocalDateTime.now());
-            result.setCompletedAt(LocalDateTime.now());
-            result.setErrorMessage(null);
+            transactionTemplate.executeWithoutResult(status ->
+                saveParseResult(resultId, storeId, documentId, force, rawText, ocrResult, fields));
             
-            result = parseResultRepository.save(result);
-            log.info("Parse completed for documentId={}", documentId);
-            
-            // 8. Phase 3B-1B: Parse and save line items
-            if (force) {
-                // Delete old lines when forcing re-parse
-                lineRepository.deleteByDocumentId(documentId);
-                log.debug("Deleted old lines for documentId={}", documentId);
-            }
+        } catch (Exception e) {
+            log.error("Parse failed for documentId={}: {}", documentId, e.getMessage(), e);
+            markFailed(resultId, e.getMessage());
+        }
+    }
+    
+    private void saveParseResult(Long resultId, Long storeId, Long documentId, boolean force, String rawText,
+                                 LocalInvoiceOcrService.OcrExtractionResult ocrResult, ParsedInvoiceFields fields) {
+        SupplierInvoiceParseResult result = parseResultRepository.findById(resultId)
+            .orElseThrow(() -> new RuntimeException("Parse-Ergebnis nicht gefunden: " + resultId));
+        
+        // Apply learned supplier name correction (Phase 3A)
+        String supplierName = fields.supplierName();
+        String supplierNameSource = "PARSER";
+        
+        if (supplierName != null && !supplierName.isEmpty()) {
+            Optional<storebackend.entity.SupplierFieldCorrection> correction =
+                supplierCorrectionService.findSupplierNameCorrection(storeId, supplierName);
             
-            try {
-                List<ParsedInvoiceLine> parsedLines = lineItemParser.parse(rawText);
-                log.info("Parsed {} line items", parsedLines.size());
-                
-                List<SupplierInvoiceLine> savedLines = saveLineItems(
-                    parsedLines,
-                    storeId,
-                    documentId,
-                    result.getId(),
-                    supplierName
-                );
-                
-                log.info("Saved {} line items with learned mappings applied", savedLines.size());
-            } catch (Exception e) {
-                log.error("Line item parsing failed (continuing without lines): {}", e.getMessage(), e);
-                // Don't fail the whole parse if lines fail
+            if (correction.isPresent()) {
+                String correctedName = correction.get().getCorrectedValue();
+                log.info("Applying learned supplier correction: '{}' → '{}'", 
+                    supplierName, correctedName);
+                supplierName = correctedName;
+                supplierNameSource = "LEARNED_CORRECTION";
             }
+        }
+        
+        // Ergebnis speichern
+        result.setRawText(rawText);
+        result.setSupplierName(supplierName);
+        result.setSupplierNameSource(supplierNameSource);
+        result.setInvoiceNumber(fields.invoiceNumber());
+        result.setInvoiceDate(fields.invoiceDate());
+        result.setDeliveryDate(fields.deliveryDate());
+        result.setNetAmount(fields.netAmount());
+        result.setTaxAmount(fields.taxAmount());
+        result.setGrossAmount(fields.grossAmount());
+        result.setCurrency(fields.currency());
+        result.setConfidenceJson(fields.confidence());
+        result.setWarningsJson(fields.warnings());
+        
+        // OCR-Metadaten speichern
+        result.setPageCount(ocrResult.pageCount());
+        result.setDurationMs(ocrResult.durationMs());
+        result.setOcrEngine(ocrResult.engine());
+        result.setOcrLanguages(ocrResult.languages() != null ? 
+            String.join(",", ocrResult.languages()) : null);
+        
+        result.setParseStatus(InvoiceParseStatus.OCR_COMPLETED);
+        result.setParsedAt(LocalDateTime.now());
+        result.setCompletedAt(LocalDateTime.now());
+        result.setErrorMessage(null);
+        
+        result = parseResultRepository.save(result);
+        log.info("Parse completed for documentId={}", documentId);
+        
+        // Phase 3B-1B: Parse and save line items
+        if (force) {
+            // Delete old lines when forcing re-parse
+            lineRepository.deleteByDocumentId(documentId);
+            log.debug("Deleted old lines for documentId={}", documentId);
+        }
+        
+        try {
+            List<ParsedInvoiceLine> parsedLines = lineItemParser.parse(rawText);
+            log.info("Parsed {} line items", parsedLines.size());
             
-            return result;
+            List<SupplierInvoiceLine> savedLines = saveLineItems(
+                parsedLines,
+                storeId,
+                documentId,
+                result.getId(),
+                supplierName
+            );
             
+            log.info("Saved {} line items with learned mappings applied", savedLines.size());
         } catch (Exception e) {
-            log.error("Parse failed for documentId={}: {}", documentId, e.getMessage(), e);
-            
-            result.setParseStatus(InvoiceParseStatus.FAILED);
-            result.setErrorMessage(e.getMessage());
-            result.setCompletedAt(LocalDateTime.now());
-            
-            parseResultRepository.save(result);
-            throw new RuntimeException("Parsing fehlgeschlagen: " + e.getMessage(), e);
+            log.error("Line item parsing failed (continuing without lines): {}", e.getMessage(), e);
+            // Don't fail the whole parse if lines fail
+        }
+    }
+    
+    private void markFailed(Long resultId, String errorMessage) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                parseResultRepository.findById(resultId).ifPresent(result -> {
+                    result.setParseStatus(InvoiceParseStatus.FAILED);
+                    result.setErrorMessage(errorMessage);
+                    result.setCompletedAt(LocalDateTime.now());
+                    parseResultRepository.save(result);
+                }));
+        } catch (Exception e) {
+            log.error("Could not mark parse result {} as failed: {}", resultId, e.getMessage());
         }
     }
     
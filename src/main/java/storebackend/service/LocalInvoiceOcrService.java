@@ -1,7 +1,11 @@
 package storebackend.service;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.ImageType;
 import org.apache.pdfbox.rendering.PDFRenderer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -13,13 +17,20 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Lokaler OCR-Service für gescannte Rechnungen.
@@ -28,11 +39,21 @@ import java.util.concurrent.TimeUnit;
  * KEINE externen APIs, KEINE Cloud-Services.
  * 
  * Phase 2B: Rohtext-Extraktion aus CamScanner-PDFs
+ * 
+ * Pipeline pro Dokument:
+ * - Seiten mit Textebene (PDFBox) werden direkt übernommen – kein OCR
+ * - übrige Seiten werden nacheinander gerendert (PDDocument ist nicht thread-safe) und
+ *   sofort an einen festen Worker-Pool übergeben, der sie parallel per Tesseract erkennt
+ * - Bild und Text laufen per stdin/stdout – keine temporären Dateien
+ * - höchstens so viele gerenderte Seiten gleichzeitig im Speicher wie Worker vorhanden
  */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class LocalInvoiceOcrService {
     
+    private final PDFBoxTextExtractor textExtractor;
+    
     @Value("${invoice.ocr.tesseract-command:tesseract}")
     private String tesseractCommand;
     
@@ -54,16 +75,46 @@ public class LocalInvoiceOcrService {
     @Value("${invoice.ocr.max-concurrent-jobs:1}")
     private int maxConcurrentJobs;
     
+    /** Tesseract-Prozesse parallel (0 = Anzahl CPU-Kerne) */
+    @Value("${invoice.ocr.worker-threads:0}")
+    private int workerThreads;
+    
     private Semaphore ocrSemaphore;
+    private ThreadPoolExecutor pageExecutor;
+    private int pageWorkers;
     
     /**
-     * Initialisiert Semaphore nach Property-Injection.
+     * Initialisiert Semaphore und Seiten-Pool nach Property-Injection.
      */
-    public void init() {
+    @PostConstruct
+    public synchronized void init() {
         if (ocrSemaphore == null) {
             ocrSemaphore = new Semaphore(maxConcurrentJobs);
-            log.info("✅ OCR-Service initialisiert: maxJobs={}, dpi={}, psm={}, languages={}", 
-                maxConcurrentJobs, dpi, psmMode, languages);
+            pageWorkers = workerThreads > 0 ? workerThreads : Runtime.getRuntime().availableProcessors();
+            
+            AtomicInteger threadNumber = new AtomicInteger();
+            pageExecutor = new ThreadPoolExecutor(
+                pageWorkers, pageWorkers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(pageWorkers * 4),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "ocr-page-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // Pool voll → Seite im aufrufenden Thread erkennen (Backpressure statt Ablehnung)
+                new ThreadPoolExecutor.CallerRunsPolicy()
+            );
+            pageExecutor.allowCoreThreadTimeOut(true);
+            
+            log.info("✅ OCR-Service initialisiert: maxJobs={}, workers={}, dpi={}, psm={}, languages={}", 
+                maxConcurrentJobs, pageWorkers, dpi, psmMode, languages);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (pageExecutor != null) {
+            pageExecutor.shutdownNow();
         }
     }
     
@@ -105,30 +156,29 @@ public class LocalInvoiceOcrService {
      * @return OCR-Ergebnis mit Rohtext pro Seite
      */
     public OcrExtractionResult extractTextWithOcr(InputStream inputStream, int customPsmMode) {
+        return extractTextWithOcr(inputStream, customPsmMode, false);
+    }
+
+    /**
+     * Wie {@link #extractTextWithOcr(InputStream, int)}, wartet aber auf Wunsch ohne Zeitlimit auf einen
+     * freien OCR-Slot – für Parse-Jobs im Hintergrund, die sonst nur wegen eines laufenden Jobs scheitern.
+     *
+     * @param waitForSlot true = blockieren bis ein Slot frei ist, false = nach 10s ablehnen (synchrone Requests)
+     */
+    public OcrExtractionResult extractTextWithOcr(InputStream inputStream, int customPsmMode, boolean waitForSlot) {
         init(); // Semaphore sicherstellen
         
         long startTime = System.currentTimeMillis();
         
-        // Tesseract-Verfügbarkeit prüfen
-        if (!isTesseractAvailable()) {
-            log.error("❌ Tesseract ist nicht installiert oder nicht im PATH");
-            return new OcrExtractionResult(
-                "",
-                List.of(),
-                0,
-                tesseractCommand,
-                List.of(languages),
-                customPsmMode,
-                System.currentTimeMillis() - startTime,
-                InvoiceParseStatus.FAILED,
-                "Tesseract ist nicht installiert. Bitte installieren: sudo apt-get install tesseract-ocr tesseract-ocr-deu tesseract-ocr-eng"
-            );
-        }
-        
         // Parallele Jobs begrenzen
         boolean acquired = false;
         try {
-            acquired = ocrSemaphore.tryAcquire(10, TimeUnit.SECONDS);
+            if (waitForSlot) {
+                ocrSemaphore.acquire();
+                acquired = true;
+            } else {
+                acquired = ocrSemaphore.tryAcquire(10, TimeUnit.SECONDS);
+            }
             if (!acquired) {
                 log.warn("⚠️ OCR-Warteschlange voll, Request abgelehnt");
                 return new OcrExtractionResult(
@@ -188,97 +238,184 @@ public class LocalInvoiceOcrService {
                 );
             }
             
-            log.info("🔍 OCR-Analyse gestartet: {} Seiten @ {} DPI, PSM {}", pageCount, dpi, customPsmMode);
-            
+            List<String> textLayer = readTextLayer(document);
             PDFRenderer renderer = new PDFRenderer(document);
-            List<String> textPerPage = new ArrayList<>();
-            StringBuilder fullText = new StringBuilder();
             
-            for (int i = 0; i < pageCount; i++) {
-                log.info("  📄 Verarbeite Seite {}...", i + 1);
+            List<Future<String>> pages = new ArrayList<>(pageCount);
+            Semaphore renderedPages = new Semaphore(pageWorkers);
+            int ocrPages = 0;
+            
+            try {
+                for (int i = 0; i < pageCount; i++) {
+                    String layerText = i < textLayer.size() ? textLayer.get(i) : "";
+                    if (textExtractor.hasTextLayer(layerText)) {
+                        pages.add(CompletableFuture.completedFuture(layerText));
+                        continue;
+                    }
+                    
+                    if (ocrPages++ == 0) {
+                        if (!isTesseractAvailable()) {
+                            log.error("❌ Tesseract ist nicht installiert oder nicht im PATH");
+                            return failure(customPsmMode, startTime, pageCount,
+                                "Tesseract ist nicht installiert. Bitte installieren: sudo apt-get install tesseract-ocr tesseract-ocr-deu tesseract-ocr-eng");
+                        }
+                        log.info("🔍 OCR-Analyse gestartet: {} Seiten @ {} DPI, PSM {}, {} Worker", 
+                            pageCount, dpi, customPsmMode, pageWorkers);
+                    }
+                    
+                    // Rendern bleibt im Job-Thread, OCR läuft parallel im Pool
+                    renderedPages.acquire();
+                    BufferedImage image;
+                    try {
+                        image = renderer.renderImageWithDPI(i, dpi, ImageType.GRAY);
+                    } catch (IOException | RuntimeException e) {
+                        renderedPages.release();
+                        throw e;
+                    }
+                    
+                    int pageNumber = i + 1;
+                    pages.add(pageExecutor.submit(() -> {
+                        try {
+                            return performOcrOnImage(image, customPsmMode, pageNumber);
+                        } finally {
+                            renderedPages.release();
+                        }
+                    }));
+                }
+                
+                List<String> textPerPage = new ArrayList<>(pageCount);
+                for (Future<String> page : pages) {
+                    textPerPage.add(awaitPage(page));
+                }
                 
-                // Seite als Bild rendern
-                BufferedImage image = renderer.renderImageWithDPI(i, dpi);
+                long duration = System.currentTimeMillis() - startTime;
+                String rawText = joinPages(textPerPage);
                 
-                // OCR ausführen
-                String pageText = performOcrOnImage(image, customPsmMode);
-                textPerPage.add(pageText);
-                fullText.append(pageText).append("\n\n");
+                log.info("✅ OCR abgeschlossen: {} Zeichen, {} von {} Seiten per OCR in {} ms", 
+                    rawText.length(), ocrPages, pageCount, duration);
                 
-                int pageChars = pageText.length();
-                long pageLines = pageText.lines().filter(s -> !s.trim().isEmpty()).count();
-                log.info("    ✅ {} Zeichen, {} Zeilen", pageChars, pageLines);
+                return new OcrExtractionResult(
+                    rawText,
+                    textPerPage,
+                    pageCount,
+                    ocrPages > 0 ? tesseractCommand : "pdfbox",
+                    ocrPages > 0 ? List.of(languages) : List.of(),
+                    customPsmMode,
+                    duration,
+                    InvoiceParseStatus.OCR_COMPLETED,  // ✅ Korrigiert: OCR_COMPLETED statt TEXT_EXTRACTED
+                    null
+                );
+            } finally {
+                // Bei Fehler/Abbruch noch laufende Seiten nicht weiter erkennen
+                pages.forEach(page -> page.cancel(true));
             }
             
-            long duration = System.currentTimeMillis() - startTime;
-            String rawText = fullText.toString();
-            
-            log.info("✅ OCR abgeschlossen: {} Zeichen in {} ms", rawText.length(), duration);
-            
-            return new OcrExtractionResult(
-                rawText,
-                textPerPage,
-                pageCount,
-                tesseractCommand,
-                List.of(languages),
-                customPsmMode,
-                duration,
-                InvoiceParseStatus.OCR_COMPLETED,  // ✅ Korrigiert: OCR_COMPLETED statt TEXT_EXTRACTED
-                null
-            );
-            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failure(customPsmMode, startTime, 0, "OCR unterbrochen");
         } catch (IOException e) {
             log.error("❌ OCR-Fehler", e);
-            return new OcrExtractionResult(
-                "",
-                List.of(),
-                0,
-                tesseractCommand,
-                List.of(languages),
-                customPsmMode,
-                System.currentTimeMillis() - startTime,
-                InvoiceParseStatus.FAILED,
-                "Fehler bei OCR-Verarbeitung: " + e.getMessage()
-            );
+            return failure(customPsmMode, startTime, 0, "Fehler bei OCR-Verarbeitung: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Gesamttext aus dem Text pro Seite (Seiten durch Leerzeile getrennt).
+     */
+    static String joinPages(List<String> textPerPage) {
+        StringBuilder fullText = new StringBuilder();
+        for (String pageText : textPerPage) {
+            fullText.append(pageText).append("\n\n");
+        }
+        return fullText.toString();
+    }
+    
+    /**
+     * Textebene pro Seite (Fast Path). Fehler hier sind kein Abbruchgrund – dann wird jede Seite erkannt.
+     */
+    private List<String> readTextLayer(PDDocument document) {
+        try {
+            return textExtractor.extractTextPerPage(document);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Textebene nicht lesbar, OCR für alle Seiten: {}", e.getMessage());
+            return List.of();
         }
     }
     
+    /**
+     * Wartet auf das OCR-Ergebnis einer Seite und entpackt Fehler als IOException.
+     */
+    private String awaitPage(Future<String> page) throws IOException, InterruptedException {
+        try {
+            return page.get(timeoutSeconds * 2, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            throw new IOException("OCR-Timeout für Seite", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+    
+    private OcrExtractionResult failure(int customPsmMode, long startTime, int pageCount, String errorMessage) {
+        return new OcrExtractionResult(
+            "",
+            List.of(),
+            pageCount,
+            tesseractCommand,
+            List.of(languages),
+            customPsmMode,
+            System.currentTimeMillis() - startTime,
+            InvoiceParseStatus.FAILED,
+            errorMessage
+        );
+    }
+    
     /**
      * Führt OCR auf einem Bild aus.
      * 
-     * Verwendet Tesseract CLI mit sicherem ProcessBuilder.
+     * Verwendet Tesseract CLI mit sicherem ProcessBuilder. Das Bild geht als PNG über stdin,
+     * der Text kommt über stdout zurück – keine temporären Dateien.
      */
-    private String performOcrOnImage(BufferedImage image, int customPsmMode) throws IOException {
-        // Temporäres Verzeichnis (wird in finally gelöscht)
-        Path tempDir = null;
+    private String performOcrOnImage(BufferedImage image, int customPsmMode, int pageNumber) throws IOException {
+        long pageStart = System.currentTimeMillis();
+        
+        // Tesseract aufrufen (SICHER: ProcessBuilder mit Argumentliste)
+        ProcessBuilder pb = new ProcessBuilder(
+            tesseractCommand,
+            "stdin",
+            "stdout",
+            "-l", languages,
+            "--psm", String.valueOf(customPsmMode)
+        );
+        // Parallelität kommt aus dem Seiten-Pool – Tesseract selbst single-threaded (kein Oversubscription)
+        pb.environment().put("OMP_THREAD_LIMIT", "1");
+        
+        Process process = pb.start();
+        
+        // Timeout: Prozess hart beenden, blockierende Reads kehren dann zurück
+        AtomicBoolean timedOut = new AtomicBoolean();
+        CompletableFuture.delayedExecutor(timeoutSeconds, TimeUnit.SECONDS).execute(() -> {
+            if (process.isAlive()) {
+                timedOut.set(true);
+                process.destroyForcibly();
+            }
+        });
         
         try {
-            // Eindeutiges temporäres Verzeichnis mit UUID
-            String uuid = UUID.randomUUID().toString();
-            tempDir = Files.createTempDirectory("invoice-ocr-" + uuid);
-            
-            // Dateien im temp-Verzeichnis
-            Path inputImage = tempDir.resolve("page.png");
-            Path outputBase = tempDir.resolve("output");
-            
-            // Bild speichern
-            ImageIO.write(image, "PNG", inputImage.toFile());
-            
-            // Tesseract aufrufen (SICHER: ProcessBuilder mit Argumentliste)
-            ProcessBuilder pb = new ProcessBuilder(
-                tesseractCommand,
-                inputImage.toString(),
-                outputBase.toString(),
-                "-l", languages,
-                "--psm", String.valueOf(customPsmMode)
-            );
-            pb.redirectErrorStream(true);
+            try (OutputStream stdin = process.getOutputStream()) {
+                ImageIO.write(image, "PNG", stdin);
+            } catch (IOException e) {
+                // Tesseract hat stdin vorzeitig geschlossen – Exit-Code unten liefert die Ursache
+                log.debug("Seite {}: stdin geschlossen: {}", pageNumber, e.getMessage());
+            }
             
-            Process process = pb.start();
+            String text = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            String error = readProcessOutput(process.getErrorStream(), 500);
             
-            // Timeout setzen
             boolean finished = process.waitFor(timeoutSeconds, TimeUnit.SECONDS);
-            if (!finished) {
+            if (!finished || timedOut.get()) {
                 process.destroyForcibly();
                 throw new IOException("Tesseract-Timeout nach " + timeoutSeconds + " Sekunden");
             }
@@ -286,48 +423,21 @@ public class LocalInvoiceOcrService {
             // Exit-Code prüfen
             int exitCode = process.exitValue();
             if (exitCode != 0) {
-                // Fehlerausgabe lesen (begrenzt)
-                String error = readProcessOutput(process.getInputStream(), 500);
                 throw new IOException("Tesseract Exit-Code " + exitCode + ": " + error);
             }
             
-            // Text aus Output-Datei lesen (Tesseract fügt .txt an)
-            Path outputFile = Path.of(outputBase.toString() + ".txt");
-            if (Files.exists(outputFile)) {
-                return Files.readString(outputFile);
-            } else {
-                return "";
-            }
+            log.info("    ✅ Seite {}: {} Zeichen, {} Zeilen in {} ms", pageNumber, text.length(),
+                text.lines().filter(line -> !line.trim().isEmpty()).count(),
+                System.currentTimeMillis() - pageStart);
+            return text;
             
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new IOException("OCR unterbrochen", e);
         } finally {
-            // Temporäres Verzeichnis IMMER rekursiv löschen
-            if (tempDir != null) {
-                deleteDirectoryRecursively(tempDir);
-            }
-        }
-    }
-    
-    /**
-     * Löscht Verzeichnis rekursiv.
-     */
-    private void deleteDirectoryRecursively(Path directory) {
-        try {
-            if (Files.exists(directory)) {
-                Files.walk(directory)
-                    .sorted((a, b) -> b.compareTo(a)) // Dateien vor Verzeichnissen
-                    .forEach(path -> {
-                        try {
-                            Files.deleteIfExists(path);
-                        } catch (IOException e) {
-                            log.warn("Konnte nicht löschen: {}", path);
-                        }
-                    });
+            if (process.isAlive()) {
+                process.destroyForcibly();
             }
-        } catch (IOException e) {
-            log.warn("Temp-Verzeichnis konnte nicht gelöscht werden: {}", directory);
         }
     }
     
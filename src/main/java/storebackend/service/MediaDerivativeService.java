@@ -0,0 +1,618 @@
+package storebackend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import storebackend.entity.Media;
+import storebackend.enums.MediaType;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Responsive Bild-Ableitungen (srcset) für Produkt-, Slider- und Banner-Bilder.
+ *
+ * - Nach dem Commit des Uploads rendert ein begrenzter Worker-Pool verkleinerte JPEGs in den
+ *   Breiten media.derivatives.widths – WebP zusätzlich, sofern ein ImageIO-WebP-Writer im Classpath ist
+ * - Ablage neben dem Original: stores/1/product_image/&lt;uuid&gt;.png → stores/1/product_image/&lt;uuid&gt;_w480.jpg
+ * - Erzeugte Breiten/Formate stehen in media.derivative_widths/-formats, daraus baut {@link #srcset} die Angabe
+ * - Es wird nie hochskaliert; GIFs (Animation) bleiben unverändert
+ * - JPEG-EXIF-Orientierung (Handyfotos) wird vor dem Skalieren angewendet – Ableitungen und
+ *   image_width/-height sind aufrecht, wie der Browser das Original anzeigt
+ * - Große Originale werden per Subsampling auf ca. die doppelte größte Zielbreite dekodiert
+ *   (ein 24-MP-Foto wird mit Schritt 2 gelesen: ~1/4 des Heaps); image_width/-height bleiben die Originalmaße
+ * - Queue voll oder MinIO nicht erreichbar: das Bild bleibt offen und der Backfill holt es nach;
+ *   Fehlversuche werden gezählt, der Backfill nimmt Bilder mit wenigen Versuchen zuerst und nach
+ *   media.derivatives.max-attempts wird das Bild ohne Ableitungen abgeschlossen
+ */
+@Service
+@Slf4j
+public class MediaDerivativeService {
+
+    public static final String JPEG = "jpg";
+    public static final String WEBP = "webp";
+
+    private static final Set<MediaType> DERIVATIVE_TYPES =
+        EnumSet.of(MediaType.PRODUCT_IMAGE, MediaType.IMAGE, MediaType.STORE_BANNER);
+
+    private static final String PENDING_SQL =
+        "SELECT id FROM media WHERE derivatives_processed_at IS NULL "
+            + "AND media_type IN ('PRODUCT_IMAGE', 'IMAGE', 'STORE_BANNER') "
+            + "AND content_type LIKE 'image/%' AND content_type <> 'image/gif' "
+            + "ORDER BY derivative_attempts, id LIMIT ?";
+
+    /** Eine gerenderte Ableitung */
+    record Derivative(int width, String format, byte[] data) {}
+
+    private record PendingMedia(Long storeId, String objectName) {}
+
+    /** Dekodiertes (ggf. unterabgetastetes) Bild samt aufrechten Originalmaßen */
+    private record DecodedImage(BufferedImage image, int width, int height) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MinioService minioService;
+    private final ProductCatalogCache catalogCache;
+    private final StorefrontVersionService storefrontVersions;
+    private final int[] widths;
+    private final float jpegQuality;
+    private final long maxPixels;
+    private final int queueCapacity;
+    private final int maxAttempts;
+    private final boolean webpAvailable;
+    private final Timer renderTimer;
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor executor;
+
+    public MediaDerivativeService(
+            JdbcTemplate jdbcTemplate,
+            MinioService minioService,
+            ProductCatalogCache catalogCache,
+            StorefrontVersionService storefrontVersions,
+            MeterRegistry meterRegistry,
+            @Value("${media.derivatives.widths:160,480,960,1600}") int[] widths,
+            @Value("${media.derivatives.jpeg-quality:0.82}") float jpegQuality,
+            @Value("${media.derivatives.max-pixels:25000000}") long maxPixels,
+            @Value("${media.derivatives.worker-threads:2}") int workerThreads,
+            @Value("${media.derivatives.queue-capacity:200}") int queueCapacity,
+            @Value("${media.derivatives.max-attempts:5}") int maxAttempts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.minioService = minioService;
+        this.catalogCache = catalogCache;
+        this.storefrontVersions = storefrontVersions;
+        // Absteigend: jede Stufe wird aus der nächstgrößeren gerendert
+        this.widths = Arrays.stream(widths).filter(w -> w > 0).distinct()
+            .boxed().sorted((a, b) -> b - a).mapToInt(Integer::intValue).toArray();
+        this.jpegQuality = jpegQuality;
+        this.maxPixels = maxPixels;
+        this.queueCapacity = queueCapacity;
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.webpAvailable = ImageIO.getImageWritersByFormatName(WEBP).hasNext();
+
+        this.renderTimer = Timer.builder("media.derivatives.render")
+            .description("Erzeugen und Hochladen der responsiven Ableitungen eines Bildes")
+            .register(meterRegistry);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+            workerThreads, workerThreads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "media-derivatives-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        this.executor.allowCoreThreadTimeOut(true);
+
+        if (!webpAvailable) {
+            log.info("No ImageIO WebP writer on the classpath – media derivatives are generated as JPEG only");
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Reiht die Ableitungen eines frisch gespeicherten Bildes ein – erst nach dem Commit,
+     * damit der Worker den Datensatz sieht.
+     */
+    public void schedule(Media media) {
+        if (!isEligible(media.getMediaType(), media.getContentType()) || !minioService.isAvailable()) {
+            return;
+        }
+        Long mediaId = media.getId();
+        afterCommit(() -> submit(mediaId));
+    }
+
+    /**
+     * Backfill für Bestandsbilder (und Uploads, deren Job nicht lief): füllt die Queue bis auf
+     * ein Viertel Reserve für neue Uploads. Weitere offene Bilder folgen im nächsten Lauf.
+     */
+    @Scheduled(cron = "${media.derivatives.backfill-cron:0 */5 * * * *}")
+    public int backfill() {
+        if (!minioService.isAvailable()) {
+            return 0;
+        }
+        int freeSlots = executor.getQueue().remainingCapacity() - queueCapacity / 4;
+        if (freeSlots <= 0) {
+            return 0;
+        }
+
+        int submitted = 0;
+        for (Long mediaId : jdbcTemplate.queryForList(PENDING_SQL, Long.class, freeSlots + inFlight.size())) {
+            if (inFlight.contains(mediaId)) {
+                continue;
+            }
+            if (!submit(mediaId) || ++submitted >= freeSlots) {
+                break;
+            }
+        }
+        if (submitted > 0) {
+            log.info("🖼️ Media derivative backfill: {} images queued", submitted);
+        }
+        return submitted;
+    }
+
+    private boolean submit(Long mediaId) {
+        if (!inFlight.add(mediaId)) {
+            return true;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    process(mediaId);
+                } finally {
+                    inFlight.remove(mediaId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(mediaId);
+            log.warn("⚠️ Media derivative queue full, media {} left for backfill", mediaId);
+            return false;
+        }
+    }
+
+    /**
+     * Lädt das Original, rendert und speichert die Ableitungen. Nicht dekodierbare Bilder werden
+     * als erledigt (ohne Ableitungen) markiert, Speicherfehler beim nächsten Backfill wiederholt –
+     * höchstens media.derivatives.max-attempts Mal.
+     */
+    void process(Long mediaId) {
+        List<PendingMedia> rows = jdbcTemplate.query(
+            "SELECT store_id, minio_object_name FROM media WHERE id = ? AND derivatives_processed_at IS NULL",
+            (rs, rowNum) -> new PendingMedia(rs.getLong("store_id"), rs.getString("minio_object_name")),
+            mediaId);
+        if (rows.isEmpty()) {
+            return; // gelöscht oder bereits erledigt
+        }
+        PendingMedia media = rows.get(0);
+
+        Timer.Sample sample = Timer.start();
+        try {
+            byte[] original;
+            try (InputStream input = minioService.getFile(media.objectName())) {
+                original = input.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            DecodedImage decoded;
+            BufferedImage source = null;
+            try {
+                int orientation = exifOrientation(original);
+                decoded = decode(original, orientation);
+                if (decoded != null) {
+                    source = applyOrientation(decoded.image(), orientation);
+                }
+            } catch (IOException e) {
+                log.warn("⚠️ Media {} could not be decoded, no derivatives: {}", mediaId, e.getMessage());
+                decoded = null;
+            }
+            if (source == null) {
+                markProcessed(mediaId, null, null, List.of());
+                return;
+            }
+
+            List<Derivative> derivatives = render(source);
+            for (Derivative derivative : derivatives) {
+                minioService.uploadInputStream(new ByteArrayInputStream(derivative.data()),
+                    derivative.data().length, contentType(derivative.format()),
+                    derivativeObjectName(media.objectName(), derivative.width(), derivative.format()));
+            }
+            markProcessed(mediaId, decoded.width(), decoded.height(), derivatives);
+
+            // Produkt-DTOs und Storefront-Bootstrap enthalten die srcset-Angaben
+            jdbcTemplate.queryForList("SELECT product_id FROM product_media WHERE media_id = ?", Long.class, mediaId)
+                .forEach(catalogCache::evictProduct);
+            storefrontVersions.bump(media.storeId());
+
+            log.info("🖼️ {} derivatives generated for media {} ({}x{})",
+                derivatives.size(), mediaId, decoded.width(), decoded.height());
+        } catch (Exception e) {
+            recordFailure(mediaId, e);
+        } finally {
+            sample.stop(renderTimer);
+        }
+    }
+
+    /**
+     * Rendert alle konfigurierten Breiten unterhalb der Originalbreite (absteigend).
+     */
+    List<Derivative> render(BufferedImage source) throws IOException {
+        List<Derivative> result = new ArrayList<>();
+        BufferedImage current = toRgb(source);
+        for (int width : widths) {
+            if (width >= source.getWidth()) {
+                continue;
+            }
+            current = scale(current, width);
+            result.add(new Derivative(width, JPEG, encode(current, "jpeg")));
+            if (webpAvailable) {
+                result.add(new Derivative(width, WEBP, encode(current, WEBP)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Löscht die Ableitungen eines Bildes (best effort – das Original wird separat gelöscht).
+     */
+    public void deleteDerivatives(Media media) {
+        for (int width : parseWidths(media.getDerivativeWidths())) {
+            for (String format : parseFormats(media.getDerivativeFormats())) {
+                String objectName = derivativeObjectName(media.getMinioObjectName(), width, format);
+                try {
+                    minioService.deleteFile(objectName);
+                } catch (Exception e) {
+                    log.warn("Failed to delete media derivative {}: {}", objectName, e.getMessage());
+                }
+            }
+        }
+    }
+
+    static boolean isEligible(MediaType mediaType, String contentType) {
+        return mediaType != null && DERIVATIVE_TYPES.contains(mediaType)
+            && contentType != null && contentType.startsWith("image/") && !contentType.equals("image/gif");
+    }
+
+    /**
+     * Objektname einer Ableitung neben dem Original: .../&lt;uuid&gt;.png → .../&lt;uuid&gt;_w480.jpg
+     */
+    public static String derivativeObjectName(String objectName, int width, String format) {
+        int slash = objectName.lastIndexOf('/');
+        int dot = objectName.lastIndexOf('.');
+        String base = dot > slash ? objectName.substring(0, dot) : objectName;
+        return base + "_w" + width + "." + format;
+    }
+
+    /**
+     * srcset-Angabe ("url 160w, url 480w, …") für ein Format; in der JPEG-Angabe ergänzt das
+     * Original die größte Stufe. null, solange es keine Ableitungen in diesem Format gibt.
+     *
+     * @param urlResolver objectName → URL (public oder presigned, wie beim Original)
+     */
+    public static String srcset(Media media, String format, Function<String, String> urlResolver) {
+        if (media == null || !parseFormats(media.getDerivativeFormats()).contains(format)) {
+            return null;
+        }
+        List<Integer> derivativeWidths = parseWidths(media.getDerivativeWidths());
+        if (derivativeWidths.isEmpty()) {
+            return null;
+        }
+        StringJoiner srcset = new StringJoiner(", ");
+        for (int width : derivativeWidths) {
+            srcset.add(urlResolver.apply(derivativeObjectName(media.getMinioObjectName(), width, format)) + " " + width + "w");
+        }
+        if (JPEG.equals(format) && media.getImageWidth() != null) {
+            srcset.add(urlResolver.apply(media.getMinioObjectName()) + " " + media.getImageWidth() + "w");
+        }
+        return srcset.toString();
+    }
+
+    /**
+     * Zählt einen Fehlversuch; beim letzten erlaubten Versuch wird das Bild ohne Ableitungen abgeschlossen,
+     * damit dauerhaft defekte Einträge den Backfill nicht blockieren.
+     */
+    private void recordFailure(Long mediaId, Exception e) {
+        jdbcTemplate.update(
+            "UPDATE media SET derivative_attempts = derivative_attempts + 1 WHERE id = ?", mediaId);
+        Integer attempts = jdbcTemplate.queryForObject(
+            "SELECT derivative_attempts FROM media WHERE id = ?", Integer.class, mediaId);
+        if (attempts != null && attempts >= maxAttempts) {
+            log.warn("⚠️ Derivatives for media {} failed {} times, giving up: {}", mediaId, attempts, e.getMessage());
+            markProcessed(mediaId, null, null, List.of());
+        } else {
+            log.warn("⚠️ Derivatives for media {} failed (attempt {}/{}), retried by backfill: {}",
+                mediaId, attempts, maxAttempts, e.getMessage());
+        }
+    }
+
+    private void markProcessed(Long mediaId, Integer width, Integer height, List<Derivative> derivatives) {
+        String derivativeWidths = derivatives.stream()
+            .map(Derivative::width).sorted().distinct().map(String::valueOf)
+            .collect(Collectors.joining(","));
+        String derivativeFormats = derivatives.stream()
+            .map(Derivative::format).distinct()
+            .collect(Collectors.joining(","));
+        jdbcTemplate.update(
+            "UPDATE media SET image_width = ?, image_height = ?, derivative_widths = ?, derivative_formats = ?, "
+                + "derivatives_processed_at = ? WHERE id = ?",
+            width, height, derivativeWidths, derivativeFormats, LocalDateTime.now(), mediaId);
+    }
+
+    /**
+     * Dekodiert das Original; null bei unbekanntem Format (z.B. WebP ohne Reader) oder zu vielen Pixeln.
+     * Ist das Bild deutlich breiter als die größte Zielbreite, liest der Reader nur jedes n-te Pixel –
+     * das Ergebnis ist etwa doppelt, mindestens aber einfach so breit wie die größte Ableitung.
+     */
+    private DecodedImage decode(byte[] data, int orientation) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                long pixels = (long) width * height;
+                if (pixels > maxPixels) {
+                    log.warn("⚠️ Image with {} pixels exceeds media.derivatives.max-pixels – skipped", pixels);
+                    return null;
+                }
+                boolean swap = orientation >= 5; // aufrechte Breite = gespeicherte Höhe
+                int uprightWidth = swap ? height : width;
+                int uprightHeight = swap ? width : height;
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = subsamplingStep(uprightWidth, widths.length > 0 ? widths[0] : uprightWidth);
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                return new DecodedImage(reader.read(0, param), uprightWidth, uprightHeight);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Subsampling-Schritt für ca. 2× die größte Ableitung. Gerundet statt abgeschnitten, damit
+     * auch 24-MP-Fotos (6000 px bei 1600 px Zielbreite) unterabgetastet werden; das Ergebnis
+     * bleibt dabei nie schmaler als die größte Ableitung.
+     */
+    static int subsamplingStep(int imageWidth, int largestWidth) {
+        return Math.max(1, Math.round(imageWidth / (2f * Math.max(largestWidth, 1))));
+    }
+
+    private byte[] encode(BufferedImage image, String format) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                String[] types = param.getCompressionTypes();
+                if (types != null && types.length > 0) {
+                    param.setCompressionType(types[0]); // JPEG: "JPEG", WebP: "Lossy"
+                }
+                param.setCompressionQuality(jpegQuality);
+            }
+            if (param.canWriteProgressive()) {
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * EXIF-Orientierung (Tag 0x0112) aus dem APP1-Segment eines JPEGs; 1 (= aufrecht), wenn
+     * kein JPEG, kein EXIF oder ein ungültiger Wert. ImageIO selbst ignoriert das Tag.
+     */
+    static int exifOrientation(byte[] data) {
+        if (data.length < 4 || (data[0] & 0xFF) != 0xFF || (data[1] & 0xFF) != 0xD8) {
+            return 1;
+        }
+        int pos = 2;
+        while (pos + 4 <= data.length && (data[pos] & 0xFF) == 0xFF) {
+            int marker = data[pos + 1] & 0xFF;
+            int length = readUnsignedShort(data, pos + 2, true);
+            if (marker == 0xDA || length < 2) {
+                break; // Start of Scan: danach folgen keine Header-Segmente mehr
+            }
+            int start = pos + 4;
+            int end = Math.min(pos + 2 + length, data.length);
+            if (marker == 0xE1 && end - start > 14
+                    && data[start] == 'E' && data[start + 1] == 'x' && data[start + 2] == 'i' && data[start + 3] == 'f'
+                    && data[start + 4] == 0 && data[start + 5] == 0) {
+                return tiffOrientation(data, start + 6, end);
+            }
+            pos += 2 + length;
+        }
+        return 1;
+    }
+
+    private static int tiffOrientation(byte[] data, int tiff, int end) {
+        boolean bigEndian = data[tiff] == 'M';
+        if (!bigEndian && data[tiff] != 'I') {
+            return 1;
+        }
+        long ifd = tiff + readUnsignedInt(data, tiff + 4, bigEndian);
+        if (ifd + 2 > end) {
+            return 1;
+        }
+        int entries = readUnsignedShort(data, (int) ifd, bigEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = (int) ifd + 2 + i * 12;
+            if (entry + 12 > end) {
+                break;
+            }
+            if (readUnsignedShort(data, entry, bigEndian) == 0x0112) {
+                int orientation = readUnsignedShort(data, entry + 8, bigEndian);
+                return orientation >= 1 && orientation <= 8 ? orientation : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static int readUnsignedShort(byte[] data, int offset, boolean bigEndian) {
+        int b0 = data[offset] & 0xFF;
+        int b1 = data[offset + 1] & 0xFF;
+        return bigEndian ? (b0 << 8) | b1 : (b1 << 8) | b0;
+    }
+
+    private static long readUnsignedInt(byte[] data, int offset, boolean bigEndian) {
+        long high = readUnsignedShort(data, bigEndian ? offset : offset + 2, bigEndian);
+        long low = readUnsignedShort(data, bigEndian ? offset + 2 : offset, bigEndian);
+        return (high << 16) | low;
+    }
+
+    /**
+     * Dreht/spiegelt das dekodierte Bild gemäß EXIF-Orientierung (2–8) in die aufrechte Lage.
+     */
+    static BufferedImage applyOrientation(BufferedImage source, int orientation) {
+        int w = source.getWidth();
+        int h = source.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);   // horizontal gespiegelt
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);  // 180°
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);   // vertikal gespiegelt
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);    // transponiert
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);   // 90° im Uhrzeigersinn
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);  // transversal
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, w);   // 90° gegen den Uhrzeigersinn
+            default -> null;
+        };
+        if (transform == null) {
+            return source;
+        }
+        boolean swap = orientation >= 5;
+        BufferedImage oriented = new BufferedImage(swap ? h : w, swap ? w : h,
+            source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = oriented.createGraphics();
+        g.drawImage(source, transform, null);
+        g.dispose();
+        return oriented;
+    }
+
+    /**
+     * Verkleinert in Halbierungsschritten (bilinear) – ein einzelner großer Sprung erzeugt Aliasing.
+     */
+    static BufferedImage scale(BufferedImage source, int targetWidth) {
+        int targetHeight = Math.max(1, Math.round(source.getHeight() * (targetWidth / (float) source.getWidth())));
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = step.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(current, 0, 0, width, height, null);
+            g.dispose();
+            current = step;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    /**
+     * JPEG kennt keine Transparenz – PNG-Alpha wird auf weißen Hintergrund gelegt.
+     */
+    private static BufferedImage toRgb(BufferedImage source) {
+        if (source.getType() == BufferedImage.TYPE_INT_RGB) {
+            return source;
+        }
+        BufferedImage rgb = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, source.getWidth(), source.getHeight());
+        g.drawImage(source, 0, 0, null);
+        g.dispose();
+        return rgb;
+    }
+
+    private static String contentType(String format) {
+        return WEBP.equals(format) ? "image/webp" : "image/jpeg";
+    }
+
+    private static List<Integer> parseWidths(String widths) {
+        if (widths == null || widths.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(widths.split(","))
+            .map(String::trim).filter(w -> !w.isEmpty())
+            .map(Integer::valueOf)
+            .collect(Collectors.toList());
+    }
+
+    private static Set<String> parseFormats(String formats) {
+        if (formats == null || formats.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(formats.split(","))
+            .map(String::trim).filter(f -> !f.isEmpty())
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
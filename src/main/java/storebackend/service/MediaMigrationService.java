@@ -7,7 +7,9 @@ import org.springframework.transaction.annotation.Transactional;
 import storebackend.entity.Product;
 import storebackend.repository.ProductRepository;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Service für die Bereinigung alter Presigned URLs in der Datenbank.
@@ -28,6 +30,8 @@ public class MediaMigrationService {
 
     private final ProductRepository productRepository;
     private final MinioService minioService;
+    private final ProductCatalogCache catalogCache;
+    private final StorefrontVersionService storefrontVersions;
 
     /**
      * Bereinigt alle product.image_url-Felder:
@@ -43,6 +47,7 @@ public class MediaMigrationService {
         
         List<Product> allProducts = productRepository.findAll();
         int cleanedCount = 0;
+        Set<Long> updatedStoreIds = new HashSet<>();
         
         for (Product product : allProducts) {
             if (product.getImageUrl() == null || product.getImageUrl().isBlank()) {
@@ -60,9 +65,14 @@ public class MediaMigrationService {
                 
                 product.setImageUrl(cleanedUrl);
                 productRepository.save(product);
+                catalogCache.evictProduct(product.getId());
+                if (product.getStore() != null) {
+                    updatedStoreIds.add(product.getStore().getId());
+                }
                 cleanedCount++;
             }
         }
+        updatedStoreIds.forEach(storefrontVersions::bump);
         
         log.info("[MediaMigration] Bereinigung abgeschlossen: {} von {} Produkten aktualisiert", 
             cleanedCount, allProducts.size());
@@ -14,6 +14,7 @@ import storebackend.enums.MediaType;
 import storebackend.repository.MediaRepository;
 import storebackend.repository.StoreRepository;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
@@ -33,11 +34,15 @@ public class MediaService {
     private final MinioService minioService;
     private final StoreUsageService storeUsageService;
     private final StoreRepository storeRepository;
+    private final StoreHostCache storeHostCache;
+    private final StorefrontVersionService storefrontVersions;
+    private final MediaDerivativeService mediaDerivatives;
 
     private static final List<String> ALLOWED_IMAGE_TYPES = Arrays.asList(
             "image/jpeg", "image/jpg", "image/png", "image/gif", "image/webp"
     );
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10 MB
+    private static final int MAGIC_BYTES = 12;
 
     /**
      * Upload media file
@@ -78,6 +83,7 @@ public class MediaService {
         media.setAltText(altText);
 
         media = mediaRepository.save(media);
+        mediaDerivatives.schedule(media);
 
         // ✅ WICHTIG: Wenn LOGO oder STORE_LOGO hochgeladen wird, aktualisiere store.logoUrl
         if (mediaType == MediaType.LOGO || mediaType == MediaType.STORE_LOGO) {
@@ -85,6 +91,8 @@ public class MediaService {
             String logoUrl = minioService.getPublicUrl(minioObjectName);
             store.setLogoUrl(logoUrl);
             storeRepository.save(store);
+            storeHostCache.evictStore(store.getId());
+            storefrontVersions.bump(store.getId());
             log.info("✅ Store logo updated (permanent URL) for store {}: {}", store.getId(), logoUrl);
         }
 
@@ -148,6 +156,7 @@ public class MediaService {
 
         // Delete from MinIO
         minioService.deleteFile(media.getMinioObjectName());
+        mediaDerivatives.deleteDerivatives(media);
 
         // Update usage
         storeUsageService.decrementStorage(store, media.getSizeBytes());
@@ -198,36 +207,34 @@ public class MediaService {
         String ext = contentType.replace("image/", "").replace("jpeg", "jpg");
         String filename = "telegram_" + UUID.randomUUID() + "." + ext;
 
+        // Streaming-Upload: Download wird direkt (in Parts) nach MinIO geschrieben, nicht im Heap gepuffert
+        String objectName = "stores/" + store.getId() + "/telegram/" + filename;
+        MinioService.StreamedUpload upload;
         try (InputStream inputStream = conn.getInputStream()) {
-            byte[] data = inputStream.readAllBytes();
-            long sizeBytes = data.length;
+            upload = minioService.uploadStream(inputStream, contentType, objectName, MAX_FILE_SIZE);
+        }
+        long sizeBytes = upload.sizeBytes();
 
-            // Upload zu MinIO via vorhandenem uploadTemporaryFile-Muster
-            String objectName = "stores/" + store.getId() + "/telegram/" + filename;
-            try (InputStream uploadStream = new java.io.ByteArrayInputStream(data)) {
-                minioService.uploadInputStream(uploadStream, sizeBytes, contentType, objectName);
-            }
+        // Media-Entity speichern
+        Media media = new Media();
+        media.setStore(store);
+        media.setFilename(filename);
+        media.setOriginalFilename(filename);
+        media.setContentType(contentType);
+        media.setSizeBytes(sizeBytes);
+        media.setMinioObjectName(objectName);
+        media.setMediaType(storebackend.enums.MediaType.PRODUCT_IMAGE);
+        media.setAltText(altText);
 
-            // Media-Entity speichern
-            Media media = new Media();
-            media.setStore(store);
-            media.setFilename(filename);
-            media.setOriginalFilename(filename);
-            media.setContentType(contentType);
-            media.setSizeBytes(sizeBytes);
-            media.setMinioObjectName(objectName);
-            media.setMediaType(storebackend.enums.MediaType.PRODUCT_IMAGE);
-            media.setAltText(altText);
-
-            media = mediaRepository.save(media);
-
-            // Usage aktualisieren
-            storeUsageService.incrementStorage(store, sizeBytes);
-            storeUsageService.incrementImageCount(store);
-
-            log.info("[MediaService] uploadFromUrl ✅ mediaId={} für store={}", media.getId(), store.getId());
-            return media;
-        }
+        media = mediaRepository.save(media);
+        mediaDerivatives.schedule(media);
+
+        // Usage aktualisieren
+        storeUsageService.incrementStorage(store, sizeBytes);
+        storeUsageService.incrementImageCount(store);
+
+        log.info("[MediaService] uploadFromUrl ✅ mediaId={} für store={}", media.getId(), store.getId());
+        return media;
     }
 
     /**
@@ -236,17 +243,25 @@ public class MediaService {
      */
     @Transactional
     public Media uploadFromBase64(Store store, String base64Data, String altText) throws IOException {
-        byte[] data = Base64.getDecoder().decode(base64Data);
-        long sizeBytes = data.length;
+        String contentType;
+        String filename;
+        String objectName;
+        long sizeBytes;
 
-        // Inhalt prüfen (Magic Bytes)
-        String contentType = detectContentType(data);
-        String ext = contentType.replace("image/", "").replace("jpeg", "jpg");
-        String filename = "telegram_" + UUID.randomUUID() + "." + ext;
-        String objectName = "stores/" + store.getId() + "/telegram/" + filename;
+        // Streaming-Dekodierung: das Bild wird beim Upload dekodiert, kein byte[] in voller Größe
+        try (InputStream decoded = new BufferedInputStream(
+                Base64.getDecoder().wrap(new AsciiCharSequenceInputStream(base64Data)))) {
+
+            // Inhalt prüfen (Magic Bytes)
+            decoded.mark(MAGIC_BYTES);
+            contentType = detectContentType(decoded.readNBytes(MAGIC_BYTES));
+            decoded.reset();
+
+            String ext = contentType.replace("image/", "").replace("jpeg", "jpg");
+            filename = "telegram_" + UUID.randomUUID() + "." + ext;
+            objectName = "stores/" + store.getId() + "/telegram/" + filename;
 
-        try (InputStream uploadStream = new java.io.ByteArrayInputStream(data)) {
-            minioService.uploadInputStream(uploadStream, sizeBytes, contentType, objectName);
+            sizeBytes = minioService.uploadStream(decoded, contentType, objectName, MAX_FILE_SIZE).sizeBytes();
         }
 
         Media media = new Media();
@@ -260,6 +275,7 @@ public class MediaService {
         media.setAltText(altText);
 
         media = mediaRepository.save(media);
+        mediaDerivatives.schedule(media);
         storeUsageService.incrementStorage(store, sizeBytes);
         storeUsageService.incrementImageCount(store);
 
@@ -267,6 +283,39 @@ public class MediaService {
         return media;
     }
 
+    /**
+     * Liest die Zeichen eines (Base64-)Strings als Bytes, ohne ihn in ein byte[] zu kopieren.
+     */
+    private static final class AsciiCharSequenceInputStream extends InputStream {
+        private final CharSequence chars;
+        private int position;
+
+        AsciiCharSequenceInputStream(CharSequence chars) {
+            this.chars = chars;
+        }
+
+        @Override
+        public int read() {
+            return position < chars.length() ? chars.charAt(position++) & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            int remaining = chars.length() - position;
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = Math.min(length, remaining);
+            for (int i = 0; i < n; i++) {
+                buffer[offset + i] = (byte) chars.charAt(position++);
+            }
+            return n;
+        }
+    }
+
     /** Erkennt Bild-Content-Type anhand der Magic Bytes. */
     private String detectContentType(byte[] data) {
         if (data.length >= 3
@@ -301,6 +350,7 @@ public class MediaService {
             try {
                 // Delete from MinIO
                 minioService.deleteFile(media.getMinioObjectName());
+                mediaDerivatives.deleteDerivatives(media);
                 deletedCount++;
                 log.debug("Deleted MinIO file: {}", media.getMinioObjectName());
             } catch (Exception e) {
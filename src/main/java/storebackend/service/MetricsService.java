@@ -2,22 +2,53 @@ package storebackend.service;
 
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 @Service
 @Slf4j
 public class MetricsService {
 
+    static final String NO_TENANT = "none";
+    static final String OTHER_TENANT = "other";
+
+    /** Meter-Cache je (Route, Methode, Status, Tenant) – kein Builder/Registry-Lookup im Hot Path. */
+    record RouteKey(String route, String method, int status, String tenant) {}
+
+    record RequestMeters(Timer timer, Counter outcome) {}
+
     private final MeterRegistry meterRegistry;
     private final Counter apiErrorCounter;
     private final Counter apiSuccessCounter;
 
-    public MetricsService(MeterRegistry meterRegistry) {
+    private final Map<RouteKey, RequestMeters> requestMeters = new ConcurrentHashMap<>();
+    private final Set<String> trackedTenants = ConcurrentHashMap.newKeySet();
+    private final boolean tenantTagEnabled;
+    private final int maxTenants;
+    private final boolean percentileHistogram;
+    private final Duration[] sloBuckets;
+
+    public MetricsService(
+            MeterRegistry meterRegistry,
+            @Value("${metrics.http.tenant-tag.enabled:false}") boolean tenantTagEnabled,
+            @Value("${metrics.http.tenant-tag.max-tenants:50}") int maxTenants,
+            @Value("${metrics.http.percentile-histogram:false}") boolean percentileHistogram,
+            @Value("${metrics.http.slo:50ms,100ms,250ms,500ms,1s,2s}") List<Duration> sloBuckets) {
         this.meterRegistry = meterRegistry;
+        this.tenantTagEnabled = tenantTagEnabled;
+        this.maxTenants = maxTenants;
+        this.percentileHistogram = percentileHistogram;
+        this.sloBuckets = sloBuckets.toArray(Duration[]::new);
 
         // Counter für API-Fehler
         this.apiErrorCounter = Counter.builder("api.errors")
@@ -33,47 +64,88 @@ public class MetricsService {
     }
 
     /**
-     * Erfasst einen API-Fehler mit Details
+     * Erfasst einen abgeschlossenen API-Request.
+     *
+     * @param route        Route-Template (z.B. /api/stores/{storeId}/orders), NIE die rohe URI
+     * @param tenant       Store-ID oder null (nur bei aktivem Tenant-Tag ausgewertet)
+     * @param durationNanos gemessene Dauer in Nanosekunden
      */
-    public void recordApiError(String endpoint, String method, int statusCode, String errorType) {
-        apiErrorCounter.increment();
-
-        Counter.builder("api.errors.detailed")
-                .description("API errors by endpoint")
-                .tag("endpoint", endpoint)
-                .tag("method", method)
-                .tag("status", String.valueOf(statusCode))
-                .tag("error_type", errorType)
-                .register(meterRegistry)
-                .increment();
-
-        log.warn("📊 API Error tracked: {} {} - Status: {}, Type: {}", method, endpoint, statusCode, errorType);
+    public void recordRequest(String route, String method, int statusCode, String tenant, long durationNanos) {
+        RequestMeters meters = requestMeters.computeIfAbsent(
+                new RouteKey(route, method, statusCode, tenantTag(tenant)), this::registerRequestMeters);
+
+        meters.timer().record(durationNanos, TimeUnit.NANOSECONDS);
+        if (meters.outcome() != null) {
+            meters.outcome().increment();
+        }
+        if (statusCode >= 200 && statusCode < 300) {
+            apiSuccessCounter.increment();
+        } else if (statusCode >= 400) {
+            apiErrorCounter.increment();
+            log.warn("📊 API Error tracked: {} {} - Status: {}", method, route, statusCode);
+        }
     }
 
     /**
-     * Erfasst erfolgreichen API-Call
+     * Tenant-Tag mit Obergrenze: die ersten {@code maxTenants} Stores bekommen ein eigenes Tag,
+     * alle weiteren landen in "other".
      */
-    public void recordApiSuccess(String endpoint, String method) {
-        apiSuccessCounter.increment();
+    private String tenantTag(String tenant) {
+        if (!tenantTagEnabled || tenant == null) {
+            return NO_TENANT;
+        }
+        if (trackedTenants.contains(tenant)) {
+            return tenant;
+        }
+        synchronized (trackedTenants) {
+            if (trackedTenants.size() < maxTenants) {
+                trackedTenants.add(tenant);
+                return tenant;
+            }
+        }
+        return OTHER_TENANT;
+    }
 
-        Counter.builder("api.success.detailed")
-                .description("Successful API calls by endpoint")
-                .tag("endpoint", endpoint)
-                .tag("method", method)
-                .register(meterRegistry)
-                .increment();
+    private RequestMeters registerRequestMeters(RouteKey key) {
+        String status = String.valueOf(key.status());
+        Tags tags = Tags.of("endpoint", key.route(), "method", key.method(), "status", status);
+        if (tenantTagEnabled) {
+            tags = tags.and("store", key.tenant());
+        }
+
+        Timer timer = Timer.builder("api.response.time")
+                .description("API response time by route template")
+                .tags(tags)
+                .publishPercentileHistogram(percentileHistogram)
+                .serviceLevelObjectives(sloBuckets)
+                .register(meterRegistry);
+
+        Counter outcome = null;
+        if (key.status() >= 200 && key.status() < 300) {
+            outcome = Counter.builder("api.success.detailed")
+                    .description("Successful API calls by route template")
+                    .tags(tags)
+                    .register(meterRegistry);
+        } else if (key.status() >= 400) {
+            outcome = Counter.builder("api.errors.detailed")
+                    .description("API errors by route template")
+                    .tags(tags)
+                    .tag("error_type", errorType(key.status()))
+                    .register(meterRegistry);
+        }
+        return new RequestMeters(timer, outcome);
     }
 
-    /**
-     * Erfasst Response-Zeit
-     */
-    public void recordResponseTime(String endpoint, String method, long durationMs) {
-        Timer.builder("api.response.time")
-                .description("API response time in milliseconds")
-                .tag("endpoint", endpoint)
-                .tag("method", method)
-                .register(meterRegistry)
-                .record(durationMs, TimeUnit.MILLISECONDS);
+    private static String errorType(int status) {
+        return switch (status) {
+            case 400 -> "BAD_REQUEST";
+            case 401 -> "UNAUTHORIZED";
+            case 403 -> "FORBIDDEN";
+            case 404 -> "NOT_FOUND";
+            case 500 -> "INTERNAL_ERROR";
+            case 503 -> "SERVICE_UNAVAILABLE";
+            default -> "ERROR_" + status;
+        };
     }
 
     /**
@@ -1,5 +1,8 @@
 package storebackend.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.minio.*;
 import io.minio.http.Method;
 import lombok.extern.slf4j.Slf4j;
@@ -8,8 +11,14 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import storebackend.config.MinioProperties;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -20,6 +29,15 @@ public class MinioService {
     private final MinioClient minioClient;
     private final MinioProperties minioProperties;
 
+    /**
+     * Cache für Presigned URLs aus resolveUrl(): Schlüssel objectName + angefragte Gültigkeit.
+     * Eine signierte URL wird wiederverwendet, bis nur noch der Sicherheitsabstand
+     * (presignedUrlRefreshMarginMinutes, max. halbe Gültigkeit) übrig ist.
+     */
+    private final Cache<PresignKey, String> presignedUrlCache;
+
+    record PresignKey(String objectName, int expiryMinutes) {}
+
     @Autowired
     public MinioService(@Autowired(required = false) MinioClient minioClient, MinioProperties minioProperties) {
         this.minioClient = minioClient;
@@ -27,6 +45,32 @@ public class MinioService {
         if (minioClient == null) {
             log.warn("MinIO client is not available. File upload features will be disabled.");
         }
+        this.presignedUrlCache = Caffeine.newBuilder()
+                .maximumSize(50_000)
+                .expireAfter(new Expiry<PresignKey, String>() {
+                    @Override
+                    public long expireAfterCreate(PresignKey key, String url, long currentTime) {
+                        return TimeUnit.MINUTES.toNanos(reuseMinutes(key.expiryMinutes()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(PresignKey key, String url, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, url, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(PresignKey key, String url, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Ist ein MinIO-Client konfiguriert? (Hintergrund-Jobs überspringen sonst ihre Arbeit)
+     */
+    public boolean isAvailable() {
+        return minioClient != null;
     }
 
     private void checkMinioAvailable() {
@@ -143,7 +187,7 @@ public class MinioService {
 
     /**
      * Upload eines InputStream mit bekannter Größe zu einem vorgegebenen objectName.
-     * Wird von MediaService.uploadFromUrl() genutzt (Telegram-Import).
+     * Bei unbekannter Größe (Downloads, Base64-Importe) {@link #uploadStream} verwenden.
      */
     public void uploadInputStream(InputStream inputStream, long sizeBytes,
                                   String contentType, String objectName) {
@@ -164,6 +208,110 @@ public class MinioService {
         }
     }
 
+    /**
+     * Ergebnis eines Streaming-Uploads: tatsächlich übertragene Bytes und SHA-256 (hex)
+     */
+    public record StreamedUpload(long sizeBytes, String sha256) {}
+
+    /**
+     * Streaming-Upload unbekannter Länge: MinIO-Multipart mit fester Part-Größe
+     * (minio.upload-part-size-bytes). Größe und SHA-256 werden beim Durchlauf ermittelt –
+     * der Heap-Bedarf pro Upload ist durch die Part-Größe begrenzt, nicht durch die Dateigröße.
+     *
+     * @param maxBytes Obergrenze; längere Streams werden abgebrochen (RuntimeException)
+     */
+    public StreamedUpload uploadStream(InputStream inputStream, String contentType,
+                                       String objectName, long maxBytes) {
+        checkMinioAvailable();
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        MeteredInputStream metered = new MeteredInputStream(new DigestInputStream(inputStream, digest), maxBytes);
+        try {
+            minioClient.putObject(
+                    PutObjectArgs.builder()
+                            .bucket(minioProperties.getBucket())
+                            .object(objectName)
+                            .stream(metered, -1, minioProperties.getUploadPartSizeBytes())
+                            .contentType(contentType)
+                            .build()
+            );
+        } catch (Exception e) {
+            if (metered.isLimitExceeded()) {
+                log.warn("Upload to MinIO aborted, {} exceeds {} bytes", objectName, maxBytes);
+                throw new RuntimeException("File size exceeds maximum allowed size of "
+                        + (maxBytes / (1024 * 1024)) + " MB");
+            }
+            log.error("Error streaming upload to MinIO: {}", objectName, e);
+            throw new RuntimeException("Failed to upload to MinIO", e);
+        }
+
+        StreamedUpload upload = new StreamedUpload(metered.getCount(), HexFormat.of().formatHex(digest.digest()));
+        log.info("Stream uploaded to MinIO: {} ({} bytes, sha256={})", objectName, upload.sizeBytes(), upload.sha256());
+        return upload;
+    }
+
+    /**
+     * Zählt gelesene Bytes und bricht oberhalb der Obergrenze mit einer IOException ab.
+     */
+    private static final class MeteredInputStream extends FilterInputStream {
+        private final long maxBytes;
+        private long count;
+        private boolean limitExceeded;
+
+        MeteredInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                advance(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                advance(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            throw new IOException("skip not supported on upload stream");
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void advance(long n) throws IOException {
+            count += n;
+            if (count > maxBytes) {
+                limitExceeded = true;
+                throw new IOException("Upload exceeds " + maxBytes + " bytes");
+            }
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        boolean isLimitExceeded() {
+            return limitExceeded;
+        }
+    }
+
     /**
      * Delete file from MinIO
      */
@@ -375,11 +523,63 @@ public class MinioService {
             if (objectName == null) {
                 return urlOrObjectName; // Externe URL
             }
-            // MinIO-URL → in objectName umwandeln und neue Presigned URL erstellen
-            return getPresignedUrl(objectName, expiryMinutes);
+            // MinIO-URL → in objectName umwandeln und (gecachte) Presigned URL liefern
+            return resolveObjectUrl(objectName, expiryMinutes);
         }
         
         // Bereits ein objectName → Presigned URL generieren
-        return getPresignedUrl(urlOrObjectName, expiryMinutes);
+        return resolveObjectUrl(urlOrObjectName, expiryMinutes);
+    }
+
+    /**
+     * objectName → URL:
+     * - public-read Präfix → permanente URL ohne Signatur (deterministisch, CDN-cachebar)
+     * - sonst → Presigned URL aus dem Cache, bei Bedarf neu signiert
+     */
+    private String resolveObjectUrl(String objectName, int expiryMinutes) {
+        if (isPublicReadObject(objectName)) {
+            return getPublicUrl(objectName);
+        }
+        if (reuseMinutes(expiryMinutes) <= 0) {
+            return getPresignedUrl(objectName, expiryMinutes);
+        }
+        return presignedUrlCache.get(new PresignKey(objectName, expiryMinutes),
+                key -> getPresignedUrl(key.objectName(), key.expiryMinutes()));
+    }
+
+    /**
+     * Liegt das Objekt unter einem als public-read konfigurierten Präfix (minio.public-read-prefixes)?
+     */
+    public boolean isPublicReadObject(String objectName) {
+        List<String> prefixes = minioProperties.getPublicReadPrefixes();
+        if (prefixes == null || prefixes.isEmpty()) {
+            return false;
+        }
+        for (String prefix : prefixes) {
+            if (prefix != null && !prefix.isEmpty() && objectName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Restgültigkeit, die eine von resolveUrl() gelieferte Presigned URL mindestens noch hat.
+     * Caches, die solche URLs enthalten, dürfen zusammen nicht länger halten.
+     */
+    public static int minRemainingValidityMinutes(int expiryMinutes, int refreshMarginMinutes) {
+        return expiryMinutes - Math.max(reuseMinutes(expiryMinutes, refreshMarginMinutes), 0);
+    }
+
+    private int reuseMinutes(int expiryMinutes) {
+        return reuseMinutes(expiryMinutes, minioProperties.getPresignedUrlRefreshMarginMinutes());
+    }
+
+    /**
+     * Wie lange eine URL mit der angefragten Gültigkeit wiederverwendet werden darf.
+     */
+    private static int reuseMinutes(int expiryMinutes, int refreshMarginMinutes) {
+        int margin = Math.min(refreshMarginMinutes, expiryMinutes / 2);
+        return expiryMinutes - Math.max(margin, 1);
     }
 }
@@ -0,0 +1,187 @@
+package storebackend.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Year;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Vergibt Bestellnummern je Store und Jahr, z.B. {@code ORD-121-2026-000042}.
+ *
+ * Hi/Lo: pro (Store, Jahr) wird ein Block von {@code order.number.block-size} Nummern in
+ * order_number_blocks reserviert (eigene, kurze Transaktion mit Zeilensperre). Innerhalb
+ * des Blocks wird lock-frei per AtomicLong vergeben – im Normalfall kein DB-Roundtrip.
+ *
+ * Die Reservierung läuft über einen eigenen Mini-Pool: Checkout-Threads halten beim Warten
+ * auf einen neuen Block bereits eine Verbindung des Haupt-Pools – ein REQUIRES_NEW darauf
+ * könnte den Pool bei Lastspitzen komplett blockieren. Der Mini-Pool übernimmt dieselben
+ * {@code spring.datasource.hikari.*}-Einstellungen wie der Haupt-Pool (Timeouts,
+ * data-source-properties wie currentSchema); nur Name und Größe werden überschrieben.
+ *
+ * Eigenschaften:
+ * - eindeutig über Threads und Instanzen (jede Instanz hat eigene Blöcke)
+ * - pro Instanz aufsteigend; zwischen Instanzen nur grob sortiert
+ * - Lücken möglich (nicht verbrauchte Blöcke bei Neustart, abgebrochene Checkouts)
+ */
+@Service
+@Slf4j
+public class OrderNumberAllocator {
+
+    private static final String SELECT_SQL =
+        "SELECT next_value FROM order_number_blocks WHERE store_id = ? AND order_year = ? FOR UPDATE";
+    private static final String UPDATE_SQL =
+        "UPDATE order_number_blocks SET next_value = next_value + ? WHERE store_id = ? AND order_year = ?";
+    private static final String INSERT_SQL =
+        "INSERT INTO order_number_blocks (store_id, order_year, next_value) VALUES (?, ?, ?)";
+
+    record BlockKey(Long storeId, int year) {}
+
+    /** Reservierter Bereich [next, end) */
+    static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+
+        /** Nächste Nummer oder -1, wenn der Block aufgebraucht ist */
+        long tryNext() {
+            long value = next.getAndIncrement();
+            return value < end ? value : -1;
+        }
+    }
+
+    private static final Block EXHAUSTED = new Block(0, 0);
+
+    private final HikariDataSource allocationDataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate allocationTransaction;
+    private final int blockSize;
+    private final String prefix;
+    private final int padding;
+
+    private final Map<BlockKey, Block> blocks = new ConcurrentHashMap<>();
+    /** Ein Monitor pro (Store, Jahr): Nachladen blockiert nur Threads desselben Keys */
+    private final Map<BlockKey, Object> refillLocks = new ConcurrentHashMap<>();
+    private final Counter blockAllocations;
+
+    public OrderNumberAllocator(
+            DataSourceProperties dataSourceProperties,
+            Environment environment,
+            MeterRegistry meterRegistry,
+            @Value("${order.number.block-size:50}") int blockSize,
+            @Value("${order.number.prefix:ORD}") String prefix,
+            @Value("${order.number.padding:6}") int padding,
+            @Value("${order.number.pool-size:2}") int poolSize) {
+        this.allocationDataSource = dataSourceProperties.initializeDataSourceBuilder()
+            .type(HikariDataSource.class)
+            .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(allocationDataSource));
+        this.allocationDataSource.setPoolName("order-number-pool");
+        this.allocationDataSource.setMaximumPoolSize(poolSize);
+        this.allocationDataSource.setMinimumIdle(0);
+        this.jdbcTemplate = new JdbcTemplate(allocationDataSource);
+        this.allocationTransaction = new TransactionTemplate(new DataSourceTransactionManager(allocationDataSource));
+        this.blockSize = blockSize;
+        this.prefix = prefix;
+        this.padding = padding;
+
+        this.blockAllocations = Counter.builder("orders.number.block_allocations")
+            .description("Order number blocks reserved from the database")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void close() {
+        allocationDataSource.close();
+    }
+
+    /**
+     * Nächste Bestellnummer für einen Store (aktuelles Jahr)
+     */
+    public String next(Long storeId) {
+        int year = Year.now().getValue();
+        return format(storeId, year, nextValue(new BlockKey(storeId, year)));
+    }
+
+    long nextValue(BlockKey key) {
+        while (true) {
+            Block block = blocks.getOrDefault(key, EXHAUSTED);
+            long value = block.tryNext();
+            if (value > 0) {
+                return value;
+            }
+            refill(key, block);
+        }
+    }
+
+    private String format(Long storeId, int year, long value) {
+        return format(prefix, padding, storeId, year, value);
+    }
+
+    /** PREFIX-&lt;storeId&gt;-&lt;year&gt;-&lt;seq&gt;, z.B. ORD-12-2026-000042 */
+    static String format(String prefix, int padding, Long storeId, int year, long value) {
+        return prefix + "-" + storeId + "-" + year + "-" + String.format("%0" + padding + "d", value);
+    }
+
+    /**
+     * Neuen Block reservieren – nur ein Thread pro Key, andere warten und nutzen den neuen Block.
+     */
+    private void refill(BlockKey key, Block exhausted) {
+        synchronized (refillLocks.computeIfAbsent(key, k -> new Object())) {
+            if (blocks.getOrDefault(key, EXHAUSTED) != exhausted) {
+                return; // bereits von einem anderen Thread nachgeladen
+            }
+            long start = reserveBlock(key);
+            blocks.put(key, new Block(start, start + blockSize));
+            blockAllocations.increment();
+            log.debug("Reserved order numbers {}..{} for store {} ({})",
+                start, start + blockSize - 1, key.storeId(), key.year());
+        }
+    }
+
+    /**
+     * Reserviert [start, start + blockSize) in eigener Transaktion und liefert start.
+     */
+    private long reserveBlock(BlockKey key) {
+        while (true) {
+            try {
+                Long start = allocationTransaction.execute(status -> {
+                    List<Long> current = jdbcTemplate.queryForList(SELECT_SQL, Long.class, key.storeId(), key.year());
+                    if (current.isEmpty()) {
+                        jdbcTemplate.update(INSERT_SQL, key.storeId(), key.year(), 1L + blockSize);
+                        return 1L;
+                    }
+                    jdbcTemplate.update(UPDATE_SQL, blockSize, key.storeId(), key.year());
+                    return current.get(0);
+                });
+                if (start == null) {
+                    throw new IllegalStateException("Order number block allocation returned no value");
+                }
+                return start;
+            } catch (DuplicateKeyException e) {
+                // Andere Instanz hat die Zeile gleichzeitig angelegt – erneut mit Sperre lesen
+                log.debug("Order number row for store {} ({}) created concurrently, retrying", key.storeId(), key.year());
+            }
+        }
+    }
+}
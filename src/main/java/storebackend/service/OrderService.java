@@ -48,6 +48,7 @@ public class OrderService {
     // ✅ STAFFELPREISE: Server-side checkout price validation
     private final ProductTierPriceService tierPriceService;
     private final ProductRepository productRepository;
+    private final OrderNumberAllocator orderNumberAllocator;
 
     @Transactional(readOnly = true)
     public List<Order> getOrdersByStore(Long storeId) {
@@ -177,6 +178,7 @@ public class OrderService {
         // Create order object (NOT persisted yet)
         Order order = new Order();
         order.setStore(store);
+        order.setOrderNumber(orderNumberAllocator.next(store.getId()));
         order.setCustomer(customer);
         order.setCustomerEmail(customerEmail);
         
@@ -457,18 +459,13 @@ public class OrderService {
         // Bei PayPal: Bestand wird erst nach Webhook-Bestätigung reduziert
         Order orderToUpdate = savedOrder;
         if (orderToUpdate.getStatus() == OrderStatus.CONFIRMED) {
-            // Bestand sofort reduzieren für COD/Cash
-            for (OrderItem item : orderItems) {
-                if (item.getVariant() != null) {
-                    inventoryService.adjustInventory(
-                        item.getVariant().getId(),
-                        -item.getQuantity(),
-                        "SALE",
-                        "Order " + orderToUpdate.getOrderNumber(),
-                        customer
-                    );
-                }
-            }
+            // Bestand sofort reduzieren für COD/Cash – atomar, alle Positionen in einem Batch
+            inventoryService.reserveForOrder(
+                orderItems,
+                "SALE",
+                "Order " + orderToUpdate.getOrderNumber(),
+                customer
+            );
             orderToUpdate.setInventoryAdjusted(true);
             orderToUpdate = orderRepository.save(orderToUpdate);  // Flag persistieren
             log.info("Inventory adjusted immediately for confirmed order {}", orderToUpdate.getOrderNumber());
@@ -563,6 +560,19 @@ public class OrderService {
         return orderItemRepository.findByOrderId(orderId);
     }
 
+    /**
+     * Öffentliche Bestell-Abfrage ohne Login: Bestellnummern sind fortlaufend und damit erratbar –
+     * Details gibt es nur, wenn die angegebene E-Mail zur Bestell- oder Kundenkonto-E-Mail passt.
+     */
+    public static boolean emailMatchesOrder(String providedEmail, String orderEmail, String accountEmail) {
+        if (providedEmail == null || providedEmail.isBlank()) {
+            return false;
+        }
+        String email = providedEmail.trim();
+        return (orderEmail != null && orderEmail.trim().equalsIgnoreCase(email))
+            || (accountEmail != null && accountEmail.trim().equalsIgnoreCase(email));
+    }
+
     @Transactional(readOnly = true)
     public OrderDetailsDTO getOrderDetailsByNumber(String orderNumber) {
         Order order = orderRepository.findByOrderNumber(orderNumber)
@@ -644,6 +654,18 @@ public class OrderService {
         return dto;
     }
 
+    /**
+     * Gibt reservierten Bestand frei, falls für die Order bereits reduziert wurde (idempotent über Flag).
+     */
+    private void releaseInventory(Order order, String note, User user) {
+        if (!Boolean.TRUE.equals(order.getInventoryAdjusted())) {
+            return;
+        }
+        inventoryService.releaseForOrder(orderItemRepository.findByOrderId(order.getId()), note, user);
+        order.setInventoryAdjusted(false);
+        log.info("Inventory released for order {}", order.getOrderNumber());
+    }
+
     private void createStatusHistory(Order order, OrderStatus status, String note, User updatedBy) {
         OrderStatusHistory history = new OrderStatusHistory();
         history.setOrder(order);
@@ -711,6 +733,9 @@ public class OrderService {
                 break;
             case CANCELLED:
                 order.setCancelledAt(java.time.LocalDateTime.now());
+                if (oldStatus != OrderStatus.CANCELLED) {
+                    releaseInventory(order, "Order " + order.getOrderNumber() + " cancelled", updatedBy);
+                }
                 break;
         }
 
@@ -889,17 +914,12 @@ public class OrderService {
             List<OrderItem> items = orderItemRepository.findByOrderId(order.getId());
             User customer = order.getCustomer();
             
-            for (OrderItem item : items) {
-                if (item.getVariant() != null) {
-                    inventoryService.adjustInventory(
-                        item.getVariant().getId(),
-                        -item.getQuantity(),
-                        "SALE",
-                        "Order " + order.getOrderNumber() + " confirmed",
-                        customer
-                    );
-                }
-            }
+            inventoryService.reserveForOrder(
+                items,
+                "SALE",
+                "Order " + order.getOrderNumber() + " confirmed",
+                customer
+            );
             
             order.setInventoryAdjusted(true);
             log.info("Inventory adjusted for order {}", order.getOrderNumber());
@@ -947,6 +967,7 @@ public class OrderService {
         
         order.setPaymentStatus(storebackend.enums.PaymentStatus.FAILED);
         order.setStatus(OrderStatus.PAYMENT_FAILED);
+        releaseInventory(order, "Order " + order.getOrderNumber() + " payment failed", null);
         
         order = orderRepository.save(order);
         
@@ -976,6 +997,7 @@ public class OrderService {
         order.setPaymentStatus(storebackend.enums.PaymentStatus.CANCELLED);
         order.setStatus(OrderStatus.CANCELLED);
         order.setCancelledAt(java.time.LocalDateTime.now());
+        releaseInventory(order, "Order " + order.getOrderNumber() + " payment cancelled", null);
         
         order = orderRepository.save(order);
         
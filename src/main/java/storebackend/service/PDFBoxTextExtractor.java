@@ -80,20 +80,8 @@ public class PDFBoxTextExtractor {
             }
             
             // Text pro Seite extrahieren
-            PDFTextStripper stripper = new PDFTextStripper();
-            List<String> textPerPage = new ArrayList<>();
-            StringBuilder fullText = new StringBuilder();
-            
-            for (int pageNum = 1; pageNum <= pageCount; pageNum++) {
-                stripper.setStartPage(pageNum);
-                stripper.setEndPage(pageNum);
-                
-                String pageText = stripper.getText(document);
-                textPerPage.add(pageText);
-                fullText.append(pageText);
-            }
-            
-            String rawText = fullText.toString();
+            List<String> textPerPage = extractTextPerPage(document);
+            String rawText = String.join("", textPerPage);
             
             // Statistiken berechnen
             int characterCount = countMeaningfulCharacters(rawText);
@@ -137,6 +125,33 @@ public class PDFBoxTextExtractor {
         }
     }
     
+    /**
+     * Extrahiert den eingebetteten Text pro Seite aus einem bereits geladenen Dokument.
+     * 
+     * @return Text pro Seite (Index 0 = Seite 1)
+     */
+    public List<String> extractTextPerPage(PDDocument document) throws IOException {
+        PDFTextStripper stripper = new PDFTextStripper();
+        List<String> textPerPage = new ArrayList<>(document.getNumberOfPages());
+        
+        for (int pageNum = 1; pageNum <= document.getNumberOfPages(); pageNum++) {
+            stripper.setStartPage(pageNum);
+            stripper.setEndPage(pageNum);
+            textPerPage.add(stripper.getText(document));
+        }
+        
+        return textPerPage;
+    }
+    
+    /**
+     * Prüft, ob eine Seite eine verwertbare Textebene hat (dann ist kein OCR nötig).
+     * Gleiche Schwellwerte wie für TEXT_PDF, nur pro Seite.
+     */
+    public boolean hasTextLayer(String pageText) {
+        return countMeaningfulCharacters(pageText) >= MIN_CHARS_FOR_TEXT_PDF
+            && countNonEmptyLines(pageText) >= MIN_LINES_FOR_TEXT_PDF;
+    }
+    
     /**
      * Zählt "sinnvolle" Zeichen (keine Whitespace, Steuerzeichen oder PDF-Metadaten).
      */
@@ -10,6 +10,7 @@ import storebackend.entity.PasswordResetToken;
 import storebackend.entity.User;
 import storebackend.repository.PasswordResetTokenRepository;
 import storebackend.repository.UserRepository;
+import storebackend.security.UserPrincipalCache;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -24,6 +25,7 @@ public class PasswordResetService {
     private final EmailService emailService;
     private final PasswordEncoder passwordEncoder;
     private final RateLimitService rateLimitService;
+    private final UserPrincipalCache principalCache;
 
     /**
      * Erstellt einen Reset-Token und sendet Email
@@ -123,6 +125,7 @@ public class PasswordResetService {
         // Setze neues Passwort
         user.setPasswordHash(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        principalCache.evictUser(user.getId());
         
         // CRITICAL FIX: Reset login attempts nach erfolgreichem Passwort-Reset
         // Ohne dies kann sich der User nicht einloggen, wenn vorher remainingAttempts <= 2 war
@@ -32,6 +32,7 @@ public class PaymentService {
     private final OrderRepository orderRepo;
     private final StoreRepository storeRepo;
     private final OrderCompletionService orderCompletionService;
+    private final SalesRollupService salesRollupService;
     
     @Transactional
     public PaymentTransaction createPayment(Long orderId, PaymentProvider provider, String returnUrl, String cancelUrl) {
@@ -175,6 +176,8 @@ public class PaymentService {
             order.setPaymentStatus(PaymentStatus.PAID);
             order.setUpdatedAt(LocalDateTime.now());
             orderRepo.save(order);
+            // Kein OrderStatusChangedEvent (Mails laufen über completePaidOrder) – Rollup-Tag direkt markieren
+            salesRollupService.markDirtyAfterCommit(order.getStore().getId(), order.getCreatedAt());
             
             log.info("[CAPTURE] Order status updated: orderId={}, status=CONFIRMED, paymentStatus=PAID", order.getId());
             
@@ -357,6 +360,7 @@ public class PaymentService {
             order.setPaymentStatus(PaymentStatus.PAID);
             order.setUpdatedAt(LocalDateTime.now());
             orderRepo.save(order);
+            salesRollupService.markDirtyAfterCommit(order.getStore().getId(), order.getCreatedAt());
         }
         
         log.info("[WEBHOOK] Order status updated: orderId={}, status=CONFIRMED, paymentStatus=PAID", order.getId());
@@ -0,0 +1,176 @@
+package storebackend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import storebackend.dto.ProductDTO;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Storefront-Katalog-Cache für Produkt-DTOs (Caffeine).
+ *
+ * Zwei Ebenen:
+ * - products: productId → (storeId, ProductDTO) – Einzelansicht
+ * - listings: (storeId, Listing, limit) → List&lt;ProductDTO&gt; – featured/top/trending/new
+ *
+ * Speicherbegrenzung über geschätzte DTO-Größe (Weigher), nicht über Eintragsanzahl.
+ * Invalidierung erfolgt durch die schreibenden Services (Product, Variant, Media, TierPrice)
+ * und wird bei aktiver Transaktion erst nach dem Commit ausgeführt.
+ *
+ * Metriken (hit/miss/eviction) über CaffeineCacheMetrics → Micrometer/Prometheus.
+ */
+@Service
+@Slf4j
+public class ProductCatalogCache {
+
+    public enum Listing { FEATURED, TOP, TRENDING, NEW }
+
+    record CachedProduct(Long storeId, ProductDTO dto) {}
+
+    record ListingKey(Long storeId, Listing listing, int limit) {}
+
+    private final Cache<Long, CachedProduct> products;
+    private final Cache<ListingKey, List<ProductDTO>> listings;
+
+    public ProductCatalogCache(
+            MeterRegistry meterRegistry,
+            @Value("${storefront.catalog-cache.max-weight-bytes:67108864}") long maxWeightBytes,
+            @Value("${storefront.catalog-cache.ttl-minutes:10}") long ttlMinutes) {
+
+        // TTL + Bootstrap-TTL müssen unter der Restgültigkeit der Presigned URLs bleiben
+        // (geprüft beim Start von StorefrontBootstrapService)
+        this.products = Caffeine.newBuilder()
+            .maximumWeight(maxWeightBytes)
+            .weigher((Long id, CachedProduct entry) -> estimateSize(entry.dto()))
+            .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+            .recordStats()
+            .build();
+
+        this.listings = Caffeine.newBuilder()
+            .maximumWeight(maxWeightBytes / 2)
+            .weigher((ListingKey key, List<ProductDTO> list) -> estimateSize(list))
+            .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+            .recordStats()
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "storefront.catalog.products");
+        CaffeineCacheMetrics.monitor(meterRegistry, listings, "storefront.catalog.listings");
+    }
+
+    /**
+     * Liefert ein Produkt-DTO aus dem Cache oder lädt es über den Loader.
+     * Gehört das gecachte Produkt zu einem anderen Store, wird wie beim DB-Pfad abgelehnt.
+     */
+    public ProductDTO getProduct(Long storeId, Long productId, Supplier<ProductDTO> loader) {
+        CachedProduct entry = products.get(productId, id -> new CachedProduct(storeId, loader.get()));
+        if (!entry.storeId().equals(storeId)) {
+            throw new RuntimeException("Product does not belong to this store");
+        }
+        return entry.dto();
+    }
+
+    /**
+     * Liefert eine Storefront-Liste aus dem Cache oder lädt sie über den Loader.
+     * Geladene DTOs werden zusätzlich im Produkt-Cache abgelegt.
+     */
+    public List<ProductDTO> getListing(Long storeId, Listing listing, int limit, Supplier<List<ProductDTO>> loader) {
+        return listings.get(new ListingKey(storeId, listing, limit), key -> {
+            List<ProductDTO> loaded = List.copyOf(loader.get());
+            loaded.forEach(dto -> products.put(dto.getId(), new CachedProduct(storeId, dto)));
+            return loaded;
+        });
+    }
+
+    /**
+     * Entfernt ein Produkt sowie alle Listen, die dieses Produkt enthalten.
+     * Für Änderungen, die Listen-Zugehörigkeit/-Reihenfolge nicht beeinflussen
+     * (Varianten, Medien, Staffelpreise).
+     */
+    public void evictProduct(Long productId) {
+        if (productId == null) {
+            return;
+        }
+        afterCommit(() -> {
+            products.invalidate(productId);
+            listings.asMap().entrySet().removeIf(e -> containsProduct(e.getValue(), productId));
+            log.debug("Catalog cache: evicted product {}", productId);
+        });
+    }
+
+    /**
+     * Entfernt alle Listen eines Stores (Produkt angelegt/gelöscht, Status/Featured geändert).
+     */
+    public void evictStoreListings(Long storeId) {
+        if (storeId == null) {
+            return;
+        }
+        afterCommit(() -> {
+            listings.asMap().keySet().removeIf(key -> key.storeId().equals(storeId));
+            log.debug("Catalog cache: evicted listings for store {}", storeId);
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static boolean containsProduct(List<ProductDTO> list, Long productId) {
+        for (ProductDTO dto : list) {
+            if (productId.equals(dto.getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int estimateSize(List<ProductDTO> list) {
+        long total = 64;
+        for (ProductDTO dto : list) {
+            total += estimateSize(dto);
+        }
+        return (int) Math.min(total, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Grobe Größenschätzung in Bytes (Strings als UTF-16, feste Pauschalen pro Unterobjekt).
+     */
+    private static int estimateSize(ProductDTO dto) {
+        long size = 512;
+        size += 2L * length(dto.getTitle());
+        size += 2L * length(dto.getDescription());
+        size += 2L * length(dto.getPrimaryImageUrl());
+        size += 2L * length(dto.getImageUrl());
+        if (dto.getMedia() != null) {
+            size += 640L * dto.getMedia().size();
+        }
+        if (dto.getVariants() != null) {
+            size += 768L * dto.getVariants().size();
+        }
+        if (dto.getTierPrices() != null) {
+            size += 192L * dto.getTierPrices().size();
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
@@ -0,0 +1,202 @@
+package storebackend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-Behind-Puffer für Produkt-Zähler (view_count, sales_count).
+ *
+ * Statt pro Aufruf das Product-Entity zu laden und zu speichern (Read-Modify-Write,
+ * Row-Lock, verlorene Inkremente bei Parallelität) werden Deltas pro Produkt in
+ * einem LongAdder gesammelt und periodisch als gebündelte
+ * {@code UPDATE products SET view_count = view_count + ?} Statements geschrieben.
+ *
+ * - Flush: alle {@code product.counters.flush-interval-ms} (Default 5s) und beim Shutdown
+ * - Ein Flush (views + sales) läuft in einer Transaktion; schlägt er fehl, wird alles
+ *   zurückgerollt und die Deltas zurück in den Puffer gelegt (keine Doppelzählung)
+ * - Schutz vor ID-Fluten: max. {@code product.counters.max-pending} Produkte im Puffer;
+ *   Views werden nur für Produkte des Stores gepuffert (ProductService prüft vorher)
+ *
+ * Metriken: product.counters.pending, product.counters.flush.lag,
+ * product.counters.flush, product.counters.dropped
+ */
+@Service
+@Slf4j
+public class ProductCounterBuffer {
+
+    static final String VIEW_SQL = "UPDATE products SET view_count = COALESCE(view_count, 0) + ? WHERE id = ?";
+    static final String SALES_SQL = "UPDATE products SET sales_count = COALESCE(sales_count, 0) + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxPending;
+
+    private final ConcurrentHashMap<Long, LongAdder> pendingViews = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, LongAdder> pendingSales = new ConcurrentHashMap<>();
+
+    // System.nanoTime() des ältesten noch nicht geschriebenen Deltas (0 = nichts offen)
+    private final AtomicLong oldestPendingNanos = new AtomicLong();
+
+    private final Timer flushTimer;
+    private final Counter droppedCounter;
+
+    public ProductCounterBuffer(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${product.counters.max-pending:50000}") int maxPending) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxPending = maxPending;
+
+        this.flushTimer = Timer.builder("product.counters.flush")
+                .description("Duration of batched view/sales counter flushes")
+                .register(meterRegistry);
+
+        this.droppedCounter = Counter.builder("product.counters.dropped")
+                .description("Counter increments dropped because the buffer was full")
+                .register(meterRegistry);
+
+        Gauge.builder("product.counters.pending", this, ProductCounterBuffer::pendingCount)
+                .description("Products with unflushed view/sales deltas")
+                .register(meterRegistry);
+
+        TimeGauge.builder("product.counters.flush.lag", this, TimeUnit.NANOSECONDS, ProductCounterBuffer::flushLagNanos)
+                .description("Age of the oldest unflushed counter delta")
+                .register(meterRegistry);
+    }
+
+    public void recordView(Long productId) {
+        add(pendingViews, productId, 1);
+    }
+
+    public void recordSales(Long productId, int quantity) {
+        if (quantity > 0) {
+            add(pendingSales, productId, quantity);
+        }
+    }
+
+    /**
+     * Schreibt alle offenen Deltas gebündelt in die DB.
+     * synchronized: verhindert parallelen Scheduler- und Shutdown-Flush.
+     */
+    @Scheduled(fixedDelayString = "${product.counters.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        if (pendingViews.isEmpty() && pendingSales.isEmpty()) {
+            return;
+        }
+
+        // Ab hier eintreffende Deltas gehören zum nächsten Flush
+        oldestPendingNanos.set(0);
+
+        flushTimer.record(() -> {
+            Map<Long, Long> views = drain(pendingViews);
+            Map<Long, Long> sales = drain(pendingSales);
+            if (views.isEmpty() && sales.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    write(VIEW_SQL, views);
+                    write(SALES_SQL, sales);
+                });
+                log.debug("Flushed product counters: {} view deltas, {} sales deltas", views.size(), sales.size());
+            } catch (Exception e) {
+                // Rollback: kein Delta ist geschrieben, alle gehen zurück in den Puffer
+                log.error("Failed to flush {} product counter deltas, re-queueing: {}",
+                    views.size() + sales.size(), e.getMessage());
+                views.forEach((productId, delta) -> add(pendingViews, productId, delta));
+                sales.forEach((productId, delta) -> add(pendingSales, productId, delta));
+            }
+        });
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("Flushing pending product counters before shutdown ({} products)", pendingCount());
+        flush();
+    }
+
+    int pendingCount() {
+        return pendingViews.size() + pendingSales.size();
+    }
+
+    private double flushLagNanos() {
+        long since = oldestPendingNanos.get();
+        return since == 0 ? 0 : System.nanoTime() - since;
+    }
+
+    /**
+     * Inkrement über compute: läuft unter demselben Bin-Lock wie das Entfernen in
+     * {@link #drain}, ein gerade entfernter Adder kann also kein Delta mehr schlucken.
+     */
+    private void add(ConcurrentHashMap<Long, LongAdder> pending, Long productId, long delta) {
+        if (productId == null) {
+            return;
+        }
+        LongAdder result = pending.compute(productId, (id, adder) -> {
+            if (adder == null) {
+                if (pending.size() >= maxPending) {
+                    return null;
+                }
+                adder = new LongAdder();
+            }
+            adder.add(delta);
+            return adder;
+        });
+        if (result == null) {
+            droppedCounter.increment();
+            return;
+        }
+        oldestPendingNanos.compareAndSet(0, System.nanoTime());
+    }
+
+    /**
+     * Entnimmt alle Deltas. Adder ohne neue Inkremente seit dem letzten Flush werden
+     * entfernt – Entnahme und Entfernen atomar je Produkt (computeIfPresent).
+     * TreeMap → Updates in ID-Reihenfolge (keine Lock-Zyklen zwischen Knoten).
+     */
+    private Map<Long, Long> drain(ConcurrentHashMap<Long, LongAdder> pending) {
+        Map<Long, Long> deltas = new TreeMap<>();
+        for (Long productId : pending.keySet()) {
+            pending.computeIfPresent(productId, (id, adder) -> {
+                long delta = adder.sumThenReset();
+                if (delta == 0) {
+                    return null;
+                }
+                deltas.put(id, delta);
+                return adder;
+            });
+        }
+        return deltas;
+    }
+
+    private void write(String sql, Map<Long, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        deltas.forEach((productId, delta) -> batch.add(new Object[]{delta, productId}));
+        jdbcTemplate.batchUpdate(sql, batch);
+    }
+}
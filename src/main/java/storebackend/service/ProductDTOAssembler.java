@@ -0,0 +1,330 @@
+package storebackend.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import storebackend.dto.ProductDTO;
+import storebackend.dto.ProductMediaDTO;
+import storebackend.dto.ProductTierPriceDTO;
+import storebackend.dto.ProductVariantDTO;
+import storebackend.entity.Category;
+import storebackend.entity.Product;
+import storebackend.entity.ProductMedia;
+import storebackend.entity.ProductVariant;
+import storebackend.repository.CategoryRepository;
+import storebackend.repository.ProductMediaRepository;
+import storebackend.repository.ProductVariantRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Baut ProductDTOs für beliebig viele Produkte mit einer festen Anzahl Statements.
+ *
+ * Statt pro Produkt Media, Varianten und Staffelpreise einzeln zu laden (N+1),
+ * werden alle Daten per IN (...) geladen und im Speicher zugeordnet:
+ * - 1× ProductMedia (JOIN FETCH media)
+ * - 1× ProductVariant
+ * - 1× aktive ProductTierPrice
+ * - 1× Category (nur Produkte mit Kategorie; die Product.category-Proxies bleiben uninitialisiert)
+ * Sehr große Listen werden in Blöcken von {@value #BATCH_SIZE} IDs abgefragt
+ * (PostgreSQL-Limit für Bind-Parameter).
+ *
+ * Wird von ProductService für Listen UND Einzelprodukte verwendet.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductDTOAssembler {
+
+    static final int BATCH_SIZE = 500;
+
+    /** Gültigkeit der Bild-URLs in den DTOs – Catalog-Cache und Bootstrap-Snapshot müssen darunter bleiben */
+    static final int IMAGE_URL_EXPIRY_MINUTES = 60;
+
+    private final ProductMediaRepository productMediaRepository;
+    private final CategoryRepository categoryRepository;
+    private final ProductVariantRepository productVariantRepository;
+    private final ProductTierPriceService tierPriceService;
+    private final MinioService minioService;
+    private final ObjectMapper objectMapper;
+
+    public ProductDTO toDTO(Product product) {
+        return toDTOs(List.of(product)).get(0);
+    }
+
+    public List<ProductDTO> toDTOs(List<Product> products) {
+        if (products.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> productIds = new ArrayList<>(products.stream()
+                .map(Product::getId)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+
+        Map<Long, List<ProductMedia>> mediaByProduct = new HashMap<>();
+        Map<Long, List<ProductVariant>> variantsByProduct = new HashMap<>();
+        Map<Long, List<ProductTierPriceDTO>> tierPricesByProduct = new HashMap<>();
+        boolean tierPricesLoaded = true;
+
+        for (int from = 0; from < productIds.size(); from += BATCH_SIZE) {
+            List<Long> chunk = productIds.subList(from, Math.min(from + BATCH_SIZE, productIds.size()));
+
+            productMediaRepository.findByProductIdInOrderBySortOrderAsc(chunk).forEach(pm ->
+                    mediaByProduct.computeIfAbsent(pm.getProduct().getId(), id -> new ArrayList<>()).add(pm));
+
+            productVariantRepository.findByProductIdInOrderByIdAsc(chunk).forEach(variant ->
+                    variantsByProduct.computeIfAbsent(variant.getProduct().getId(), id -> new ArrayList<>()).add(variant));
+
+            // ─── Staffelpreise / Mengenpreise ────────────
+            try {
+                tierPricesByProduct.putAll(tierPriceService.getActiveTierPricesByProducts(chunk));
+            } catch (Exception e) {
+                log.warn("Failed to load tier prices for {} products: {}", chunk.size(), e.getMessage());
+                // Nicht-kritisch - leere Listen setzen
+                tierPricesLoaded = false;
+            }
+        }
+
+        Map<Long, String> categoryNames = loadCategoryNames(products);
+
+        List<ProductDTO> result = new ArrayList<>(products.size());
+        for (Product product : products) {
+            result.add(assemble(
+                    product,
+                    categoryNames,
+                    mediaByProduct.getOrDefault(product.getId(), List.of()),
+                    variantsByProduct.getOrDefault(product.getId(), List.of()),
+                    tierPricesLoaded ? tierPricesByProduct.getOrDefault(product.getId(), List.of()) : List.of()));
+        }
+        return result;
+    }
+
+    /**
+     * Kategorie-Namen per IN (...) statt Product.getCategory().getName() je Produkt (LAZY → N+1).
+     * getId() auf dem Proxy löst kein Nachladen aus.
+     */
+    private Map<Long, String> loadCategoryNames(List<Product> products) {
+        List<Long> categoryIds = new ArrayList<>(products.stream()
+                .filter(product -> product.getCategory() != null)
+                .map(product -> product.getCategory().getId())
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+
+        Map<Long, String> names = new HashMap<>();
+        for (int from = 0; from < categoryIds.size(); from += BATCH_SIZE) {
+            List<Long> chunk = categoryIds.subList(from, Math.min(from + BATCH_SIZE, categoryIds.size()));
+            for (Category category : categoryRepository.findAllById(chunk)) {
+                names.put(category.getId(), category.getName());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Auflösung der Produktbild-URL aus bereits geladenen ProductMedia.
+     *
+     * Logik:
+     * 1. Primary ProductMedia, sonst erstes ProductMedia → Presigned MinIO-URL
+     * 2. Fallback: product.getImageUrl() (z.B. WooCommerce-Import)
+     * 3. Kein Bild: null (Frontend zeigt Platzhalter)
+     */
+    public String resolveProductImageUrl(Product product, List<ProductMedia> mediaList) {
+        // 1. Versuche ProductMedia + MinIO
+        try {
+            if (!mediaList.isEmpty()) {
+                // ✅ WICHTIG: Presigned URL (60 Min) für MinIO objectName generieren
+                String url = minioService.resolveUrl(primaryMedia(mediaList).getMedia().getMinioObjectName(), IMAGE_URL_EXPIRY_MINUTES);
+                if (url != null && !url.isEmpty()) {
+                    return url;
+                }
+            }
+        } catch (Exception e) {
+            // Log und fahre mit Fallback fort
+            log.debug("Failed to resolve ProductMedia image URL for product {}: {}", product.getId(), e.getMessage());
+        }
+
+        // 2. Fallback: product.getImageUrl() (MinIO objectName oder externe URL)
+        if (product.getImageUrl() != null && !product.getImageUrl().isEmpty()) {
+            // ✅ WICHTIG: resolveUrl verarbeitet objectNames UND externe URLs korrekt
+            return minioService.resolveUrl(product.getImageUrl(), IMAGE_URL_EXPIRY_MINUTES);
+        }
+
+        // 3. Kein Bild verfügbar - Frontend zeigt Platzhalter
+        return null;
+    }
+
+    /**
+     * srcset zum selben Bild wie {@link #resolveProductImageUrl}; null ohne ProductMedia
+     * oder solange die Ableitungen noch nicht erzeugt sind (Frontend nutzt dann nur die URL).
+     */
+    public String resolveProductImageSrcset(Product product, List<ProductMedia> mediaList) {
+        if (mediaList.isEmpty()) {
+            return null;
+        }
+        try {
+            return MediaDerivativeService.srcset(primaryMedia(mediaList).getMedia(), MediaDerivativeService.JPEG,
+                    objectName -> minioService.resolveUrl(objectName, IMAGE_URL_EXPIRY_MINUTES));
+        } catch (Exception e) {
+            log.debug("Failed to resolve image srcset for product {}: {}", product.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    /** Primary Image oder erstes Bild */
+    private static ProductMedia primaryMedia(List<ProductMedia> mediaList) {
+        return mediaList.stream()
+                .filter(ProductMedia::getIsPrimary)
+                .findFirst()
+                .orElse(mediaList.get(0));
+    }
+
+    private ProductDTO assemble(Product product, Map<Long, String> categoryNames, List<ProductMedia> productMedia,
+                                List<ProductVariant> variants, List<ProductTierPriceDTO> tierPrices) {
+        ProductDTO dto = new ProductDTO();
+        dto.setId(product.getId());
+        dto.setTitle(product.getTitle());
+        dto.setSku(product.getSku());
+        dto.setBarcode(product.getBarcode());
+        dto.setExpiryDate(product.getExpiryDate());
+        dto.setDescription(product.getDescription());
+        dto.setBasePrice(product.getBasePrice());
+        dto.setStock(product.getStock() != null ? product.getStock() : 0);
+        dto.setStatus(product.getStatus());
+        dto.setCreatedAt(product.getCreatedAt());
+        dto.setUpdatedAt(product.getUpdatedAt());
+        // Direkte Bild-URL (z.B. Starter-Pack-Asset) – dient als Fallback
+        dto.setImageUrl(product.getImageUrl());
+
+        // Featured/Top Product Informationen
+        dto.setIsFeatured(product.getIsFeatured());
+        dto.setFeaturedOrder(product.getFeaturedOrder());
+        dto.setViewCount(product.getViewCount());
+        dto.setSalesCount(product.getSalesCount());
+
+        // Add category information
+        if (product.getCategory() != null) {
+            dto.setCategoryId(product.getCategory().getId());
+            dto.setCategoryName(categoryNames.get(product.getCategory().getId()));
+        }
+
+        if (!productMedia.isEmpty()) {
+            // Konvertiere zu DTOs (nutzt standalone ProductMediaDTO)
+            List<ProductMediaDTO> mediaList = productMedia.stream()
+                    .map(pm -> {
+                        ProductMediaDTO mediaDTO = new ProductMediaDTO();
+                        mediaDTO.setId(pm.getId());
+                        mediaDTO.setProductId(pm.getProduct().getId());
+                        mediaDTO.setMediaId(pm.getMedia().getId());
+
+                        // ✅ WICHTIG: Presigned URL (60 Min) für MinIO objectName generieren
+                        try {
+                            String url = minioService.resolveUrl(pm.getMedia().getMinioObjectName(), IMAGE_URL_EXPIRY_MINUTES);
+                            mediaDTO.setUrl(url);
+                        } catch (Exception e) {
+                            // Fallback: leere URL
+                            mediaDTO.setUrl("");
+                        }
+
+                        // Responsive Ableitungen (MediaDerivativeService) – null, solange nicht erzeugt
+                        try {
+                            mediaDTO.setSrcset(MediaDerivativeService.srcset(pm.getMedia(),
+                                    MediaDerivativeService.JPEG, objectName -> minioService.resolveUrl(objectName, IMAGE_URL_EXPIRY_MINUTES)));
+                            mediaDTO.setWebpSrcset(MediaDerivativeService.srcset(pm.getMedia(),
+                                    MediaDerivativeService.WEBP, objectName -> minioService.resolveUrl(objectName, IMAGE_URL_EXPIRY_MINUTES)));
+                        } catch (Exception e) {
+                            log.debug("Failed to resolve srcset for media {}: {}", pm.getMedia().getId(), e.getMessage());
+                        }
+
+                        mediaDTO.setFilename(pm.getMedia().getFilename());
+                        mediaDTO.setIsPrimary(pm.getIsPrimary());
+                        mediaDTO.setSortOrder(pm.getSortOrder());
+                        return mediaDTO;
+                    })
+                    .collect(Collectors.toList());
+
+            dto.setMedia(mediaList);
+
+            // Primary Image URL aus den bereits geladenen Medien (kein erneuter Query)
+            dto.setPrimaryImageUrl(resolveProductImageUrl(product, productMedia));
+            dto.setPrimaryImageSrcset(resolveProductImageSrcset(product, productMedia));
+        }
+
+        if (!variants.isEmpty()) {
+            List<ProductVariantDTO> variantDTOs = variants.stream()
+                    .map(this::variantToDTO)
+                    .collect(Collectors.toList());
+            dto.setVariants(variantDTOs);
+        }
+
+        // Fallback: kein Media-Bild → direkte imageUrl als Primary verwenden
+        if ((dto.getPrimaryImageUrl() == null || dto.getPrimaryImageUrl().isEmpty())
+                && product.getImageUrl() != null && !product.getImageUrl().isEmpty()) {
+            dto.setPrimaryImageUrl(product.getImageUrl());
+        }
+
+        dto.setTierPrices(tierPrices);
+
+        // ─── Steuern ─────────────────────────────────
+        dto.setTaxCategory(product.getTaxCategory());
+        dto.setTaxRate(product.getTaxRate());
+
+        return dto;
+    }
+
+    private ProductVariantDTO variantToDTO(ProductVariant variant) {
+        ProductVariantDTO dto = new ProductVariantDTO();
+        dto.setId(variant.getId());
+        dto.setProductId(variant.getProduct().getId());
+        dto.setSku(variant.getSku());
+        dto.setBarcode(variant.getBarcode());
+        dto.setPrice(variant.getPrice());
+        dto.setComparePrice(variant.getComparePrice());
+        dto.setStockQuantity(variant.getStockQuantity());
+        dto.setOption1(variant.getOption1());
+        dto.setOption2(variant.getOption2());
+        dto.setOption3(variant.getOption3());
+        dto.setImageUrl(variant.getImageUrl());
+        dto.setIsActive(variant.getIsActive());
+        dto.setAttributesJson(variant.getAttributesJson());
+
+        // Parse attributesJson to Map for UI
+        if (variant.getAttributesJson() != null && !variant.getAttributesJson().isEmpty()) {
+            try {
+                Map<String, String> attributes = objectMapper.readValue(
+                        variant.getAttributesJson(),
+                        new TypeReference<Map<String, String>>() {}
+                );
+                dto.setAttributes(attributes);
+            } catch (Exception e) {
+                // Ignore parsing errors
+            }
+        }
+
+        // Parse mediaUrls JSON to images list (damit Frontend Varianten-Bilder anzeigen kann)
+        if (variant.getMediaUrls() != null && !variant.getMediaUrls().isEmpty()) {
+            try {
+                List<String> imagesList = objectMapper.readValue(
+                        variant.getMediaUrls(),
+                        new TypeReference<List<String>>() {}
+                );
+                dto.setImages(imagesList);
+            } catch (Exception e) {
+                // Fallback: imageUrl als einziges Bild
+                if (variant.getImageUrl() != null) {
+                    dto.setImages(List.of(variant.getImageUrl()));
+                }
+            }
+        } else if (variant.getImageUrl() != null) {
+            // Fallback: imageUrl als einziges Bild
+            dto.setImages(List.of(variant.getImageUrl()));
+        }
+
+        return dto;
+    }
+}
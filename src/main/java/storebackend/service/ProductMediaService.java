@@ -15,6 +15,8 @@ import java.util.stream.Collectors;
 public class ProductMediaService {
     private final ProductMediaRepository productMediaRepository;
     private final MinioService minioService;
+    private final ProductCatalogCache catalogCache;
+    private final StorefrontVersionService storefrontVersions;
 
     @Transactional(readOnly = true)
     public List<ProductMedia> getMediaByProduct(Long productId) {
@@ -39,7 +41,7 @@ public class ProductMediaService {
 
                     // ✅ WICHTIG: Presigned URL (60 Min) für MinIO objectName generieren
                     try {
-                        String url = minioService.resolveUrl(pm.getMedia().getMinioObjectName(), 60);
+                        String url = minioService.resolveUrl(pm.getMedia().getMinioObjectName(), ProductDTOAssembler.IMAGE_URL_EXPIRY_MINUTES);
                         dto.setUrl(url);
                     } catch (Exception e) {
                         dto.setUrl("");
@@ -60,6 +62,8 @@ public class ProductMediaService {
                         productMediaRepository.save(existing);
                     });
         }
+        catalogCache.evictProduct(productMedia.getProduct().getId());
+        storefrontVersions.bumpForProduct(productMedia.getProduct().getId());
         return productMediaRepository.save(productMedia);
     }
 
@@ -74,6 +78,8 @@ public class ProductMediaService {
         ProductMedia primaryMedia = productMediaRepository.findById(mediaId)
                 .orElseThrow(() -> new RuntimeException("Product media not found"));
         primaryMedia.setIsPrimary(true);
+        catalogCache.evictProduct(productId);
+        storefrontVersions.bumpForProduct(productId);
         return productMediaRepository.save(primaryMedia);
     }
 
@@ -89,11 +95,17 @@ public class ProductMediaService {
                 existing.setIsPrimary(false);
             }
         }
+        catalogCache.evictProduct(existing.getProduct().getId());
+        storefrontVersions.bumpForProduct(existing.getProduct().getId());
         return productMediaRepository.save(existing);
     }
 
     @Transactional
     public void deleteProductMedia(Long id) {
-        productMediaRepository.deleteById(id);
+        productMediaRepository.findById(id).ifPresent(productMedia -> {
+            catalogCache.evictProduct(productMedia.getProduct().getId());
+            storefrontVersions.bumpForProduct(productMedia.getProduct().getId());
+            productMediaRepository.delete(productMedia);
+        });
     }
 }
@@ -9,13 +9,16 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import storebackend.dto.CreateReviewRequest;
+import storebackend.dto.ProductRatingSummary;
 import storebackend.dto.ProductReviewDTO;
 import storebackend.dto.ProductReviewStats;
 import storebackend.entity.*;
 import storebackend.repository.*;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,6 +32,7 @@ public class ProductReviewService {
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final UserRepository userRepository;
+    private final ProductReviewStatsService statsService;
 
     /**
      * Create a new review
@@ -77,6 +81,9 @@ public class ProductReviewService {
         review.setNotHelpfulCount(0);
 
         review = reviewRepository.save(review);
+        if (Boolean.TRUE.equals(review.getIsApproved())) {
+            statsService.reviewApproved(review);
+        }
 
         log.info("Review created: Product={}, Customer={}, Rating={}",
                 request.getProductId(), customer.getId(), request.getRating());
@@ -149,12 +156,16 @@ public class ProductReviewService {
     public ProductReviewDTO approveReview(Long reviewId, User approver) {
         ProductReview review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new RuntimeException("Review not found"));
+        boolean wasApproved = Boolean.TRUE.equals(review.getIsApproved());
 
         review.setIsApproved(true);
         review.setApprovedAt(LocalDateTime.now());
         review.setApprovedBy(approver);
 
         review = reviewRepository.save(review);
+        if (!wasApproved) {
+            statsService.reviewApproved(review);
+        }
 
         log.info("Review approved: ID={}, ApprovedBy={}", reviewId, approver.getId());
 
@@ -170,6 +181,9 @@ public class ProductReviewService {
                 .orElseThrow(() -> new RuntimeException("Review not found"));
 
         reviewRepository.delete(review);
+        if (Boolean.TRUE.equals(review.getIsApproved())) {
+            statsService.approvedReviewRemoved(review);
+        }
 
         log.info("Review deleted: ID={}", reviewId);
     }
@@ -202,6 +216,9 @@ public class ProductReviewService {
         }
 
         review = reviewRepository.save(review);
+        if (Boolean.TRUE.equals(review.getIsApproved())) {
+            statsService.voteAdded(review.getProduct().getId(), isHelpful);
+        }
 
         log.info("Review voted: ReviewID={}, UserID={}, Helpful={}", reviewId, user.getId(), isHelpful);
 
@@ -209,35 +226,46 @@ public class ProductReviewService {
     }
 
     /**
-     * Get review statistics for a product
+     * Get review statistics for a product (aus product_review_stats, nur freigegebene Reviews)
      */
     public ProductReviewStats getProductReviewStats(Long productId) {
-        java.math.BigDecimal avgRating = reviewRepository.getAverageRating(productId);
-        Long totalApproved = reviewRepository.countApprovedReviews(productId);
+        ProductReviewAggregate aggregate = statsService.getAggregate(productId).orElse(null);
+        int total = aggregate != null ? aggregate.getReviewCount() : 0;
 
         ProductReviewStats stats = new ProductReviewStats();
         stats.setProductId(productId);
-        stats.setAverageRating(avgRating != null ? avgRating.setScale(1, java.math.RoundingMode.HALF_UP).doubleValue() : 0.0);
-        stats.setTotalApprovedReviews(totalApproved != null ? totalApproved.intValue() : 0);
-        stats.setTotalReviews(totalApproved != null ? totalApproved.intValue() : 0);
+        stats.setAverageRating(ProductReviewStatsService.averageRating(aggregate));
+        stats.setTotalApprovedReviews(total);
+        stats.setTotalReviews(total);
 
         // Rating distribution
-        stats.setFiveStarCount(reviewRepository.countByRating(productId, 5));
-        stats.setFourStarCount(reviewRepository.countByRating(productId, 4));
-        stats.setThreeStarCount(reviewRepository.countByRating(productId, 3));
-        stats.setTwoStarCount(reviewRepository.countByRating(productId, 2));
-        stats.setOneStarCount(reviewRepository.countByRating(productId, 1));
-
-        // Recent reviews (top 5)
-        Pageable pageable = PageRequest.of(0, 5, Sort.by("createdAt").descending());
-        Page<ProductReview> recentReviews = reviewRepository.findByProductIdAndIsApprovedTrue(productId, pageable);
-        stats.setRecentReviews(recentReviews.stream()
-                .map(review -> mapToDTO(review, null))
-                .collect(Collectors.toList()));
+        stats.setFiveStarCount(aggregate != null ? aggregate.getRating5Count() : 0);
+        stats.setFourStarCount(aggregate != null ? aggregate.getRating4Count() : 0);
+        stats.setThreeStarCount(aggregate != null ? aggregate.getRating3Count() : 0);
+        stats.setTwoStarCount(aggregate != null ? aggregate.getRating2Count() : 0);
+        stats.setOneStarCount(aggregate != null ? aggregate.getRating1Count() : 0);
+
+        // Recent reviews (top 5) – ohne Reviews keine Abfrage
+        if (total > 0) {
+            Pageable pageable = PageRequest.of(0, 5, Sort.by("createdAt").descending());
+            Page<ProductReview> recentReviews = reviewRepository.findByProductIdAndIsApprovedTrue(productId, pageable);
+            stats.setRecentReviews(recentReviews.stream()
+                    .map(review -> mapToDTO(review, null))
+                    .collect(Collectors.toList()));
+        } else {
+            stats.setRecentReviews(List.of());
+        }
 
         return stats;
     }
 
+    /**
+     * Sterne-Bewertungen für Produktlisten in einer Abfrage
+     */
+    public Map<Long, ProductRatingSummary> getRatingSummaries(Collection<Long> productIds) {
+        return statsService.getRatingSummaries(productIds);
+    }
+
     /**
      * Map entity to DTO
      */
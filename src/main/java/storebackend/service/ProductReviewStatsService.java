@@ -0,0 +1,300 @@
+package storebackend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import storebackend.dto.ProductRatingSummary;
+import storebackend.entity.ProductReview;
+import storebackend.entity.ProductReviewAggregate;
+import storebackend.repository.ProductReviewAggregateRepository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Pflegt product_review_stats – Anzahl, Summe und Sterne-Histogramm der freigegebenen Reviews je Produkt.
+ *
+ * - ProductReviewService meldet Freigabe, Löschung und Votes; die Deltas laufen als atomares
+ *   UPDATE col = col + ? in der Transaktion der Review-Änderung
+ * - Produktseite und Listen lesen nur noch diese Zeile(n) statt AVG/COUNT über product_reviews
+ * - {@link #reconcile()} vergleicht nachts mit product_reviews, legt fehlende Zeilen an (Backfill)
+ *   und rechnet abweichende Produkte unter Zeilensperre neu
+ */
+@Service
+@Slf4j
+public class ProductReviewStatsService {
+
+    /** Obergrenze für IN-Listen beim Bulk-Lesen */
+    private static final int BULK_CHUNK_SIZE = 500;
+
+    private static final String TOTALS_COLUMNS =
+        "review_count, rating_sum, rating_1_count, rating_2_count, rating_3_count, rating_4_count, rating_5_count, " +
+        "helpful_count, not_helpful_count";
+
+    private static final String AGGREGATE_SELECT =
+        "SELECT r.product_id, COUNT(*) AS review_count, COALESCE(SUM(r.rating), 0) AS rating_sum, " +
+        "SUM(CASE WHEN r.rating = 1 THEN 1 ELSE 0 END) AS rating_1_count, " +
+        "SUM(CASE WHEN r.rating = 2 THEN 1 ELSE 0 END) AS rating_2_count, " +
+        "SUM(CASE WHEN r.rating = 3 THEN 1 ELSE 0 END) AS rating_3_count, " +
+        "SUM(CASE WHEN r.rating = 4 THEN 1 ELSE 0 END) AS rating_4_count, " +
+        "SUM(CASE WHEN r.rating = 5 THEN 1 ELSE 0 END) AS rating_5_count, " +
+        "COALESCE(SUM(r.helpful_count), 0) AS helpful_count, " +
+        "COALESCE(SUM(r.not_helpful_count), 0) AS not_helpful_count " +
+        "FROM product_reviews r WHERE r.is_approved = TRUE ";
+
+    private static final String APPLY_DELTA_SQL =
+        "UPDATE product_review_stats SET review_count = review_count + ?, rating_sum = rating_sum + ?, " +
+        "rating_1_count = rating_1_count + ?, rating_2_count = rating_2_count + ?, rating_3_count = rating_3_count + ?, " +
+        "rating_4_count = rating_4_count + ?, rating_5_count = rating_5_count + ?, " +
+        "helpful_count = helpful_count + ?, not_helpful_count = not_helpful_count + ?, updated_at = ? " +
+        "WHERE product_id = ?";
+
+    private static final String INSERT_EMPTY_SQL =
+        "INSERT INTO product_review_stats (product_id, " + TOTALS_COLUMNS + ", updated_at) " +
+        "VALUES (?, 0, 0, 0, 0, 0, 0, 0, 0, 0, ?) ON CONFLICT DO NOTHING";
+
+    private static final String OVERWRITE_SQL =
+        "UPDATE product_review_stats SET review_count = ?, rating_sum = ?, " +
+        "rating_1_count = ?, rating_2_count = ?, rating_3_count = ?, rating_4_count = ?, rating_5_count = ?, " +
+        "helpful_count = ?, not_helpful_count = ?, updated_at = ? WHERE product_id = ?";
+
+    private static final String DELETE_ORPHANS_SQL =
+        "DELETE FROM product_review_stats WHERE NOT EXISTS " +
+        "(SELECT 1 FROM products p WHERE p.id = product_review_stats.product_id)";
+
+    /** Zeilen mit Werten, zu denen es keine freigegebene Review (mehr) gibt */
+    private static final String STALE_ROWS_SQL =
+        "SELECT s.product_id FROM product_review_stats s " +
+        "WHERE (s.review_count <> 0 OR s.rating_sum <> 0 OR s.helpful_count <> 0 OR s.not_helpful_count <> 0) " +
+        "AND NOT EXISTS (SELECT 1 FROM product_reviews r WHERE r.product_id = s.product_id AND r.is_approved = TRUE)";
+
+    /**
+     * Zählerstand eines Produkts – gleiche Spalten in product_review_stats und im Aggregat über product_reviews
+     */
+    record Totals(long reviewCount, long ratingSum, long[] histogram, long helpfulCount, long notHelpfulCount) {
+
+        static final Totals EMPTY = new Totals(0, 0, new long[5], 0, 0);
+
+        static final RowMapper<Totals> ROW_MAPPER = (rs, rowNum) -> new Totals(
+            rs.getLong("review_count"),
+            rs.getLong("rating_sum"),
+            new long[] {
+                rs.getLong("rating_1_count"), rs.getLong("rating_2_count"), rs.getLong("rating_3_count"),
+                rs.getLong("rating_4_count"), rs.getLong("rating_5_count")
+            },
+            rs.getLong("helpful_count"),
+            rs.getLong("not_helpful_count"));
+
+        boolean sameAs(Totals other) {
+            return reviewCount == other.reviewCount && ratingSum == other.ratingSum
+                && Arrays.equals(histogram, other.histogram)
+                && helpfulCount == other.helpfulCount && notHelpfulCount == other.notHelpfulCount;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductReviewAggregateRepository aggregateRepository;
+    private final int reconcileBatchSize;
+
+    public ProductReviewStatsService(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            ProductReviewAggregateRepository aggregateRepository,
+            @Value("${reviews.stats.reconcile-batch-size:1000}") int reconcileBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.aggregateRepository = aggregateRepository;
+        this.reconcileBatchSize = Math.max(1, reconcileBatchSize);
+    }
+
+    // ==================== Inkrementelle Pflege ====================
+
+    /**
+     * Review wurde freigegeben (oder direkt freigegeben angelegt) – zählt ab jetzt mit
+     */
+    public void reviewApproved(ProductReview review) {
+        applyReview(review, 1);
+    }
+
+    /**
+     * Freigegebene Review wurde gelöscht
+     */
+    public void approvedReviewRemoved(ProductReview review) {
+        applyReview(review, -1);
+    }
+
+    /**
+     * Vote auf eine freigegebene Review
+     */
+    public void voteAdded(Long productId, boolean helpful) {
+        applyDelta(productId, 0, 0, new long[5], helpful ? 1 : 0, helpful ? 0 : 1);
+    }
+
+    private void applyReview(ProductReview review, int sign) {
+        int rating = review.getRating();
+        long[] histogram = new long[5];
+        histogram[rating - 1] = sign;
+        applyDelta(review.getProduct().getId(), sign, (long) sign * rating, histogram,
+            (long) sign * nullToZero(review.getHelpfulCount()), (long) sign * nullToZero(review.getNotHelpfulCount()));
+    }
+
+    /**
+     * Atomares Delta-UPDATE. Fehlt die Zeile, wird eine leere angelegt (ON CONFLICT DO NOTHING –
+     * parallele Erst-Reviews kollidieren nicht) und das UPDATE wiederholt.
+     * Abzüge auf eine fehlende Zeile werden verworfen; reconcile baut sie korrekt auf.
+     */
+    private void applyDelta(Long productId, long count, long sum, long[] histogram, long helpful, long notHelpful) {
+        LocalDateTime now = LocalDateTime.now();
+        Object[] args = {
+            count, sum, histogram[0], histogram[1], histogram[2], histogram[3], histogram[4],
+            helpful, notHelpful, now, productId
+        };
+
+        if (jdbcTemplate.update(APPLY_DELTA_SQL, args) > 0) {
+            return;
+        }
+        if (count < 0 || sum < 0 || helpful < 0 || notHelpful < 0) {
+            log.warn("⚠️ No review stats row for product {} – skipping negative delta until reconcile", productId);
+            return;
+        }
+        jdbcTemplate.update(INSERT_EMPTY_SQL, productId, now);
+        jdbcTemplate.update(APPLY_DELTA_SQL, args);
+    }
+
+    // ==================== Lesen ====================
+
+    public Optional<ProductReviewAggregate> getAggregate(Long productId) {
+        return aggregateRepository.findById(productId);
+    }
+
+    /**
+     * Sterne-Bewertungen für eine Produktliste – eine Abfrage je 500 IDs.
+     * Produkte ohne freigegebene Reviews erscheinen mit 0 Reviews.
+     */
+    public Map<Long, ProductRatingSummary> getRatingSummaries(Collection<Long> productIds) {
+        List<Long> ids = productIds.stream().filter(Objects::nonNull).distinct().toList();
+        Map<Long, ProductRatingSummary> summaries = new LinkedHashMap<>();
+        for (Long id : ids) {
+            summaries.put(id, new ProductRatingSummary(id, 0.0, 0));
+        }
+
+        for (int from = 0; from < ids.size(); from += BULK_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + BULK_CHUNK_SIZE, ids.size()));
+            for (ProductReviewAggregate aggregate : aggregateRepository.findAllById(chunk)) {
+                summaries.put(aggregate.getProductId(), new ProductRatingSummary(
+                    aggregate.getProductId(), averageRating(aggregate), aggregate.getReviewCount()));
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * Durchschnitt auf eine Nachkommastelle (HALF_UP), 0.0 ohne Reviews
+     */
+    public static double averageRating(ProductReviewAggregate aggregate) {
+        if (aggregate == null || aggregate.getReviewCount() == null || aggregate.getReviewCount() <= 0) {
+            return 0.0;
+        }
+        return BigDecimal.valueOf(aggregate.getRatingSum())
+            .divide(BigDecimal.valueOf(aggregate.getReviewCount()), 1, RoundingMode.HALF_UP)
+            .doubleValue();
+    }
+
+    // ==================== Abgleich ====================
+
+    /**
+     * Nächtlicher Abgleich mit product_reviews. Liefert die Anzahl reparierter Produkte.
+     */
+    @Scheduled(cron = "${reviews.stats.reconcile-cron:0 15 4 * * *}")
+    public int reconcile() {
+        int orphans = jdbcTemplate.update(DELETE_ORPHANS_SQL);
+
+        Set<Long> drifted = new LinkedHashSet<>();
+        long lastProductId = 0;
+        while (true) {
+            Map<Long, Totals> expected = new LinkedHashMap<>();
+            jdbcTemplate.query(AGGREGATE_SELECT + "AND r.product_id > ? GROUP BY r.product_id ORDER BY r.product_id LIMIT ?",
+                rs -> {
+                    expected.put(rs.getLong("product_id"), Totals.ROW_MAPPER.mapRow(rs, 0));
+                }, lastProductId, reconcileBatchSize);
+            if (expected.isEmpty()) {
+                break;
+            }
+
+            Map<Long, Totals> actual = loadTotals(expected.keySet());
+            expected.forEach((productId, totals) -> {
+                Totals current = actual.get(productId);
+                if (current == null || !current.sameAs(totals)) {
+                    drifted.add(productId);
+                }
+            });
+
+            lastProductId = Collections.max(expected.keySet());
+            if (expected.size() < reconcileBatchSize) {
+                break;
+            }
+        }
+        drifted.addAll(jdbcTemplate.queryForList(STALE_ROWS_SQL, Long.class));
+
+        int failed = 0;
+        for (Long productId : drifted) {
+            try {
+                repair(productId);
+            } catch (Exception e) {
+                failed++;
+                log.error("❌ Review stats repair failed for product {}: {}", productId, e.getMessage());
+            }
+        }
+
+        if (!drifted.isEmpty() || orphans > 0) {
+            log.info("🔧 Review stats reconciled: {} products repaired ({} failed), {} orphaned rows removed",
+                drifted.size() - failed, failed, orphans);
+        } else {
+            log.debug("Review stats reconciled: no drift");
+        }
+        return drifted.size() - failed;
+    }
+
+    /**
+     * Rechnet ein Produkt neu. Die Stats-Zeile wird vor dem Aggregieren gesperrt: parallele Deltas
+     * warten, bis der neue Stand committet ist, und zählen danach nur noch ihre eigene Änderung dazu.
+     */
+    void repair(Long productId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            jdbcTemplate.update(INSERT_EMPTY_SQL, productId, now);
+            jdbcTemplate.queryForList("SELECT product_id FROM product_review_stats WHERE product_id = ? FOR UPDATE",
+                productId);
+
+            Totals totals = jdbcTemplate.query(AGGREGATE_SELECT + "AND r.product_id = ? GROUP BY r.product_id",
+                Totals.ROW_MAPPER, productId).stream().findFirst().orElse(Totals.EMPTY);
+            long[] histogram = totals.histogram();
+            jdbcTemplate.update(OVERWRITE_SQL,
+                totals.reviewCount(), totals.ratingSum(),
+                histogram[0], histogram[1], histogram[2], histogram[3], histogram[4],
+                totals.helpfulCount(), totals.notHelpfulCount(), now, productId);
+        });
+    }
+
+    private Map<Long, Totals> loadTotals(Collection<Long> productIds) {
+        Map<Long, Totals> totals = new HashMap<>();
+        String placeholders = String.join(",", Collections.nCopies(productIds.size(), "?"));
+        jdbcTemplate.query("SELECT product_id, " + TOTALS_COLUMNS + " FROM product_review_stats " +
+                "WHERE product_id IN (" + placeholders + ")",
+            rs -> {
+                totals.put(rs.getLong("product_id"), Totals.ROW_MAPPER.mapRow(rs, 0));
+            }, productIds.toArray());
+        return totals;
+    }
+
+    private static long nullToZero(Integer value) {
+        return value != null ? value : 0;
+    }
+}
@@ -1,19 +1,15 @@
 package storebackend.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import storebackend.dto.CreateProductRequest;
 import storebackend.dto.ProductDTO;
-import storebackend.dto.ProductMediaDTO;
-import storebackend.dto.ProductVariantDTO;
 import storebackend.entity.Category;
 import storebackend.entity.Product;
 import storebackend.entity.ProductMedia;
-import storebackend.entity.ProductVariant;
 import storebackend.entity.Store;
 import storebackend.entity.User;
 import storebackend.enums.ProductStatus;
@@ -21,7 +17,6 @@ import storebackend.enums.TaxCategory;
 import storebackend.repository.CategoryRepository;
 import storebackend.repository.ProductMediaRepository;
 import storebackend.repository.ProductRepository;
-import storebackend.repository.ProductVariantRepository;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -36,20 +31,21 @@ public class ProductService {
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final ProductMediaRepository productMediaRepository;
-    private final ProductVariantRepository productVariantRepository;
     private final StoreUsageService storeUsageService;
-    private final MinioService minioService;
-    private final ObjectMapper objectMapper;
     private final ProductVariantGenerationService variantGenerationService;
     private final TaxCalculationService taxCalculationService;
-    private final ProductTierPriceService tierPriceService;
+    private final ProductCatalogCache catalogCache;
+    private final StorefrontVersionService storefrontVersions;
+    private final ProductDTOAssembler productDTOAssembler;
+    private final ProductCounterBuffer counterBuffer;
+
+    /** Obergrenze für limit-Parameter der Storefront-Listen (top/trending/new) */
+    private static final int MAX_LISTING_LIMIT = 100;
 
     @Transactional(readOnly = true)
     public List<ProductDTO> getProductsByStore(Store store) {
         // FIXED: Use JOIN FETCH to avoid LazyInitializationException
-        return productRepository.findByStoreWithCategory(store).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return productDTOAssembler.toDTOs(productRepository.findByStoreWithCategory(store));
     }
 
     /**
@@ -64,10 +60,9 @@ public class ProductService {
 
         // FIXED: Use JOIN FETCH to avoid LazyInitializationException
         // Produkte nach Kategorie filtern
-        return productRepository.findByStoreWithCategory(store).stream()
+        return productDTOAssembler.toDTOs(productRepository.findByStoreWithCategory(store).stream()
                 .filter(p -> p.getCategory() != null && p.getCategory().getId().equals(categoryId))
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     @Transactional(readOnly = true)
@@ -132,6 +127,9 @@ public class ProductService {
             variantGenerationService.createOptionsAndGenerateVariants(product, request.getVariantOptions());
         }
 
+        catalogCache.evictStoreListings(store.getId());
+        storefrontVersions.bump(store.getId());
+
         return toDTO(product);
     }
 
@@ -205,6 +203,10 @@ public class ProductService {
         log.info("✅ UPDATE Product {}: AFTER SAVE - taxCategory={}, taxRate={}", 
             product.getId(), product.getTaxCategory(), product.getTaxRate());
 
+        catalogCache.evictProduct(productId);
+        catalogCache.evictStoreListings(store.getId());
+        storefrontVersions.bump(store.getId());
+
         return toDTO(product);
     }
 
@@ -256,6 +258,10 @@ public class ProductService {
             product.setFeaturedOrder(Integer.parseInt(fields.get("featuredOrder").toString()));
         }
 
+        catalogCache.evictProduct(productId);
+        catalogCache.evictStoreListings(store.getId());
+        storefrontVersions.bump(store.getId());
+
         return toDTO(productRepository.save(product));
     }
 
@@ -264,218 +270,91 @@ public class ProductService {
                 .orElseThrow(() -> new RuntimeException("Product not found"));
         productRepository.delete(product);
 
+        catalogCache.evictProduct(productId);
+        catalogCache.evictStoreListings(store.getId());
+        storefrontVersions.bump(store.getId());
+
         // Decrement product count
         storeUsageService.decrementProductCount(store);
     }
 
     private ProductDTO toDTO(Product product) {
-        ProductDTO dto = new ProductDTO();
-        dto.setId(product.getId());
-        dto.setTitle(product.getTitle());
-        dto.setSku(product.getSku());
-        dto.setBarcode(product.getBarcode());
-        dto.setExpiryDate(product.getExpiryDate());
-        dto.setDescription(product.getDescription());
-        dto.setBasePrice(product.getBasePrice());
-        dto.setStock(product.getStock() != null ? product.getStock() : 0);
-        dto.setStatus(product.getStatus());
-        dto.setCreatedAt(product.getCreatedAt());
-        dto.setUpdatedAt(product.getUpdatedAt());
-        // Direkte Bild-URL (z.B. Starter-Pack-Asset) – dient als Fallback
-        dto.setImageUrl(product.getImageUrl());
-
-        // Featured/Top Product Informationen
-        dto.setIsFeatured(product.getIsFeatured());
-        dto.setFeaturedOrder(product.getFeaturedOrder());
-        dto.setViewCount(product.getViewCount());
-        dto.setSalesCount(product.getSalesCount());
-
-        // Add category information
-        if (product.getCategory() != null) {
-            dto.setCategoryId(product.getCategory().getId());
-            dto.setCategoryName(product.getCategory().getName());
-        }
-
-        // Lade Bilder für das Produkt
-        List<ProductMedia> productMedia = productMediaRepository.findByProductIdOrderBySortOrderAsc(product.getId());
-
-        if (!productMedia.isEmpty()) {
-            // Konvertiere zu DTOs (nutzt standalone ProductMediaDTO)
-            List<ProductMediaDTO> mediaList = productMedia.stream()
-                    .map(pm -> {
-                        ProductMediaDTO mediaDTO = new ProductMediaDTO();
-                        mediaDTO.setId(pm.getId());
-                        mediaDTO.setProductId(pm.getProduct().getId());
-                        mediaDTO.setMediaId(pm.getMedia().getId());
-
-                        // ✅ WICHTIG: Presigned URL (60 Min) für MinIO objectName generieren
-                        try {
-                            String url = minioService.resolveUrl(pm.getMedia().getMinioObjectName(), 60);
-                            mediaDTO.setUrl(url);
-                        } catch (Exception e) {
-                            // Fallback: leere URL
-                            mediaDTO.setUrl("");
-                        }
-
-                        mediaDTO.setFilename(pm.getMedia().getFilename());
-                        mediaDTO.setIsPrimary(pm.getIsPrimary());
-                        mediaDTO.setSortOrder(pm.getSortOrder());
-                        return mediaDTO;
-                    })
-                    .collect(Collectors.toList());
-
-            dto.setMedia(mediaList);
-
-            // Setze Primary Image URL über zentrale Methode
-            String primaryImageUrl = resolveProductImageUrl(product);
-            dto.setPrimaryImageUrl(primaryImageUrl);
-        }
-
-        // Lade Varianten für das Produkt
-        List<ProductVariant> variants = productVariantRepository.findByProductId(product.getId());
-        if (!variants.isEmpty()) {
-            List<ProductVariantDTO> variantDTOs = variants.stream()
-                    .map(this::variantToDTO)
-                    .collect(Collectors.toList());
-            dto.setVariants(variantDTOs);
-        }
-
-        // Fallback: kein Media-Bild → direkte imageUrl als Primary verwenden
-        if ((dto.getPrimaryImageUrl() == null || dto.getPrimaryImageUrl().isEmpty())
-                && product.getImageUrl() != null && !product.getImageUrl().isEmpty()) {
-            dto.setPrimaryImageUrl(product.getImageUrl());
-        }
-
-        // ─── Staffelpreise / Mengenpreise ────────────
-        try {
-            dto.setTierPrices(tierPriceService.getActiveTierPricesByProduct(product.getId()));
-        } catch (Exception e) {
-            log.warn("Failed to load tier prices for product {}: {}", product.getId(), e.getMessage());
-            // Nicht-kritisch - leere Liste setzen
-            dto.setTierPrices(List.of());
-        }
-
-        // ─── Steuern ─────────────────────────────────
-        dto.setTaxCategory(product.getTaxCategory());
-        dto.setTaxRate(product.getTaxRate());
-
-        return dto;
-    }
-
-    private ProductVariantDTO variantToDTO(ProductVariant variant) {
-        ProductVariantDTO dto = new ProductVariantDTO();
-        dto.setId(variant.getId());
-        dto.setProductId(variant.getProduct().getId());
-        dto.setSku(variant.getSku());
-        dto.setBarcode(variant.getBarcode());
-        dto.setPrice(variant.getPrice());
-        dto.setComparePrice(variant.getComparePrice());
-        dto.setStockQuantity(variant.getStockQuantity());
-        dto.setOption1(variant.getOption1());
-        dto.setOption2(variant.getOption2());
-        dto.setOption3(variant.getOption3());
-        dto.setImageUrl(variant.getImageUrl());
-        dto.setIsActive(variant.getIsActive());
-        dto.setAttributesJson(variant.getAttributesJson());
-
-        // Parse attributesJson to Map for UI
-        if (variant.getAttributesJson() != null && !variant.getAttributesJson().isEmpty()) {
-            try {
-                Map<String, String> attributes = objectMapper.readValue(
-                        variant.getAttributesJson(),
-                        new TypeReference<Map<String, String>>() {}
-                );
-                dto.setAttributes(attributes);
-            } catch (Exception e) {
-                // Ignore parsing errors
-            }
-        }
-
-        // Parse mediaUrls JSON to images list (damit Frontend Varianten-Bilder anzeigen kann)
-        if (variant.getMediaUrls() != null && !variant.getMediaUrls().isEmpty()) {
-            try {
-                List<String> imagesList = objectMapper.readValue(
-                        variant.getMediaUrls(),
-                        new TypeReference<List<String>>() {}
-                );
-                dto.setImages(imagesList);
-            } catch (Exception e) {
-                // Fallback: imageUrl als einziges Bild
-                if (variant.getImageUrl() != null) {
-                    dto.setImages(java.util.List.of(variant.getImageUrl()));
-                }
-            }
-        } else if (variant.getImageUrl() != null) {
-            // Fallback: imageUrl als einziges Bild
-            dto.setImages(java.util.List.of(variant.getImageUrl()));
-        }
-
-        return dto;
+        return productDTOAssembler.toDTO(product);
     }
 
     // Featured Products Methoden
+    // Storefront-Listen laufen über den ProductCatalogCache (Invalidierung bei Schreibzugriffen)
     @Transactional(readOnly = true)
     public List<ProductDTO> getFeaturedProducts(Long storeId) {
-        return productRepository.findByStoreIdAndIsFeaturedTrueOrderByFeaturedOrderAsc(storeId)
-                .stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return catalogCache.getListing(storeId, ProductCatalogCache.Listing.FEATURED, 0, () ->
+                productDTOAssembler.toDTOs(
+                        productRepository.findByStoreIdAndIsFeaturedTrueOrderByFeaturedOrderAsc(storeId)));
     }
 
     @Transactional(readOnly = true)
     public List<ProductDTO> getTopProducts(Long storeId, int limit) {
-        return productRepository.findTop10ByStoreIdOrderBySalesCountDesc(storeId)
-                .stream()
-                .limit(limit)
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        int pageSize = listingLimit(limit);
+        return catalogCache.getListing(storeId, ProductCatalogCache.Listing.TOP, pageSize, () ->
+                productDTOAssembler.toDTOs(productRepository.findByStoreIdOrderBySalesCountDesc(storeId, PageRequest.of(0, pageSize))));
     }
 
     @Transactional(readOnly = true)
     public List<ProductDTO> getTrendingProducts(Long storeId, int limit) {
-        return productRepository.findTop10ByStoreIdOrderByViewCountDesc(storeId)
-                .stream()
-                .limit(limit)
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        int pageSize = listingLimit(limit);
+        return catalogCache.getListing(storeId, ProductCatalogCache.Listing.TRENDING, pageSize, () ->
+                productDTOAssembler.toDTOs(productRepository.findByStoreIdOrderByViewCountDesc(storeId, PageRequest.of(0, pageSize))));
     }
 
     @Transactional(readOnly = true)
     public List<ProductDTO> getNewArrivals(Long storeId, int limit) {
-        return productRepository.findTop10ByStoreIdOrderByCreatedAtDesc(storeId)
-                .stream()
-                .limit(limit)
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        int pageSize = listingLimit(limit);
+        return catalogCache.getListing(storeId, ProductCatalogCache.Listing.NEW, pageSize, () ->
+                productDTOAssembler.toDTOs(productRepository.findByStoreIdOrderByCreatedAtDesc(storeId, PageRequest.of(0, pageSize))));
     }
 
-    @Transactional
-    public void incrementViewCount(Long productId) {
-        productRepository.findById(productId).ifPresent(product -> {
-            product.setViewCount(product.getViewCount() + 1);
-            productRepository.save(product);
-        });
+    /**
+     * LIMIT für Storefront-Listen direkt in der DB (statt Katalog laden und im Speicher kürzen).
+     * Einmal begrenzt und sowohl als Cache-Key als auch als Seitengröße verwendet –
+     * limit=500 und limit=100 teilen sich so einen Eintrag.
+     */
+    static int listingLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LISTING_LIMIT));
+    }
+
+    /**
+     * Zähler laufen über den ProductCounterBuffer (Write-Behind, gebündelte UPDATEs)
+     * statt Entity laden + speichern pro Aufruf.
+     */
+    @Transactional(readOnly = true)
+    public boolean incrementViewCount(Long storeId, Long productId) {
+        // Nur Produkte dieses Stores puffern (über den Katalog-Cache geprüft) –
+        // beliebige IDs würden sonst den Puffer füllen und echte Views verdrängen
+        try {
+            getPublicProductById(productId, storeId);
+        } catch (RuntimeException e) {
+            return false;
+        }
+        counterBuffer.recordView(productId);
+        return true;
     }
 
-    @Transactional
     public void incrementSalesCount(Long productId, int quantity) {
-        productRepository.findById(productId).ifPresent(product -> {
-            product.setSalesCount(product.getSalesCount() + quantity);
-            productRepository.save(product);
-        });
+        counterBuffer.recordSales(productId, quantity);
     }
 
     @Transactional(readOnly = true)
     public ProductDTO getPublicProductById(Long productId, Long storeId) {
         // Öffentlicher Zugriff - keine Store-Auth nötig
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
+        return catalogCache.getProduct(storeId, productId, () -> {
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new RuntimeException("Product not found"));
 
-        if (!product.getStore().getId().equals(storeId)) {
-            throw new RuntimeException("Product does not belong to this store");
-        }
+            if (!product.getStore().getId().equals(storeId)) {
+                throw new RuntimeException("Product does not belong to this store");
+            }
 
-        return toDTO(product);
+            return toDTO(product);
+        });
     }
 
     @Transactional
@@ -489,12 +368,18 @@ public class ProductService {
         }
 
         product = productRepository.save(product);
+
+        catalogCache.evictProduct(productId);
+        catalogCache.evictStoreListings(store.getId());
+        storefrontVersions.bump(store.getId());
+
         return toDTO(product);
     }
 
     /**
      * ZENTRALE Methode zur Auflösung der Produktbild-URL.
-     * Wird von toDTO() und CartController verwendet.
+     * Wird von CartController u.a. verwendet; ProductDTOAssembler wendet dieselbe Logik
+     * auf bereits geladene Medien an.
      * 
      * Logik:
      * 1. Suche Primary ProductMedia → permanente öffentliche MinIO-URL
@@ -510,36 +395,29 @@ public class ProductService {
             return null;
         }
 
-        // 1. Versuche ProductMedia + MinIO
+        return productDTOAssembler.resolveProductImageUrl(product, loadProductMedia(product));
+    }
+
+    /**
+     * srcset (responsive Ableitungen) zum Bild aus {@link #resolveProductImageUrl(Product)}.
+     *
+     * @param product Das Produkt
+     * @return "url 160w, url 480w, …" oder null (keine ProductMedia / Ableitungen noch nicht erzeugt)
+     */
+    public String resolveProductImageSrcset(Product product) {
+        if (product == null) {
+            return null;
+        }
+        return productDTOAssembler.resolveProductImageSrcset(product, loadProductMedia(product));
+    }
+
+    private List<ProductMedia> loadProductMedia(Product product) {
         try {
-            List<ProductMedia> mediaList = productMediaRepository.findByProductIdOrderBySortOrderAsc(product.getId());
-            
-            if (!mediaList.isEmpty()) {
-                // Suche Primary Image oder nimm erstes
-                ProductMedia primaryMedia = mediaList.stream()
-                    .filter(ProductMedia::getIsPrimary)
-                    .findFirst()
-                    .orElse(mediaList.get(0));
-                
-                // ✅ WICHTIG: Presigned URL (60 Min) für MinIO objectName generieren
-                String url = minioService.resolveUrl(primaryMedia.getMedia().getMinioObjectName(), 60);
-                if (url != null && !url.isEmpty()) {
-                    return url;
-                }
-            }
+            return productMediaRepository.findByProductIdOrderBySortOrderAsc(product.getId());
         } catch (Exception e) {
-            // Log und fahre mit Fallback fort
-            log.debug("Failed to resolve ProductMedia image URL for product {}: {}", product.getId(), e.getMessage());
-        }
-        
-        // 2. Fallback: product.getImageUrl() (MinIO objectName oder externe URL)
-        if (product.getImageUrl() != null && !product.getImageUrl().isEmpty()) {
-            // ✅ WICHTIG: resolveUrl verarbeitet objectNames UND externe URLs korrekt
-            return minioService.resolveUrl(product.getImageUrl(), 60);
+            log.debug("Failed to load ProductMedia for product {}: {}", product.getId(), e.getMessage());
+            return List.of();
         }
-        
-        // 3. Kein Bild verfügbar - Frontend zeigt Platzhalter
-        return null;
     }
 
     /**
@@ -12,7 +12,9 @@ import storebackend.repository.ProductRepository;
 import storebackend.repository.ProductTierPriceRepository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -30,6 +32,8 @@ public class ProductTierPriceService {
 
     private final ProductTierPriceRepository tierPriceRepository;
     private final ProductRepository productRepository;
+    private final ProductCatalogCache catalogCache;
+    private final StorefrontVersionService storefrontVersions;
 
     /**
      * Berechnet den wirksamen Preis mit allen Details (ZENTRALE METHODE).
@@ -137,6 +141,8 @@ public class ProductTierPriceService {
         tierPrice.setSortOrder(dto.getSortOrder() != null ? dto.getSortOrder() : dto.getMinimumQuantity());
 
         tierPrice = tierPriceRepository.save(tierPrice);
+        catalogCache.evictProduct(productId);
+        storefrontVersions.bumpForProduct(productId);
         log.info("✅ Tier price created: id={}, productId={}, minQty={}, price={} (normalized from {})", 
             tierPrice.getId(), productId, tierPrice.getMinimumQuantity(), 
             tierPrice.getUnitPrice(), dto.getUnitPrice());
@@ -198,6 +204,8 @@ public class ProductTierPriceService {
         tierPrice.setSortOrder(dto.getSortOrder() != null ? dto.getSortOrder() : dto.getMinimumQuantity());
 
         tierPrice = tierPriceRepository.save(tierPrice);
+        catalogCache.evictProduct(tierPrice.getProduct().getId());
+        storefrontVersions.bumpForProduct(tierPrice.getProduct().getId());
         log.info("✅ Tier price updated: id={}, minQty={}, price={} (normalized from {})", 
             id, tierPrice.getMinimumQuantity(), tierPrice.getUnitPrice(), dto.getUnitPrice());
 
@@ -213,6 +221,8 @@ public class ProductTierPriceService {
                 .orElseThrow(() -> new RuntimeException("Tier price not found: " + id));
         
         tierPriceRepository.delete(tierPrice);
+        catalogCache.evictProduct(tierPrice.getProduct().getId());
+        storefrontVersions.bumpForProduct(tierPrice.getProduct().getId());
         log.info("Tier price deleted: id={}, product={}", id, tierPrice.getProduct().getId());
     }
 
@@ -236,6 +246,19 @@ public class ProductTierPriceService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Gibt aktive Preisstufen für mehrere Produkte zurück (ein Statement), gruppiert nach productId.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, List<ProductTierPriceDTO>> getActiveTierPricesByProducts(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        return tierPriceRepository.findByProductIdInAndActiveTrueOrderByMinimumQuantityAsc(productIds).stream()
+                .collect(Collectors.groupingBy(ProductTierPrice::getProductId,
+                        Collectors.mapping(this::toDTO, Collectors.toList())));
+    }
+
     /**
      * Konvertiert Entity zu DTO.
      */
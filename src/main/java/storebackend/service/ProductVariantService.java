@@ -27,6 +27,8 @@ public class ProductVariantService {
     private final ProductVariantRepository variantRepository;
     private final ProductRepository productRepository;
     private final ObjectMapper objectMapper;
+    private final ProductCatalogCache catalogCache;
+    private final StorefrontVersionService storefrontVersions;
 
     @Transactional(readOnly = true)
     public List<ProductVariantDTO> getVariantsByProduct(Long productId, Store store) {
@@ -128,6 +130,8 @@ public class ProductVariantService {
 
         variant = variantRepository.save(variant);
         log.info("Created variant {} for product {}", variant.getId(), productId);
+        catalogCache.evictProduct(productId);
+        storefrontVersions.bump(store.getId());
 
         return toDTO(variant);
     }
@@ -218,6 +222,8 @@ public class ProductVariantService {
 
         variant = variantRepository.save(variant);
         log.info("Updated variant {}", variantId);
+        catalogCache.evictProduct(productId);
+        storefrontVersions.bump(store.getId());
 
         return toDTO(variant);
     }
@@ -237,6 +243,8 @@ public class ProductVariantService {
 
         variantRepository.delete(variant);
         log.info("Deleted variant {}", variantId);
+        catalogCache.evictProduct(productId);
+        storefrontVersions.bump(store.getId());
     }
 
     /**
@@ -298,6 +306,8 @@ public class ProductVariantService {
 
         variants = variantRepository.saveAll(variants);
         log.info("Generated {} variants for product {}", variants.size(), request.getProductId());
+        catalogCache.evictProduct(request.getProductId());
+        storefrontVersions.bump(store.getId());
 
         return variants.stream()
                 .map(this::toDTO)
@@ -9,30 +9,45 @@ import storebackend.enums.PriceMode;
 import storebackend.enums.StoreStatus;
 import storebackend.repository.DomainRepository;
 
+import java.util.Optional;
+
 @Service
 public class PublicStoreService {
 
     private final DomainRepository domainRepository;
+    private final StoreHostCache storeHostCache;
 
-    public PublicStoreService(DomainRepository domainRepository) {
+    public PublicStoreService(DomainRepository domainRepository, StoreHostCache storeHostCache) {
         this.domainRepository = domainRepository;
+        this.storeHostCache = storeHostCache;
     }
 
+    /**
+     * Löst den Store zu einem Host auf (gecacht, inkl. Misses).
+     * Unbekannte Hosts und inaktive Stores führen zu einer RuntimeException.
+     */
     public PublicStoreDTO resolveStoreByHost(String host) {
-        Domain domain = domainRepository.findByHost(host)
-                .orElseThrow(() -> new RuntimeException("Store not found for this host"));
+        return storeHostCache.resolve(StoreHostCache.Resolver.PUBLIC_STORE, host, () -> loadStoreByHost(host))
+                .orElseThrow(() -> new RuntimeException("Store not found or not active for this host"));
+    }
+
+    private Optional<PublicStoreDTO> loadStoreByHost(String host) {
+        Domain domain = domainRepository.findByHost(host).orElse(null);
+        if (domain == null) {
+            return Optional.empty();
+        }
 
         Store store = domain.getStore();
 
         if (store.getStatus() != StoreStatus.ACTIVE) {
-            throw new RuntimeException("Store is not active");
+            return Optional.empty();
         }
 
         // NULL-safe mapping with intermediate variables
         CurrencyCode currency = store.getCurrencyCode();
         PriceMode priceMode = store.getPriceMode();
         
-        return new PublicStoreDTO(
+        return Optional.of(new PublicStoreDTO(
             store.getId(),
             domain.getId(),
             store.getName(),
@@ -85,7 +100,7 @@ public class PublicStoreService {
             store.getShippingPolicyStatus() == storebackend.enums.LegalTextStatus.PUBLISHED 
                 ? store.getShippingPolicyText() 
                 : null
-        );
+        ));
     }
 }
 
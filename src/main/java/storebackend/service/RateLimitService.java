@@ -1,87 +1,53 @@
 package storebackend.service;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Refill;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import storebackend.service.ratelimit.BucketSpec;
+import storebackend.service.ratelimit.BucketStore;
 
 import java.time.Duration;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 /**
  * Rate Limiting Service zum Schutz vor automatisierten Registrierungen,
  * Brute-Force-Angriffen und Spam.
  *
- * Verwendet Bucket4j (Token Bucket Algorithm) + Caffeine Cache
+ * Verwendet Bucket4j-Semantik (Token Bucket, Refill.intervally) über einen {@link BucketStore}:
+ * lokal (Default) oder geteilt über alle Replicas via PostgreSQL ({@code rate-limit.store=postgres}).
+ * Login-Fehlversuche liegen im selben Store und verfallen nach LOCKOUT_DURATION.
  */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class RateLimitService {
 
-    // IP-basiertes Rate Limiting (Register, Login, Password-Reset)
-    private final Cache<String, Bucket> ipBucketCache;
+    // IP Rate Limit: 10 Requests pro Minute pro IP (Auth-Endpunkte)
+    static final BucketSpec IP = new BucketSpec("ip", 10, Duration.ofMinutes(1), 10_000);
 
-    // E-Mail-basiertes Rate Limiting (Register, Resend Verification)
-    private final Cache<String, Bucket> emailBucketCache;
+    // Email Rate Limit: 3 Registrierungen pro Stunde pro E-Mail
+    static final BucketSpec EMAIL = new BucketSpec("email", 3, Duration.ofHours(1), 50_000);
 
-    // Store-basiertes Rate Limiting (Store Creation, Public API)
-    private final Cache<Long, Bucket> storeBucketCache;
+    // Store Rate Limit: 100 Requests pro Minute pro Store (Public API)
+    static final BucketSpec STORE = new BucketSpec("store", 100, Duration.ofMinutes(1), 10_000);
 
-    // Telefonnummer-basiertes Rate Limiting (Phone Auth)
-    private final Cache<String, Bucket> phoneBucketCache;
+    // Phone Rate Limit: 3 Codes pro Stunde pro Telefonnummer
+    static final BucketSpec PHONE = new BucketSpec("phone", 3, Duration.ofHours(1), 50_000);
 
-    // Domain-basiertes Rate Limiting (E-Mail-Domain Spam Prevention)
-    private final Cache<String, Bucket> domainBucketCache;
+    // Domain Rate Limit: 10 Requests pro 15 Minuten pro E-Mail-Domain
+    static final BucketSpec DOMAIN = new BucketSpec("domain", 10, Duration.ofMinutes(15), 10_000);
 
-    // Endpoint-spezifisches Rate Limiting (z.B. save-email)
-    private final Cache<String, Bucket> endpointBucketCache;
+    // Endpoint-spezifische Limits (pro Endpoint + Identifier)
+    static final BucketSpec SAVE_EMAIL = new BucketSpec("endpoint:save-email", 3, Duration.ofMinutes(15), 10_000);
+    static final BucketSpec FORGOT_PASSWORD = new BucketSpec("endpoint:forgot-password", 5, Duration.ofMinutes(15), 10_000);
+    static final BucketSpec PHONE_REQUEST_CODE = new BucketSpec("endpoint:phone-request-code", 5, Duration.ofMinutes(15), 10_000);
+    static final BucketSpec ENDPOINT_DEFAULT = new BucketSpec("endpoint", 20, Duration.ofMinutes(1), 10_000);
 
     // Account Lockout nach zu vielen fehlgeschlagenen Login-Versuchen
-    private final ConcurrentMap<String, Integer> loginAttempts = new ConcurrentHashMap<>();
+    private static final String LOGIN_ATTEMPTS_PREFIX = "login:";
     private static final int MAX_LOGIN_ATTEMPTS = 5;
     private static final Duration LOCKOUT_DURATION = Duration.ofMinutes(15);
 
-    public RateLimitService() {
-        // IP Rate Limit: 10 Requests pro Minute pro IP (Auth-Endpunkte)
-        this.ipBucketCache = Caffeine.newBuilder()
-            .expireAfterWrite(Duration.ofMinutes(5))
-            .maximumSize(10_000)
-            .build();
-
-        // Email Rate Limit: 3 Registrierungen pro Stunde pro E-Mail
-        this.emailBucketCache = Caffeine.newBuilder()
-            .expireAfterWrite(Duration.ofHours(1))
-            .maximumSize(50_000)
-            .build();
-
-        // Store Rate Limit: 100 Requests pro Minute pro Store (Public API)
-        this.storeBucketCache = Caffeine.newBuilder()
-            .expireAfterWrite(Duration.ofMinutes(5))
-            .maximumSize(10_000)
-            .build();
-
-        // Phone Rate Limit: 3 Codes pro Stunde pro Telefonnummer
-        this.phoneBucketCache = Caffeine.newBuilder()
-            .expireAfterWrite(Duration.ofHours(1))
-            .maximumSize(50_000)
-            .build();
-
-        // Domain Rate Limit: 10 Requests pro 15 Minuten pro E-Mail-Domain
-        this.domainBucketCache = Caffeine.newBuilder()
-            .expireAfterWrite(Duration.ofMinutes(15))
-            .maximumSize(10_000)
-            .build();
-
-        // Endpoint-spezifisches Rate Limit: 20 Requests pro Minute (global)
-        this.endpointBucketCache = Caffeine.newBuilder()
-            .expireAfterWrite(Duration.ofMinutes(1))
-            .maximumSize(100)
-            .build();
-    }
+    private final BucketStore bucketStore;
 
     /**
      * Prüft IP-basiertes Rate Limit (für Auth-Endpunkte)
@@ -89,8 +55,7 @@ public class RateLimitService {
      * @return true wenn erlaubt, false wenn Limit überschritten
      */
     public boolean checkIpRateLimit(String ipAddress) {
-        Bucket bucket = ipBucketCache.get(ipAddress, k -> createIpBucket());
-        boolean allowed = bucket.tryConsume(1);
+        boolean allowed = bucketStore.tryConsume(IP, ipAddress);
         
         if (!allowed) {
             log.warn("IP Rate Limit exceeded for IP: {}", ipAddress);
@@ -105,8 +70,7 @@ public class RateLimitService {
      * @return true wenn erlaubt, false wenn Limit überschritten
      */
     public boolean checkEmailRateLimit(String email) {
-        Bucket bucket = emailBucketCache.get(email.toLowerCase(), k -> createEmailBucket());
-        boolean allowed = bucket.tryConsume(1);
+        boolean allowed = bucketStore.tryConsume(EMAIL, email.toLowerCase());
         
         if (!allowed) {
             log.warn("Email Rate Limit exceeded for email: {}", email);
@@ -121,8 +85,7 @@ public class RateLimitService {
      * @return true wenn erlaubt, false wenn Limit überschritten
      */
     public boolean checkStoreRateLimit(Long storeId) {
-        Bucket bucket = storeBucketCache.get(storeId, k -> createStoreBucket());
-        boolean allowed = bucket.tryConsume(1);
+        boolean allowed = bucketStore.tryConsume(STORE, String.valueOf(storeId));
         
         if (!allowed) {
             log.warn("Store Rate Limit exceeded for Store ID: {}", storeId);
@@ -136,10 +99,7 @@ public class RateLimitService {
      * @param email E-Mail-Adresse
      */
     public void recordLoginAttempt(String email) {
-        String key = email.toLowerCase();
-        loginAttempts.merge(key, 1, Integer::sum);
-        
-        int attempts = loginAttempts.getOrDefault(key, 0);
+        long attempts = bucketStore.increment(LOGIN_ATTEMPTS_PREFIX + email.toLowerCase(), LOCKOUT_DURATION);
         if (attempts >= MAX_LOGIN_ATTEMPTS) {
             log.warn("Account lockout triggered for email: {} after {} failed attempts", email, attempts);
         }
@@ -150,7 +110,7 @@ public class RateLimitService {
      * @param email E-Mail-Adresse
      */
     public void resetLoginAttempts(String email) {
-        loginAttempts.remove(email.toLowerCase());
+        bucketStore.reset(LOGIN_ATTEMPTS_PREFIX + email.toLowerCase());
     }
 
     /**
@@ -159,8 +119,7 @@ public class RateLimitService {
      * @return true wenn gesperrt, false wenn nicht gesperrt
      */
     public boolean isAccountLocked(String email) {
-        int attempts = loginAttempts.getOrDefault(email.toLowerCase(), 0);
-        return attempts >= MAX_LOGIN_ATTEMPTS;
+        return loginAttempts(email) >= MAX_LOGIN_ATTEMPTS;
     }
 
     /**
@@ -169,8 +128,7 @@ public class RateLimitService {
      * @return Anzahl verbleibender Versuche
      */
     public int getRemainingLoginAttempts(String email) {
-        int attempts = loginAttempts.getOrDefault(email.toLowerCase(), 0);
-        return Math.max(0, MAX_LOGIN_ATTEMPTS - attempts);
+        return (int) Math.max(0, MAX_LOGIN_ATTEMPTS - loginAttempts(email));
     }
 
     /**
@@ -179,8 +137,7 @@ public class RateLimitService {
      * @return true wenn erlaubt, false wenn Limit überschritten
      */
     public boolean checkPhoneRateLimit(String phoneNumber) {
-        Bucket bucket = phoneBucketCache.get(phoneNumber, k -> createPhoneBucket());
-        boolean allowed = bucket.tryConsume(1);
+        boolean allowed = bucketStore.tryConsume(PHONE, phoneNumber);
         
         if (!allowed) {
             log.warn("Phone Rate Limit exceeded for: {}", phoneNumber);
@@ -201,8 +158,7 @@ public class RateLimitService {
             return true; // Bei Fehler durchlassen (fail-open für Domain-Check)
         }
         
-        Bucket bucket = domainBucketCache.get(domain.toLowerCase(), k -> createDomainBucket());
-        boolean allowed = bucket.tryConsume(1);
+        boolean allowed = bucketStore.tryConsume(DOMAIN, domain.toLowerCase());
         
         if (!allowed) {
             log.warn("Domain Rate Limit exceeded for domain: {}", domain);
@@ -218,9 +174,9 @@ public class RateLimitService {
      * @return true wenn erlaubt, false wenn Limit überschritten
      */
     public boolean checkEndpointRateLimit(String endpoint, String identifier) {
-        String key = endpoint + ":" + identifier;
-        Bucket bucket = endpointBucketCache.get(key, k -> createEndpointBucket(endpoint));
-        boolean allowed = bucket.tryConsume(1);
+        BucketSpec spec = endpointSpec(endpoint);
+        String key = spec == ENDPOINT_DEFAULT ? endpoint + ":" + identifier : identifier;
+        boolean allowed = bucketStore.tryConsume(spec, key);
         
         if (!allowed) {
             log.warn("Endpoint Rate Limit exceeded for {}: {}", endpoint, identifier);
@@ -241,64 +197,21 @@ public class RateLimitService {
 
     // ── Private Helper-Methoden ──
 
-    private Bucket createIpBucket() {
-        // 10 Requests pro Minute pro IP
-        Bandwidth limit = Bandwidth.classic(10, Refill.intervally(10, Duration.ofMinutes(1)));
-        return Bucket.builder()
-            .addLimit(limit)
-            .build();
-    }
-
-    private Bucket createEmailBucket() {
-        // 3 Registrierungen pro Stunde pro E-Mail
-        Bandwidth limit = Bandwidth.classic(3, Refill.intervally(3, Duration.ofHours(1)));
-        return Bucket.builder()
-            .addLimit(limit)
-            .build();
+    private long loginAttempts(String email) {
+        return bucketStore.get(LOGIN_ATTEMPTS_PREFIX + email.toLowerCase());
     }
 
-    private Bucket createStoreBucket() {
-        // 100 Requests pro Minute pro Store (öffentliche API)
-        Bandwidth limit = Bandwidth.classic(100, Refill.intervally(100, Duration.ofMinutes(1)));
-        return Bucket.builder()
-            .addLimit(limit)
-            .build();
-    }
-
-    private Bucket createPhoneBucket() {
-        // 3 Codes pro Stunde pro Telefonnummer
-        Bandwidth limit = Bandwidth.classic(3, Refill.intervally(3, Duration.ofHours(1)));
-        return Bucket.builder()
-            .addLimit(limit)
-            .build();
-    }
-
-    private Bucket createDomainBucket() {
-        // 10 Requests pro 15 Minuten pro Domain
-        Bandwidth limit = Bandwidth.classic(10, Refill.intervally(10, Duration.ofMinutes(15)));
-        return Bucket.builder()
-            .addLimit(limit)
-            .build();
-    }
-
-    private Bucket createEndpointBucket(String endpoint) {
+    private BucketSpec endpointSpec(String endpoint) {
         // Endpoint-spezifische Limits
-        if ("save-email".equals(endpoint)) {
+        return switch (endpoint) {
             // save-email: 3 pro 15 Minuten pro IP
-            Bandwidth limit = Bandwidth.classic(3, Refill.intervally(3, Duration.ofMinutes(15)));
-            return Bucket.builder().addLimit(limit).build();
-        } else if ("forgot-password".equals(endpoint)) {
+            case "save-email" -> SAVE_EMAIL;
             // forgot-password: bereits per Email/IP limitiert, hier nur globales Backup
-            Bandwidth limit = Bandwidth.classic(5, Refill.intervally(5, Duration.ofMinutes(15)));
-            return Bucket.builder().addLimit(limit).build();
-        } else if ("phone-request-code".equals(endpoint)) {
+            case "forgot-password" -> FORGOT_PASSWORD;
             // phone auth: 5 pro 15 Minuten pro IP
-            Bandwidth limit = Bandwidth.classic(5, Refill.intervally(5, Duration.ofMinutes(15)));
-            return Bucket.builder().addLimit(limit).build();
-        }
-        
-        // Default: 20 pro Minute
-        Bandwidth limit = Bandwidth.classic(20, Refill.intervally(20, Duration.ofMinutes(1)));
-        return Bucket.builder().addLimit(limit).build();
+            case "phone-request-code" -> PHONE_REQUEST_CODE;
+            // Default: 20 pro Minute
+            default -> ENDPOINT_DEFAULT;
+        };
     }
 }
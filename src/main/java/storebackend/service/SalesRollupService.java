@@ -0,0 +1,243 @@
+package storebackend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import storebackend.entity.SalesDailyBreakdown;
+import storebackend.entity.SalesRollupCoverage;
+import storebackend.repository.SalesRollupCoverageRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pflegt die Tages-Rollups für StoreAnalyticsService.
+ *
+ * Ein Tag wird immer komplett aus orders/order_items neu berechnet (idempotent),
+ * statt Deltas aufzuaddieren – Status- und Zahlungsänderungen können so nicht "verrutschen".
+ * - Status-Änderungen (OrderStatusChangedEvent) markieren den Bestelltag als dirty,
+ *   {@link #flushDirtyDays()} berechnet dirty Tage im abgedeckten Bereich periodisch neu
+ * - neue Orders fallen immer auf "heute", das nie aus Rollups, sondern live beantwortet wird
+ * - {@link #reconcile()} schließt nachts den Vortag ab, rechnet die letzten Tage nach
+ *   (fängt Änderungen ohne Event ab) und baut für neue Stores die Historie auf
+ *
+ * SalesRollupCoverage hält je Store fest, welche Tage vollständig in den Rollups stehen.
+ */
+@Service
+@Slf4j
+public class SalesRollupService {
+
+    private static final String EXCLUDED_REVENUE_STATUSES = "('CANCELLED', 'PAYMENT_FAILED')";
+
+    private static final String DELETE_DAILY_SQL =
+        "DELETE FROM sales_daily_rollups WHERE store_id = ? AND sales_date >= ? AND sales_date <= ?";
+    private static final String DELETE_BREAKDOWN_SQL =
+        "DELETE FROM sales_daily_breakdowns WHERE store_id = ? AND sales_date >= ? AND sales_date <= ?";
+    private static final String DELETE_PRODUCT_SQL =
+        "DELETE FROM sales_daily_product_rollups WHERE store_id = ? AND sales_date >= ? AND sales_date <= ?";
+
+    private static final String INSERT_DAILY_SQL =
+        "INSERT INTO sales_daily_rollups (store_id, sales_date, revenue, paid_order_count, updated_at) " +
+        "SELECT o.store_id, CAST(o.created_at AS DATE), " +
+        "COALESCE(SUM(CASE WHEN o.payment_status = 'PAID' AND o.status NOT IN " + EXCLUDED_REVENUE_STATUSES +
+        " THEN o.total_gross END), 0), " +
+        "SUM(CASE WHEN o.payment_status = 'PAID' THEN 1 ELSE 0 END), ? " +
+        "FROM orders o WHERE o.store_id = ? AND o.created_at >= ? AND o.created_at < ? " +
+        "GROUP BY o.store_id, CAST(o.created_at AS DATE)";
+
+    private static final String INSERT_STATUS_SQL =
+        "INSERT INTO sales_daily_breakdowns (store_id, sales_date, dimension, dimension_value, order_count) " +
+        "SELECT o.store_id, CAST(o.created_at AS DATE), '" + SalesDailyBreakdown.STATUS + "', o.status, COUNT(*) " +
+        "FROM orders o WHERE o.store_id = ? AND o.created_at >= ? AND o.created_at < ? " +
+        "GROUP BY o.store_id, CAST(o.created_at AS DATE), o.status";
+
+    private static final String INSERT_PAYMENT_METHOD_SQL =
+        "INSERT INTO sales_daily_breakdowns (store_id, sales_date, dimension, dimension_value, order_count) " +
+        "SELECT o.store_id, CAST(o.created_at AS DATE), '" + SalesDailyBreakdown.PAYMENT_METHOD + "', o.payment_method, COUNT(*) " +
+        "FROM orders o WHERE o.store_id = ? AND o.payment_method IS NOT NULL " +
+        "AND o.created_at >= ? AND o.created_at < ? " +
+        "GROUP BY o.store_id, CAST(o.created_at AS DATE), o.payment_method";
+
+    private static final String INSERT_PRODUCT_SQL =
+        "INSERT INTO sales_daily_product_rollups (store_id, sales_date, product_id, quantity, revenue, order_count) " +
+        "SELECT o.store_id, CAST(o.created_at AS DATE), oi.product_id, SUM(oi.quantity), SUM(oi.total), COUNT(DISTINCT o.id) " +
+        "FROM order_items oi JOIN orders o ON o.id = oi.order_id " +
+        "WHERE o.store_id = ? AND o.payment_status = 'PAID' AND oi.product_id IS NOT NULL " +
+        "AND o.created_at >= ? AND o.created_at < ? " +
+        "GROUP BY o.store_id, CAST(o.created_at AS DATE), oi.product_id";
+
+    record DirtyDay(Long storeId, LocalDate day) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SalesRollupCoverageRepository coverageRepository;
+    private final int backfillDays;
+    private final int reconcileDays;
+
+    private final Set<DirtyDay> dirtyDays = ConcurrentHashMap.newKeySet();
+
+    public SalesRollupService(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            SalesRollupCoverageRepository coverageRepository,
+            @Value("${analytics.rollup.backfill-days:730}") int backfillDays,
+            @Value("${analytics.rollup.reconcile-days:7}") int reconcileDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.coverageRepository = coverageRepository;
+        this.backfillDays = backfillDays;
+        this.reconcileDays = reconcileDays;
+    }
+
+    /**
+     * Vollständig in den Rollups stehende Tage eines Stores (leer = noch nichts aufgebaut)
+     */
+    public Optional<SalesRollupCoverage> coverageFor(Long storeId) {
+        return coverageRepository.findByStoreId(storeId);
+    }
+
+    /**
+     * Markiert den Bestelltag einer Order zur Neuberechnung
+     */
+    public void markDirty(Long storeId, LocalDateTime orderCreatedAt) {
+        if (storeId == null) {
+            return;
+        }
+        LocalDate day = orderCreatedAt != null ? orderCreatedAt.toLocalDate() : LocalDate.now();
+        dirtyDays.add(new DirtyDay(storeId, day));
+    }
+
+    /**
+     * Wie {@link #markDirty}, aber erst nach dem Commit der laufenden Transaktion – für Stellen,
+     * die Orders ohne OrderStatusChangedEvent ändern (z.B. Zahlungseingang)
+     */
+    public void markDirtyAfterCommit(Long storeId, LocalDateTime orderCreatedAt) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    markDirty(storeId, orderCreatedAt);
+                }
+            });
+        } else {
+            markDirty(storeId, orderCreatedAt);
+        }
+    }
+
+    /**
+     * Berechnet markierte Tage neu – nur innerhalb der Coverage, alles danach ist ohnehin live.
+     */
+    @Scheduled(fixedDelayString = "${analytics.rollup.flush-interval-ms:30000}")
+    public synchronized void flushDirtyDays() {
+        if (dirtyDays.isEmpty()) {
+            return;
+        }
+        List<DirtyDay> batch = new ArrayList<>(dirtyDays);
+        dirtyDays.removeAll(batch);
+
+        for (DirtyDay dirty : batch) {
+            try {
+                coverageFor(dirty.storeId())
+                    .filter(coverage -> !dirty.day().isBefore(coverage.getCoveredFrom())
+                        && !dirty.day().isAfter(coverage.getCoveredThrough()))
+                    .ifPresent(coverage -> rebuild(dirty.storeId(), dirty.day(), dirty.day()));
+            } catch (Exception e) {
+                // Beim nächsten Flush erneut versuchen
+                dirtyDays.add(dirty);
+                log.error("[ANALYTICS] Failed to rebuild sales rollup for store {} on {}: {}",
+                    dirty.storeId(), dirty.day(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Nächtlicher Abgleich aller Stores
+     */
+    @Scheduled(cron = "${analytics.rollup.reconcile-cron:0 45 3 * * *}")
+    public void reconcile() {
+        List<Long> storeIds = jdbcTemplate.queryForList("SELECT id FROM stores", Long.class);
+        log.info("[ANALYTICS] Reconciling sales rollups for {} stores", storeIds.size());
+
+        int failed = 0;
+        for (Long storeId : storeIds) {
+            try {
+                reconcileStore(storeId);
+            } catch (Exception e) {
+                failed++;
+                log.error("[ANALYTICS] Sales rollup reconciliation failed for store {}: {}", storeId, e.getMessage());
+            }
+        }
+        log.info("[ANALYTICS] Sales rollup reconciliation finished ({} failed)", failed);
+    }
+
+    /**
+     * Bringt die Rollups eines Stores bis einschließlich gestern auf Stand.
+     * Ohne Coverage wird die komplette Historie (analytics.rollup.backfill-days) aufgebaut.
+     */
+    public synchronized void reconcileStore(Long storeId) {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        Optional<SalesRollupCoverage> existing = coverageFor(storeId);
+
+        LocalDate coveredFrom = existing.map(SalesRollupCoverage::getCoveredFrom)
+            .orElse(yesterday.minusDays(backfillDays - 1L));
+        LocalDate rebuildFrom = existing
+            .map(coverage -> max(coverage.getCoveredFrom(), min(coverage.getCoveredThrough().plusDays(1),
+                yesterday.minusDays(reconcileDays - 1L))))
+            .orElse(coveredFrom);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            rebuildRange(storeId, rebuildFrom, yesterday);
+
+            SalesRollupCoverage coverage = existing.orElseGet(SalesRollupCoverage::new);
+            coverage.setStoreId(storeId);
+            coverage.setCoveredFrom(coveredFrom);
+            coverage.setCoveredThrough(yesterday);
+            coverage.setUpdatedAt(LocalDateTime.now());
+            coverageRepository.save(coverage);
+        });
+
+        log.debug("[ANALYTICS] Sales rollups for store {} rebuilt {}..{}", storeId, rebuildFrom, yesterday);
+    }
+
+    private void rebuild(Long storeId, LocalDate from, LocalDate to) {
+        transactionTemplate.executeWithoutResult(status -> rebuildRange(storeId, from, to));
+    }
+
+    private void rebuildRange(Long storeId, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            return;
+        }
+        java.sql.Date fromDate = java.sql.Date.valueOf(from);
+        java.sql.Date toDate = java.sql.Date.valueOf(to);
+        Timestamp start = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(to.plusDays(1).atStartOfDay());
+
+        jdbcTemplate.update(DELETE_DAILY_SQL, storeId, fromDate, toDate);
+        jdbcTemplate.update(DELETE_BREAKDOWN_SQL, storeId, fromDate, toDate);
+        jdbcTemplate.update(DELETE_PRODUCT_SQL, storeId, fromDate, toDate);
+
+        jdbcTemplate.update(INSERT_DAILY_SQL, Timestamp.valueOf(LocalDateTime.now()), storeId, start, end);
+        jdbcTemplate.update(INSERT_STATUS_SQL, storeId, start, end);
+        jdbcTemplate.update(INSERT_PAYMENT_METHOD_SQL, storeId, start, end);
+        jdbcTemplate.update(INSERT_PRODUCT_SQL, storeId, start, end);
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -4,8 +4,6 @@ import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import storebackend.dto.GeoIpData;
-import storebackend.util.IpAddressUtil;
 
 /**
  * Security Event Helper - Vereinfacht GeoIP-Integration
@@ -18,36 +16,18 @@ import storebackend.util.IpAddressUtil;
 public class SecurityEventHelper {
 
     private final SecurityEventService securityEventService;
-    private final GeoIpService geoIpService;
 
     /**
      * Erstellt SecurityEventBuilder mit Request + GeoIP
      * 
      * @param endpoint Endpoint path
      * @param request HTTP request
-     * @return Builder mit Request-Daten und GeoIP-Lookup
+     * @return Builder mit Request-Daten (GeoIP wird beim Batch-Insert ergänzt)
      */
     public SecurityEventService.SecurityEventBuilder createEvent(String endpoint, HttpServletRequest request) {
-        var builder = securityEventService.builder(endpoint)
+        // GeoIP-Lookup erfolgt gebündelt beim Schreiben (SecurityEventWriter), nicht im Request-Thread
+        return securityEventService.builder(endpoint)
             .request(request);
-        
-        // GeoIP-Lookup nur wenn aktiviert
-        if (geoIpService.isEnabled() && request != null) {
-            String clientIp = IpAddressUtil.getClientIpAddress(request);
-            if (clientIp != null) {
-                GeoIpData geoIp = geoIpService.lookup(clientIp);
-                if (geoIp != null) {
-                    builder.geoIp(geoIp);
-                    
-                    // Log Hosting Provider Attacks
-                    if (geoIp.isHostingProvider()) {
-                        log.debug("🤖 Hosting provider detected: {} ({})", geoIp.getAsnOrg(), clientIp);
-                    }
-                }
-            }
-        }
-        
-        return builder;
     }
     
     /**
@@ -3,7 +3,6 @@ package storebackend.service;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import storebackend.entity.SecurityEvent;
@@ -20,7 +19,8 @@ import java.time.LocalDateTime;
 /**
  * Security Event Service - Tracking von sicherheitsrelevanten Vorgängen
  * 
- * Alle Events werden asynchron gespeichert, um die Request-Performance nicht zu beeinträchtigen.
+ * Events werden gepuffert und gebündelt gespeichert ({@link SecurityEventWriter}),
+ * um die Request-Performance nicht zu beeinträchtigen.
  */
 @Service
 @RequiredArgsConstructor
@@ -28,39 +28,36 @@ import java.time.LocalDateTime;
 public class SecurityEventService {
 
     private final SecurityEventRepository securityEventRepository;
-    private final GeoIpService geoIpService;
+    private final SecurityEventWriter securityEventWriter;
 
     /**
-     * Speichert Security Event asynchron
+     * Übergibt das Event an den gepufferten Writer (Batch-Insert, GeoIP-Anreicherung dort)
      */
-    @Async
-    @Transactional
     public void logEvent(SecurityEventBuilder builder) {
         try {
-            SecurityEvent event = builder.build();
-            securityEventRepository.save(event);
-            
-            // Bei kritischen Events zusätzlich loggen
-            if (Boolean.TRUE.equals(event.getBlocked())) {
-                log.warn("🚨 Security Event: {} blocked on {} - Reason: {} - IP: {}", 
-                    event.getEmailMasked() != null ? event.getEmailMasked() : event.getPhoneMasked(),
-                    event.getEndpoint(), 
-                    event.getBlockReason(),
-                    event.getClientIp());
-            }
-            
-            // Honeypot-Trigger = kritischer Alarm
-            if (Boolean.TRUE.equals(event.getHoneypotTriggered())) {
-                log.error("🍯 HONEYPOT TRIGGERED: IP {} on {} - UA: {}", 
-                    event.getClientIp(), 
-                    event.getEndpoint(),
-                    event.getUserAgent());
-            }
+            securityEventWriter.enqueue(builder.build());
         } catch (Exception e) {
-            log.error("Failed to save security event", e);
+            log.error("Failed to enqueue security event", e);
         }
     }
 
+    /**
+     * Überträgt GeoIP-Daten auf ein Event (Builder und Batch-Anreicherung)
+     */
+    static void applyGeoIp(SecurityEvent event, GeoIpData geoIp) {
+        event.setCountryCode(geoIp.getCountryCode());
+        event.setCountryName(geoIp.getCountryName());
+        event.setCity(geoIp.getCity());
+        event.setLatitude(geoIp.getLatitude());
+        event.setLongitude(geoIp.getLongitude());
+        event.setContinent(geoIp.getContinent());
+        event.setAsn(geoIp.getAsn());
+        event.setAsnOrg(geoIp.getAsnOrg());
+        event.setIsp(geoIp.getIsp());
+        event.setCloudProvider(geoIp.getCloudProvider());
+        event.setIsHostingProvider(geoIp.isHostingProvider());
+    }
+
     /**
      * Builder für Security Events
      */
@@ -89,17 +86,7 @@ public class SecurityEventService {
         
         public SecurityEventBuilder geoIp(GeoIpData geoIp) {
             if (geoIp != null) {
-                this.event.setCountryCode(geoIp.getCountryCode());
-                this.event.setCountryName(geoIp.getCountryName());
-                this.event.setCity(geoIp.getCity());
-                this.event.setLatitude(geoIp.getLatitude());
-                this.event.setLongitude(geoIp.getLongitude());
-                this.event.setContinent(geoIp.getContinent());
-                this.event.setAsn(geoIp.getAsn());
-                this.event.setAsnOrg(geoIp.getAsnOrg());
-                this.event.setIsp(geoIp.getIsp());
-                this.event.setCloudProvider(geoIp.getCloudProvider());
-                this.event.setIsHostingProvider(geoIp.isHostingProvider());
+                applyGeoIp(this.event, geoIp);
             }
             return this;
         }
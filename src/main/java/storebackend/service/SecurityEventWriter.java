@@ -0,0 +1,311 @@
+package storebackend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import storebackend.dto.GeoIpData;
+import storebackend.entity.SecurityEvent;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gepufferte Ingestion für Security Events.
+ *
+ * Statt pro Event eine Insert-Transaktion auf dem Default-Async-Executor
+ * (bei Spam-Wellen: ein Insert pro blockiertem Request, Executor ausgehungert)
+ * landen Events in einem begrenzten Ring-Puffer und werden periodisch als
+ * JDBC-Batch-Inserts geschrieben.
+ *
+ * Überlast-Policy:
+ * - ab {@code security.events.sampling-threshold} Füllstand: unkritische Events nur
+ *   noch jedes N-te ({@code security.events.sample-rate}); blockierte/Honeypot-Events immer
+ * - Puffer voll: ein unkritisches Event wird selbst verworfen; ein blockiertes/Honeypot-Event
+ *   verdrängt das älteste unkritische – nur wenn der Puffer ausschließlich kritische Events
+ *   enthält, fällt das älteste kritische heraus
+ *
+ * GeoIP-Anreicherung passiert hier im Batch (pro IP einmal je Batch), nicht im Request-Thread.
+ * Scheitert ein Batch, wird zeilenweise nachgeschrieben – nur die fehlerhaften Events gehen
+ * verloren (geloggt und gezählt, best effort wie bisher). Header- und Eingabewerte (User-Agent,
+ * maskierte E-Mail/Telefon) werden auf die Spaltenlängen gekürzt, damit ein überlanger Wert
+ * nicht den Insert sprengt.
+ *
+ * Der Flush läuft auf einem eigenen Thread, nicht auf dem gemeinsamen Spring-Scheduler:
+ * lange Jobs dort (Backfills, Rollups) dürfen den Puffer nicht überlaufen lassen.
+ *
+ * Metriken: security.events.pending, security.events.enqueued, security.events.dropped{reason},
+ * security.events.flush, security.events.write.failures
+ */
+@Service
+@Slf4j
+public class SecurityEventWriter {
+
+    static final String INSERT_SQL = "INSERT INTO security_events (" +
+        "created_at, request_id, event_type, http_method, endpoint, client_ip, remote_addr, " +
+        "x_forwarded_for, x_real_ip, user_agent, email_masked, email_domain, phone_masked, " +
+        "captcha_present, captcha_valid, honeypot_triggered, rate_limit_type, blocked, block_reason, " +
+        "http_status, store_id, user_id, email_hash, mail_type, mail_triggered, mail_sent, " +
+        "kill_switch_triggered, circuit_breaker_triggered, login_success, risk_score, origin, referer, " +
+        "country_code, country_name, city, latitude, longitude, continent, asn, asn_org, isp, " +
+        "cloud_provider, is_hosting_provider" +
+        ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, " +
+        "?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final GeoIpService geoIpService;
+    private final ArrayBlockingQueue<SecurityEvent> buffer;
+    private final int batchSize;
+    private final int samplingThreshold;
+    private final int sampleRate;
+
+    private final AtomicLong sampleSequence = new AtomicLong();
+
+    @Value("${security.events.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    private ScheduledExecutorService flushExecutor;
+
+    private final Counter enqueuedCounter;
+    private final Counter droppedOverflowCounter;
+    private final Counter droppedSampledCounter;
+    private final Counter writeFailureCounter;
+    private final Timer flushTimer;
+
+    public SecurityEventWriter(
+            JdbcTemplate jdbcTemplate,
+            GeoIpService geoIpService,
+            MeterRegistry meterRegistry,
+            @Value("${security.events.buffer-capacity:10000}") int capacity,
+            @Value("${security.events.batch-size:500}") int batchSize,
+            @Value("${security.events.sampling-threshold:0.8}") double samplingThreshold,
+            @Value("${security.events.sample-rate:10}") int sampleRate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.geoIpService = geoIpService;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.samplingThreshold = (int) (capacity * samplingThreshold);
+        this.sampleRate = Math.max(1, sampleRate);
+
+        this.enqueuedCounter = Counter.builder("security.events.enqueued")
+                .description("Security events accepted into the write buffer")
+                .register(meterRegistry);
+        this.droppedOverflowCounter = Counter.builder("security.events.dropped")
+                .tag("reason", "overflow")
+                .description("Security events dropped because the buffer was full (non-critical first)")
+                .register(meterRegistry);
+        this.droppedSampledCounter = Counter.builder("security.events.dropped")
+                .tag("reason", "sampled")
+                .description("Non-critical security events skipped by overload sampling")
+                .register(meterRegistry);
+        this.writeFailureCounter = Counter.builder("security.events.write.failures")
+                .description("Security events lost because their insert failed")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("security.events.flush")
+                .description("Duration of batched security event inserts")
+                .register(meterRegistry);
+
+        Gauge.builder("security.events.pending", buffer, ArrayBlockingQueue::size)
+                .description("Security events waiting to be written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Nimmt ein Event an (nicht blockierend, Request-Thread).
+     */
+    public void enqueue(SecurityEvent event) {
+        if (event.getCreatedAt() == null) {
+            event.setCreatedAt(LocalDateTime.now());
+        }
+
+        if (buffer.size() >= samplingThreshold && !isCritical(event)
+                && sampleSequence.incrementAndGet() % sampleRate != 0) {
+            droppedSampledCounter.increment();
+            return;
+        }
+
+        while (!buffer.offer(event)) {
+            if (!isCritical(event)) {
+                droppedOverflowCounter.increment();
+                return;
+            }
+            if (removeOldestNonCritical() || buffer.poll() != null) {
+                droppedOverflowCounter.increment();
+            }
+        }
+        enqueuedCounter.increment();
+    }
+
+    /**
+     * Entfernt das älteste unkritische Event; false, wenn der Puffer nur kritische enthält.
+     */
+    private boolean removeOldestNonCritical() {
+        Iterator<SecurityEvent> iterator = buffer.iterator();
+        while (iterator.hasNext()) {
+            if (!isCritical(iterator.next())) {
+                iterator.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @PostConstruct
+    void startFlushing() {
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "security-events-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (Exception e) {
+                // Eine Exception würde die periodische Ausführung beenden
+                log.error("Security event flush failed: {}", e.getMessage(), e);
+            }
+        }, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Schreibt alle gepufferten Events in Batches.
+     * synchronized: verhindert parallelen periodischen und Shutdown-Flush.
+     */
+    public synchronized void flush() {
+        List<SecurityEvent> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            List<SecurityEvent> events = batch;
+            flushTimer.record(() -> write(events));
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (flushExecutor != null) {
+            flushExecutor.shutdown();
+        }
+        log.info("Flushing pending security events before shutdown ({} events)", buffer.size());
+        flush();
+    }
+
+    int pendingCount() {
+        return buffer.size();
+    }
+
+    private void write(List<SecurityEvent> events) {
+        enrichGeoIp(events);
+
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (SecurityEvent event : events) {
+            rows.add(toRow(event));
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+            log.debug("Wrote {} security events", events.size());
+            events.forEach(SecurityEventWriter::logCritical);
+        } catch (Exception e) {
+            // PostgreSQL: der Batch läuft bis zum Sync als eine implizite Transaktion → nichts geschrieben
+            log.warn("Batch insert of {} security events failed, retrying row by row: {}", events.size(), e.getMessage());
+            writeRowByRow(events, rows);
+        }
+    }
+
+    private void writeRowByRow(List<SecurityEvent> events, List<Object[]> rows) {
+        int failed = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            try {
+                jdbcTemplate.update(INSERT_SQL, rows.get(i));
+                logCritical(events.get(i));
+            } catch (Exception e) {
+                failed++;
+                log.debug("Failed to write security event on {}: {}", events.get(i).getEndpoint(), e.getMessage());
+            }
+        }
+        if (failed > 0) {
+            writeFailureCounter.increment(failed);
+            log.error("Failed to write {} of {} security events", failed, events.size());
+        }
+    }
+
+    /**
+     * GeoIP-Lookup pro IP einmal je Batch (Spam-Wellen kommen meist von wenigen IPs).
+     */
+    private void enrichGeoIp(List<SecurityEvent> events) {
+        if (!geoIpService.isEnabled()) {
+            return;
+        }
+        Map<String, Optional<GeoIpData>> lookups = new HashMap<>();
+        for (SecurityEvent event : events) {
+            if (event.getClientIp() == null || event.getCountryCode() != null) {
+                continue;
+            }
+            lookups.computeIfAbsent(event.getClientIp(), ip -> Optional.ofNullable(geoIpService.lookup(ip)))
+                .ifPresent(geoIp -> SecurityEventService.applyGeoIp(event, geoIp));
+        }
+    }
+
+    private static boolean isCritical(SecurityEvent event) {
+        return Boolean.TRUE.equals(event.getBlocked()) || Boolean.TRUE.equals(event.getHoneypotTriggered());
+    }
+
+    private static void logCritical(SecurityEvent event) {
+        // Bei kritischen Events zusätzlich loggen
+        if (Boolean.TRUE.equals(event.getBlocked())) {
+            log.warn("🚨 Security Event: {} blocked on {} - Reason: {} - IP: {}",
+                event.getEmailMasked() != null ? event.getEmailMasked() : event.getPhoneMasked(),
+                event.getEndpoint(),
+                event.getBlockReason(),
+                event.getClientIp());
+        }
+
+        // Honeypot-Trigger = kritischer Alarm
+        if (Boolean.TRUE.equals(event.getHoneypotTriggered())) {
+            log.error("🍯 HONEYPOT TRIGGERED: IP {} on {} - UA: {}",
+                event.getClientIp(),
+                event.getEndpoint(),
+                event.getUserAgent());
+        }
+    }
+
+    private static Object[] toRow(SecurityEvent e) {
+        return new Object[]{
+            e.getCreatedAt(), truncate(e.getRequestId(), 100), name(e.getEventType()), truncate(e.getHttpMethod(), 10),
+            truncate(e.getEndpoint(), 200), truncate(e.getClientIp(), 50), truncate(e.getRemoteAddr(), 50),
+            truncate(e.getXForwardedFor(), 200), truncate(e.getXRealIp(), 50), truncate(e.getUserAgent(), 500),
+            truncate(e.getEmailMasked(), 100), truncate(e.getEmailDomain(), 100), truncate(e.getPhoneMasked(), 50),
+            e.getCaptchaPresent(), e.getCaptchaValid(), e.getHoneypotTriggered(), name(e.getRateLimitType()),
+            e.getBlocked() != null ? e.getBlocked() : Boolean.FALSE, name(e.getBlockReason()),
+            e.getHttpStatus(), e.getStoreId(), e.getUserId(), e.getEmailHash(), name(e.getMailType()),
+            e.getMailTriggered(), e.getMailSent(), e.getKillSwitchTriggered(), e.getCircuitBreakerTriggered(),
+            e.getLoginSuccess(), e.getRiskScore(), truncate(e.getOrigin(), 200), truncate(e.getReferer(), 500),
+            e.getCountryCode(), e.getCountryName(), e.getCity(), e.getLatitude(), e.getLongitude(),
+            e.getContinent(), e.getAsn(), e.getAsnOrg(), e.getIsp(), e.getCloudProvider(), e.getIsHostingProvider()
+        };
+    }
+
+    /** Kürzt Header- und Eingabewerte auf die Spaltenlänge (varchar(n)) */
+    static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    private static String name(Enum<?> value) {
+        return value != null ? value.name() : null;
+    }
+}
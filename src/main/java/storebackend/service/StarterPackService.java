@@ -33,6 +33,8 @@ public class StarterPackService {
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
     private final StoreSliderImageRepository sliderImageRepository;
+    private final ProductCatalogCache catalogCache;
+    private final StorefrontVersionService storefrontVersions;
 
     /** Default-Lagerbestand für geklonte Produkte (Menü-Items immer verfügbar). */
     private static final int DEFAULT_STOCK = 99;
@@ -131,6 +133,9 @@ public class StarterPackService {
             sliderImageRepository.save(slider);
         }
 
+        catalogCache.evictStoreListings(store.getId());
+        storefrontVersions.bump(store.getId());
+
         log.info("✅ Starter-Pack '{}' geklont: {} Kategorien, {} Produkte, {} Carousel-Bilder",
             pack.getCode(), pack.getCategories().size(), pack.getProducts().size(),
             pack.getCarouselItems().size());
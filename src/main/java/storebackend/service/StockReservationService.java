@@ -0,0 +1,117 @@
+package storebackend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import storebackend.exception.InsufficientStockException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Atomare Bestandsreservierung für den Checkout.
+ *
+ * Statt Bestand in Java zu lesen, zu prüfen und zurückzuschreiben (Lost Update bei
+ * gleichzeitigen Checkouts → Überverkauf) wird direkt in der DB bedingt dekrementiert:
+ *   UPDATE ... SET stock_quantity = stock_quantity - ? WHERE id = ? AND stock_quantity >= ?
+ * Die Prüfung und das Schreiben sind damit ein Schritt unter der Zeilensperre der DB.
+ *
+ * Alle Positionen einer Order gehen als ein JDBC-Batch (ein Round Trip) raus,
+ * in Variant-ID-Reihenfolge (keine Lock-Zyklen zwischen parallelen Orders).
+ * Scheitert eine Position, wird die Transaktion zurückgerollt – alles oder nichts.
+ *
+ * Hinweis: Die Updates laufen am Persistence Context vorbei; bereits geladene
+ * ProductVariant-Entities zeigen danach den alten Bestand. Die betroffenen Produkte
+ * werden nach dem Commit aus dem Katalog-Cache entfernt (DTOs enthalten den Bestand).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockReservationService {
+
+    static final String RESERVE_SQL =
+        "UPDATE product_variants SET stock_quantity = stock_quantity - ? WHERE id = ? AND stock_quantity >= ?";
+    static final String RELEASE_SQL =
+        "UPDATE product_variants SET stock_quantity = stock_quantity + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductCatalogCache catalogCache;
+
+    /**
+     * Reserviert (dekrementiert) Bestand für alle Positionen.
+     *
+     * @param quantities Variant-ID → Menge (> 0); Mengen je Variante bereits summiert
+     * @throws InsufficientStockException wenn eine Variante nicht genug Bestand hat (oder nicht existiert)
+     */
+    @Transactional
+    public void reserve(Map<Long, Integer> quantities) {
+        Map<Long, Integer> ordered = ordered(quantities);
+        if (ordered.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batch = new ArrayList<>(ordered.size());
+        ordered.forEach((variantId, quantity) -> batch.add(new Object[]{quantity, variantId, quantity}));
+        int[] updated = jdbcTemplate.batchUpdate(RESERVE_SQL, batch);
+
+        int i = 0;
+        for (Map.Entry<Long, Integer> entry : ordered.entrySet()) {
+            if (updated[i++] == 0) {
+                log.warn("Stock reservation rejected: variant={}, requested={}", entry.getKey(), entry.getValue());
+                throw new InsufficientStockException(entry.getKey(),
+                    "Insufficient stock for variant " + entry.getKey() + ". Requested: " + entry.getValue());
+            }
+        }
+        evictProducts(ordered.keySet());
+        log.debug("Reserved stock for {} variants", ordered.size());
+    }
+
+    /**
+     * Gibt reservierten Bestand wieder frei (Storno, fehlgeschlagene Zahlung).
+     *
+     * @param quantities Variant-ID → Menge (> 0)
+     */
+    @Transactional
+    public void release(Map<Long, Integer> quantities) {
+        Map<Long, Integer> ordered = ordered(quantities);
+        if (ordered.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batch = new ArrayList<>(ordered.size());
+        ordered.forEach((variantId, quantity) -> batch.add(new Object[]{quantity, variantId}));
+        jdbcTemplate.batchUpdate(RELEASE_SQL, batch);
+        evictProducts(ordered.keySet());
+        log.debug("Released stock for {} variants", ordered.size());
+    }
+
+    /**
+     * Entfernt die Produkte der Varianten aus dem Katalog-Cache (wirkt erst nach dem Commit).
+     */
+    private void evictProducts(Collection<Long> variantIds) {
+        String placeholders = String.join(",", Collections.nCopies(variantIds.size(), "?"));
+        List<Long> productIds = jdbcTemplate.queryForList(
+            "SELECT DISTINCT product_id FROM product_variants WHERE id IN (" + placeholders + ")",
+            Long.class, variantIds.toArray());
+        productIds.forEach(catalogCache::evictProduct);
+    }
+
+    /**
+     * TreeMap → Updates in ID-Reihenfolge; Null- und Nicht-Positiv-Mengen werden verworfen.
+     */
+    private static Map<Long, Integer> ordered(Map<Long, Integer> quantities) {
+        Map<Long, Integer> ordered = new TreeMap<>();
+        quantities.forEach((variantId, quantity) -> {
+            if (variantId != null && quantity != null && quantity > 0) {
+                ordered.merge(variantId, quantity, Integer::sum);
+            }
+        });
+        return ordered;
+    }
+}
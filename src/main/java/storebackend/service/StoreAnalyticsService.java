@@ -9,12 +9,17 @@ import org.springframework.transaction.annotation.Transactional;
 import storebackend.dto.analytics.OrderStatsDTO;
 import storebackend.dto.analytics.RevenueSummaryDTO;
 import storebackend.dto.analytics.TopProductDTO;
+import storebackend.entity.SalesDailyBreakdown;
+import storebackend.entity.SalesRollupCoverage;
 import storebackend.entity.Store;
 import storebackend.enums.OrderStatus;
 import storebackend.enums.PaymentMethod;
 import storebackend.enums.PaymentStatus;
 import storebackend.repository.OrderItemRepository;
 import storebackend.repository.OrderRepository;
+import storebackend.repository.SalesDailyBreakdownRepository;
+import storebackend.repository.SalesDailyProductRollupRepository;
+import storebackend.repository.SalesDailyRollupRepository;
 import storebackend.repository.StoreRepository;
 
 import java.math.BigDecimal;
@@ -22,16 +27,21 @@ import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * Store Analytics Service
  * 
  * Liefert aggregierte Kennzahlen für Store-Owner Dashboard
  * Nur Geschäftsdaten aus orders/order_items - KEIN Visitor-Tracking
+ *
+ * Abgeschlossene Tage kommen aus den Tages-Rollups (SalesRollupService),
+ * nur der Rest des Zeitraums (mindestens "heute") wird live aus orders berechnet.
  */
 @Service
 @RequiredArgsConstructor
@@ -41,9 +51,19 @@ public class StoreAnalyticsService {
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final StoreRepository storeRepository;
+    private final SalesRollupService salesRollupService;
+    private final SalesDailyRollupRepository salesDailyRollupRepository;
+    private final SalesDailyBreakdownRepository salesDailyBreakdownRepository;
+    private final SalesDailyProductRollupRepository salesDailyProductRollupRepository;
     
     // Maximaler Zeitraum: 2 Jahre
     private static final int MAX_DAYS = 730;
+
+    // Vom Umsatz ausgeschlossene Status (storniert, fehlgeschlagen)
+    private static final List<OrderStatus> EXCLUDED_REVENUE_STATUSES = List.of(
+        OrderStatus.CANCELLED,
+        OrderStatus.PAYMENT_FAILED
+    );
     
     /**
      * Umsatz-Zusammenfassung für einen Store (mit optionalem Zeitraum)
@@ -62,32 +82,37 @@ public class StoreAnalyticsService {
         log.info("[ANALYTICS] Calculating revenue summary for storeId={}, from={}, to={}", 
             storeId, dateRange.from(), dateRange.to());
         
-        // Ausgeschlossene Status (storniert, fehlgeschlagen)
-        List<OrderStatus> excludedStatuses = Arrays.asList(
-            OrderStatus.CANCELLED,
-            OrderStatus.PAYMENT_FAILED
-        );
-        
-        // Gesamtumsatz (nur PAID Orders, ohne CANCELLED/FAILED)
-        BigDecimal totalRevenue = orderRepository.sumRevenueByStore(
-            storeId,
-            PaymentStatus.PAID,
-            excludedStatuses,
-            dateRange.fromDateTime(),
-            dateRange.toDateTime()
-        );
-        
-        // Anzahl bezahlter Bestellungen
-        Long paidOrderCount = orderRepository.countPaidOrders(
-            storeId,
-            PaymentStatus.PAID,
-            dateRange.fromDateTime(),
-            dateRange.toDateTime()
-        );
+        Split split = split(storeId, dateRange);
+
+        // Gesamtumsatz (nur PAID Orders, ohne CANCELLED/FAILED) und Anzahl bezahlter Bestellungen
+        BigDecimal totalRevenue = BigDecimal.ZERO;
+        Long paidOrderCount = 0L;
+
+        if (split.hasRollup()) {
+            totalRevenue = totalRevenue.add(
+                salesDailyRollupRepository.sumRevenue(storeId, split.rollupFrom(), split.rollupTo()));
+            paidOrderCount += salesDailyRollupRepository.sumPaidOrders(storeId, split.rollupFrom(), split.rollupTo());
+        }
+
+        if (split.hasLive()) {
+            totalRevenue = totalRevenue.add(orderRepository.sumRevenueByStore(
+                storeId,
+                PaymentStatus.PAID,
+                EXCLUDED_REVENUE_STATUSES,
+                split.liveFrom(),
+                split.liveTo()
+            ));
+            paidOrderCount += orderRepository.countPaidOrders(
+                storeId,
+                PaymentStatus.PAID,
+                split.liveFrom(),
+                split.liveTo()
+            );
+        }
         
         // Durchschnittlicher Bestellwert
         BigDecimal averageOrderValue = BigDecimal.ZERO;
-        if (paidOrderCount != null && paidOrderCount > 0) {
+        if (paidOrderCount > 0) {
             averageOrderValue = totalRevenue.divide(
                 new BigDecimal(paidOrderCount),
                 2,
@@ -129,16 +154,19 @@ public class StoreAnalyticsService {
         log.info("[ANALYTICS] Fetching top {} products for storeId={}, from={}, to={}", 
             limit, storeId, dateRange.from(), dateRange.to());
         
-        // Pageable für LIMIT-Funktionalität
+        Split split = split(storeId, dateRange);
         Pageable pageable = PageRequest.of(0, limit);
-        
-        List<TopProductDTO> topProducts = orderItemRepository.findTopProductsByRevenue(
-            storeId,
-            PaymentStatus.PAID,
-            dateRange.fromDateTime(),
-            dateRange.toDateTime(),
-            pageable
-        );
+
+        List<TopProductDTO> topProducts;
+        if (!split.hasRollup()) {
+            topProducts = orderItemRepository.findTopProductsByRevenue(
+                storeId, PaymentStatus.PAID, split.liveFrom(), split.liveTo(), pageable);
+        } else if (!split.hasLive()) {
+            topProducts = salesDailyProductRollupRepository.findTopProducts(
+                storeId, split.rollupFrom(), split.rollupTo(), pageable);
+        } else {
+            topProducts = mergeTopProducts(storeId, limit, split, pageable);
+        }
         
         // LIMIT wird in JPQL nicht als Parameter unterstützt - manuell begrenzen
         if (topProducts.size() > limit) {
@@ -161,32 +189,33 @@ public class StoreAnalyticsService {
         log.info("[ANALYTICS] Calculating order stats for storeId={}, from={}, to={}", 
             storeId, dateRange.from(), dateRange.to());
         
+        Split split = split(storeId, dateRange);
+
         // Bestellungen nach Status
-        List<Object[]> statusCounts = orderRepository.countByStoreGroupedByStatus(
-            storeId,
-            dateRange.fromDateTime(),
-            dateRange.toDateTime()
-        );
         Map<OrderStatus, Long> ordersByStatus = new HashMap<>();
-        
-        for (Object[] row : statusCounts) {
-            OrderStatus status = (OrderStatus) row[0];
-            Long count = (Long) row[1];
-            ordersByStatus.put(status, count);
-        }
-        
         // Bestellungen nach Zahlungsart
-        List<Object[]> paymentMethodCounts = orderRepository.countByStoreGroupedByPaymentMethod(
-            storeId,
-            dateRange.fromDateTime(),
-            dateRange.toDateTime()
-        );
         Map<PaymentMethod, Long> ordersByPaymentMethod = new HashMap<>();
-        
-        for (Object[] row : paymentMethodCounts) {
-            PaymentMethod method = (PaymentMethod) row[0];
-            Long count = (Long) row[1];
-            ordersByPaymentMethod.put(method, count);
+
+        if (split.hasRollup()) {
+            for (Object[] row : salesDailyBreakdownRepository.sumByDimension(
+                    storeId, SalesDailyBreakdown.STATUS, split.rollupFrom(), split.rollupTo())) {
+                ordersByStatus.merge(OrderStatus.valueOf((String) row[0]), (Long) row[1], Long::sum);
+            }
+            for (Object[] row : salesDailyBreakdownRepository.sumByDimension(
+                    storeId, SalesDailyBreakdown.PAYMENT_METHOD, split.rollupFrom(), split.rollupTo())) {
+                ordersByPaymentMethod.merge(PaymentMethod.valueOf((String) row[0]), (Long) row[1], Long::sum);
+            }
+        }
+
+        if (split.hasLive()) {
+            for (Object[] row : orderRepository.countByStoreGroupedByStatus(
+                    storeId, split.liveFrom(), split.liveTo())) {
+                ordersByStatus.merge((OrderStatus) row[0], (Long) row[1], Long::sum);
+            }
+            for (Object[] row : orderRepository.countByStoreGroupedByPaymentMethod(
+                    storeId, split.liveFrom(), split.liveTo())) {
+                ordersByPaymentMethod.merge((PaymentMethod) row[0], (Long) row[1], Long::sum);
+            }
         }
         
         log.info("[ANALYTICS] Order Stats: storeId={}, byStatus={}, byPaymentMethod={}",
@@ -195,6 +224,71 @@ public class StoreAnalyticsService {
         return new OrderStatsDTO(ordersByStatus, ordersByPaymentMethod);
     }
     
+    /**
+     * Top-Produkte aus Rollups + Live-Anteil zusammenführen.
+     *
+     * Kandidaten = Rollup-Top-N ∪ alle Produkte aus dem Live-Zeitraum (heute, klein).
+     * Jedes andere Produkt hat höchstens den Rollup-Umsatz des N-ten Rollup-Eintrags,
+     * kann die Top-N also nicht mehr erreichen.
+     */
+    private List<TopProductDTO> mergeTopProducts(Long storeId, int limit, Split split, Pageable pageable) {
+        Map<Long, TopProductDTO> merged = new LinkedHashMap<>();
+        for (TopProductDTO product : salesDailyProductRollupRepository.findTopProducts(
+                storeId, split.rollupFrom(), split.rollupTo(), pageable)) {
+            merged.put(product.getProductId(), product);
+        }
+
+        List<TopProductDTO> live = orderItemRepository.findTopProductsByRevenue(
+            storeId, PaymentStatus.PAID, split.liveFrom(), split.liveTo(), Pageable.unpaged());
+
+        List<Long> missing = live.stream()
+            .map(TopProductDTO::getProductId)
+            .filter(productId -> !merged.containsKey(productId))
+            .toList();
+        if (!missing.isEmpty()) {
+            for (TopProductDTO product : salesDailyProductRollupRepository.sumForProducts(
+                    storeId, missing, split.rollupFrom(), split.rollupTo())) {
+                merged.put(product.getProductId(), product);
+            }
+        }
+
+        for (TopProductDTO product : live) {
+            merged.merge(product.getProductId(), product, (rollup, today) -> new TopProductDTO(
+                rollup.getProductId(),
+                rollup.getProductName(),
+                rollup.getTotalQuantitySold() + today.getTotalQuantitySold(),
+                rollup.getTotalRevenue().add(today.getTotalRevenue()),
+                rollup.getOrderCount() + today.getOrderCount()
+            ));
+        }
+
+        return merged.values().stream()
+            .sorted(Comparator.comparing(TopProductDTO::getTotalRevenue).reversed())
+            .limit(limit)
+            .toList();
+    }
+
+    /**
+     * Teilt den Zeitraum auf: abgedeckte Tage aus den Rollups, der Rest (mindestens "heute") live.
+     * Ohne passende Coverage (z.B. Historie noch nicht aufgebaut) wird alles live berechnet.
+     */
+    private Split split(Long storeId, DateRange range) {
+        Optional<SalesRollupCoverage> coverage = salesRollupService.coverageFor(storeId)
+            .filter(c -> !c.getCoveredFrom().isAfter(range.from())
+                && !c.getCoveredThrough().isBefore(range.from()));
+
+        if (coverage.isEmpty()) {
+            return new Split(null, null, range.fromDateTime(), range.toDateTime());
+        }
+
+        LocalDate coveredThrough = coverage.get().getCoveredThrough();
+        if (!range.to().isAfter(coveredThrough)) {
+            return new Split(range.from(), range.to(), null, null);
+        }
+        return new Split(range.from(), coveredThrough,
+            coveredThrough.plusDays(1).atStartOfDay(), range.toDateTime());
+    }
+
     /**
      * Zeitraum validieren und normalisieren
      * 
@@ -252,4 +346,22 @@ public class StoreAnalyticsService {
         LocalDateTime fromDateTime,
         LocalDateTime toDateTime
     ) {}
+
+    /**
+     * Rollup-Tage [rollupFrom, rollupTo] + Live-Zeitraum [liveFrom, liveTo]; null = Teil entfällt
+     */
+    private record Split(
+        LocalDate rollupFrom,
+        LocalDate rollupTo,
+        LocalDateTime liveFrom,
+        LocalDateTime liveTo
+    ) {
+        boolean hasRollup() {
+            return rollupFrom != null;
+        }
+
+        boolean hasLive() {
+            return liveFrom != null;
+        }
+    }
 }
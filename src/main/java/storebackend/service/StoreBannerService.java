@@ -23,6 +23,7 @@ public class StoreBannerService {
     private final StoreBannerSettingsRepository bannerRepo;
     private final StoreRepository storeRepo;
     private final ObjectMapper objectMapper;
+    private final StorefrontVersionService storefrontVersions;
 
     /**
      * Lädt die Banner-Einstellungen für einen Store.
@@ -82,7 +83,9 @@ public class StoreBannerService {
             entity.setTextsJson(toJson(dto.getTexts()));
         }
 
-        return toDto(bannerRepo.save(entity));
+        StoreBannerSettings saved = bannerRepo.save(entity);
+        storefrontVersions.bump(storeId);
+        return toDto(saved);
     }
 
     // ──────────────────────────────────────────────────────────────
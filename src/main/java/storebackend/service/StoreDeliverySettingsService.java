@@ -27,6 +27,8 @@ public class StoreDeliverySettingsService {
     private final StoreDeliverySettingsRepository settingsRepository;
     private final StoreRepository storeRepository;
     private final SecretEncryptionService encryptionService;
+    private final StoreHostCache storeHostCache;
+    private final StorefrontVersionService storefrontVersions;
 
     public StoreDeliverySettingsDTO getSettings(Long storeId) {
         StoreDeliverySettings settings = settingsRepository.findByStoreId(storeId)
@@ -136,6 +138,10 @@ public class StoreDeliverySettingsService {
         log.info("✅ Updated delivery settings for store {} (DHL enabled: {})", 
             storeId, settings.getDhlEnabled());
 
+        // Gecachte Store-DTOs enthalten die DHL-Shipping-Infos
+        storeHostCache.evictStore(storeId);
+        storefrontVersions.bump(storeId);
+
         return toDTO(settings);
     }
     
@@ -39,6 +39,7 @@ public class StoreDomainCreator {
     private final StoreRepository storeRepository;
     private final DomainRepository domainRepository;
     private final SaasProperties saasProperties;
+    private final StoreHostCache storeHostCache;
 
     private static final int MAX_RETRIES = 3;
     private static final long RETRY_DELAY_MS = 100;
@@ -140,6 +141,7 @@ public class StoreDomainCreator {
         try {
             domain = domainRepository.save(domain);
             domainRepository.flush(); // Force immediate DB write to catch errors NOW
+            storeHostCache.evictHost(subdomain);
 
             log.info("✅ Default subdomain created successfully: {} (Domain ID: {})",
                     subdomain, domain.getId());
@@ -0,0 +1,139 @@
+package storebackend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import storebackend.dto.PublicStoreDTO;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Host → Store Auflösungs-Cache (Caffeine) für Storefront-Requests.
+ *
+ * RedirectFilter, PublicSeoController und PublicStoreController lösen bei jedem
+ * Seitenaufruf den Host auf – die Zuordnung ändert sich aber praktisch nie.
+ *
+ * Zwei getrennte Caches:
+ * - hits: Host → PublicStoreDTO (längere TTL)
+ * - misses: unbekannte/inaktive Hosts (kurze TTL) – schützt die DB vor Fluten mit
+ *   zufälligen Host-Headern; diese verdrängen nur andere Misses, keine Treffer.
+ *
+ * Der Key enthält den Resolver, da DomainService und PublicStoreService
+ * unterschiedlich befüllte DTOs liefern. Gecachte DTOs dürfen nicht verändert werden.
+ *
+ * Invalidierung durch DomainService/StoreDomainCreator (Host) und
+ * StoreService/ThemeService/MediaService (Store), bei aktiver Transaktion nach dem Commit.
+ */
+@Service
+@Slf4j
+public class StoreHostCache {
+
+    public enum Resolver { DOMAIN, PUBLIC_STORE }
+
+    record HostKey(Resolver resolver, String host) {}
+
+    private final Cache<HostKey, PublicStoreDTO> hits;
+    private final Cache<HostKey, Boolean> misses;
+
+    public StoreHostCache(
+            MeterRegistry meterRegistry,
+            @Value("${storefront.host-cache.max-size:10000}") long maxSize,
+            @Value("${storefront.host-cache.ttl-minutes:10}") long ttlMinutes,
+            @Value("${storefront.host-cache.negative-ttl-seconds:30}") long negativeTtlSeconds) {
+
+        this.hits = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+            .recordStats()
+            .build();
+
+        this.misses = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(negativeTtlSeconds))
+            .recordStats()
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, hits, "storefront.host.hits");
+        CaffeineCacheMetrics.monitor(meterRegistry, misses, "storefront.host.misses");
+    }
+
+    /**
+     * Liefert die Store-Auflösung aus dem Cache oder lädt sie über den Loader.
+     * Ein leeres Ergebnis des Loaders wird als Miss mit kurzer TTL gemerkt;
+     * Exceptions (z.B. DB nicht erreichbar) werden nicht gecacht.
+     */
+    public Optional<PublicStoreDTO> resolve(Resolver resolver, String host, Supplier<Optional<PublicStoreDTO>> loader) {
+        if (host == null) {
+            return loader.get();
+        }
+        HostKey key = new HostKey(resolver, host);
+
+        PublicStoreDTO cached = hits.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        if (misses.getIfPresent(key) != null) {
+            return Optional.empty();
+        }
+
+        Optional<PublicStoreDTO> loaded = loader.get();
+        if (loaded.isPresent()) {
+            hits.put(key, loaded.get());
+        } else {
+            misses.put(key, Boolean.TRUE);
+        }
+        return loaded;
+    }
+
+    /**
+     * Entfernt alle Einträge (Treffer und Misses) für einen Host.
+     * Für Domain angelegt, verifiziert oder gelöscht.
+     */
+    public void evictHost(String host) {
+        if (host == null) {
+            return;
+        }
+        afterCommit(() -> {
+            hits.asMap().keySet().removeIf(key -> key.host().equalsIgnoreCase(host));
+            misses.asMap().keySet().removeIf(key -> key.host().equalsIgnoreCase(host));
+            log.debug("Host cache: evicted host {}", host);
+        });
+    }
+
+    /**
+     * Entfernt alle Treffer eines Stores (Store-Daten/Status geändert, Store gelöscht).
+     * Die Hosts eines bisher inaktiven Stores sind nicht bekannt – daher werden
+     * zusätzlich alle Misses verworfen (kurzlebig, nur Flut-Schutz).
+     */
+    public void evictStore(Long storeId) {
+        if (storeId == null) {
+            return;
+        }
+        afterCommit(() -> {
+            hits.asMap().values().removeIf(dto -> storeId.equals(dto.getStoreId()));
+            misses.invalidateAll();
+            log.debug("Host cache: evicted store {}", storeId);
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -16,6 +16,7 @@ import storebackend.enums.Role;
 import storebackend.enums.StoreStatus;
 import storebackend.enums.BusinessType;
 import storebackend.repository.*;
+import storebackend.security.UserPrincipalCache;
 
 import java.util.HashSet;
 import java.util.List;
@@ -36,6 +37,9 @@ public class StoreService {
     private final SaasProperties saasProperties;
     private final StorePostCreateService postCreateService;
     private final StarterPackService starterPackService;
+    private final StoreHostCache storeHostCache;
+    private final StorefrontVersionService storefrontVersions;
+    private final UserPrincipalCache principalCache;
 
     // NEUE: Liste der reservierten Slugs, die NICHT als Stores verwendet werden dürfen
     private static final Set<String> RESERVED_SLUGS = Set.of(
@@ -198,6 +202,8 @@ public class StoreService {
             userRepository.save(owner);
             log.info("User {} upgraded to RESELLER role", owner.getEmail());
         }
+        // Rollen und eigene Store-IDs haben sich geändert
+        principalCache.evictUser(owner.getId());
 
         Long storeId = store.getId();
 
@@ -503,6 +509,8 @@ public class StoreService {
         store.setImprintComplete(impressumComplete);
 
         store = storeRepository.save(store);
+        storeHostCache.evictStore(storeId);
+        storefrontVersions.bump(storeId);
         log.info("Store {} updated by user {}", storeId, user.getEmail());
 
         return toDTO(store);
@@ -666,6 +674,8 @@ public class StoreService {
             entityManager.clear();
 
             storeRepository.deleteById(storeId);
+            storeHostCache.evictStore(storeId);
+            principalCache.evictUser(user.getId());
 
             log.info("🎉 Store {} COMPLETELY deleted ({} MinIO files) by user {}",
                      storeId, deletedMediaCount, user.getEmail());
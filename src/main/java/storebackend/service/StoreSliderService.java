@@ -29,6 +29,7 @@ public class StoreSliderService {
     private final MediaService mediaService;
     private final MediaRepository mediaRepository;
     private final MinioService minioService;
+    private final StorefrontVersionService storefrontVersions;
 
     /**
      * Initialize slider for a new store
@@ -166,6 +167,7 @@ public class StoreSliderService {
         }
 
         settings = settingsRepository.save(settings);
+        storefrontVersions.bump(storeId);
         return mapSettingsToDTO(settings);
     }
 
@@ -207,6 +209,7 @@ public class StoreSliderService {
                 log.info("Auto-switched slider mode to OWNER_ONLY for store {}", storeId);
             }
 
+            storefrontVersions.bump(storeId);
             return mapImageToDTO(sliderImage);
         } catch (IOException e) {
             log.error("Failed to upload slider image for store {}: {}", storeId, e.getMessage());
@@ -230,6 +233,7 @@ public class StoreSliderService {
         }
 
         image = imageRepository.save(image);
+        storefrontVersions.bump(image.getStore().getId());
         return mapImageToDTO(image);
     }
 
@@ -245,6 +249,7 @@ public class StoreSliderService {
                 }
             });
         }
+        storefrontVersions.bump(storeId);
     }
 
     @Transactional
@@ -264,6 +269,7 @@ public class StoreSliderService {
         // welches den Constraint chk_media_consistency verletzen würde.
         imageRepository.deleteDirectById(imageId);
         imageRepository.flush(); // sofort in DB schreiben
+        storefrontVersions.bump(store.getId());
 
         // SCHRITT 2: Erst DANACH das Media-Objekt löschen (MinIO + DB-Record).
         // Die FK-Referenz existiert jetzt nicht mehr → kein Constraint-Problem.
@@ -315,6 +321,12 @@ public class StoreSliderService {
         }
         
         dto.setImageUrl(imageUrl);
+        if (image.getMedia() != null) {
+            dto.setSrcset(MediaDerivativeService.srcset(image.getMedia(), MediaDerivativeService.JPEG,
+                    minioService::getPublicUrl));
+            dto.setWebpSrcset(MediaDerivativeService.srcset(image.getMedia(), MediaDerivativeService.WEBP,
+                    minioService::getPublicUrl));
+        }
         dto.setImageType(image.getImageType());
         dto.setDisplayOrder(image.getDisplayOrder());
         dto.setIsActive(image.getIsActive());
@@ -359,6 +371,7 @@ public class StoreSliderService {
             log.info("Slider mode → OWNER_ONLY für Store {} (erstes Unsplash-Bild)", store.getId());
         }
 
+        storefrontVersions.bump(store.getId());
         return sliderImage;
     }
 
@@ -424,6 +437,7 @@ public class StoreSliderService {
 
         // Initialize with full setup
         initializeSliderForNewStore(store, category);
+        storefrontVersions.bump(storeId);
         return getSliderByStoreId(storeId);
     }
 }
@@ -0,0 +1,230 @@
+package storebackend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import storebackend.config.MinioProperties;
+import storebackend.dto.HomepageSectionDTO;
+import storebackend.dto.ProductDTO;
+import storebackend.dto.PublicStoreDTO;
+import storebackend.dto.StoreBannerSettingsDTO;
+import storebackend.dto.StoreSliderImageDTO;
+import storebackend.dto.StoreThemeDTO;
+import storebackend.dto.StorefrontBootstrapDTO;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Storefront-Bootstrap: Store, aktives Theme, Slider, Homepage-Sektionen, Banner und
+ * featured/top/new Produkte in einer Antwort.
+ *
+ * - Die Teile werden parallel auf einem eigenen Pool geladen (je eigene Read-Transaktion)
+ * - Die fertige Antwort liegt serialisiert im Cache, Key = (Store, Host, Version, Limit);
+ *   ETag = SHA-256 der Bytes. Solange sich die Version nicht ändert, beantwortet der
+ *   Controller Wiederholungsbesuche mit 304 ohne DB-Zugriff
+ * - Bestseller ändern sich ohne Admin-Aktion – die TTL (storefront.bootstrap.ttl-minutes)
+ *   entspricht daher der des ProductCatalogCache
+ * - Produktbilder sind Presigned URLs: eine URL kann bis zu Catalog-TTL + Bootstrap-TTL + max-age
+ *   ausgeliefert werden, nachdem MinioService sie zuletzt herausgegeben hat. Der Start schlägt fehl,
+ *   wenn das die Restgültigkeit (presigned-url-refresh-margin-minutes) übersteigt
+ * - Schlägt ein Teil fehl, wird er leer ausgeliefert und die Antwort nicht gecacht
+ */
+@Service
+@Slf4j
+public class StorefrontBootstrapService {
+
+    public static final int MAX_PRODUCT_LIMIT = 50;
+
+    /**
+     * Serialisierte Bootstrap-Antwort. Gecachte Instanzen dürfen nicht verändert werden.
+     */
+    public record Snapshot(String etag, byte[] body, long version) {}
+
+    record BootstrapKey(Long storeId, String host, long version, int limit) {}
+
+    private final ThemeService themeService;
+    private final StoreSliderService sliderService;
+    private final HomepageSectionService sectionService;
+    private final StoreBannerService bannerService;
+    private final ProductService productService;
+    private final StorefrontVersionService versionService;
+    private final ObjectMapper objectMapper;
+    private final Timer buildTimer;
+    private final Cache<BootstrapKey, Snapshot> snapshots;
+    private final ThreadPoolExecutor executor;
+
+    public StorefrontBootstrapService(
+            ThemeService themeService,
+            StoreSliderService sliderService,
+            HomepageSectionService sectionService,
+            StoreBannerService bannerService,
+            ProductService productService,
+            StorefrontVersionService versionService,
+            MinioProperties minioProperties,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${storefront.bootstrap.threads:8}") int threads,
+            @Value("${storefront.bootstrap.max-size:5000}") long maxSize,
+            @Value("${storefront.bootstrap.ttl-minutes:10}") long ttlMinutes,
+            @Value("${storefront.bootstrap.max-age-seconds:60}") long maxAgeSeconds,
+            @Value("${storefront.catalog-cache.ttl-minutes:10}") long catalogTtlMinutes) {
+        checkUrlLifetime(catalogTtlMinutes, ttlMinutes, maxAgeSeconds,
+            MinioService.minRemainingValidityMinutes(ProductDTOAssembler.IMAGE_URL_EXPIRY_MINUTES,
+                minioProperties.getPresignedUrlRefreshMarginMinutes()));
+        this.themeService = themeService;
+        this.sliderService = sliderService;
+        this.sectionService = sectionService;
+        this.bannerService = bannerService;
+        this.productService = productService;
+        this.versionService = versionService;
+        this.objectMapper = objectMapper;
+
+        this.buildTimer = Timer.builder("storefront.bootstrap.build")
+            .description("Zusammenbau einer Storefront-Bootstrap-Antwort (Cache-Miss)")
+            .register(meterRegistry);
+
+        this.snapshots = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "storefront.bootstrap");
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+            threads, threads, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "storefront-bootstrap-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Presigned URLs im Catalog-Cache und im Snapshot dürfen nicht abgelaufen sein, solange sie
+     * noch ausgeliefert werden.
+     */
+    static void checkUrlLifetime(long catalogTtlMinutes, long bootstrapTtlMinutes, long maxAgeSeconds,
+                                 int remainingValidityMinutes) {
+        long servedMinutes = catalogTtlMinutes + bootstrapTtlMinutes + (maxAgeSeconds + 59) / 60;
+        if (servedMinutes > remainingValidityMinutes) {
+            throw new IllegalStateException("storefront.catalog-cache.ttl-minutes (" + catalogTtlMinutes
+                + ") + storefront.bootstrap.ttl-minutes (" + bootstrapTtlMinutes
+                + ") + storefront.bootstrap.max-age-seconds (" + maxAgeSeconds + "s) exceed the "
+                + remainingValidityMinutes + " minutes a cached presigned URL stays valid – "
+                + "lower the TTLs or raise minio.presigned-url-refresh-margin-minutes");
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Liefert die Bootstrap-Antwort für einen aufgelösten Store – aus dem Cache oder frisch gebaut.
+     */
+    public Snapshot getBootstrap(PublicStoreDTO store, String host, int limit) {
+        int productLimit = Math.min(Math.max(limit, 1), MAX_PRODUCT_LIMIT);
+        long version = versionService.currentVersion(store.getStoreId());
+        BootstrapKey key = new BootstrapKey(store.getStoreId(), host, version, productLimit);
+
+        Snapshot cached = snapshots.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        AtomicBoolean degraded = new AtomicBoolean();
+        Snapshot built = buildTimer.record(() -> build(store, version, productLimit, degraded));
+        if (degraded.get()) {
+            log.warn("⚠️ Storefront bootstrap for store {} assembled with missing parts – not cached", store.getStoreId());
+            return built;
+        }
+        Snapshot existing = snapshots.asMap().putIfAbsent(key, built);
+        return existing != null ? existing : built;
+    }
+
+    private Snapshot build(PublicStoreDTO store, long version, int limit, AtomicBoolean degraded) {
+        Long storeId = store.getStoreId();
+
+        CompletableFuture<StoreThemeDTO> theme = load("theme", storeId,
+            () -> themeService.getActiveTheme(storeId), null, degraded);
+        CompletableFuture<List<StoreSliderImageDTO>> slider = load("slider", storeId,
+            () -> sliderService.getActiveSliderImages(storeId), List.of(), degraded);
+        CompletableFuture<List<HomepageSectionDTO>> sections = load("sections", storeId,
+            () -> sectionService.getActiveSections(storeId), List.of(), degraded);
+        CompletableFuture<StoreBannerSettingsDTO> banner = load("banner", storeId,
+            () -> bannerService.getBanner(storeId).orElse(null), null, degraded);
+        CompletableFuture<List<ProductDTO>> featured = load("featured", storeId,
+            () -> productService.getFeaturedProducts(storeId), List.of(), degraded);
+        CompletableFuture<List<ProductDTO>> top = load("top", storeId,
+            () -> productService.getTopProducts(storeId, limit), List.of(), degraded);
+        CompletableFuture<List<ProductDTO>> newest = load("new", storeId,
+            () -> productService.getNewArrivals(storeId, limit), List.of(), degraded);
+
+        StorefrontBootstrapDTO dto = StorefrontBootstrapDTO.builder()
+            .version(version)
+            .store(store)
+            .theme(theme.join())
+            .sliderImages(slider.join())
+            .sections(sections.join())
+            .banner(banner.join())
+            .featuredProducts(featured.join())
+            .topProducts(top.join())
+            .newProducts(newest.join())
+            .build();
+
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(dto);
+            return new Snapshot(etag(body), body, version);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize storefront bootstrap for store " + storeId, e);
+        }
+    }
+
+    /**
+     * Startet einen Teil asynchron; Fehler werden geloggt und durch den Fallback ersetzt.
+     */
+    private <T> CompletableFuture<T> load(String part, Long storeId, Supplier<T> loader, T fallback,
+                                          AtomicBoolean degraded) {
+        return CompletableFuture.supplyAsync(loader, executor)
+            .exceptionally(e -> {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                log.warn("[Bootstrap] Loading {} for store {} failed: {}", part, storeId, cause.getMessage());
+                degraded.set(true);
+                return fallback;
+            });
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
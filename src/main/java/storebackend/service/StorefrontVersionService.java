@@ -0,0 +1,111 @@
+package storebackend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Versionszähler je Store für den Storefront-Bootstrap (storefront_versions).
+ *
+ * Die schreibenden Services (Store, Theme, Slider, Homepage-Sektionen, Banner, Produkte)
+ * rufen {@link #bump(Long)} in ihrer Transaktion auf – der Zähler steigt atomar mit der Änderung.
+ *
+ * Gelesen wird aus einem lokalen Cache mit kurzer TTL: eigene Änderungen sind nach dem Commit
+ * sofort sichtbar, Änderungen anderer Knoten spätestens nach storefront.bootstrap.version-ttl-seconds.
+ */
+@Service
+@Slf4j
+public class StorefrontVersionService {
+
+    private static final String BUMP_SQL =
+        "UPDATE storefront_versions SET version = version + 1, updated_at = ? WHERE store_id = ?";
+    private static final String INSERT_SQL =
+        "INSERT INTO storefront_versions (store_id, version, updated_at) VALUES (?, 1, ?) ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<Long, Long> versions;
+
+    public StorefrontVersionService(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${storefront.bootstrap.version-ttl-seconds:5}") long ttlSeconds,
+            @Value("${storefront.host-cache.max-size:10000}") long maxSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.versions = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, "storefront.versions");
+    }
+
+    /**
+     * Aktuelle Inhaltsversion eines Stores (0 = nie geändert)
+     */
+    public long currentVersion(Long storeId) {
+        return versions.get(storeId, this::loadVersion);
+    }
+
+    /**
+     * Erhöht die Version eines Stores. Fehlt die Zeile, wird sie mit Version 1 angelegt;
+     * bei einem parallelen Insert greift ON CONFLICT und das UPDATE wird wiederholt.
+     */
+    public void bump(Long storeId) {
+        if (storeId == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (jdbcTemplate.update(BUMP_SQL, now, storeId) == 0
+                && jdbcTemplate.update(INSERT_SQL, storeId, now) == 0) {
+            jdbcTemplate.update(BUMP_SQL, now, storeId);
+        }
+        afterCommit(() -> {
+            versions.invalidate(storeId);
+            log.debug("Storefront version bumped for store {}", storeId);
+        });
+    }
+
+    /**
+     * Für Änderungen, bei denen nur das Produkt bekannt ist (Varianten, Medien, Staffelpreise).
+     * Produkte ohne Store (Lieferantenkatalog) haben keinen Storefront-Bootstrap.
+     */
+    public void bumpForProduct(Long productId) {
+        if (productId == null) {
+            return;
+        }
+        List<Long> storeIds = jdbcTemplate.queryForList(
+            "SELECT store_id FROM products WHERE id = ? AND store_id IS NOT NULL", Long.class, productId);
+        storeIds.forEach(this::bump);
+    }
+
+    private Long loadVersion(Long storeId) {
+        List<Long> rows = jdbcTemplate.queryForList(
+            "SELECT version FROM storefront_versions WHERE store_id = ?", Long.class, storeId);
+        return rows.isEmpty() ? 0L : rows.get(0);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
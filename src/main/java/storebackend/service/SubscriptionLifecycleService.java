@@ -13,6 +13,7 @@ import storebackend.event.SubscriptionEvent;
 import storebackend.repository.PlanRepository;
 import storebackend.repository.SubscriptionRepository;
 import storebackend.repository.UserRepository;
+import storebackend.security.UserPrincipalCache;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -39,6 +40,7 @@ public class SubscriptionLifecycleService {
     private final PlanRepository planRepository;
     private final PlanConfig planConfig;
     private final ApplicationEventPublisher eventPublisher;
+    private final UserPrincipalCache principalCache;
 
     /**
      * Verarbeitet alle ACTIVE-Subscriptions deren renewalDate erreicht ist.
@@ -187,6 +189,7 @@ public class SubscriptionLifecycleService {
                 .orElseGet(() -> createPlanEntityFromEnum(planEnum));
             user.setPlan(planEntity);
             userRepository.save(user);
+            principalCache.evictUser(userId);
         });
     }
 
@@ -24,6 +24,7 @@ public class SubscriptionService {
     private final storebackend.repository.UserRepository userRepository;
     private final storebackend.repository.PlanRepository planRepository;
     private final org.springframework.context.ApplicationEventPublisher eventPublisher;
+    private final storebackend.security.UserPrincipalCache principalCache;
 
     /**
      * Hole aktuelle Subscription eines Benutzers
@@ -160,6 +161,7 @@ public class SubscriptionService {
         // Setze Plan beim User
         user.setPlan(planEntity);
         userRepository.save(user);
+        principalCache.evictUser(userId);
 
         log.info("User {} Plan aktualisiert auf: {}", userId, subscriptionPlan);
     }
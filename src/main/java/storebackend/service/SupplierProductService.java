@@ -23,6 +23,8 @@ public class SupplierProductService {
 
     private final ProductRepository productRepository;
     private final StoreProductRepository storeProductRepository;
+    private final ProductCatalogCache catalogCache;
+    private final StorefrontVersionService storefrontVersions;
 
     /**
      * Get all active supplier catalog products (marketplace catalog).
@@ -88,7 +90,10 @@ public class SupplierProductService {
         product.setWholesalePrice(updates.getWholesalePrice());
         product.setCategory(updates.getCategory());
         
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        catalogCache.evictProduct(productId);
+        storefrontVersions.bumpForProduct(productId);
+        return saved;
     }
 
     /**
@@ -104,7 +109,10 @@ public class SupplierProductService {
         }
         
         product.setStatus(ProductStatus.ACTIVE);
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        catalogCache.evictProduct(productId);
+        storefrontVersions.bumpForProduct(productId);
+        return saved;
     }
 
     /**
@@ -46,6 +46,8 @@ public class TelegramImportService {
     private final MinioService minioService;
     private final ProductMediaRepository productMediaRepository;
     private final ProductRepository productRepository;
+    private final ProductCatalogCache catalogCache;
+    private final StorefrontVersionService storefrontVersions;
 
     // Regex: erkennt Preise in €, $, MAD, DH, DZD, درهم, دج, EUR, USD
     private static final Pattern PRICE_PATTERN = Pattern.compile(
@@ -197,6 +199,9 @@ public class TelegramImportService {
                     if (imageUrlUpdated) {
                         productRepository.save(product);
                     }
+                    // Bilder nach createProduct – Storefront-Caches erneut invalidieren
+                    catalogCache.evictProduct(productId);
+                    storefrontVersions.bump(storeId);
                 }
             }
 
@@ -66,6 +66,8 @@ public class TelegramMtprotoService {
     private final ProductRepository productRepository;
     private final TelegramSyncNotificationRepository notificationRepository;
     private final AiModelProvider aiModelProvider;
+    private final ProductCatalogCache catalogCache;
+    private final StorefrontVersionService storefrontVersions;
 
     /**
      * Self-Referenz durch Spring-Proxy – KRITISCH damit importChannel()
@@ -92,7 +94,9 @@ public class TelegramMtprotoService {
             ProductMediaRepository productMediaRepository,
             ProductRepository productRepository,
             TelegramSyncNotificationRepository notificationRepository,
-            AiModelProvider aiModelProvider) {
+            AiModelProvider aiModelProvider,
+            ProductCatalogCache catalogCache,
+            StorefrontVersionService storefrontVersions) {
         this.mtprotoRepository = mtprotoRepository;
         this.importLogRepository = importLogRepository;
         this.storeRepository = storeRepository;
@@ -106,6 +110,8 @@ public class TelegramMtprotoService {
         this.productRepository = productRepository;
         this.notificationRepository = notificationRepository;
         this.aiModelProvider = aiModelProvider;
+        this.catalogCache = catalogCache;
+        this.storefrontVersions = storefrontVersions;
 
         // Timeout: 5s connect, 60s read (Telegram-Code kann länger dauern)
         org.springframework.http.client.SimpleClientHttpRequestFactory factory =
@@ -705,6 +711,10 @@ public class TelegramMtprotoService {
                     productRepository.save(product);
                 }
             }
+
+            // Flags und Bilder nach createProduct – Storefront-Caches erneut invalidieren
+            catalogCache.evictProduct(product.getId());
+            storefrontVersions.bump(store.getId());
         } else {
             log.warn("[MTProto] Produkt {} nicht gefunden – Flags/Bilder nicht gesetzt", productDto.getId());
         }
@@ -849,13 +859,15 @@ public class TelegramMtprotoService {
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
             HttpEntity<Object> request = new HttpEntity<>(body, headers);
-            ResponseEntity<String> response = restTemplate.postForEntity(
-                scraperUrl + path, request, String.class);
-
-            if (!response.getStatusCode().is2xxSuccessful()) {
-                throw new RuntimeException("Scraper error " + response.getStatusCode());
-            }
-            return objectMapper.readTree(response.getBody());
+            // MEMORY-FIX: JSON direkt aus dem Response-Stream parsen – die Antwort (Base64-Bilder)
+            // liegt so nicht zusätzlich als kompletter String im Heap.
+            return restTemplate.execute(scraperUrl + path, HttpMethod.POST,
+                restTemplate.httpEntityCallback(request), response -> {
+                    if (!response.getStatusCode().is2xxSuccessful()) {
+                        throw new RuntimeException("Scraper error " + response.getStatusCode());
+                    }
+                    return objectMapper.readTree(response.getBody());
+                });
         } catch (org.springframework.web.client.HttpClientErrorException e) {
             String errBody = e.getResponseBodyAsString();
             // FastAPI gibt {"detail": "..."} zurück – detail extrahieren
@@ -27,6 +27,8 @@ public class ThemeService {
     private final StoreRepository storeRepository;
     private final ThemeTemplateRepository themeTemplateRepository;
     private final ObjectMapper objectMapper;
+    private final StoreHostCache storeHostCache;
+    private final StorefrontVersionService storefrontVersions;
 
     @Transactional(readOnly = true)
     public StoreThemeDTO getActiveTheme(Long storeId) {
@@ -85,6 +87,8 @@ public class ThemeService {
         // damit die öffentliche Storefront-API kein veraltetes Logo zurückliefert.
         store.setLogoUrl(request.getLogoUrl());
         storeRepository.save(store);
+        storeHostCache.evictStore(store.getId());
+        storefrontVersions.bump(store.getId());
 
         log.info("✅ Saved theme {} for store {} ({}, logoUrl={})",
                  savedTheme.getId(),
@@ -126,6 +130,7 @@ public class ThemeService {
         }
 
         StoreTheme savedTheme = themeRepository.save(theme);
+        storefrontVersions.bump(theme.getStore().getId());
         log.info("Updated theme {}", themeId);
 
         return convertToDTO(savedTheme);
@@ -146,11 +151,14 @@ public class ThemeService {
 
         theme.setIsActive(true);
         themeRepository.save(theme);
+        storefrontVersions.bump(theme.getStore().getId());
         log.info("Activated theme {} for store {}", themeId, theme.getStore().getId());
     }
 
     @Transactional
     public void deleteTheme(Long themeId) {
+        themeRepository.findById(themeId)
+                .ifPresent(theme -> storefrontVersions.bump(theme.getStore().getId()));
         themeRepository.deleteById(themeId);
         log.info("Deleted theme {}", themeId);
     }
@@ -252,6 +260,7 @@ public class ThemeService {
         theme.setIsActive(true);
 
         StoreTheme saved = themeRepository.save(theme);
+        storefrontVersions.bump(storeId);
         log.info("✅ Template '{}' auf Store {} angewendet (neues Theme ID {}, {} alte Themes deaktiviert, Logo erhalten: {})",
                 template.getCode(), storeId, saved.getId(), existing.size(), preservedLogoUrl != null);
         return convertToDTO(saved);
@@ -15,7 +15,9 @@ import storebackend.repository.StoreRepository;
 import storebackend.util.HtmlToTextConverter;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 /**
@@ -39,6 +41,8 @@ public class WooCommerceCleanupService {
     private final StoreRepository storeRepository;
     private final HtmlToTextConverter htmlToTextConverter;
     private final StoreService storeService;
+    private final ProductCatalogCache catalogCache;
+    private final StorefrontVersionService storefrontVersions;
 
     /**
      * Pattern zum Erkennen von HTML-Tags in Beschreibungen.
@@ -184,6 +188,7 @@ public class WooCommerceCleanupService {
         List<String> errors = new ArrayList<>();
         int affectedCount = 0;
         int updatedCount = 0;
+        Set<Long> updatedStoreIds = new HashSet<>();
 
         for (Product product : products) {
             try {
@@ -228,6 +233,8 @@ public class WooCommerceCleanupService {
                 if (!dryRun && wouldChange) {
                     product.setDescription(cleanedDescription);
                     productRepository.save(product);
+                    catalogCache.evictProduct(product.getId());
+                    updatedStoreIds.add(product.getStore().getId());
                     updatedCount++;
                     log.debug("✅ Updated product {} ({})", product.getId(), truncate(product.getTitle(), 50));
                 }
@@ -241,6 +248,9 @@ public class WooCommerceCleanupService {
             }
         }
 
+        // Storefront-Bootstrap enthält die Beschreibungen
+        updatedStoreIds.forEach(storefrontVersions::bump);
+
         // Warnung, wenn nicht alle Produkte in Vorschau
         if (affectedCount > MAX_PREVIEW_PRODUCTS) {
             log.info("ℹ️ Preview limited to {} products (total affected: {})", MAX_PREVIEW_PRODUCTS, affectedCount);
@@ -0,0 +1,330 @@
+package storebackend.service.outbox;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import storebackend.enums.NotificationChannel;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stellt Nachrichten aus notification_outbox (V021) zu.
+ *
+ * - Polling je Kanal mit {@code FOR UPDATE SKIP LOCKED}: mehrere Nodes teilen sich die Arbeit,
+ *   ohne dieselbe Zeile doppelt zu greifen. Geclaimte Zeilen stehen auf PROCESSING mit Lease;
+ *   stirbt ein Node, werden sie nach {@code lease-seconds} erneut vergeben.
+ * - Eigener Worker-Pool; pro Kanal begrenzt ein Semaphor die gleichzeitigen Zustellungen
+ *   (ein langsamer SMTP-Server blockiert WhatsApp/Telegram nicht).
+ * - Fehler → erneuter Versuch mit exponentiellem Backoff, nach {@code max-attempts} FAILED.
+ *
+ * Metriken: notifications.outbox.queue.depth{channel}, notifications.outbox.delivery{channel,outcome}
+ * (Dauer des Versands), notifications.outbox.lag{channel} (Einreihen → zugestellt).
+ */
+@Service
+@Slf4j
+public class NotificationOutboxDispatcher {
+
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {};
+
+    private static final String CLAIM_SQL =
+        "SELECT id, aggregate_type, aggregate_id, message_type, payload, attempts, created_at " +
+        "FROM notification_outbox WHERE channel = ? " +
+        "AND ((status = 'PENDING' AND next_attempt_at <= ?) OR (status = 'PROCESSING' AND locked_at < ?)) " +
+        "ORDER BY next_attempt_at, id LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String MARK_PROCESSING_SQL =
+        "UPDATE notification_outbox SET status = 'PROCESSING', locked_at = ?, locked_by = ?, attempts = attempts + 1 " +
+        "WHERE id = ?";
+    private static final String MARK_SENT_SQL =
+        "UPDATE notification_outbox SET status = 'SENT', sent_at = ?, locked_at = NULL, locked_by = NULL, " +
+        "last_error = NULL WHERE id = ?";
+    private static final String MARK_RETRY_SQL =
+        "UPDATE notification_outbox SET status = 'PENDING', next_attempt_at = ?, locked_at = NULL, locked_by = NULL, " +
+        "last_error = ? WHERE id = ?";
+    private static final String MARK_FAILED_SQL =
+        "UPDATE notification_outbox SET status = 'FAILED', locked_at = NULL, locked_by = NULL, last_error = ? " +
+        "WHERE id = ?";
+    private static final String DEPTH_SQL =
+        "SELECT channel, COUNT(*) FROM notification_outbox WHERE status IN ('PENDING', 'PROCESSING') GROUP BY channel";
+    private static final String CLEANUP_SQL =
+        "DELETE FROM notification_outbox WHERE status = 'SENT' AND sent_at < ?";
+
+    record ClaimedMessage(Long id, NotificationChannel channel, String aggregateType, Long aggregateId,
+                          String messageType, String payload, int attempts, LocalDateTime createdAt) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, NotificationOutboxHandler> handlers = new HashMap<>();
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration backoffBase;
+    private final Duration backoffMax;
+    private final Duration lease;
+    private final int retentionDays;
+    private final String nodeId;
+
+    private final Map<NotificationChannel, Semaphore> channelPermits = new EnumMap<>(NotificationChannel.class);
+    private final Map<NotificationChannel, AtomicLong> queueDepth = new EnumMap<>(NotificationChannel.class);
+    private final Map<NotificationChannel, Timer> lagTimers = new EnumMap<>(NotificationChannel.class);
+    private final ThreadPoolExecutor workers;
+
+    public NotificationOutboxDispatcher(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            List<NotificationOutboxHandler> handlerBeans,
+            @Value("${notification.outbox.enabled:true}") boolean enabled,
+            @Value("${notification.outbox.batch-size:50}") int batchSize,
+            @Value("${notification.outbox.max-attempts:8}") int maxAttempts,
+            @Value("${notification.outbox.backoff-base-seconds:30}") long backoffBaseSeconds,
+            @Value("${notification.outbox.backoff-max-seconds:3600}") long backoffMaxSeconds,
+            @Value("${notification.outbox.lease-seconds:300}") long leaseSeconds,
+            @Value("${notification.outbox.retention-days:14}") int retentionDays,
+            @Value("${notification.outbox.concurrency.email:4}") int emailConcurrency,
+            @Value("${notification.outbox.concurrency.whatsapp:2}") int whatsappConcurrency,
+            @Value("${notification.outbox.concurrency.telegram:2}") int telegramConcurrency) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        handlerBeans.forEach(handler -> handlers.put(handler.aggregateType(), handler));
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoffBase = Duration.ofSeconds(backoffBaseSeconds);
+        this.backoffMax = Duration.ofSeconds(backoffMaxSeconds);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.retentionDays = retentionDays;
+        this.nodeId = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+        channelPermits.put(NotificationChannel.EMAIL, new Semaphore(Math.max(emailConcurrency, 1)));
+        channelPermits.put(NotificationChannel.WHATSAPP, new Semaphore(Math.max(whatsappConcurrency, 1)));
+        channelPermits.put(NotificationChannel.TELEGRAM, new Semaphore(Math.max(telegramConcurrency, 1)));
+
+        int poolSize = channelPermits.values().stream().mapToInt(Semaphore::availablePermits).sum();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(
+            poolSize, poolSize, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), // begrenzt durch die Kanal-Semaphoren
+            runnable -> {
+                Thread thread = new Thread(runnable, "outbox-dispatch-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        this.workers.allowCoreThreadTimeOut(true);
+
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            AtomicLong depth = new AtomicLong();
+            queueDepth.put(channel, depth);
+            Gauge.builder("notifications.outbox.queue.depth", depth, AtomicLong::get)
+                .description("Pending or in-flight outbox notifications")
+                .tag("channel", channel.name())
+                .register(meterRegistry);
+            lagTimers.put(channel, Timer.builder("notifications.outbox.lag")
+                .description("Time from enqueue to successful delivery")
+                .tag("channel", channel.name())
+                .register(meterRegistry));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+                workers.shutdownNow(); // nicht bestätigte Zeilen laufen über die Lease erneut
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Claimt pro Kanal höchstens so viele Nachrichten, wie gerade Slots frei sind.
+     */
+    @Scheduled(fixedDelayString = "${notification.outbox.poll-interval-ms:1000}")
+    public void poll() {
+        if (enabled) {
+            dispatchAvailable();
+        }
+    }
+
+    void dispatchAvailable() {
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            Semaphore permits = channelPermits.get(channel);
+            int free = Math.min(permits.availablePermits(), batchSize);
+            if (free == 0) {
+                continue;
+            }
+            List<ClaimedMessage> claimed;
+            try {
+                claimed = claim(channel, free);
+            } catch (Exception e) {
+                log.warn("⚠️ Outbox poll for {} failed: {}", channel, e.getMessage());
+                continue;
+            }
+            for (ClaimedMessage message : claimed) {
+                permits.acquireUninterruptibly(); // nur poll() nimmt Permits – frei laut Prüfung oben
+                workers.execute(() -> {
+                    try {
+                        dispatch(message);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Queue-Tiefe für das Gauge (eine GROUP-BY-Abfrage statt einer pro Scrape).
+     */
+    @Scheduled(fixedDelayString = "${notification.outbox.depth-refresh-ms:15000}")
+    public void refreshQueueDepth() {
+        Map<NotificationChannel, Long> counts = new EnumMap<>(NotificationChannel.class);
+        jdbcTemplate.query(DEPTH_SQL, rs -> {
+            counts.put(NotificationChannel.valueOf(rs.getString(1)), rs.getLong(2));
+        });
+        queueDepth.forEach((channel, depth) -> depth.set(counts.getOrDefault(channel, 0L)));
+    }
+
+    /**
+     * Zugestellte Nachrichten nach {@code retention-days} löschen.
+     */
+    @Scheduled(cron = "${notification.outbox.cleanup-cron:0 30 4 * * *}")
+    public void cleanup() {
+        int deleted = jdbcTemplate.update(CLEANUP_SQL, Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays)));
+        if (deleted > 0) {
+            log.info("🧹 Deleted {} delivered outbox notifications older than {} days", deleted, retentionDays);
+        }
+    }
+
+    List<ClaimedMessage> claim(NotificationChannel channel, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ClaimedMessage> claimed = transactionTemplate.execute(status -> {
+            List<ClaimedMessage> rows = jdbcTemplate.query(CLAIM_SQL,
+                (rs, rowNum) -> new ClaimedMessage(
+                    rs.getLong("id"),
+                    channel,
+                    rs.getString("aggregate_type"),
+                    rs.getLong("aggregate_id"),
+                    rs.getString("message_type"),
+                    rs.getString("payload"),
+                    rs.getInt("attempts") + 1,
+                    rs.getTimestamp("created_at").toLocalDateTime()),
+                channel.name(), Timestamp.valueOf(now), Timestamp.valueOf(now.minus(lease)), limit);
+            if (!rows.isEmpty()) {
+                List<Object[]> args = new ArrayList<>(rows.size());
+                for (ClaimedMessage row : rows) {
+                    args.add(new Object[] { Timestamp.valueOf(now), nodeId, row.id() });
+                }
+                jdbcTemplate.batchUpdate(MARK_PROCESSING_SQL, args);
+            }
+            return rows;
+        });
+        return claimed != null ? claimed : List.of();
+    }
+
+    void dispatch(ClaimedMessage message) {
+        NotificationOutboxHandler handler = handlers.get(message.aggregateType());
+        NotificationOutboxHandler.Outcome outcome;
+        String error = null;
+        long started = System.nanoTime();
+        try {
+            if (handler == null) {
+                error = "No handler for aggregate type " + message.aggregateType();
+                outcome = NotificationOutboxHandler.Outcome.FAILED;
+            } else {
+                Map<String, Object> payload = message.payload() != null
+                    ? objectMapper.readValue(message.payload(), PAYLOAD_TYPE)
+                    : Map.of();
+                outcome = handler.deliver(message.messageType(), message.aggregateId(), payload);
+                if (outcome != NotificationOutboxHandler.Outcome.SENT) {
+                    error = "Delivery returned " + outcome;
+                }
+            }
+        } catch (Exception e) {
+            outcome = NotificationOutboxHandler.Outcome.RETRY;
+            error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+
+        if (outcome == NotificationOutboxHandler.Outcome.RETRY && message.attempts() >= maxAttempts) {
+            outcome = NotificationOutboxHandler.Outcome.FAILED;
+        }
+
+        Timer.builder("notifications.outbox.delivery")
+            .description("Duration of a single outbox delivery attempt")
+            .tag("channel", message.channel().name())
+            .tag("outcome", outcome.name())
+            .register(meterRegistry)
+            .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+
+        LocalDateTime now = LocalDateTime.now();
+        switch (outcome) {
+            case SENT -> {
+                jdbcTemplate.update(MARK_SENT_SQL, Timestamp.valueOf(now), message.id());
+                lagTimers.get(message.channel()).record(Duration.between(message.createdAt(), now));
+            }
+            case RETRY -> {
+                LocalDateTime next = now.plus(backoff(message.attempts()));
+                jdbcTemplate.update(MARK_RETRY_SQL, Timestamp.valueOf(next), error, message.id());
+                log.warn("⚠️ Outbox {} #{} ({}) attempt {} failed, retry at {}: {}",
+                    message.messageType(), message.id(), message.channel(), message.attempts(), next, error);
+            }
+            case FAILED -> {
+                jdbcTemplate.update(MARK_FAILED_SQL, error, message.id());
+                log.error("❌ Outbox {} #{} ({}) failed after {} attempts: {}",
+                    message.messageType(), message.id(), message.channel(), message.attempts(), error);
+            }
+        }
+        Counter.builder("notifications.outbox.deliveries")
+            .tag("channel", message.channel().name())
+            .tag("outcome", outcome.name())
+            .register(meterRegistry)
+            .increment();
+    }
+
+    /**
+     * base · 2^(attempt-1), gedeckelt, mit bis zu 20 % Jitter gegen Retry-Wellen.
+     */
+    Duration backoff(int attempt) {
+        long baseMillis = backoffBase.toMillis();
+        long millis = baseMillis << Math.min(Math.max(attempt - 1, 0), 20);
+        millis = Math.min(millis, backoffMax.toMillis());
+        long jitter = (long) (millis * 0.2 * ThreadLocalRandom.current().nextDouble());
+        return Duration.ofMillis(millis + jitter);
+    }
+}
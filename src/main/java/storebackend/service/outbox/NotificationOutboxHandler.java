@@ -0,0 +1,24 @@
+package storebackend.service.outbox;
+
+import java.util.Map;
+
+/**
+ * Stellt Outbox-Nachrichten eines Aggregat-Typs zu (ORDER, SUBSCRIPTION).
+ *
+ * Läuft auf einem Dispatcher-Worker außerhalb jeder Transaktion; Daten werden bei Bedarf frisch geladen.
+ */
+public interface NotificationOutboxHandler {
+
+    enum Outcome {
+        /** Zugestellt (oder bewusst nichts zu tun) */
+        SENT,
+        /** Vorübergehender Fehler – mit Backoff erneut versuchen */
+        RETRY,
+        /** Dauerhafter Fehler – nicht erneut versuchen */
+        FAILED
+    }
+
+    String aggregateType();
+
+    Outcome deliver(String messageType, Long aggregateId, Map<String, Object> payload);
+}
@@ -0,0 +1,62 @@
+package storebackend.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import storebackend.entity.NotificationOutboxMessage;
+import storebackend.enums.NotificationChannel;
+import storebackend.repository.NotificationOutboxRepository;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Schreibt Benachrichtigungen in die Outbox – innerhalb der aufrufenden Transaktion.
+ * Zugestellt wird erst nach dem Commit durch den {@link NotificationOutboxDispatcher}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationOutboxService {
+
+    private static final List<String> OPEN_STATUSES = List.of(
+        NotificationOutboxMessage.STATUS_PENDING, NotificationOutboxMessage.STATUS_PROCESSING);
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Reiht eine Nachricht ein. Ist für dasselbe Aggregat bereits dieselbe Nachricht offen,
+     * wird nichts eingereiht (z.B. Webhook und Capture bestätigen dieselbe Bestellung).
+     */
+    @Transactional
+    public void enqueue(NotificationChannel channel, String aggregateType, Long aggregateId,
+                        String messageType, Map<String, Object> payload) {
+        if (outboxRepository.existsByAggregateTypeAndAggregateIdAndMessageTypeAndStatusIn(
+                aggregateType, aggregateId, messageType, OPEN_STATUSES)) {
+            log.debug("Outbox message {} for {} {} already pending", messageType, aggregateType, aggregateId);
+            return;
+        }
+
+        NotificationOutboxMessage message = new NotificationOutboxMessage();
+        message.setChannel(channel);
+        message.setAggregateType(aggregateType);
+        message.setAggregateId(aggregateId);
+        message.setMessageType(messageType);
+        message.setPayload(toJson(payload));
+        outboxRepository.save(message);
+
+        log.debug("📮 Outbox: {} via {} for {} {}", messageType, channel, aggregateType, aggregateId);
+    }
+
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload != null ? payload : Map.of());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload not serializable: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package storebackend.service.outbox;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import storebackend.dto.EmailDeliveryResult;
+import storebackend.entity.Order;
+import storebackend.entity.OrderItem;
+import storebackend.entity.TelegramStoreConfig;
+import storebackend.repository.OrderRepository;
+import storebackend.repository.TelegramStoreConfigRepository;
+import storebackend.service.EmailService;
+import storebackend.service.TelegramBotService;
+import storebackend.service.WhatsAppService;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Versendet Bestell-Benachrichtigungen aus der Outbox (eingereiht vom OrderStatusEventListener).
+ *
+ * Die Bestellung wird frisch geladen und vor dem Versand vollständig initialisiert – der Versand
+ * selbst (SMTP, WhatsApp-/Telegram-API) läuft ohne offene DB-Verbindung.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderNotificationHandler implements NotificationOutboxHandler {
+
+    public static final String AGGREGATE_TYPE = "ORDER";
+
+    public static final String CONFIRMATION_EMAIL = "ORDER_CONFIRMATION_EMAIL";
+    public static final String CONFIRMATION_WHATSAPP = "ORDER_CONFIRMATION_WHATSAPP";
+    public static final String OWNER_NEW_ORDER_EMAIL = "ORDER_OWNER_NEW_ORDER_EMAIL";
+    public static final String OWNER_NEW_ORDER_WHATSAPP = "ORDER_OWNER_NEW_ORDER_WHATSAPP";
+    public static final String OWNER_NEW_ORDER_TELEGRAM = "ORDER_OWNER_NEW_ORDER_TELEGRAM";
+    public static final String SHIPPING_EMAIL = "ORDER_SHIPPING_EMAIL";
+    public static final String SHIPPING_WHATSAPP = "ORDER_SHIPPING_WHATSAPP";
+    public static final String DELIVERY_EMAIL = "ORDER_DELIVERY_EMAIL";
+    public static final String DELIVERY_WHATSAPP = "ORDER_DELIVERY_WHATSAPP";
+    public static final String CANCELLATION_EMAIL = "ORDER_CANCELLATION_EMAIL";
+    public static final String CANCELLATION_WHATSAPP = "ORDER_CANCELLATION_WHATSAPP";
+
+    private final OrderRepository orderRepository;
+    private final TelegramStoreConfigRepository telegramConfigRepository;
+    private final EmailService emailService;
+    private final WhatsAppService whatsAppService;
+    private final TelegramBotService telegramBotService;
+    private final PlatformTransactionManager transactionManager;
+
+    @Override
+    public String aggregateType() {
+        return AGGREGATE_TYPE;
+    }
+
+    @Override
+    public Outcome deliver(String messageType, Long orderId, Map<String, Object> payload) {
+        Order order = loadOrder(orderId);
+        if (order == null) {
+            log.warn("Order {} no longer exists – dropping {}", orderId, messageType);
+            return Outcome.FAILED;
+        }
+
+        String recipient = (String) payload.get("recipient");
+        String lang = payload.get("lang") != null ? (String) payload.get("lang") : "en";
+        String orderNumber = order.getOrderNumber();
+        String storeName = order.getStore() != null ? order.getStore().getName() : "Markt.ma";
+        String storeLogo = order.getStore() != null ? order.getStore().getLogoUrl() : null;
+        double total = order.getTotalAmount() != null ? order.getTotalAmount().doubleValue() : 0.0;
+        List<OrderItem> items = order.getOrderItems() != null ? order.getOrderItems() : List.of();
+
+        switch (messageType) {
+            case CONFIRMATION_EMAIL -> {
+                if (Boolean.TRUE.equals(order.getConfirmationEmailSent())) {
+                    log.info("Confirmation email already sent for order {} (idempotent)", orderNumber);
+                    return Outcome.SENT;
+                }
+                EmailDeliveryResult result = emailService.sendOrderConfirmationWithResult(
+                    recipient, orderNumber, storeName, total,
+                    items, storeLogo, lang,
+                    order.getShippingAddress(),  // B2B: Lieferadresse mit company
+                    order.getCustomerReference()  // B2B: Kundenreferenz
+                );
+                if (!result.isSent()) {
+                    log.warn("Order confirmation email failed: orderId={}, orderNumber={}, errorCode={}, message={}",
+                        order.getId(), orderNumber, result.errorCode(), result.userMessage());
+                    return result.isPermanentFailure() ? Outcome.FAILED : Outcome.RETRY;
+                }
+                // ═══ IDEMPOTENZ-FLAG SETZEN – nur bei erfolgreichem Versand ═══
+                orderRepository.markConfirmationEmailSent(order.getId());
+                log.info("✅ Confirmation email sent and flagged for order {}", orderNumber);
+                return Outcome.SENT;
+            }
+            case CONFIRMATION_WHATSAPP -> {
+                return outcome(whatsAppService.sendOrderConfirmation(recipient, orderNumber, storeName, total, lang),
+                    "[WA] Order confirmation", recipient);
+            }
+            case OWNER_NEW_ORDER_EMAIL -> {
+                String customerName = order.getCustomer() != null ? order.getCustomer().getName() : null;
+                String paymentMethod = order.getPaymentMethod() != null ? order.getPaymentMethod().name() : null;
+                return outcome(emailService.sendNewOrderNotificationToOwner(
+                        recipient, lang,
+                        orderNumber, storeName, storeLogo, total,
+                        order.getCustomerEmail(), customerName, paymentMethod, items),
+                    "[Email] New order notification to owner", recipient);
+            }
+            case OWNER_NEW_ORDER_WHATSAPP -> {
+                return outcome(whatsAppService.sendNewOrderToOwner(
+                        recipient, orderNumber, storeName, total, order.getCustomerEmail(), lang),
+                    "[WA] New order notification to owner", recipient);
+            }
+            case OWNER_NEW_ORDER_TELEGRAM -> {
+                TelegramStoreConfig telegramCfg = order.getStore() != null
+                    ? telegramConfigRepository.findByStoreId(order.getStore().getId()).orElse(null)
+                    : null;
+                if (telegramCfg == null || !telegramBotService.isConfigured(telegramCfg)) {
+                    return Outcome.SENT; // Bot inzwischen entfernt – nichts zu tun
+                }
+                return outcome(telegramBotService.sendNewOrderNotification(telegramCfg, order),
+                    "[Telegram] New order notification for store", order.getStore().getId());
+            }
+            case SHIPPING_EMAIL -> {
+                EmailDeliveryResult result = emailService.sendShippingNotificationWithResult(
+                    recipient, orderNumber, storeName,
+                    order.getTrackingNumber(), order.getTrackingUrl(), order.getTrackingCarrier(), storeLogo, lang
+                );
+                if (!result.isSent()) {
+                    log.warn("Shipping notification email failed: orderId={}, orderNumber={}, errorCode={}, message={}",
+                        order.getId(), orderNumber, result.errorCode(), result.userMessage());
+                    return result.isPermanentFailure() ? Outcome.FAILED : Outcome.RETRY;
+                }
+                return Outcome.SENT;
+            }
+            case SHIPPING_WHATSAPP -> {
+                return outcome(whatsAppService.sendShippingNotification(
+                        recipient, orderNumber, storeName, order.getTrackingNumber(), lang),
+                    "[WA] Shipping notification", recipient);
+            }
+            case DELIVERY_EMAIL -> {
+                emailService.sendDeliveryConfirmation(recipient, orderNumber, storeName, storeLogo, lang);
+                return Outcome.SENT;
+            }
+            case DELIVERY_WHATSAPP -> {
+                return outcome(whatsAppService.sendDeliveryConfirmation(recipient, orderNumber, storeName, lang),
+                    "[WA] Delivery confirmation", recipient);
+            }
+            case CANCELLATION_EMAIL -> {
+                emailService.sendOrderCancellation(recipient, orderNumber, storeName, order.getNotes(), storeLogo, lang);
+                return Outcome.SENT;
+            }
+            case CANCELLATION_WHATSAPP -> {
+                return outcome(whatsAppService.sendOrderCancellation(recipient, orderNumber, storeName, lang),
+                    "[WA] Cancellation notification", recipient);
+            }
+            default -> {
+                log.warn("Unknown order notification type: {}", messageType);
+                return Outcome.FAILED;
+            }
+        }
+    }
+
+    /**
+     * Lädt die Bestellung inkl. aller Beziehungen, die die Versand-Services lesen.
+     */
+    private Order loadOrder(Long orderId) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> orderRepository.findById(orderId)
+            .map(order -> {
+                Hibernate.initialize(order.getStore());
+                if (order.getStore() != null) {
+                    Hibernate.initialize(order.getStore().getOwner());
+                }
+                Hibernate.initialize(order.getCustomer());
+                Hibernate.initialize(order.getOrderItems());
+                return order;
+            })
+            .orElse(null));
+    }
+
+    private Outcome outcome(boolean success, String what, Object target) {
+        if (success) {
+            log.info("{} sent to {}", what, target);
+            return Outcome.SENT;
+        }
+        log.warn("{} FAILED for {}", what, target);
+        return Outcome.RETRY;
+    }
+}
@@ -0,0 +1,75 @@
+package storebackend.service.outbox;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import storebackend.entity.Subscription;
+import storebackend.entity.User;
+import storebackend.repository.SubscriptionRepository;
+import storebackend.repository.UserRepository;
+import storebackend.service.EmailService;
+
+import java.util.Map;
+
+/**
+ * Versendet Abo-E-Mails aus der Outbox (eingereiht vom SubscriptionEventListener).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SubscriptionNotificationHandler implements NotificationOutboxHandler {
+
+    public static final String AGGREGATE_TYPE = "SUBSCRIPTION";
+
+    public static final String RENEWED_EMAIL = "SUBSCRIPTION_RENEWED_EMAIL";
+    public static final String EXPIRED_EMAIL = "SUBSCRIPTION_EXPIRED_EMAIL";
+    public static final String CANCELLED_EMAIL = "SUBSCRIPTION_CANCELLED_EMAIL";
+    public static final String UPGRADED_EMAIL = "SUBSCRIPTION_UPGRADED_EMAIL";
+    public static final String REMINDER_EMAIL = "SUBSCRIPTION_REMINDER_EMAIL";
+
+    private final SubscriptionRepository subscriptionRepository;
+    private final UserRepository userRepository;
+    private final EmailService emailService;
+
+    @Override
+    public String aggregateType() {
+        return AGGREGATE_TYPE;
+    }
+
+    @Override
+    public Outcome deliver(String messageType, Long subscriptionId, Map<String, Object> payload) {
+        Subscription s = subscriptionRepository.findById(subscriptionId).orElse(null);
+        User u = s != null && s.getUserId() != null ? userRepository.findById(s.getUserId()).orElse(null) : null;
+        if (u == null) {
+            log.warn("Subscription {} or its user no longer exists – dropping {}", subscriptionId, messageType);
+            return Outcome.FAILED;
+        }
+
+        // Plan zum Zeitpunkt des Events (kann sich bis zur Zustellung ändern)
+        String planName = payload.get("plan") != null ? (String) payload.get("plan") : s.getPlan().name();
+        String lang = u.getPreferredLanguage() != null ? u.getPreferredLanguage() : "en";
+        double amount = s.getAmount() != null ? s.getAmount().doubleValue() : 0.0;
+
+        switch (messageType) {
+            case RENEWED_EMAIL -> emailService.sendSubscriptionRenewed(
+                u.getEmail(), u.getName(), planName, amount, "EUR", s.getRenewalDate(), lang);
+            case EXPIRED_EMAIL -> emailService.sendSubscriptionExpired(
+                u.getEmail(), u.getName(), planName, lang);
+            case CANCELLED_EMAIL -> emailService.sendSubscriptionCancelled(
+                u.getEmail(), u.getName(), planName, s.getEndDate(), lang);
+            case UPGRADED_EMAIL -> emailService.sendSubscriptionUpgraded(
+                u.getEmail(), u.getName(),
+                payload.get("previousPlan") != null ? (String) payload.get("previousPlan") : "FREE",
+                planName, lang);
+            case REMINDER_EMAIL -> emailService.sendSubscriptionRenewalReminder(
+                u.getEmail(), u.getName(), planName,
+                ((Number) payload.getOrDefault("daysLeft", 0)).longValue(),
+                amount, "EUR", s.getRenewalDate(), lang);
+            default -> {
+                log.warn("Unknown subscription notification type: {}", messageType);
+                return Outcome.FAILED;
+            }
+        }
+        return Outcome.SENT;
+    }
+}
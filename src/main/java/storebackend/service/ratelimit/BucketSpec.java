@@ -0,0 +1,13 @@
+package storebackend.service.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * Limit-Definition eines Buckets: {@code capacity} Tokens, die alle {@code period} komplett
+ * aufgefüllt werden (entspricht Bandwidth.classic + Refill.intervally).
+ *
+ * @param name     Namespace des Buckets (ip, email, store, ...) – Teil des Store-Keys
+ * @param maxKeys  Obergrenze für lokal gehaltene Buckets dieses Namespaces
+ */
+public record BucketSpec(String name, long capacity, Duration period, long maxKeys) {
+}
@@ -0,0 +1,34 @@
+package storebackend.service.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * Speicher für Rate-Limit-Buckets und Zähler (z.B. fehlgeschlagene Logins).
+ *
+ * - {@link LocalBucketStore}: In-Process (Bucket4j + Caffeine), Default, nur für eine Instanz korrekt
+ * - {@link PostgresBucketStore}: geteilt über alle Replicas ({@code rate-limit.store=postgres})
+ */
+public interface BucketStore {
+
+    /**
+     * Verbraucht ein Token aus dem Bucket {@code key} des Namespaces {@code spec}.
+     * @return true wenn erlaubt, false wenn Limit überschritten
+     */
+    boolean tryConsume(BucketSpec spec, String key);
+
+    /**
+     * Erhöht einen Zähler; er verfällt {@code ttl} nach der letzten Erhöhung.
+     * @return neuer Zählerstand
+     */
+    long increment(String key, Duration ttl);
+
+    /**
+     * Aktueller Zählerstand (0 wenn unbekannt oder abgelaufen)
+     */
+    long get(String key);
+
+    /**
+     * Setzt einen Zähler zurück
+     */
+    void reset(String key);
+}
@@ -0,0 +1,87 @@
+package storebackend.service.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-Process BucketStore: Bucket4j-Buckets in je einem Caffeine-Cache pro Namespace.
+ *
+ * Buckets verfallen nach {@code period} ohne Zugriff – danach wären sie ohnehin wieder voll.
+ * Zähler verfallen {@code ttl} nach der letzten Erhöhung.
+ */
+@Component
+@ConditionalOnProperty(name = "rate-limit.store", havingValue = "local", matchIfMissing = true)
+@Slf4j
+public class LocalBucketStore implements BucketStore {
+
+    private record Counter(long value, long ttlNanos) {}
+
+    private final Map<String, Cache<String, Bucket>> buckets = new ConcurrentHashMap<>();
+
+    private final Cache<String, Counter> counters = Caffeine.newBuilder()
+        .maximumSize(100_000)
+        .expireAfter(new Expiry<String, Counter>() {
+            @Override
+            public long expireAfterCreate(String key, Counter counter, long currentTime) {
+                return counter.ttlNanos();
+            }
+
+            @Override
+            public long expireAfterUpdate(String key, Counter counter, long currentTime, long currentDuration) {
+                return counter.ttlNanos();
+            }
+
+            @Override
+            public long expireAfterRead(String key, Counter counter, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        })
+        .build();
+
+    @Override
+    public boolean tryConsume(BucketSpec spec, String key) {
+        return buckets.computeIfAbsent(spec.name(), name -> Caffeine.newBuilder()
+                .expireAfterAccess(spec.period())
+                .maximumSize(spec.maxKeys())
+                .<String, Bucket>build())
+            .get(key, k -> createBucket(spec))
+            .tryConsume(1);
+    }
+
+    @Override
+    public long increment(String key, Duration ttl) {
+        long ttlNanos = ttl.toNanos();
+        return counters.asMap()
+            .merge(key, new Counter(1, ttlNanos), (old, one) -> new Counter(old.value() + 1, ttlNanos))
+            .value();
+    }
+
+    @Override
+    public long get(String key) {
+        Counter counter = counters.getIfPresent(key);
+        return counter != null ? counter.value() : 0;
+    }
+
+    @Override
+    public void reset(String key) {
+        counters.invalidate(key);
+    }
+
+    private static Bucket createBucket(BucketSpec spec) {
+        Bandwidth limit = Bandwidth.classic(spec.capacity(), Refill.intervally(spec.capacity(), spec.period()));
+        return Bucket.builder()
+            .addLimit(limit)
+            .build();
+    }
+}
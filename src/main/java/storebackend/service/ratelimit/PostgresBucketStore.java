@@ -0,0 +1,215 @@
+package storebackend.service.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * PostgreSQL-BucketStore: ein Limit gilt über alle Backend-Replicas hinweg.
+ *
+ * Jeder Verbrauch ist ein einziges atomares Upsert (INSERT ... ON CONFLICT DO UPDATE ... RETURNING)
+ * auf rate_limit_buckets – Fenster abgelaufen → neu beginnen, sonst hochzählen. Das entspricht
+ * Bandwidth.classic + Refill.intervally der lokalen Buckets (Fenster ab erstem Request).
+ *
+ * Near-Cache: ist ein Bucket erschöpft, merkt sich die Instanz das Fensterende lokal und lehnt
+ * bis dahin ohne DB-Roundtrip und ohne Lock ab – gerade bei Flood-Angriffen der Hauptteil der Last.
+ *
+ * Bei DB-Fehlern wird durchgelassen (fail-open), damit ein DB-Ausfall nicht alle Logins sperrt –
+ * das gilt für alle Operationen, auch für die Login-Zähler (increment/get/reset).
+ *
+ * Keys länger als die Spalte (bucket_key VARCHAR(320)) werden gekürzt und mit ihrem
+ * SHA-256 eindeutig gemacht (z.B. überlange E-Mail-Adressen aus dem Login-Formular).
+ */
+@Component
+@ConditionalOnProperty(name = "rate-limit.store", havingValue = "postgres")
+@Slf4j
+public class PostgresBucketStore implements BucketStore {
+
+    static final String CONSUME_SQL =
+        "INSERT INTO rate_limit_buckets (bucket_key, consumed, window_end) VALUES (?, 1, ?) " +
+        "ON CONFLICT (bucket_key) DO UPDATE SET " +
+        "consumed = CASE WHEN rate_limit_buckets.window_end <= ? THEN 1 ELSE rate_limit_buckets.consumed + 1 END, " +
+        "window_end = CASE WHEN rate_limit_buckets.window_end <= ? THEN EXCLUDED.window_end " +
+        "ELSE rate_limit_buckets.window_end END " +
+        "RETURNING consumed, window_end";
+
+    static final String INCREMENT_SQL =
+        "INSERT INTO rate_limit_buckets (bucket_key, consumed, window_end) VALUES (?, 1, ?) " +
+        "ON CONFLICT (bucket_key) DO UPDATE SET " +
+        "consumed = CASE WHEN rate_limit_buckets.window_end <= ? THEN 1 ELSE rate_limit_buckets.consumed + 1 END, " +
+        "window_end = EXCLUDED.window_end " +
+        "RETURNING consumed";
+
+    static final String GET_SQL =
+        "SELECT consumed FROM rate_limit_buckets WHERE bucket_key = ? AND window_end > ?";
+
+    static final String RESET_SQL = "DELETE FROM rate_limit_buckets WHERE bucket_key = ?";
+
+    static final String CLEANUP_SQL = "DELETE FROM rate_limit_buckets WHERE window_end <= ?";
+
+    static final int MAX_KEY_LENGTH = 320;
+
+    private record Window(long consumed, long windowEndMillis) {}
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Erschöpfte Buckets: Key → Fensterende (epoch millis); Eintrag verfällt genau dann */
+    private final Cache<String, Long> exhaustedUntil;
+
+    private final Counter nearCacheHits;
+    private final Counter storeErrors;
+
+    public PostgresBucketStore(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${rate-limit.near-cache.max-size:100000}") long nearCacheMaxSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.exhaustedUntil = Caffeine.newBuilder()
+            .maximumSize(nearCacheMaxSize)
+            .expireAfter(new Expiry<String, Long>() {
+                @Override
+                public long expireAfterCreate(String key, Long until, long currentTime) {
+                    return remainingNanos(until);
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, Long until, long currentTime, long currentDuration) {
+                    return remainingNanos(until);
+                }
+
+                @Override
+                public long expireAfterRead(String key, Long until, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+
+        this.nearCacheHits = Counter.builder("rate_limit.near_cache.hits")
+            .description("Rate limit rejections answered from the local near-cache")
+            .register(meterRegistry);
+        this.storeErrors = Counter.builder("rate_limit.store.errors")
+            .description("Rate limit store failures (request allowed)")
+            .register(meterRegistry);
+
+        log.info("Rate limiting uses the shared PostgreSQL bucket store");
+    }
+
+    @Override
+    public boolean tryConsume(BucketSpec spec, String key) {
+        String storeKey = storeKey(spec.name() + ":" + key);
+
+        Long blockedUntil = exhaustedUntil.getIfPresent(storeKey);
+        if (blockedUntil != null && blockedUntil > System.currentTimeMillis()) {
+            nearCacheHits.increment();
+            return false;
+        }
+
+        try {
+            long now = System.currentTimeMillis();
+            Timestamp nowTs = new Timestamp(now);
+            Timestamp windowEnd = new Timestamp(now + spec.period().toMillis());
+
+            Window window = jdbcTemplate.queryForObject(CONSUME_SQL,
+                (rs, rowNum) -> new Window(rs.getLong("consumed"), rs.getTimestamp("window_end").getTime()),
+                storeKey, windowEnd, nowTs, nowTs);
+
+            if (window.consumed() <= spec.capacity()) {
+                return true;
+            }
+            exhaustedUntil.put(storeKey, window.windowEndMillis());
+            return false;
+        } catch (Exception e) {
+            storeErrors.increment();
+            log.error("Rate limit store unavailable for {} - allowing request: {}", storeKey, e.getMessage());
+            return true;
+        }
+    }
+
+    @Override
+    public long increment(String key, Duration ttl) {
+        String storeKey = storeKey(key);
+        try {
+            long now = System.currentTimeMillis();
+            Long count = jdbcTemplate.queryForObject(INCREMENT_SQL, Long.class,
+                storeKey, new Timestamp(now + ttl.toMillis()), new Timestamp(now));
+            return count != null ? count : 0;
+        } catch (Exception e) {
+            storeErrors.increment();
+            log.error("Rate limit store unavailable for {} - counter not incremented: {}", storeKey, e.getMessage());
+            return 0;
+        }
+    }
+
+    @Override
+    public long get(String key) {
+        String storeKey = storeKey(key);
+        try {
+            List<Long> counts = jdbcTemplate.queryForList(GET_SQL, Long.class,
+                storeKey, new Timestamp(System.currentTimeMillis()));
+            return counts.isEmpty() ? 0 : counts.get(0);
+        } catch (Exception e) {
+            storeErrors.increment();
+            log.error("Rate limit store unavailable for {} - reporting 0: {}", storeKey, e.getMessage());
+            return 0;
+        }
+    }
+
+    @Override
+    public void reset(String key) {
+        String storeKey = storeKey(key);
+        exhaustedUntil.invalidate(storeKey);
+        try {
+            jdbcTemplate.update(RESET_SQL, storeKey);
+        } catch (Exception e) {
+            storeErrors.increment();
+            log.error("Rate limit store unavailable for {} - counter not reset: {}", storeKey, e.getMessage());
+        }
+    }
+
+    /**
+     * Abgelaufene Fenster entfernen
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.cleanup-interval-ms:600000}")
+    public void cleanupExpired() {
+        int deleted = jdbcTemplate.update(CLEANUP_SQL, new Timestamp(System.currentTimeMillis()));
+        if (deleted > 0) {
+            log.debug("Removed {} expired rate limit windows", deleted);
+        }
+    }
+
+    /**
+     * Key passend zur Spaltenlänge: Präfix + "#" + SHA-256 (hex), wenn zu lang.
+     */
+    static String storeKey(String key) {
+        if (key.length() <= MAX_KEY_LENGTH) {
+            return key;
+        }
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            String suffix = "#" + HexFormat.of().formatHex(hash);
+            return key.substring(0, MAX_KEY_LENGTH - suffix.length()) + suffix;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static long remainingNanos(long untilMillis) {
+        return Math.max(0, Duration.ofMillis(untilMillis - System.currentTimeMillis()).toNanos());
+    }
+}
@@ -0,0 +1,211 @@
+package storebackend.service.seo;
+
+import lombok.extern.slf4j.Slf4j;
+import storebackend.entity.RedirectRule;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Vorkompilierte Redirect-Regeln eines Stores/einer Domain.
+ *
+ * Statt pro Request alle Regeln linear zu prüfen (und Regex jedes Mal neu zu kompilieren):
+ * - exakte Regeln: HashMap sourcePath → Regel
+ * - Wildcard-Regeln (Regex der Form "/literal.*", optional mit ^/$): Präfix-Trie
+ * - übrige Regex-Regeln: vorkompilierte Patterns in Prioritäts-Reihenfolge
+ *
+ * Semantik wie zuvor: es gewinnt die erste passende Regel in der Reihenfolge der
+ * Repository-Abfrage (priority ASC, id ASC). Dazu trägt jede Regel ihren Rang.
+ */
+@Slf4j
+public final class RedirectRuleMatcher {
+
+    public static final RedirectRuleMatcher EMPTY = compile(List.of());
+
+    private record CompiledRule(int rank, RedirectRule rule, Pattern pattern) {}
+
+    private static final class TrieNode {
+        private final Map<Character, TrieNode> children = new HashMap<>(4);
+        private CompiledRule rule;
+    }
+
+    private final Map<String, CompiledRule> exact;
+    private final TrieNode prefixes;
+    private final List<CompiledRule> regexes;
+    private final List<CompiledRule> all;
+
+    private RedirectRuleMatcher(Map<String, CompiledRule> exact, TrieNode prefixes,
+                                List<CompiledRule> regexes, List<CompiledRule> all) {
+        this.exact = exact;
+        this.prefixes = prefixes;
+        this.regexes = regexes;
+        this.all = all;
+    }
+
+    /**
+     * Kompiliert die Regeln. Erwartet die Reihenfolge aus
+     * {@code findActiveRulesForStoreAndDomain} (priority ASC, id ASC).
+     * Ungültige Regex-Regeln werden einmalig geloggt und übersprungen.
+     */
+    public static RedirectRuleMatcher compile(List<RedirectRule> rules) {
+        Map<String, CompiledRule> exact = new HashMap<>();
+        TrieNode prefixes = new TrieNode();
+        List<CompiledRule> regexes = new ArrayList<>();
+        List<CompiledRule> all = new ArrayList<>(rules.size());
+
+        for (int rank = 0; rank < rules.size(); rank++) {
+            RedirectRule rule = rules.get(rank);
+            String source = rule.getSourcePath();
+            if (source == null) {
+                continue;
+            }
+
+            if (!Boolean.TRUE.equals(rule.getRegex())) {
+                CompiledRule compiled = new CompiledRule(rank, rule, null);
+                exact.putIfAbsent(source, compiled);
+                all.add(compiled);
+                continue;
+            }
+
+            Pattern pattern;
+            try {
+                pattern = Pattern.compile(source);
+            } catch (PatternSyntaxException e) {
+                log.warn("Invalid regex pattern in rule {}: {}", rule.getId(), source);
+                continue;
+            }
+            CompiledRule compiled = new CompiledRule(rank, rule, pattern);
+            all.add(compiled);
+
+            String literal = literalOf(source);
+            String prefix = literal == null ? wildcardPrefixOf(source) : null;
+            if (literal != null) {
+                exact.putIfAbsent(literal, compiled);
+            } else if (prefix != null) {
+                insert(prefixes, prefix, compiled);
+            } else {
+                regexes.add(compiled);
+            }
+        }
+
+        return new RedirectRuleMatcher(exact, prefixes, regexes, all);
+    }
+
+    /**
+     * Liefert die erste passende Regel (niedrigster Rang) oder null.
+     */
+    public RedirectRule match(String path) {
+        if (path == null) {
+            return null;
+        }
+        if (hasLineTerminator(path)) {
+            // ".*" matcht keine Zeilenumbrüche – Trie/Literal-Abkürzungen gelten hier nicht
+            return matchLinear(path);
+        }
+
+        CompiledRule best = exact.get(path);
+
+        TrieNode node = prefixes;
+        for (int i = 0; node != null; i++) {
+            if (node.rule != null && (best == null || node.rule.rank() < best.rank())) {
+                best = node.rule;
+            }
+            if (i == path.length()) {
+                break;
+            }
+            node = node.children.get(path.charAt(i));
+        }
+
+        for (CompiledRule candidate : regexes) {
+            if (best != null && candidate.rank() > best.rank()) {
+                break;
+            }
+            if (candidate.pattern().matcher(path).matches()) {
+                best = candidate;
+                break;
+            }
+        }
+
+        return best != null ? best.rule() : null;
+    }
+
+    public int size() {
+        return all.size();
+    }
+
+    private RedirectRule matchLinear(String path) {
+        for (CompiledRule candidate : all) {
+            boolean matches = candidate.pattern() != null
+                    ? candidate.pattern().matcher(path).matches()
+                    : candidate.rule().getSourcePath().equals(path);
+            if (matches) {
+                return candidate.rule();
+            }
+        }
+        return null;
+    }
+
+    private static void insert(TrieNode root, String prefix, CompiledRule rule) {
+        TrieNode node = root;
+        for (int i = 0; i < prefix.length(); i++) {
+            node = node.children.computeIfAbsent(prefix.charAt(i), c -> new TrieNode());
+        }
+        if (node.rule == null || rule.rank() < node.rule.rank()) {
+            node.rule = rule;
+        }
+    }
+
+    /**
+     * Regex ohne Metazeichen (z.B. "/old-page" mit isRegex=true) → exakter Pfad.
+     */
+    private static String literalOf(String regex) {
+        String body = stripAnchors(regex);
+        return isLiteral(body) ? body : null;
+    }
+
+    /**
+     * Regex der Form "literal.*" → Präfix "literal", sonst null.
+     */
+    private static String wildcardPrefixOf(String regex) {
+        String body = stripAnchors(regex);
+        if (!body.endsWith(".*")) {
+            return null;
+        }
+        String prefix = body.substring(0, body.length() - 2);
+        return isLiteral(prefix) ? prefix : null;
+    }
+
+    private static String stripAnchors(String regex) {
+        String body = regex;
+        if (body.startsWith("^")) {
+            body = body.substring(1);
+        }
+        if (body.endsWith("$") && !body.endsWith("\\$")) {
+            body = body.substring(0, body.length() - 1);
+        }
+        return body;
+    }
+
+    private static boolean isLiteral(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if ("\\^$.|?*+()[]{}".indexOf(value.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasLineTerminator(String path) {
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
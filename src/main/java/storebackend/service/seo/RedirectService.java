@@ -2,41 +2,55 @@ package storebackend.service.seo;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import storebackend.dto.seo.RedirectResolveResponse;
 import storebackend.dto.seo.RedirectRuleDTO;
 import storebackend.entity.RedirectRule;
 import storebackend.repository.RedirectRuleRepository;
 
-import java.util.List;
-import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
+import java.time.Duration;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class RedirectService {
 
+    private record RuleSetKey(Long storeId, Long domainId) {}
+
     private final RedirectRuleRepository redirectRuleRepository;
 
-    @Cacheable(value = "redirectRules", key = "#storeId + '_' + (#domainId ?: 'default')")
-    public List<RedirectRule> getActiveRules(Long storeId, Long domainId) {
-        return redirectRuleRepository.findActiveRulesForStoreAndDomain(storeId, domainId);
+    // Kompilierte Regeln pro Store/Domain – Invalidierung bei Änderungen (nach Commit)
+    private final Cache<RuleSetKey, RedirectRuleMatcher> matchers = Caffeine.newBuilder()
+            .maximumSize(1_000)
+            .expireAfterWrite(Duration.ofMinutes(30))
+            .build();
+
+    /**
+     * Liefert die aktiven Regeln eines Stores/einer Domain als kompilierten Matcher.
+     * Domain-übergreifende Regeln (domainId = null) sind enthalten.
+     */
+    public RedirectRuleMatcher getActiveRules(Long storeId, Long domainId) {
+        return matchers.get(new RuleSetKey(storeId, domainId), key -> {
+            RedirectRuleMatcher matcher = RedirectRuleMatcher.compile(
+                    redirectRuleRepository.findActiveRulesForStoreAndDomain(storeId, domainId));
+            log.debug("Compiled {} redirect rules for store {} / domain {}", matcher.size(), storeId, domainId);
+            return matcher;
+        });
     }
 
     public RedirectResolveResponse resolve(Long storeId, Long domainId, String path) {
-        List<RedirectRule> rules = getActiveRules(storeId, domainId);
+        RedirectRule rule = getActiveRules(storeId, domainId).match(path);
 
-        for (RedirectRule rule : rules) {
-            if (matches(rule, path)) {
-                log.debug("Redirect match: {} -> {} ({})", path, rule.getTargetUrl(), rule.getHttpCode());
-                return new RedirectResolveResponse(rule.getTargetUrl(), rule.getHttpCode(), true);
-            }
+        if (rule != null) {
+            log.debug("Redirect match: {} -> {} ({})", path, rule.getTargetUrl(), rule.getHttpCode());
+            return new RedirectResolveResponse(rule.getTargetUrl(), rule.getHttpCode(), true);
         }
 
         return new RedirectResolveResponse(null, null, false);
@@ -48,7 +62,6 @@ public class RedirectService {
     }
 
     @Transactional
-    @CacheEvict(value = "redirectRules", key = "#dto.storeId + '_' + (#dto.domainId ?: 'default')")
     public RedirectRuleDTO createRule(RedirectRuleDTO dto) {
         validateRule(dto);
 
@@ -65,11 +78,11 @@ public class RedirectService {
         entity.setTag(dto.getTag());
 
         entity = redirectRuleRepository.save(entity);
+        evictStore(entity.getStoreId());
         return mapToDTO(entity);
     }
 
     @Transactional
-    @CacheEvict(value = "redirectRules", key = "#dto.storeId + '_' + (#dto.domainId ?: 'default')")
     public RedirectRuleDTO updateRule(Long id, RedirectRuleDTO dto) {
         RedirectRule entity = redirectRuleRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Redirect rule not found: " + id));
@@ -86,31 +99,35 @@ public class RedirectService {
         entity.setTag(dto.getTag());
 
         entity = redirectRuleRepository.save(entity);
+        evictStore(entity.getStoreId());
         return mapToDTO(entity);
     }
 
     @Transactional
-    @CacheEvict(value = "redirectRules", allEntries = true)
     public void deleteRule(Long id) {
+        redirectRuleRepository.findById(id).ifPresent(rule -> evictStore(rule.getStoreId()));
         redirectRuleRepository.deleteById(id);
     }
 
-    @CacheEvict(value = "redirectRules", allEntries = true)
     public void refreshCache() {
+        matchers.invalidateAll();
         log.info("Redirect rules cache refreshed");
     }
 
-    private boolean matches(RedirectRule rule, String path) {
-        if (rule.getRegex()) {
-            try {
-                Pattern pattern = Pattern.compile(rule.getSourcePath());
-                return pattern.matcher(path).matches();
-            } catch (PatternSyntaxException e) {
-                log.warn("Invalid regex pattern in rule {}: {}", rule.getId(), rule.getSourcePath());
-                return false;
-            }
+    /**
+     * Regeln mit domainId = null gelten für alle Domains → alle Matcher des Stores verwerfen.
+     */
+    private void evictStore(Long storeId) {
+        Runnable evict = () -> matchers.asMap().keySet().removeIf(key -> storeId.equals(key.storeId()));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
         } else {
-            return rule.getSourcePath().equals(path);
+            evict.run();
         }
     }
 
@@ -2,13 +2,28 @@ package storebackend.service.seo;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import storebackend.dto.seo.ProductSitemapEntry;
+import storebackend.dto.seo.SitemapPageStats;
 import storebackend.entity.SitemapConfig;
+import storebackend.enums.ProductStatus;
 import storebackend.repository.ProductRepository;
 import storebackend.repository.SitemapConfigRepository;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -19,6 +34,29 @@ public class SitemapService {
     private final ProductRepository productRepository;
     private final SeoSettingsService seoSettingsService;
 
+    // Sitemap-Protokoll: max. 50.000 URLs pro Datei
+    static final int MAX_URLS_PER_SITEMAP = 50_000;
+
+    /**
+     * Grenzen einer Produkt-Sitemap-Seite (Keyset: fromId ≤ id &lt; toId) plus
+     * Kennzahlen für Conditional GET. Leere Seite: urlCount = 0.
+     */
+    public record ProductSitemapPage(Long storeId, int page, long fromId, long toId,
+                                     long urlCount, LocalDateTime lastModified) {
+
+        public String etag() {
+            return "sitemap-products-" + storeId + "-" + page + "-" + fromId + "-" + toId + "-"
+                    + urlCount + "-" + lastModifiedMillis();
+        }
+
+        /** Epoch-Millis für Last-Modified, -1 wenn die Seite leer ist. */
+        public long lastModifiedMillis() {
+            return lastModified != null
+                    ? lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                    : -1;
+        }
+    }
+
     public SitemapConfig getConfig(Long storeId, Long domainId) {
         if (domainId != null) {
             return sitemapConfigRepository.findByStoreIdAndDomainId(storeId, domainId)
@@ -37,8 +75,8 @@ public class SitemapService {
         xml.append("<sitemapindex xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n");
 
         if (config.getIncludeProducts()) {
-            long productCount = productRepository.countByStoreId(storeId);
-            int pages = (int) Math.ceil((double) productCount / config.getSplitThreshold());
+            long productCount = productRepository.countByStoreIdAndStatus(storeId, ProductStatus.ACTIVE);
+            int pages = (int) Math.ceil((double) productCount / pageSize(config));
             for (int i = 1; i <= pages; i++) {
                 xml.append(sitemapEntry(baseUrl + "/sitemap-products.xml?page=" + i));
             }
@@ -60,26 +98,53 @@ public class SitemapService {
         return xml.toString();
     }
 
-    public String generateProductSitemap(Long storeId, int page, String canonicalBase) {
-        SitemapConfig config = getConfig(storeId, null);
-        int offset = (page - 1) * config.getSplitThreshold();
+    /**
+     * Ermittelt Grenzen und Kennzahlen einer Produkt-Sitemap-Seite (aktive Produkte, nach id).
+     * Drei Index-Abfragen, keine Entities: Start-ID, Start-ID der Folgeseite, COUNT/MAX(updatedAt).
+     */
+    @Transactional(readOnly = true)
+    public ProductSitemapPage getProductSitemapPage(Long storeId, int page) {
+        int pageSize = pageSize(getConfig(storeId, null));
+        if (page < 1) {
+            return new ProductSitemapPage(storeId, page, 0, 0, 0, null);
+        }
 
-        var products = productRepository.findByStoreId(storeId);
+        long offset = (long) (page - 1) * pageSize;
+        Long fromId = idAtOffset(storeId, offset);
+        if (fromId == null) {
+            return new ProductSitemapPage(storeId, page, 0, 0, 0, null);
+        }
+        Long nextPageStart = idAtOffset(storeId, offset + pageSize);
+        long toId = nextPageStart != null ? nextPageStart : Long.MAX_VALUE;
 
-        StringBuilder xml = new StringBuilder();
-        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
-        xml.append("<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n");
+        SitemapPageStats stats = productRepository.findSitemapPageStats(storeId, ProductStatus.ACTIVE, fromId, toId);
+        return new ProductSitemapPage(storeId, page, fromId, toId, stats.urlCount(), stats.lastModified());
+    }
 
-//        products.stream()
-//                .skip(offset)
-//                .limit(config.getSplitThreshold())
-//                .forEach(product -> {
-//                    String url = canonicalBase + "/products/" + product.getSlug();
-//                    xml.append(urlEntry(url, product.getUpdatedAt(), "weekly", "0.8"));
-//                });
+    /**
+     * Schreibt eine Produkt-Sitemap-Seite direkt in den Output-Stream.
+     * Zeilen werden per Cursor gestreamt (id, updatedAt) – konstanter Speicher auch bei 50k URLs.
+     */
+    @Transactional(readOnly = true)
+    public void writeProductSitemap(ProductSitemapPage page, String canonicalBase, OutputStream out) throws IOException {
+        Writer xml = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        xml.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        xml.write("<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n");
+
+        if (page.urlCount() > 0) {
+            String productBase = escapeXml(canonicalBase + "/products/");
+            try (Stream<ProductSitemapEntry> entries = productRepository.streamSitemapEntries(
+                    page.storeId(), ProductStatus.ACTIVE, page.fromId(), page.toId())) {
+                Iterator<ProductSitemapEntry> it = entries.iterator();
+                while (it.hasNext()) {
+                    ProductSitemapEntry entry = it.next();
+                    xml.write(urlEntry(productBase + entry.id(), entry.updatedAt(), "weekly", "0.8"));
+                }
+            }
+        }
 
-        xml.append("</urlset>");
-        return xml.toString();
+        xml.write("</urlset>");
+        xml.flush();
     }
 
     public String generateRobotsTxt(Long storeId, Long domainId, String sitemapUrl) {
@@ -111,6 +176,23 @@ public class SitemapService {
                 .build();
     }
 
+    private Long idAtOffset(Long storeId, long offset) {
+        if (offset > Integer.MAX_VALUE) {
+            return null;
+        }
+        List<Long> ids = productRepository.findIdsByStoreIdAndStatus(
+                storeId, ProductStatus.ACTIVE, PageRequest.of((int) offset, 1));
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    private int pageSize(SitemapConfig config) {
+        Integer threshold = config.getSplitThreshold();
+        if (threshold == null || threshold < 1) {
+            return MAX_URLS_PER_SITEMAP;
+        }
+        return Math.min(threshold, MAX_URLS_PER_SITEMAP);
+    }
+
     private String sitemapEntry(String loc) {
         return "  <sitemap>\n" +
                "    <loc>" + escapeXml(loc) + "</loc>\n" +
@@ -118,9 +200,10 @@ public class SitemapService {
                "  </sitemap>\n";
     }
 
+    /** loc muss bereits XML-escaped sein. */
     private String urlEntry(String loc, LocalDateTime lastmod, String changefreq, String priority) {
         return "  <url>\n" +
-               "    <loc>" + escapeXml(loc) + "</loc>\n" +
+               "    <loc>" + loc + "</loc>\n" +
                "    <lastmod>" + format(lastmod) + "</lastmod>\n" +
                "    <changefreq>" + changefreq + "</changefreq>\n" +
                "    <priority>" + priority + "</priority>\n" +
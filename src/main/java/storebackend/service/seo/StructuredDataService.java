@@ -1,13 +1,20 @@
 package storebackend.service.seo;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.mustachejava.DefaultMustacheFactory;
 import com.github.mustachejava.Mustache;
 import com.github.mustachejava.MustacheFactory;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import storebackend.dto.seo.StructuredDataTemplateDTO;
 import storebackend.entity.StructuredDataTemplate;
 import storebackend.repository.StructuredDataTemplateRepository;
@@ -19,14 +26,32 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class StructuredDataService {
 
+    /**
+     * Kompiliertes Template (Mustache-Instanzen sind thread-safe).
+     */
+    record CompiledTemplate(Long storeId, Mustache mustache) {}
+
     private final StructuredDataTemplateRepository templateRepository;
+    private final MeterRegistry meterRegistry;
     private final MustacheFactory mustacheFactory = new DefaultMustacheFactory();
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    // templateId → kompiliertes Template der aktuellen Version; jede neue Version
+    // entsteht nur über saveTemplate, das den Eintrag invalidiert (ebenso deleteTemplate)
+    private final Cache<Long, CompiledTemplate> compiledTemplates = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .recordStats()
+            .build();
+
+    public StructuredDataService(StructuredDataTemplateRepository templateRepository, MeterRegistry meterRegistry) {
+        this.templateRepository = templateRepository;
+        this.meterRegistry = meterRegistry;
+        CaffeineCacheMetrics.monitor(meterRegistry, compiledTemplates, "seo.structured_data.templates");
+    }
+
     /**
      * Get all templates for a store.
      */
@@ -39,27 +64,30 @@ public class StructuredDataService {
 
     /**
      * Save or update a template.
+     * The JSON is validated and normalized here once, so rendering can compile it as-is.
      */
     @Transactional
     public StructuredDataTemplateDTO saveTemplate(StructuredDataTemplateDTO dto) {
+        String normalizedJson = normalize(dto.getTemplateJson());
         StructuredDataTemplate entity;
 
         if (dto.getId() != null) {
             entity = templateRepository.findById(dto.getId())
                     .orElseThrow(() -> new IllegalArgumentException("Template not found: " + dto.getId()));
             entity.setType(dto.getType());
-            entity.setTemplateJson(dto.getTemplateJson());
+            entity.setTemplateJson(normalizedJson);
             entity.setIsActive(dto.getIsActive());
         } else {
             entity = StructuredDataTemplate.builder()
                     .storeId(dto.getStoreId())
                     .type(dto.getType())
-                    .templateJson(dto.getTemplateJson())
+                    .templateJson(normalizedJson)
                     .isActive(dto.getIsActive() != null ? dto.getIsActive() : true)
                     .build();
         }
 
         StructuredDataTemplate saved = templateRepository.save(entity);
+        evictCompiled(saved.getId());
         return toDTO(saved);
     }
 
@@ -69,26 +97,37 @@ public class StructuredDataService {
     @Transactional
     public void deleteTemplate(Long id) {
         templateRepository.deleteById(id);
+        evictCompiled(id);
     }
 
     /**
-     * Render a template with context variables using Mustache.
+     * Render a stored template by id. The compiled Mustache is cached per template id
+     * until the next save/delete – no JSON parsing or compilation on the hot path.
      */
-    public String render(String templateJson, Map<String, Object> context) {
+    public String renderTemplate(Long storeId, Long templateId, Map<String, Object> context) {
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
-            // Parse and re-serialize the template JSON to ensure it's valid
-            Object jsonObject = objectMapper.readValue(templateJson, Object.class);
-            String normalizedJson = objectMapper.writeValueAsString(jsonObject);
-
-            // Render with Mustache
-            Mustache mustache = mustacheFactory.compile(new StringReader(normalizedJson), "template");
-            StringWriter writer = new StringWriter();
-            mustache.execute(writer, context).flush();
+            CompiledTemplate compiled = compiledTemplates.get(templateId, this::compileStored);
+            if (compiled == null || !compiled.storeId().equals(storeId)) {
+                throw new IllegalArgumentException("Template not found: " + templateId);
+            }
+            return execute(compiled.mustache(), context);
+        } finally {
+            sample.stop(renderTimer(storeId, "stored"));
+        }
+    }
 
-            return writer.toString();
-        } catch (Exception e) {
-            log.error("Failed to render structured data template", e);
-            throw new RuntimeException("Failed to render template: " + e.getMessage(), e);
+    /**
+     * Render an ad-hoc template (editor preview) with context variables using Mustache.
+     * Not cached – the JSON is validated and compiled per call.
+     */
+    public String render(Long storeId, String templateJson, Map<String, Object> context) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            Mustache mustache = mustacheFactory.compile(new StringReader(normalize(templateJson)), "template");
+            return execute(mustache, context);
+        } finally {
+            sample.stop(renderTimer(storeId, "preview"));
         }
     }
 
@@ -102,6 +141,66 @@ public class StructuredDataService {
                 .orElse(null);
     }
 
+    private CompiledTemplate compileStored(Long templateId) {
+        return templateRepository.findById(templateId)
+                .map(template -> new CompiledTemplate(
+                        template.getStoreId(),
+                        mustacheFactory.compile(new StringReader(template.getTemplateJson()), "template-" + templateId)))
+                .orElse(null);
+    }
+
+    private String execute(Mustache mustache, Map<String, Object> context) {
+        try {
+            StringWriter writer = new StringWriter();
+            mustache.execute(writer, context).flush();
+            return writer.toString();
+        } catch (Exception e) {
+            log.error("Failed to render structured data template", e);
+            throw new RuntimeException("Failed to render template: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parse and re-serialize the template JSON to ensure it's valid.
+     */
+    private String normalize(String templateJson) {
+        if (templateJson == null || templateJson.isBlank()) {
+            throw new IllegalArgumentException("Template JSON is required");
+        }
+        try {
+            Object jsonObject = objectMapper.readValue(templateJson, Object.class);
+            return objectMapper.writeValueAsString(jsonObject);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid template JSON: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private Timer renderTimer(Long storeId, String source) {
+        return Timer.builder("seo.structured_data.render")
+                .description("JSON-LD template render latency")
+                .tag("store", String.valueOf(storeId))
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Nach dem Commit entfernen – sonst könnte ein paralleler Render die alte Version neu cachen.
+     */
+    private void evictCompiled(Long templateId) {
+        if (templateId == null) {
+            return;
+        }
+        compiledTemplates.invalidate(templateId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    compiledTemplates.invalidate(templateId);
+                }
+            });
+        }
+    }
+
     /**
      * Convert entity to DTO.
      */
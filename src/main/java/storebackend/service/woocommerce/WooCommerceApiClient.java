@@ -97,6 +97,16 @@ public class WooCommerceApiClient {
      * @param perPage max 100
      */
     public List<WooProductDto> getProducts(WooCommerceConfig config, int page, int perPage) {
+        return getProductPage(config, page, perPage).products();
+    }
+
+    /**
+     * Lädt eine Produktseite inkl. Gesamtzahlen (X-WP-Total / X-WP-TotalPages Header).
+     * 
+     * @param page 1-basiert
+     * @param perPage max 100
+     */
+    public WooProductPage getProductPage(WooCommerceConfig config, int page, int perPage) {
         String shopUrl = normalizeUrl(config.getShopUrl());
         int limit = Math.min(perPage, MAX_PER_PAGE);
         String endpoint = API_BASE + "/products?page=" + page + "&per_page=" + limit;
@@ -113,7 +123,11 @@ public class WooCommerceApiClient {
             );
             
             log.info("✅ Fetched {} products from {}", products.size(), getDomainForLog(shopUrl));
-            return products;
+            return new WooProductPage(
+                products,
+                parseHeader(response.getHeaders().getFirst("X-WP-Total")),
+                parseHeader(response.getHeaders().getFirst("X-WP-TotalPages"))
+            );
             
         } catch (Exception e) {
             log.error("❌ Failed to fetch products from {}: {}", getDomainForLog(shopUrl), e.getMessage());
@@ -389,6 +403,19 @@ public class WooCommerceApiClient {
         }
     }
 
+    private static int parseHeader(String value) {
+        try {
+            return value != null ? Integer.parseInt(value.trim()) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Eine Produktseite. total/totalPages = -1, wenn der Shop die Header nicht liefert.
+     */
+    public record WooProductPage(List<WooProductDto> products, int total, int totalPages) {}
+
     /**
      * Wandelt Exceptions in WooCommerceApiException um.
      */
@@ -1,19 +1,38 @@
 package storebackend.service.woocommerce;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import storebackend.dto.woocommerce.*;
 import storebackend.dto.woocommerce.api.WooCategoryDto;
 import storebackend.dto.woocommerce.api.WooProductDto;
 import storebackend.entity.*;
 import storebackend.enums.ProductStatus;
 import storebackend.repository.*;
+import storebackend.service.ProductCatalogCache;
+import storebackend.service.StorefrontVersionService;
+import storebackend.service.woocommerce.WooCommerceApiClient.WooProductPage;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * WooCommerce Import Service.
@@ -25,14 +44,23 @@ import java.util.*;
  * - Import customers (with address)
  * - Import images via WooCommerceImageService
  * - Skip duplicates (externalSource + externalId + SKU)
- * - Write import logs
+ * - Write import logs (gepuffert, Batch-Insert pro Chunk)
  * - Create import job
  * 
+ * Produkt-Pipeline (große Shops, 30k+ Produkte):
+ * - Seiten werden mit begrenzter Parallelität vorgeladen ({@code woocommerce.import.prefetch-pages})
+ *   und in Reihenfolge verarbeitet – nie mehr als das Fenster im Speicher
+ * - Jede Seite ist ein Chunk mit eigener Transaktion; Bestandsprodukte werden pro Chunk
+ *   mit je einem IN-Query (externalId, SKU) aufgelöst
+ * - Schlägt ein Chunk fehl, wird er produktweise wiederholt (ein Fehler kostet nicht 100 Produkte)
+ * - Fortschritt, Durchsatz und ETA stehen nach jedem Chunk im Job (Polling über Job-Status)
+ * - {@link #submitImport} startet den Import im Hintergrund und liefert sofort die jobId;
+ *   das Ergebnis liegt nach Abschluss über {@link #getImportResult} bereit
+ * - Kategorien laufen in einer Transaktion, Kunden je in einer eigenen
+ * 
  * NOT in MVP:
  * - Product variants (variable products imported without variants)
  * - Category hierarchy
- * - Update existing products
- * - Progress polling
  */
 @Service
 @RequiredArgsConstructor
@@ -43,7 +71,6 @@ public class WooCommerceImportService {
     private final WooCommerceImageService imageService;
     private final WooCommerceConfigRepository configRepository;
     private final WooCommerceImportJobRepository importJobRepository;
-    private final WooCommerceImportLogRepository importLogRepository;
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
     private final StoreRepository storeRepository;
@@ -51,20 +78,172 @@ public class WooCommerceImportService {
     private final CustomerProfileRepository customerProfileRepository;
     private final storebackend.util.HtmlToTextConverter htmlToTextConverter;
     private final org.springframework.security.crypto.password.PasswordEncoder passwordEncoder;
+    private final PlatformTransactionManager transactionManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductCatalogCache catalogCache;
+    private final StorefrontVersionService storefrontVersions;
 
     private static final String EXTERNAL_SOURCE = "WOOCOMMERCE";
     private static final int MAX_IMPORT_SIZE = 50; // MVP: max 50 products per import
+    private static final int MAX_PAGE_SIZE = 100; // WooCommerce REST API Limit
+    private static final int MAX_WARNINGS = 200; // Response bleibt auch bei 30k Produkten klein
+
+    private static final String INSERT_LOG_SQL =
+        "INSERT INTO woocommerce_import_log (store_id, job_id, woocommerce_product_id, product_name, status, " +
+        "error_message, variants_imported, images_imported, imported_at) VALUES (?, ?, ?, ?, ?, ?, 0, 0, ?)";
+    private static final String UPDATE_PROGRESS_SQL =
+        "UPDATE woocommerce_import_jobs SET total_products = ?, imported_products = ?, updated_products = ?, " +
+        "skipped_products = ?, failed_products = ?, current_product_name = ?, throughput_per_second = ?, " +
+        "eta_seconds = ? WHERE id = ?";
+
+    @Value("${woocommerce.import.fetch-threads:4}")
+    private int fetchThreads;
+
+    /** Wie viele Seiten pro Import gleichzeitig geladen bzw. im Speicher gehalten werden */
+    @Value("${woocommerce.import.prefetch-pages:4}")
+    private int prefetchPages;
+
+    /** Produkte pro Seite = Produkte pro Chunk-Transaktion (max. 100) */
+    @Value("${woocommerce.import.page-size:100}")
+    private int pageSize;
+
+    /** Gleichzeitig laufende Imports (alle Shops zusammen) */
+    @Value("${woocommerce.import.worker-threads:2}")
+    private int workerThreads;
+
+    /** Wartende Imports, bevor weitere Starts abgelehnt werden */
+    @Value("${woocommerce.import.queue-capacity:20}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor fetchExecutor;
+    private ThreadPoolExecutor importExecutor;
+    private TransactionTemplate transactionTemplate;
+
+    /** Ergebnisse abgeschlossener Imports (jobId → Response) für den Abruf nach dem Polling */
+    private final Cache<Long, WooCommerceImportResponse> finishedImports = Caffeine.newBuilder()
+        .maximumSize(500)
+        .expireAfterWrite(Duration.ofHours(1))
+        .build();
+
+    /** Gepufferte Log-Zeilen pro laufendem Job (jobId → Puffer) */
+    private final Map<Long, LogBuffer> logBuffers = new java.util.concurrent.ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        fetchExecutor = new ThreadPoolExecutor(
+            fetchThreads, fetchThreads, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "woocommerce-fetch-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        fetchExecutor.allowCoreThreadTimeOut(true);
+        AtomicInteger importThreadNumber = new AtomicInteger();
+        importExecutor = new ThreadPoolExecutor(
+            Math.max(workerThreads, 1), Math.max(workerThreads, 1), 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(Math.max(queueCapacity, 1)),
+            runnable -> {
+                Thread thread = new Thread(runnable, "woocommerce-import-" + importThreadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        importExecutor.allowCoreThreadTimeOut(true);
+        pageSize = Math.min(Math.max(pageSize, 1), MAX_PAGE_SIZE);
+        prefetchPages = Math.max(prefetchPages, 1);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        importExecutor.shutdownNow();
+        fetchExecutor.shutdownNow();
+    }
 
     /**
-     * Start import process.
+     * Start import process (synchron, läuft im aufrufenden Thread).
      * 
      * @param storeId Store ID
      * @param request Import request (productIds, options)
      * @param user Authenticated user
      * @return Import result
      */
-    @Transactional
     public WooCommerceImportResponse startImport(Long storeId, WooCommerceImportRequest request, User user) {
+        PreparedImport prepared = prepareImport(storeId, request, user);
+        return runImport(prepared, request);
+    }
+
+    /**
+     * Legt den Job an und startet den Import im Hintergrund.
+     * 
+     * @return Response mit jobId und Status IN_PROGRESS – Fortschritt über {@link #getImportStatus},
+     *         Ergebnis über {@link #getImportResult}
+     */
+    public WooCommerceImportResponse submitImport(Long storeId, WooCommerceImportRequest request, User user) {
+        PreparedImport prepared = prepareImport(storeId, request, user);
+        Long jobId = prepared.job().getId();
+
+        try {
+            importExecutor.execute(() -> {
+                try {
+                    runImport(prepared, request);
+                } catch (Exception e) {
+                    log.error("❌ Background WooCommerce import {} failed: {}", jobId, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            WooCommerceImportJob job = prepared.job();
+            job.setStatus("FAILED");
+            job.setCompletedAt(LocalDateTime.now());
+            job.setErrorMessage("Import queue is full");
+            importJobRepository.save(job);
+            logBuffers.remove(jobId);
+            throw new RuntimeException("Too many WooCommerce imports running, please retry later", e);
+        }
+
+        return WooCommerceImportResponse.builder()
+                .jobId(jobId)
+                .status("IN_PROGRESS")
+                .messageKey("woocommerce.import.started")
+                .build();
+    }
+
+    /**
+     * Ergebnis eines Imports. Solange er läuft bzw. wenn das Ergebnis nicht mehr im
+     * Speicher liegt, wird es aus dem Job rekonstruiert (ohne Warnungen und Kundenliste).
+     */
+    public WooCommerceImportResponse getImportResult(Long storeId, Long jobId) {
+        WooCommerceImportJob job = importJobRepository.findByIdAndStoreId(jobId, storeId)
+                .orElseThrow(() -> new IllegalArgumentException("Import job not found: " + jobId));
+
+        WooCommerceImportResponse cached = finishedImports.getIfPresent(jobId);
+        if (cached != null) {
+            return cached;
+        }
+
+        String messageKey = switch (job.getStatus()) {
+            case "COMPLETED" -> "woocommerce.import.success";
+            case "FAILED" -> "woocommerce.import.failed";
+            default -> "woocommerce.import.started";
+        };
+        return WooCommerceImportResponse.builder()
+                .jobId(job.getId())
+                .status(job.getStatus())
+                .importedCount(job.getImportedProducts())
+                .updatedCount(job.getUpdatedProducts())
+                .skippedCount(job.getSkippedProducts())
+                .failedCount(job.getFailedProducts())
+                .messageKey(messageKey)
+                .build();
+    }
+
+    /** Store, Config und der angelegte Job eines Imports */
+    private record PreparedImport(Store store, WooCommerceConfig config, WooCommerceImportJob job) {}
+
+    private PreparedImport prepareImport(Long storeId, WooCommerceImportRequest request, User user) {
         log.info("🚀 Starting WooCommerce import for store {}", storeId);
 
         // Load store
@@ -82,7 +261,15 @@ public class WooCommerceImportService {
         job.setStatus("IN_PROGRESS");
         job.setStartedAt(LocalDateTime.now());
         job = importJobRepository.save(job);
-        
+        logBuffers.put(job.getId(), new LogBuffer(storeId));
+        return new PreparedImport(store, config, job);
+    }
+
+    private WooCommerceImportResponse runImport(PreparedImport prepared, WooCommerceImportRequest request) {
+        Store store = prepared.store();
+        WooCommerceConfig config = prepared.config();
+        WooCommerceImportJob job = prepared.job();
+        final Long storeId = store.getId();
         final Long jobId = job.getId();
 
         try {
@@ -90,17 +277,12 @@ public class WooCommerceImportService {
             Map<Long, Category> categoryMap = importCategories(config, store, jobId);
             logInfo(jobId, String.format("Imported %d categories", categoryMap.size()));
 
-            // Fetch products from WooCommerce (all pages)
-            List<WooProductDto> wooProducts = fetchProductsToImport(config, request);
-            
-            log.info("📦 Total WooCommerce products fetched: {}", wooProducts.size());
-
-            // Import products
+            // Fetch + import products (streaming, chunk by chunk)
             ImportResult result = importProducts(
-                wooProducts,
+                config,
+                job,
                 store,
                 categoryMap,
-                jobId,
                 request.isImportImages()
             );
 
@@ -130,7 +312,7 @@ public class WooCommerceImportService {
             // Update job
             job.setStatus("COMPLETED");
             job.setCompletedAt(LocalDateTime.now());
-            job.setTotalProducts(wooProducts.size());
+            job.setEtaSeconds(0L);
             job.setImportedProducts(result.imported);
             job.setUpdatedProducts(result.updated);
             job.setSkippedProducts(result.skipped);
@@ -172,7 +354,9 @@ public class WooCommerceImportService {
                        .importedCustomers(customerResult.importedCustomers);
             }
             
-            return builder.build();
+            WooCommerceImportResponse response = builder.build();
+            finishedImports.put(jobId, response);
+            return response;
 
         } catch (Exception e) {
             // Update job
@@ -182,11 +366,50 @@ public class WooCommerceImportService {
             importJobRepository.save(job);
 
             logError(jobId, "Import failed: " + e.getMessage());
+            finishedImports.put(jobId, WooCommerceImportResponse.builder()
+                    .jobId(jobId)
+                    .status("FAILED")
+                    .importedCount(0)
+                    .updatedCount(0)
+                    .skippedCount(0)
+                    .failedCount(0)
+                    .messageKey("woocommerce.import.failed")
+                    .build());
             
             throw new RuntimeException("WooCommerce import failed: " + e.getMessage(), e);
+        } finally {
+            flushLogs(jobId);
+            logBuffers.remove(jobId);
         }
     }
 
+    /**
+     * Status eines Import-Jobs (für Polling während des Imports).
+     */
+    public WooCommerceImportStatusResponse getImportStatus(Long storeId, Long jobId) {
+        WooCommerceImportJob job = importJobRepository.findByIdAndStoreId(jobId, storeId)
+                .orElseThrow(() -> new IllegalArgumentException("Import job not found: " + jobId));
+
+        WooCommerceImportStatusResponse response = new WooCommerceImportStatusResponse();
+        response.setJobId(job.getId());
+        response.setStatus(job.getStatus());
+        response.setProgress(job.getProgress());
+        response.setTotalProducts(job.getTotalProducts());
+        response.setImportedProducts(job.getImportedProducts());
+        response.setUpdatedProducts(job.getUpdatedProducts());
+        response.setSkippedProducts(job.getSkippedProducts());
+        response.setFailedProducts(job.getFailedProducts());
+        response.setTotalCategories(job.getTotalCategories());
+        response.setImportedCategories(job.getImportedCategories());
+        response.setCurrentProductName(job.getCurrentProductName());
+        response.setThroughputPerSecond(job.getThroughputPerSecond());
+        response.setEtaSeconds(job.getEtaSeconds());
+        response.setStartedAt(job.getStartedAt());
+        response.setCompletedAt(job.getCompletedAt());
+        response.setErrorMessage(job.getErrorMessage());
+        return response;
+    }
+
     /**
      * Import categories from WooCommerce.
      * 
@@ -203,114 +426,309 @@ public class WooCommerceImportService {
         try {
             // Fetch all categories (up to 100)
             List<WooCategoryDto> wooCategories = apiClient.getCategories(config, 1, 100);
+
+            // Alle Kategorien in einer Transaktion: kein halber Kategoriebaum nach einem Fehler
+            transactionTemplate.executeWithoutResult(status -> importCategoryPage(wooCategories, store, categoryMap));
+            return categoryMap;
+
+        } catch (Exception e) {
+            categoryMap.clear(); // zurückgerollt – keine Referenzen auf nicht gespeicherte Kategorien
+            logWarning(jobId, "Category import failed: " + e.getMessage());
+            return categoryMap; // Continue with empty category map
+        }
+    }
+
+    private void importCategoryPage(List<WooCategoryDto> wooCategories, Store store, Map<Long, Category> categoryMap) {
+        for (WooCategoryDto wooCategory : wooCategories) {
+            // Check duplicate
+            var existing = categoryRepository.findByStoreIdAndExternalSourceAndExternalId(
+                store.getId(),
+                EXTERNAL_SOURCE,
+                wooCategory.getId().toString()
+            );
+
+            if (existing.isPresent()) {
+                categoryMap.put(wooCategory.getId(), existing.get());
+                log.debug("Category already exists: {}", wooCategory.getName());
+                continue;
+            }
+
+            // Create category
+            Category category = new Category();
+            category.setStore(store);
+            category.setName(wooCategory.getName());
+            category.setSlug(generateSlug(wooCategory.getName(), store.getId()));
+            category.setDescription(wooCategory.getDescription());
+            category.setSortOrder(0); // MVP: No order from WooCommerce
+            category.setExternalSource(EXTERNAL_SOURCE);
+            category.setExternalId(wooCategory.getId().toString());
+            category.setLastImportedAt(LocalDateTime.now());
+
+            // MVP: Flat categories, no parent
+            category.setParent(null);
+
+            category = categoryRepository.save(category);
+            categoryMap.put(wooCategory.getId(), category);
             
-            for (WooCategoryDto wooCategory : wooCategories) {
-                // Check duplicate
-                var existing = categoryRepository.findByStoreIdAndExternalSourceAndExternalId(
-                    store.getId(),
-                    EXTERNAL_SOURCE,
-                    wooCategory.getId().toString()
-                );
+            log.info("✅ Category imported: {}", category.getName());
+        }
+    }
 
-                if (existing.isPresent()) {
-                    categoryMap.put(wooCategory.getId(), existing.get());
-                    log.debug("Category already exists: {}", wooCategory.getName());
-                    continue;
+    /**
+     * Import products: Seiten werden vorgeladen und als Chunks importiert.
+     * 
+     * Liefert der Shop X-WP-TotalPages, werden die Folgeseiten parallel (Fenster
+     * {@code prefetchPages}) geladen; ohne Header wird sequentiell bis zur ersten
+     * unvollständigen Seite gelesen.
+     */
+    private ImportResult importProducts(
+            WooCommerceConfig config,
+            WooCommerceImportJob job,
+            Store store,
+            Map<Long, Category> categoryMap,
+            boolean importImages
+    ) {
+        ImportResult result = new ImportResult();
+        long startedNanos = System.nanoTime();
+        Deque<Future<WooProductPage>> window = new ArrayDeque<>();
+
+        log.info("🔄 Starting streaming product import from WooCommerce (pageSize {}, prefetch {})...",
+            pageSize, prefetchPages);
+
+        try {
+            WooProductPage current = apiClient.getProductPage(config, 1, pageSize);
+            int totalPages = current.totalPages();
+            int fetched = current.products().size();
+            int nextPage = 2;
+            job.setTotalProducts(current.total() >= 0 ? current.total() : fetched);
+            log.info("📦 WooCommerce reports {} products on {} pages", current.total(), totalPages);
+
+            while (true) {
+                // Fenster auffüllen, bevor der aktuelle Chunk importiert wird
+                while (totalPages > 0 && nextPage <= totalPages && window.size() < prefetchPages) {
+                    final int page = nextPage++;
+                    window.add(fetchExecutor.submit(() -> apiClient.getProductPage(config, page, pageSize)));
                 }
 
-                // Create category
-                Category category = new Category();
-                category.setStore(store);
-                category.setName(wooCategory.getName());
-                category.setSlug(generateSlug(wooCategory.getName(), store.getId()));
-                category.setDescription(wooCategory.getDescription());
-                category.setSortOrder(0); // MVP: No order from WooCommerce
-                category.setExternalSource(EXTERNAL_SOURCE);
-                category.setExternalId(wooCategory.getId().toString());
-                category.setLastImportedAt(LocalDateTime.now());
-
-                // MVP: Flat categories, no parent
-                category.setParent(null);
-
-                category = categoryRepository.save(category);
-                categoryMap.put(wooCategory.getId(), category);
-                
-                log.info("✅ Category imported: {}", category.getName());
+                if (!current.products().isEmpty()) {
+                    importChunk(current.products(), store, categoryMap, job.getId(), importImages, result);
+                    job.setCurrentProductName(current.products().get(current.products().size() - 1).getName());
+                }
+                recordProgress(job, result, startedNanos);
+                flushLogs(job.getId());
+
+                if (totalPages > 0) {
+                    if (window.isEmpty()) {
+                        break;
+                    }
+                    current = awaitPage(window.poll());
+                } else {
+                    if (current.products().size() < pageSize) {
+                        break;
+                    }
+                    current = apiClient.getProductPage(config, nextPage++, pageSize);
+                    if (current.products().isEmpty()) {
+                        break;
+                    }
+                }
+
+                fetched += current.products().size();
+                if (fetched > job.getTotalProducts()) {
+                    job.setTotalProducts(fetched); // Shop ist während des Imports gewachsen / ohne Header
+                }
             }
+        } finally {
+            window.forEach(future -> future.cancel(true));
+        }
 
-            return categoryMap;
+        log.info("✅ Product import finished: {} imported, {} updated, {} skipped, {} failed in {}s",
+            result.imported, result.updated, result.skipped, result.failed,
+            TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startedNanos));
+        if (result.suppressedWarnings > 0) {
+            result.warnings.add(String.format("... %d more warnings not shown", result.suppressedWarnings));
+        }
+        return result;
+    }
 
+    private WooProductPage awaitPage(Future<WooProductPage> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Product fetch interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("Product fetch failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /** Bild, das erst nach dem Commit des Chunks nach MinIO geladen wird */
+    private record PendingImage(Product product, String imageUrl, boolean newProduct) {}
+
+    /**
+     * Importiert einen Chunk in einer Transaktion. Schlägt sie fehl, wird jedes Produkt
+     * einzeln in eigener Transaktion wiederholt, damit nur die fehlerhaften Produkte verloren gehen.
+     *
+     * Bilder werden erst nach dem Commit hochgeladen: ein Rollback hinterlässt so keine
+     * verwaisten MinIO-Objekte, und die Wiederholung pro Produkt lädt nichts doppelt hoch.
+     */
+    private void importChunk(
+            List<WooProductDto> wooProducts,
+            Store store,
+            Map<Long, Category> categoryMap,
+            Long jobId,
+            boolean importImages,
+            ImportResult result
+    ) {
+        List<PendingImage> pendingImages = new ArrayList<>();
+        ImportResult chunkResult = null;
+        try {
+            chunkResult = transactionTemplate.execute(status ->
+                importChunkInTransaction(wooProducts, store, categoryMap, jobId, importImages, pendingImages));
         } catch (Exception e) {
-            logWarning(jobId, "Category import failed: " + e.getMessage());
-            return categoryMap; // Continue with empty category map
+            if (wooProducts.size() == 1) {
+                result.failed++;
+                logError(jobId, String.format(
+                    "Failed to import product '%s': %s",
+                    wooProducts.get(0).getName(),
+                    e.getMessage()
+                ));
+                return;
+            }
+            log.warn("⚠️ Chunk of {} products failed ({}), retrying product by product",
+                wooProducts.size(), e.getMessage());
+        }
+
+        if (chunkResult != null) {
+            result.add(chunkResult);
+            importPendingImages(pendingImages, store, jobId, result);
+            // Nach Commit und Bild-Upload: Bootstrap-Snapshot mit den neuen Produkten/Bildern neu bauen
+            storefrontVersions.bump(store.getId());
+            return;
+        }
+
+        for (WooProductDto wooProduct : wooProducts) {
+            importChunk(List.of(wooProduct), store, categoryMap, jobId, importImages, result);
         }
     }
 
     /**
-     * Import products.
+     * Lädt die Bilder eines committeten Chunks hoch und setzt image_url per UPDATE.
+     * Fehler betreffen nur das jeweilige Bild – das Produkt bleibt ohne Bild importiert.
      */
-    private ImportResult importProducts(
+    private void importPendingImages(List<PendingImage> pendingImages, Store store, Long jobId, ImportResult result) {
+        for (PendingImage pending : pendingImages) {
+            Product product = pending.product();
+            if (product.getId() == null) {
+                continue; // im Chunk nicht gespeichert
+            }
+            boolean imageImported = false;
+            try {
+                imageImported = imageService.importProductImage(product, pending.imageUrl(), store, jobId);
+                if (imageImported) {
+                    jdbcTemplate.update("UPDATE products SET image_url = ? WHERE id = ?",
+                        product.getImageUrl(), product.getId());
+                    catalogCache.evictProduct(product.getId());
+                }
+            } catch (Exception e) {
+                imageImported = false;
+                log.warn("⚠️ Image import failed for product '{}': {}", product.getTitle(), e.getMessage());
+            }
+
+            if (!imageImported) {
+                if (pending.newProduct()) {
+                    result.addWarning(String.format(
+                        "Image import failed for product '%s'",
+                        product.getTitle()
+                    ));
+                } else {
+                    log.debug("⚠️ Image import failed during update for product '{}'", product.getTitle());
+                }
+            }
+        }
+    }
+
+    /**
+     * Chunk-Logik: Bestandsprodukte per IN-Query auflösen, dann Update/Link/Skip/Create
+     * wie bisher pro Produkt entscheiden und gesammelt speichern.
+     */
+    private ImportResult importChunkInTransaction(
             List<WooProductDto> wooProducts,
             Store store,
             Map<Long, Category> categoryMap,
             Long jobId,
-            boolean importImages
+            boolean importImages,
+            List<PendingImage> pendingImages
     ) {
-        log.info("📦 Importing {} products...", wooProducts.size());
-        
         ImportResult result = new ImportResult();
 
+        // Duplikat-Check: ein Query für externalIds (PRIMARY), einer für SKUs (SECONDARY)
+        Set<String> externalIds = new HashSet<>();
+        Set<String> skus = new HashSet<>();
+        for (WooProductDto wooProduct : wooProducts) {
+            externalIds.add(wooProduct.getId().toString());
+            if (wooProduct.getSku() != null && !wooProduct.getSku().isEmpty()) {
+                skus.add(wooProduct.getSku());
+            }
+        }
+
+        Map<String, Product> byExternalId = new HashMap<>();
+        for (Product product : productRepository.findByStoreIdAndExternalSourceAndExternalIdIn(
+                store.getId(), EXTERNAL_SOURCE, externalIds)) {
+            byExternalId.put(product.getExternalId(), product);
+        }
+        Map<String, Product> bySku = new HashMap<>();
+        if (!skus.isEmpty()) {
+            for (Product product : productRepository.findByStoreIdAndSkuIn(store.getId(), skus)) {
+                bySku.putIfAbsent(product.getSku(), product);
+            }
+        }
+
+        List<Product> toSave = new ArrayList<>(wooProducts.size());
+
         for (WooProductDto wooProduct : wooProducts) {
             try {
                 // Log variable products (import as base product, variants not yet supported)
                 if ("variable".equalsIgnoreCase(wooProduct.getType())) {
-                    log.info("⚠️ Variable product detected: '{}' (ID: {}) - will import as base product without variants",
+                    log.debug("⚠️ Variable product detected: '{}' (ID: {}) - will import as base product without variants",
                         wooProduct.getName(), wooProduct.getId());
-                    result.warnings.add(String.format(
+                    result.addWarning(String.format(
                         "Variable product '%s' imported as base product (variants not yet supported)",
                         wooProduct.getName()
                     ));
                 }
 
-                // Check if product already exists by externalSource + externalId (PRIMARY)
-                var existingById = productRepository.findByStoreIdAndExternalSourceAndExternalId(
-                    store.getId(),
-                    EXTERNAL_SOURCE,
-                    wooProduct.getId().toString()
-                );
+                String externalId = wooProduct.getId().toString();
+                Product existingById = byExternalId.get(externalId);
 
-                if (existingById.isPresent()) {
+                if (existingById != null) {
                     // UPDATE existing product
-                    Product existingProduct = existingById.get();
-                    updateProductFromWooCommerce(existingProduct, wooProduct, categoryMap, importImages, store, jobId);
-                    productRepository.save(existingProduct);
+                    updateProductFromWooCommerce(existingById, wooProduct, categoryMap, importImages, pendingImages);
+                    toSave.add(existingById);
                     result.updated++;
                     
-                    log.info("🔄 Product updated: '{}' (markt.ma ID: {}, WC-ID: {})", 
-                        existingProduct.getTitle(), existingProduct.getId(), wooProduct.getId());
+                    log.debug("🔄 Product updated: '{}' (markt.ma ID: {}, WC-ID: {})", 
+                        existingById.getTitle(), existingById.getId(), wooProduct.getId());
                     continue;
                 }
 
                 // Check duplicate by SKU (SECONDARY - only if no externalId match)
                 if (wooProduct.getSku() != null && !wooProduct.getSku().isEmpty()) {
-                    var existingBySku = productRepository.findByStoreIdAndSku(
-                        store.getId(),
-                        wooProduct.getSku()
-                    );
+                    Product existingProduct = bySku.get(wooProduct.getSku());
 
-                    if (existingBySku.isPresent()) {
-                        Product existingProduct = existingBySku.get();
-                        
+                    if (existingProduct != null) {
                         // Check if this is a WooCommerce product with a DIFFERENT externalId
                         if (EXTERNAL_SOURCE.equals(existingProduct.getExternalSource()) && 
                             existingProduct.getExternalId() != null &&
-                            !wooProduct.getId().toString().equals(existingProduct.getExternalId())) {
+                            !externalId.equals(existingProduct.getExternalId())) {
                             // CONFLICT: Different WooCommerce product with same SKU - SKIP
                             result.skipped++;
                             log.warn("⚠️ SKU conflict: Product '{}' (WC-ID: {}, SKU: {}) has same SKU as existing WooCommerce product (markt.ma ID: {}, WC-ID: {})",
                                 wooProduct.getName(), wooProduct.getId(), wooProduct.getSku(), 
                                 existingProduct.getId(), existingProduct.getExternalId());
-                            result.warnings.add(String.format(
+                            result.addWarning(String.format(
                                 "SKU conflict: Product '%s' skipped (SKU '%s' already used by different WooCommerce product)",
                                 wooProduct.getName(), wooProduct.getSku()
                             ));
@@ -324,15 +742,13 @@ public class WooCommerceImportService {
                             
                             // Link to WooCommerce
                             existingProduct.setExternalSource(EXTERNAL_SOURCE);
-                            existingProduct.setExternalId(wooProduct.getId().toString());
+                            existingProduct.setExternalId(externalId);
+                            byExternalId.put(externalId, existingProduct);
                             
                             // Update product data
-                            updateProductFromWooCommerce(existingProduct, wooProduct, categoryMap, importImages, store, jobId);
-                            productRepository.save(existingProduct);
+                            updateProductFromWooCommerce(existingProduct, wooProduct, categoryMap, importImages, pendingImages);
+                            toSave.add(existingProduct);
                             result.updated++;
-                            
-                            log.info("✅ Product linked and updated: '{}' (markt.ma ID: {}, WC-ID: {})", 
-                                existingProduct.getTitle(), existingProduct.getId(), wooProduct.getId());
                             continue;
                         }
                         
@@ -341,7 +757,7 @@ public class WooCommerceImportService {
                         log.warn("⚠️ SKU conflict: Product '{}' (WC-ID: {}, SKU: {}) has same SKU as existing product from source '{}' (markt.ma ID: {})",
                             wooProduct.getName(), wooProduct.getId(), wooProduct.getSku(), 
                             existingProduct.getExternalSource(), existingProduct.getId());
-                        result.warnings.add(String.format(
+                        result.addWarning(String.format(
                             "SKU conflict: Product '%s' skipped (SKU '%s' already used by product from '%s')",
                             wooProduct.getName(), wooProduct.getSku(), existingProduct.getExternalSource()
                         ));
@@ -352,25 +768,18 @@ public class WooCommerceImportService {
                 // NEW PRODUCT - Import
                 Product product = createProductFromWooCommerce(wooProduct, store, categoryMap);
                 
-                // Import image (optional) - only for NEW products
+                // Import image (optional) - only for NEW products, Upload nach dem Commit
                 if (importImages && wooProduct.getImages() != null && !wooProduct.getImages().isEmpty()) {
-                    String imageUrl = wooProduct.getImages().get(0).getSrc();
-                    boolean imageImported = imageService.importProductImage(product, imageUrl, store, jobId);
-                    
-                    if (!imageImported) {
-                        result.warnings.add(String.format(
-                            "Image import failed for product '%s'",
-                            product.getTitle()
-                        ));
-                    }
+                    pendingImages.add(new PendingImage(product, wooProduct.getImages().get(0).getSrc(), true));
                 }
 
-                // Save product
-                product = productRepository.save(product);
+                // Später im Chunk: Dubletten (gleiche ID/SKU) wie bereits gespeicherte Produkte behandeln
+                byExternalId.put(externalId, product);
+                if (product.getSku() != null && !product.getSku().isEmpty()) {
+                    bySku.putIfAbsent(product.getSku(), product);
+                }
+                toSave.add(product);
                 result.imported++;
-                
-                log.info("✅ Product imported: {} (markt.ma ID: {}, WC-ID: {})", 
-                    product.getTitle(), product.getId(), wooProduct.getId());
 
             } catch (Exception e) {
                 result.failed++;
@@ -382,9 +791,49 @@ public class WooCommerceImportService {
             }
         }
 
+        productRepository.saveAll(toSave);
+        toSave.forEach(product -> catalogCache.evictProduct(product.getId()));
+        catalogCache.evictStoreListings(store.getId());
+        log.info("✅ Chunk saved: {} imported, {} updated, {} skipped, {} failed",
+            result.imported, result.updated, result.skipped, result.failed);
+
         return result;
     }
 
+    /**
+     * Schreibt Zähler, Durchsatz und ETA direkt per UPDATE (ohne den Job neu zu laden).
+     */
+    private void recordProgress(WooCommerceImportJob job, ImportResult result, long startedNanos) {
+        int processed = result.imported + result.updated + result.skipped + result.failed;
+        double elapsedSeconds = Math.max((System.nanoTime() - startedNanos) / 1_000_000_000.0, 0.001);
+        double throughput = processed / elapsedSeconds;
+        int remaining = Math.max(job.getTotalProducts() - processed, 0);
+
+        job.setImportedProducts(result.imported);
+        job.setUpdatedProducts(result.updated);
+        job.setSkippedProducts(result.skipped);
+        job.setFailedProducts(result.failed);
+        job.setThroughputPerSecond(Math.round(throughput * 100) / 100.0);
+        job.setEtaSeconds(throughput > 0 ? (long) Math.ceil(remaining / throughput) : null);
+
+        try {
+            jdbcTemplate.update(UPDATE_PROGRESS_SQL,
+                job.getTotalProducts(), result.imported, result.updated, result.skipped, result.failed,
+                truncate(job.getCurrentProductName(), 500), job.getThroughputPerSecond(), job.getEtaSeconds(),
+                job.getId());
+        } catch (Exception e) {
+            // Fortschrittsanzeige darf Import nicht crashen
+            log.warn("⚠️ Failed to update import progress for job {}: {}", job.getId(), e.getMessage());
+        }
+
+        log.info("📊 Import job {}: {}/{} products ({} /s, ETA {}s)",
+            job.getId(), processed, job.getTotalProducts(), job.getThroughputPerSecond(), job.getEtaSeconds());
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
     /**
      * Create Product entity from WooCommerce DTO.
      */
@@ -456,8 +905,7 @@ public class WooCommerceImportService {
             WooProductDto wooProduct,
             Map<Long, Category> categoryMap,
             boolean importImages,
-            Store store,
-            Long jobId
+            List<PendingImage> pendingImages
     ) {
         // Title (always update if not empty)
         if (wooProduct.getName() != null && !wooProduct.getName().isBlank()) {
@@ -509,12 +957,7 @@ public class WooCommerceImportService {
         // TODO: Implement smart image comparison (URL hash or Media deduplication)
         if (importImages && product.getImageUrl() == null && 
             wooProduct.getImages() != null && !wooProduct.getImages().isEmpty()) {
-            String imageUrl = wooProduct.getImages().get(0).getSrc();
-            boolean imageImported = imageService.importProductImage(product, imageUrl, store, jobId);
-            
-            if (!imageImported) {
-                log.debug("⚠️ Image import failed during update for product '{}'", product.getTitle());
-            }
+            pendingImages.add(new PendingImage(product, wooProduct.getImages().get(0).getSrc(), false));
         }
     }
 
@@ -590,44 +1033,6 @@ public class WooCommerceImportService {
         return slug;
     }
 
-    /**
-     * Fetch ALL products from WooCommerce (paginated).
-     * Continues fetching until no more products are returned.
-     */
-    private List<WooProductDto> fetchProductsToImport(
-            WooCommerceConfig config,
-            WooCommerceImportRequest request
-    ) {
-        List<WooProductDto> allProducts = new ArrayList<>();
-        int page = 1;
-        int perPage = 100; // Max per request
-        
-        log.info("🔄 Starting paginated product fetch from WooCommerce...");
-        
-        while (true) {
-            List<WooProductDto> pageProducts = apiClient.getProducts(config, page, perPage);
-            
-            if (pageProducts.isEmpty()) {
-                log.info("✅ No more products on page {}. Fetch complete.", page);
-                break;
-            }
-            
-            allProducts.addAll(pageProducts);
-            log.info("📦 Fetched page {}: {} products (total so far: {})", page, pageProducts.size(), allProducts.size());
-            
-            // Stop if page returned less than perPage (last page)
-            if (pageProducts.size() < perPage) {
-                log.info("✅ Last page reached (page {} returned {} products)", page, pageProducts.size());
-                break;
-            }
-            
-            page++;
-        }
-        
-        log.info("✅ Total products fetched from WooCommerce: {}", allProducts.size());
-        return allProducts;
-    }
-
     // ─────────────────────────────────────────────────────────────────────────
     // Logging
     // ─────────────────────────────────────────────────────────────────────────
@@ -652,33 +1057,34 @@ public class WooCommerceImportService {
         saveLog(jobId, "ERROR", message, null);
     }
 
+    /**
+     * Log-Zeile puffern; laufende Jobs schreiben gesammelt per {@link #flushLogs} (Batch-Insert).
+     */
     private void saveLog(Long jobId, String level, String message, String productName) {
+        LogBuffer buffer = jobId != null ? logBuffers.get(jobId) : null;
+        if (buffer == null) {
+            log.warn("⚠️ ImportLog not saved: no running job (jobId={})", jobId);
+            return;
+        }
+        buffer.add(new Object[] {
+            buffer.storeId, jobId, null, productName, level, message, Timestamp.valueOf(LocalDateTime.now())
+        });
+    }
+
+    private void flushLogs(Long jobId) {
+        LogBuffer buffer = logBuffers.get(jobId);
+        if (buffer == null) {
+            return;
+        }
+        List<Object[]> rows = buffer.drain();
+        if (rows.isEmpty()) {
+            return;
+        }
         try {
-            // Fetch store from job if needed (for MVP: minimal fix)
-            WooCommerceImportLog logEntry = new WooCommerceImportLog();
-            
-            // Try to get store from job
-            if (jobId != null) {
-                importJobRepository.findById(jobId).ifPresent(job -> {
-                    logEntry.setStore(job.getStore());  // ✅ FIX Bug #2
-                });
-            }
-            
-            logEntry.setStatus(level); // SUCCESS, WARNING, ERROR
-            logEntry.setErrorMessage(message);
-            logEntry.setProductName(productName);
-            logEntry.setWoocommerceProductId(null); // null für Logs ohne Produktbezug
-            
-            // Only save if store is set (to avoid constraint violation)
-            if (logEntry.getStore() != null) {
-                importLogRepository.save(logEntry);
-            } else {
-                log.warn("⚠️ ImportLog not saved: store is null (jobId={})", jobId);
-            }
+            jdbcTemplate.batchUpdate(INSERT_LOG_SQL, rows);
         } catch (Exception e) {
             // Log-Fehler dürfen Import nicht crashen
-            log.error("⚠️ Failed to save ImportLog: {} (level={}, message={})", 
-                e.getMessage(), level, message);
+            log.error("⚠️ Failed to save {} ImportLogs for job {}: {}", rows.size(), jobId, e.getMessage());
         }
     }
 
@@ -692,6 +1098,43 @@ public class WooCommerceImportService {
         int skipped = 0;
         int failed = 0;
         List<String> warnings = new ArrayList<>();
+        int suppressedWarnings = 0;
+
+        void addWarning(String warning) {
+            if (warnings.size() < MAX_WARNINGS) {
+                warnings.add(warning);
+            } else {
+                suppressedWarnings++;
+            }
+        }
+
+        void add(ImportResult other) {
+            imported += other.imported;
+            updated += other.updated;
+            skipped += other.skipped;
+            failed += other.failed;
+            other.warnings.forEach(this::addWarning);
+            suppressedWarnings += other.suppressedWarnings;
+        }
+    }
+
+    private static class LogBuffer {
+        final Long storeId;
+        private final List<Object[]> rows = new ArrayList<>();
+
+        LogBuffer(Long storeId) {
+            this.storeId = storeId;
+        }
+
+        synchronized void add(Object[] row) {
+            rows.add(row);
+        }
+
+        synchronized List<Object[]> drain() {
+            List<Object[]> drained = new ArrayList<>(rows);
+            rows.clear();
+            return drained;
+        }
     }
     
     private static class CustomerImportResult {
@@ -797,90 +1240,16 @@ public class WooCommerceImportService {
             
             for (storebackend.dto.woocommerce.api.WooCustomerDto wooCustomer : wooCustomers) {
                 try {
-                    // Skip if no email
-                    if (wooCustomer.getEmail() == null || wooCustomer.getEmail().trim().isEmpty()) {
-                        result.skipped++;
-                        log.warn("Skipping customer {}: no email", wooCustomer.getId());
-                        continue;
-                    }
-                    
-                    String email = wooCustomer.getEmail().trim().toLowerCase();
-                    
-                    // Check if CustomerProfile already exists for this store + externalId
-                    Optional<CustomerProfile> existingProfile = 
-                        customerProfileRepository.findByStoreIdAndExternalSourceAndExternalId(
-                            store.getId(), EXTERNAL_SOURCE, wooCustomer.getId().toString()
-                        );
-                    
-                    if (existingProfile.isPresent()) {
-                        result.skipped++;
-                        log.info("Skipping customer {}: already imported to store {}", 
-                            wooCustomer.getId(), store.getId());
-                        continue;
-                    }
-                    
-                    // Find or create User
-                    User user = userRepository.findByEmail(email)
-                        .orElseGet(() -> createUser(wooCustomer, email));
-                    
-                    boolean userCreated = user.getId() != null && 
-                        userRepository.findByEmail(email).isEmpty();
-                    
-                    if (userCreated) {
-                        user = userRepository.save(user);
-                    }
-                    
-                    // Check if CustomerProfile already exists for this user + store
-                    Optional<CustomerProfile> existingStoreProfile = 
-                        customerProfileRepository.findByUserIdAndStoreId(user.getId(), store.getId());
-                    
-                    if (existingStoreProfile.isPresent()) {
-                        result.skipped++;
-                        log.info("Skipping customer {}: user {} already linked to store {}", 
-                            wooCustomer.getId(), email, store.getId());
-                        continue;
-                    }
-                    
-                    // Create CustomerProfile (store-specific)
-                    CustomerProfile profile = new CustomerProfile();
-                    profile.setUser(user);
-                    profile.setStore(store);
-                    profile.setExternalSource(EXTERNAL_SOURCE);
-                    profile.setExternalId(wooCustomer.getId().toString());
-                    profile.setFirstName(wooCustomer.getFirstName());
-                    profile.setLastName(wooCustomer.getLastName());
-                    profile.setPhone(wooCustomer.getBilling() != null ? wooCustomer.getBilling().getPhone() : null);
-                    
-                    // Import billing address
-                    if (wooCustomer.getBilling() != null) {
-                        profile.setDefaultBillingAddress(buildBillingAddress(wooCustomer.getBilling()));
-                    }
-                    
-                    // Import shipping address
-                    if (wooCustomer.getShipping() != null) {
-                        profile.setDefaultShippingAddress(buildShippingAddress(wooCustomer.getShipping()));
-                    }
-                    
-                    customerProfileRepository.save(profile);
-                    
-                    if (userCreated) {
-                        result.created++;
-                        
-                        // Add to imported customers list (for activation UI)
-                        result.importedCustomers.add(new storebackend.dto.woocommerce.ImportedCustomerDto(
-                            user.getId(),
-                            user.getEmail(),
-                            user.getName(),
-                            user.getEmailVerified(),
-                            user.getActivationEmailSentAt()
-                        ));
-                        
-                        log.info("✅ Created user + profile: {} ({}) for store {}", 
-                            email, wooCustomer.getId(), store.getId());
-                    } else {
-                        result.linked++;
-                        log.info("✅ Linked existing user {} to store {} (WooCustomer: {})", 
-                            email, store.getId(), wooCustomer.getId());
+                    // Eigene Transaktion pro Kunde: User + Profil entstehen gemeinsam oder gar nicht
+                    CustomerOutcome outcome = transactionTemplate.execute(status -> importCustomer(wooCustomer, store));
+                    switch (outcome.type()) {
+                        case CREATED -> {
+                            result.created++;
+                            // Add to imported customers list (for activation UI)
+                            result.importedCustomers.add(outcome.importedCustomer());
+                        }
+                        case LINKED -> result.linked++;
+                        case SKIPPED -> result.skipped++;
                     }
                     
                 } catch (Exception e) {
@@ -902,6 +1271,102 @@ public class WooCommerceImportService {
         return result;
     }
     
+    private enum CustomerOutcomeType { CREATED, LINKED, SKIPPED }
+
+    /** Ergebnis eines einzelnen Kunden; Zähler werden erst nach dem Commit übernommen */
+    private record CustomerOutcome(
+            CustomerOutcomeType type,
+            storebackend.dto.woocommerce.ImportedCustomerDto importedCustomer
+    ) {
+        static CustomerOutcome skipped() {
+            return new CustomerOutcome(CustomerOutcomeType.SKIPPED, null);
+        }
+    }
+
+    /**
+     * Importiert einen Kunden (User finden/anlegen + Store-Profil). Läuft in der Transaktion des Aufrufers.
+     */
+    private CustomerOutcome importCustomer(storebackend.dto.woocommerce.api.WooCustomerDto wooCustomer, Store store) {
+        // Skip if no email
+        if (wooCustomer.getEmail() == null || wooCustomer.getEmail().trim().isEmpty()) {
+            log.warn("Skipping customer {}: no email", wooCustomer.getId());
+            return CustomerOutcome.skipped();
+        }
+        
+        String email = wooCustomer.getEmail().trim().toLowerCase();
+        
+        // Check if CustomerProfile already exists for this store + externalId
+        Optional<CustomerProfile> existingProfile = 
+            customerProfileRepository.findByStoreIdAndExternalSourceAndExternalId(
+                store.getId(), EXTERNAL_SOURCE, wooCustomer.getId().toString()
+            );
+        
+        if (existingProfile.isPresent()) {
+            log.info("Skipping customer {}: already imported to store {}", 
+                wooCustomer.getId(), store.getId());
+            return CustomerOutcome.skipped();
+        }
+        
+        // Find or create User
+        User user = userRepository.findByEmail(email)
+            .orElseGet(() -> createUser(wooCustomer, email));
+        
+        boolean userCreated = user.getId() != null && 
+            userRepository.findByEmail(email).isEmpty();
+        
+        if (userCreated) {
+            user = userRepository.save(user);
+        }
+        
+        // Check if CustomerProfile already exists for this user + store
+        Optional<CustomerProfile> existingStoreProfile = 
+            customerProfileRepository.findByUserIdAndStoreId(user.getId(), store.getId());
+        
+        if (existingStoreProfile.isPresent()) {
+            log.info("Skipping customer {}: user {} already linked to store {}", 
+                wooCustomer.getId(), email, store.getId());
+            return CustomerOutcome.skipped();
+        }
+        
+        // Create CustomerProfile (store-specific)
+        CustomerProfile profile = new CustomerProfile();
+        profile.setUser(user);
+        profile.setStore(store);
+        profile.setExternalSource(EXTERNAL_SOURCE);
+        profile.setExternalId(wooCustomer.getId().toString());
+        profile.setFirstName(wooCustomer.getFirstName());
+        profile.setLastName(wooCustomer.getLastName());
+        profile.setPhone(wooCustomer.getBilling() != null ? wooCustomer.getBilling().getPhone() : null);
+        
+        // Import billing address
+        if (wooCustomer.getBilling() != null) {
+            profile.setDefaultBillingAddress(buildBillingAddress(wooCustomer.getBilling()));
+        }
+        
+        // Import shipping address
+        if (wooCustomer.getShipping() != null) {
+            profile.setDefaultShippingAddress(buildShippingAddress(wooCustomer.getShipping()));
+        }
+        
+        customerProfileRepository.save(profile);
+        
+        if (userCreated) {
+            log.info("✅ Created user + profile: {} ({}) for store {}", 
+                email, wooCustomer.getId(), store.getId());
+            return new CustomerOutcome(CustomerOutcomeType.CREATED,
+                new storebackend.dto.woocommerce.ImportedCustomerDto(
+                    user.getId(),
+                    user.getEmail(),
+                    user.getName(),
+                    user.getEmailVerified(),
+                    user.getActivationEmailSentAt()
+                ));
+        }
+        log.info("✅ Linked existing user {} to store {} (WooCustomer: {})", 
+            email, store.getId(), wooCustomer.getId());
+        return new CustomerOutcome(CustomerOutcomeType.LINKED, null);
+    }
+    
     /**
      * Create new User from WooCommerce customer.
      * SECURITY: Password is properly encoded, not stored in plain text.
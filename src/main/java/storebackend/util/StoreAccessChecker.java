@@ -9,8 +9,8 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import storebackend.entity.Store;
 import storebackend.entity.User;
-import storebackend.repository.StoreRepository;
 import storebackend.repository.UserRepository;
+import storebackend.security.UserPrincipalCache;
 
 import java.util.Objects;
 
@@ -22,8 +22,8 @@ import java.util.Objects;
 @Slf4j
 public class StoreAccessChecker {
 
-    private final StoreRepository storeRepository;
     private final UserRepository userRepository;
+    private final UserPrincipalCache principalCache;
 
     /**
      * Prüft, ob der aktuell eingeloggte User Admin-Rechte für einen Store hat
@@ -79,33 +79,16 @@ public class StoreAccessChecker {
                 return false;
             }
 
-            // 3. Store laden (MIT Owner wegen Lazy Loading!)
-            Store store = storeRepository.findByIdWithOwner(storeId).orElse(null);
-            
-            if (store == null || store.getOwner() == null) {
-                log.warn("[ACCESS-DENIED] Store not found or has no owner: storeId={}, userId={}", 
-                    storeId, currentUser.getId());
-                return false;
-            }
-
-            // 4. Owner-Check (direkter Vergleich der IDs)
+            // 3. Owner-Check über die (gecachte) Menge eigener Store-IDs – kein Store-Lookup pro Request
             Long userId = currentUser.getId();
-            Long ownerId = store.getOwner().getId();
-            boolean isOwner = Objects.equals(userId, ownerId);
-            
-            // 5. SECURITY: Nur IDs und notwendige Infos loggen - NIE den Principal oder User-Objekt!
-            log.info("[ACCESS-CHECK] storeId={}, currentUserId={}, ownerId={}, result={}",
-                storeId,
-                userId,
-                ownerId,
-                isOwner);
-            
-            if (isOwner) {
-                log.info("[ACCESS-GRANTED] ✅ User is owner: userId={}, storeId={}, storeName='{}'", 
-                    userId, storeId, store.getName());
-            } else {
-                log.warn("[ACCESS-DENIED] ❌ User is NOT owner: userId={}, ownerId={}, storeId={}",
-                    userId, ownerId, storeId);
+            boolean isOwner = storeId != null && principalCache.ownedStoreIds(userId).contains(storeId);
+
+            // 4. SECURITY: Nur IDs loggen - NIE den Principal oder User-Objekt!
+            log.debug("[ACCESS-CHECK] storeId={}, currentUserId={}, result={}", storeId, userId, isOwner);
+
+            if (!isOwner) {
+                log.warn("[ACCESS-DENIED] ❌ User is NOT owner (or store not found): userId={}, storeId={}",
+                    userId, storeId);
             }
             
             return isOwner;
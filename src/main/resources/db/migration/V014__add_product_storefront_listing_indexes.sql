@@ -0,0 +1,11 @@
+-- V014: Composite indexes for storefront listing widgets (top / trending / new arrivals)
+--
+-- ProductRepository loads these lists with a real LIMIT (Pageable). With the
+-- (store_id, <sort column>) indexes PostgreSQL can walk the index backwards and
+-- stop after LIMIT rows instead of sorting the whole store catalog.
+
+CREATE INDEX IF NOT EXISTS idx_products_store_sales_count ON products(store_id, sales_count);
+
+CREATE INDEX IF NOT EXISTS idx_products_store_view_count ON products(store_id, view_count);
+
+CREATE INDEX IF NOT EXISTS idx_products_store_created_at ON products(store_id, created_at);
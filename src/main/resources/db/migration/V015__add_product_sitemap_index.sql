@@ -0,0 +1,7 @@
+-- V015: Composite index for paginated product sitemaps
+--
+-- SitemapService splits a store's active products into pages by id (keyset) and
+-- streams only (id, updated_at). (store_id, id) lets PostgreSQL find the page
+-- boundaries and walk each page in id order without sorting the catalog.
+
+CREATE INDEX IF NOT EXISTS idx_products_store_sitemap ON products(store_id, id);
@@ -0,0 +1,47 @@
+-- V016: Daily sales rollups for the store analytics dashboard
+--
+-- StoreAnalyticsService answers revenue, order stats and top products from
+-- these per-store, per-day aggregates instead of scanning orders/order_items
+-- over ranges of up to two years. Rows are rebuilt from orders by
+-- SalesRollupService (dirty days after status changes + nightly reconciliation).
+-- sales_rollup_coverage records which days of a store are complete; everything
+-- after covered_through (at least "today") is still queried live.
+
+CREATE TABLE IF NOT EXISTS sales_daily_rollups (
+    id BIGSERIAL PRIMARY KEY,
+    store_id BIGINT NOT NULL,
+    sales_date DATE NOT NULL,
+    revenue NUMERIC(15,2) NOT NULL DEFAULT 0,
+    paid_order_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uq_sales_daily_rollups_store_date UNIQUE (store_id, sales_date)
+);
+
+CREATE TABLE IF NOT EXISTS sales_daily_breakdowns (
+    id BIGSERIAL PRIMARY KEY,
+    store_id BIGINT NOT NULL,
+    sales_date DATE NOT NULL,
+    dimension VARCHAR(20) NOT NULL,
+    dimension_value VARCHAR(30) NOT NULL,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uq_sales_daily_breakdowns UNIQUE (store_id, sales_date, dimension, dimension_value)
+);
+
+CREATE TABLE IF NOT EXISTS sales_daily_product_rollups (
+    id BIGSERIAL PRIMARY KEY,
+    store_id BIGINT NOT NULL,
+    sales_date DATE NOT NULL,
+    product_id BIGINT NOT NULL,
+    quantity BIGINT NOT NULL DEFAULT 0,
+    revenue NUMERIC(15,2) NOT NULL DEFAULT 0,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uq_sales_daily_product_rollups UNIQUE (store_id, sales_date, product_id)
+);
+
+CREATE TABLE IF NOT EXISTS sales_rollup_coverage (
+    id BIGSERIAL PRIMARY KEY,
+    store_id BIGINT NOT NULL UNIQUE,
+    covered_from DATE NOT NULL,
+    covered_through DATE NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,13 @@
+-- V017: Shared rate limit windows (rate-limit.store=postgres)
+--
+-- PostgresBucketStore keeps one row per bucket/counter key so that all backend
+-- replicas enforce the same limits and login lockouts. Each consume is a single
+-- INSERT ... ON CONFLICT DO UPDATE; expired rows are removed periodically.
+
+CREATE TABLE IF NOT EXISTS rate_limit_buckets (
+    bucket_key VARCHAR(320) PRIMARY KEY,
+    consumed BIGINT NOT NULL,
+    window_end TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_rate_limit_buckets_window_end ON rate_limit_buckets(window_end);
@@ -0,0 +1,13 @@
+-- V018: Block-allocated order numbers per store and year
+--
+-- OrderNumberAllocator reserves ranges (hi/lo) from this table in a short
+-- separate transaction and hands out numbers from memory, replacing the
+-- "ORD-" + currentTimeMillis() numbers that collided under concurrent checkouts.
+
+CREATE TABLE IF NOT EXISTS order_number_blocks (
+    id BIGSERIAL PRIMARY KEY,
+    store_id BIGINT NOT NULL,
+    order_year INTEGER NOT NULL,
+    next_value BIGINT NOT NULL,
+    CONSTRAINT uq_order_number_blocks_store_year UNIQUE (store_id, order_year)
+);
@@ -0,0 +1,26 @@
+-- V019: Content-addressed OCR cache for supplier invoices
+--
+-- Keyed by SHA-256 of the file bytes, parser version and Tesseract PSM mode.
+-- Stores the raw OCR text per page so that the same PDF (re-sent by a supplier
+-- or uploaded by several stores) is parsed without running Tesseract again.
+-- InvoiceOcrCacheService evicts least recently used rows once the total
+-- text_bytes exceed invoice.ocr-cache.max-size-mb.
+
+CREATE TABLE IF NOT EXISTS invoice_ocr_cache (
+    id BIGSERIAL PRIMARY KEY,
+    content_hash VARCHAR(64) NOT NULL,
+    parser_version VARCHAR(20) NOT NULL,
+    psm_mode INTEGER NOT NULL,
+    page_texts_json TEXT NOT NULL,
+    text_bytes BIGINT NOT NULL,
+    page_count INTEGER NOT NULL,
+    ocr_engine VARCHAR(50),
+    ocr_languages VARCHAR(200),
+    ocr_duration_ms BIGINT,
+    hit_count BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL,
+    last_used_at TIMESTAMP NOT NULL,
+    CONSTRAINT uq_invoice_ocr_cache_key UNIQUE (content_hash, parser_version, psm_mode)
+);
+
+CREATE INDEX IF NOT EXISTS idx_invoice_ocr_cache_last_used ON invoice_ocr_cache(last_used_at);
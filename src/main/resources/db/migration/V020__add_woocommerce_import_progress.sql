@@ -0,0 +1,7 @@
+-- V020: Throughput and ETA for WooCommerce import jobs
+--
+-- The streaming import commits products in chunks and updates these columns
+-- after every chunk so that the job status can be polled while it runs.
+
+ALTER TABLE woocommerce_import_jobs ADD COLUMN IF NOT EXISTS throughput_per_second DOUBLE PRECISION;
+ALTER TABLE woocommerce_import_jobs ADD COLUMN IF NOT EXISTS eta_seconds BIGINT;
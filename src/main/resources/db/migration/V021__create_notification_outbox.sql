@@ -0,0 +1,26 @@
+-- V021: Transactional outbox for order and subscription notifications
+--
+-- Rows are inserted in the same transaction as the order/subscription change
+-- and delivered by NotificationOutboxDispatcher. Workers claim rows with
+-- FOR UPDATE SKIP LOCKED, so several nodes can drain the table concurrently.
+-- PROCESSING rows whose lease (locked_at) expired are picked up again.
+
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    channel VARCHAR(20) NOT NULL,
+    aggregate_type VARCHAR(30) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    message_type VARCHAR(60) NOT NULL,
+    payload TEXT,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    locked_at TIMESTAMP,
+    locked_by VARCHAR(100),
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL,
+    sent_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_notification_outbox_poll ON notification_outbox(status, channel, next_attempt_at);
+CREATE INDEX IF NOT EXISTS idx_notification_outbox_aggregate ON notification_outbox(aggregate_type, aggregate_id);
@@ -0,0 +1,36 @@
+-- V022: Per-product review statistics aggregate
+--
+-- Holds count, rating sum and histogram of APPROVED reviews per product so the
+-- product page and listing pages no longer run seven COUNT/AVG queries per product.
+-- Maintained incrementally by ProductReviewStatsService (create/approve/delete/vote)
+-- and reconciled nightly against product_reviews.
+
+CREATE TABLE IF NOT EXISTS product_review_stats (
+    product_id BIGINT PRIMARY KEY REFERENCES products(id) ON DELETE CASCADE,
+    review_count INTEGER NOT NULL DEFAULT 0,
+    rating_sum BIGINT NOT NULL DEFAULT 0,
+    rating_1_count INTEGER NOT NULL DEFAULT 0,
+    rating_2_count INTEGER NOT NULL DEFAULT 0,
+    rating_3_count INTEGER NOT NULL DEFAULT 0,
+    rating_4_count INTEGER NOT NULL DEFAULT 0,
+    rating_5_count INTEGER NOT NULL DEFAULT 0,
+    helpful_count BIGINT NOT NULL DEFAULT 0,
+    not_helpful_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL
+);
+
+-- Backfill from existing approved reviews
+INSERT INTO product_review_stats (product_id, review_count, rating_sum,
+    rating_1_count, rating_2_count, rating_3_count, rating_4_count, rating_5_count,
+    helpful_count, not_helpful_count, updated_at)
+SELECT r.product_id, COUNT(*), SUM(r.rating),
+    SUM(CASE WHEN r.rating = 1 THEN 1 ELSE 0 END),
+    SUM(CASE WHEN r.rating = 2 THEN 1 ELSE 0 END),
+    SUM(CASE WHEN r.rating = 3 THEN 1 ELSE 0 END),
+    SUM(CASE WHEN r.rating = 4 THEN 1 ELSE 0 END),
+    SUM(CASE WHEN r.rating = 5 THEN 1 ELSE 0 END),
+    COALESCE(SUM(r.helpful_count), 0), COALESCE(SUM(r.not_helpful_count), 0), NOW()
+FROM product_reviews r
+WHERE r.is_approved = TRUE
+GROUP BY r.product_id
+ON CONFLICT (product_id) DO NOTHING;
@@ -0,0 +1,12 @@
+-- V023: Per-store storefront content version
+--
+-- Bumped in the same transaction as every admin change to store settings, theme,
+-- slider, homepage sections, banner and products. The storefront bootstrap
+-- endpoint keys its in-memory payload cache (and thereby its ETag) on this
+-- version, so repeat visits are answered with 304 without touching the DB.
+
+CREATE TABLE IF NOT EXISTS storefront_versions (
+    store_id BIGINT PRIMARY KEY REFERENCES stores(id) ON DELETE CASCADE,
+    version BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL
+);
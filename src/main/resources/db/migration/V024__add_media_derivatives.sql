@@ -0,0 +1,16 @@
+-- V024: Responsive image derivatives for media
+--
+-- MediaDerivativeService renders downscaled JPEG (and WebP, if available) copies of
+-- product, slider and banner images next to the original object in MinIO:
+--   stores/1/product_image/<uuid>.png -> stores/1/product_image/<uuid>_w480.jpg
+-- The columns record which widths/formats exist so the storefront can build a srcset.
+-- Rows with derivatives_processed_at IS NULL are picked up by the nightly backfill.
+
+ALTER TABLE media ADD COLUMN IF NOT EXISTS image_width INTEGER;
+ALTER TABLE media ADD COLUMN IF NOT EXISTS image_height INTEGER;
+ALTER TABLE media ADD COLUMN IF NOT EXISTS derivative_widths VARCHAR(64);
+ALTER TABLE media ADD COLUMN IF NOT EXISTS derivative_formats VARCHAR(32);
+ALTER TABLE media ADD COLUMN IF NOT EXISTS derivatives_processed_at TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_media_derivatives_pending
+    ON media (id) WHERE derivatives_processed_at IS NULL;
@@ -0,0 +1,13 @@
+-- V025: Attempt counter for media derivatives
+--
+-- Storage failures used to leave derivatives_processed_at NULL forever; the backfill
+-- (ORDER BY id LIMIT ?) then picked the same broken rows on every run and newer
+-- uploads never got their srcset. MediaDerivativeService now counts failed attempts,
+-- picks rows with fewer attempts first and marks a row done (without derivatives)
+-- after media.derivatives.max-attempts failures.
+
+ALTER TABLE media ADD COLUMN IF NOT EXISTS derivative_attempts INTEGER NOT NULL DEFAULT 0;
+
+DROP INDEX IF EXISTS idx_media_derivatives_pending;
+CREATE INDEX IF NOT EXISTS idx_media_derivatives_pending
+    ON media (derivative_attempts, id) WHERE derivatives_processed_at IS NULL;
@@ -0,0 +1,69 @@
+package storebackend.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import storebackend.entity.Product;
+import storebackend.entity.Store;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latenz-Benchmark für Storefront-Listen (top/trending/new) bei wachsender Kataloggröße.
+ * Latenzen werden nur geloggt (kein Timing-Assert, Maschinen schwanken) – läuft daher
+ * nicht im normalen {@code mvn test}.
+ *
+ * Start:
+ *   mvn test -Dtest=ProductRepositoryListingBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ */
+@Slf4j
+@DataJpaTest
+class ProductRepositoryListingBenchmark {
+
+    private static final int LIMIT = 10;
+    private static final int ITERATIONS = 20;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void listingLatencyStaysFlatAsCatalogGrows() {
+        Store smallStore = ProductRepositoryListingTest.createStoreWithProducts(entityManager, 500);
+        Store largeStore = ProductRepositoryListingTest.createStoreWithProducts(entityManager, 5_000);
+        Pageable page = PageRequest.of(0, LIMIT);
+
+        for (Store store : List.of(smallStore, largeStore)) {
+            Long storeId = store.getId();
+            long topMicros = measure(() -> productRepository.findByStoreIdOrderBySalesCountDesc(storeId, page));
+            long trendingMicros = measure(() -> productRepository.findByStoreIdOrderByViewCountDesc(storeId, page));
+            long newMicros = measure(() -> productRepository.findByStoreIdOrderByCreatedAtDesc(storeId, page));
+
+            log.info("📊 Listing benchmark store={} products={}: top={}µs trending={}µs new={}µs (median)",
+                storeId, productRepository.countByStoreId(storeId), topMicros, trendingMicros, newMicros);
+        }
+    }
+
+    private long measure(Supplier<List<Product>> query) {
+        long[] samples = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            entityManager.clear();
+            long start = System.nanoTime();
+            List<Product> result = query.get();
+            samples[i] = (System.nanoTime() - start) / 1_000;
+            assertThat(result).hasSize(LIMIT);
+        }
+        Arrays.sort(samples);
+        return samples[ITERATIONS / 2];
+    }
+}
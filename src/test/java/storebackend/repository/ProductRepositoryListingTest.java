@@ -0,0 +1,92 @@
+package storebackend.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import storebackend.entity.Product;
+import storebackend.entity.Store;
+import storebackend.entity.User;
+import storebackend.enums.ProductStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Storefront-Listen (top/trending/new) mit LIMIT-Pushdown: pro Aufruf werden nur
+ * "limit" Produkte hydriert – vorher wurde der komplette Store-Katalog geladen.
+ * Latenzmessung bei wachsender Kataloggröße: {@link ProductRepositoryListingBenchmark}.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ProductRepositoryListingTest {
+
+    private static final int LIMIT = 10;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void listingsHydrateOnlyLimitRowsAndKeepOrder() {
+        Store store = createStoreWithProducts(entityManager, 1_000);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Product> top = productRepository.findByStoreIdOrderBySalesCountDesc(store.getId(), PageRequest.of(0, LIMIT));
+
+        assertThat(top).hasSize(LIMIT);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(LIMIT);
+        assertThat(top).extracting(Product::getSalesCount).isSortedAccordingTo((a, b) -> Long.compare(b, a));
+        assertThat(top.get(0).getSalesCount()).isEqualTo(999L);
+    }
+
+    /** Store mit {@code count} Produkten; salesCount aufsteigend, viewCount absteigend, createdAt aufsteigend */
+    static Store createStoreWithProducts(TestEntityManager entityManager, int count) {
+        User owner = new User();
+        owner.setEmail("listing-bench-" + System.nanoTime() + "@test.com");
+        owner.setPasswordHash("dummy");
+        owner.setCreatedAt(LocalDateTime.now());
+        owner.setUpdatedAt(LocalDateTime.now());
+        entityManager.persist(owner);
+
+        Store store = new Store();
+        store.setOwner(owner);
+        store.setName("Listing Store");
+        store.setSlug("listing-bench-" + System.nanoTime());
+        entityManager.persist(store);
+
+        LocalDateTime base = LocalDateTime.now().minusDays(count);
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setStore(store);
+            product.setTitle("Product " + i);
+            product.setBasePrice(new BigDecimal("9.99"));
+            product.setStatus(ProductStatus.ACTIVE);
+            product.setSalesCount((long) i);
+            product.setViewCount((long) (count - i));
+            product.setCreatedAt(base.plusMinutes(i));
+            product.setUpdatedAt(base.plusMinutes(i));
+            entityManager.persist(product);
+
+            if (i % 500 == 499) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return store;
+    }
+}
@@ -0,0 +1,133 @@
+package storebackend.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import storebackend.entity.User;
+import storebackend.enums.Role;
+import storebackend.repository.StoreRepository;
+import storebackend.repository.UserRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH-Benchmark: JWT-Filter-Overhead pro authentifiziertem Request.
+ *
+ * - legacy: bisheriger Ablauf (extractEmail + findByEmail + validateToken = 3× Parse/Verify,
+ *   Authorities pro Request neu aufgebaut)
+ * - singleParse: nur parseClaims (Untergrenze)
+ * - filter: kompletter JwtAuthenticationFilter mit UserPrincipalCache (Cache-Treffer)
+ *
+ * Das Repository ist ein In-Memory-Stub – die eingesparte DB-Abfrage pro Request
+ * ist in den Zahlen also NICHT enthalten.
+ *
+ * Start:
+ *   mvn test-compile
+ *   java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        storebackend.security.JwtAuthenticationFilterBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private JwtUtil jwtUtil;
+    private UserRepository userRepository;
+    private JwtAuthenticationFilter filter;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret",
+            "benchmarkSecretKeyForJWTTokenGenerationThatIsAtLeast256BitsLong");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 86_400_000L);
+        jwtUtil.init();
+
+        User user = new User();
+        user.setId(42L);
+        user.setEmail("admin@shop.test");
+        user.setRoles(Set.of(Role.USER, Role.ROLE_RESELLER));
+        user.setEmailVerified(true);
+
+        userRepository = repositoryStub(UserRepository.class, Optional.of(user));
+        StoreRepository storeRepository = repositoryStub(StoreRepository.class, List.of(121L));
+
+        UserPrincipalCache principalCache = new UserPrincipalCache(
+            userRepository, storeRepository, new SimpleMeterRegistry(), 10_000, 60);
+        filter = new JwtAuthenticationFilter(jwtUtil, principalCache, new ObjectMapper());
+        token = jwtUtil.generateToken(user.getEmail(), user.getId(), user.getRoles());
+    }
+
+    @Benchmark
+    public Object legacy() {
+        String email = jwtUtil.extractEmail(token);
+        User user = userRepository.findByEmail(email).orElseThrow();
+        if (!jwtUtil.validateToken(token, email)) {
+            return null;
+        }
+        return user.getRoles().stream()
+            .map(role -> role.name().startsWith("ROLE_") ? role.name() : "ROLE_" + role.name())
+            .map(SimpleGrantedAuthority::new)
+            .toList();
+    }
+
+    @Benchmark
+    public Object singleParse() {
+        return jwtUtil.parseClaims(token);
+    }
+
+    @Benchmark
+    public Object filter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/stores/121/orders");
+        request.addHeader("Authorization", "Bearer " + token);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    /**
+     * Minimaler Repository-Stub: jede Abfrage liefert {@code result}.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T repositoryStub(Class<T> type, Object result) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+            (proxy, method, args) -> method.getDeclaringClass() == Object.class ? null : result);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthenticationFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
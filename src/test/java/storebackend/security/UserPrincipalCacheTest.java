@@ -0,0 +1,112 @@
+package storebackend.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.GrantedAuthority;
+import storebackend.entity.User;
+import storebackend.enums.Role;
+import storebackend.repository.StoreRepository;
+import storebackend.repository.UserRepository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests für UserPrincipalCache - Principal-Snapshots je (userId, iat) und Owner-Store-IDs.
+ */
+@ExtendWith(MockitoExtension.class)
+class UserPrincipalCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private StoreRepository storeRepository;
+
+    private UserPrincipalCache principalCache;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        principalCache = new UserPrincipalCache(userRepository, storeRepository, new SimpleMeterRegistry(), 100, 60);
+
+        user = new User();
+        user.setId(7L);
+        user.setEmail("owner@test.com");
+        user.setRoles(Set.of(Role.USER, Role.ROLE_RESELLER));
+        user.setEmailVerified(true);
+    }
+
+    @Test
+    void principalIsLoadedOncePerTokenAndCopiedForCallers() {
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+        Claims claims = claims("owner@test.com", 7L, 1_000L);
+
+        UserPrincipalCache.CachedPrincipal first = principalCache.resolve(claims).orElseThrow();
+        UserPrincipalCache.CachedPrincipal second = principalCache.resolve(claims).orElseThrow();
+
+        verify(userRepository, times(1)).findById(7L);
+        assertSame(first, second);
+        assertTrue(first.emailVerified());
+        assertEquals(Set.of("ROLE_USER", "ROLE_RESELLER"),
+            Set.copyOf(first.authorities().stream().map(GrantedAuthority::getAuthority).toList()));
+
+        User requestCopy = UserPrincipalCache.copyOf(first.user());
+        requestCopy.getRoles().add(Role.ROLE_SUPPLIER);
+        assertFalse(first.user().getRoles().contains(Role.ROLE_SUPPLIER));
+    }
+
+    @Test
+    void evictUserReloadsAfterVerificationChange() {
+        User unverified = UserPrincipalCache.copyOf(user);
+        unverified.setEmailVerified(false);
+        when(userRepository.findById(7L)).thenReturn(Optional.of(unverified), Optional.of(user));
+        Claims claims = claims("owner@test.com", 7L, 1_000L);
+
+        assertFalse(principalCache.resolve(claims).orElseThrow().emailVerified());
+
+        principalCache.evictUser(7L);
+
+        assertTrue(principalCache.resolve(claims).orElseThrow().emailVerified());
+        verify(userRepository, times(2)).findById(7L);
+    }
+
+    @Test
+    void tokenForChangedEmailIsRejected() {
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+
+        assertTrue(principalCache.resolve(claims("old@test.com", 7L, 1_000L)).isEmpty());
+    }
+
+    @Test
+    void ownedStoreIdsAreCachedUntilEviction() {
+        when(storeRepository.findIdsByOwnerId(7L)).thenReturn(List.of(121L), List.of(121L, 122L));
+
+        assertEquals(Set.of(121L), principalCache.ownedStoreIds(7L));
+        assertEquals(Set.of(121L), principalCache.ownedStoreIds(7L));
+
+        principalCache.evictUser(7L);
+
+        assertEquals(Set.of(121L, 122L), principalCache.ownedStoreIds(7L));
+        verify(storeRepository, times(2)).findIdsByOwnerId(7L);
+    }
+
+    private static Claims claims(String email, Long userId, long issuedAtMillis) {
+        return Jwts.claims()
+            .subject(email)
+            .add("userId", userId)
+            .issuedAt(new Date(issuedAtMillis))
+            .build();
+    }
+}
@@ -0,0 +1,84 @@
+package storebackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import storebackend.entity.Cart;
+import storebackend.entity.CartItem;
+import storebackend.entity.User;
+import storebackend.repository.CartItemRepository;
+import storebackend.repository.CartRepository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests für die Abandoned-Cart-Erinnerungen: nur erfolgreich versendete Carts werden markiert.
+ */
+@ExtendWith(MockitoExtension.class)
+class CartCleanupServiceTest {
+
+    @Mock private CartRepository cartRepository;
+    @Mock private CartItemRepository cartItemRepository;
+    @Mock private EmailService emailService;
+
+    @InjectMocks
+    private CartCleanupService cartCleanupService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onlyDeliveredRemindersAreMarkedAsSent() {
+        Cart delivered = cart(1L, "ok@test.com");
+        Cart failed = cart(2L, "bounce@test.com");
+        when(cartRepository.findAbandonedCarts(any(), any())).thenReturn(List.of(delivered, failed));
+        when(emailService.isMailEnabled()).thenReturn(true);
+        when(emailService.sendAbandonedCartReminders(anyList())).thenReturn(List.of(true, false));
+
+        int sent = cartCleanupService.sendAbandonedCartReminders(24);
+
+        assertEquals(1, sent);
+        assertNotNull(delivered.getReminderSentAt());
+        assertNull(failed.getReminderSentAt());
+        ArgumentCaptor<List<Cart>> saved = ArgumentCaptor.forClass(List.class);
+        verify(cartRepository).saveAll(saved.capture());
+        assertEquals(List.of(delivered), saved.getValue());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void disabledMailClosesCandidatesWithoutSending() {
+        Cart cart = cart(1L, "ok@test.com");
+        when(cartRepository.findAbandonedCarts(any(), any())).thenReturn(List.of(cart));
+        when(emailService.isMailEnabled()).thenReturn(false);
+
+        int sent = cartCleanupService.sendAbandonedCartReminders(24);
+
+        assertEquals(0, sent);
+        assertNotNull(cart.getReminderSentAt());
+        verify(emailService, never()).sendAbandonedCartReminders(anyList());
+        ArgumentCaptor<List<Cart>> saved = ArgumentCaptor.forClass(List.class);
+        verify(cartRepository).saveAll(saved.capture());
+        assertEquals(List.of(cart), saved.getValue());
+    }
+
+    private Cart cart(Long id, String email) {
+        User user = new User();
+        user.setEmail(email);
+        Cart cart = new Cart();
+        cart.setId(id);
+        cart.setUser(user);
+
+        CartItem item = new CartItem();
+        item.setQuantity(1);
+        item.setPrice(new BigDecimal("9.99"));
+        when(cartItemRepository.findByCartId(id)).thenReturn(List.of(item));
+        return cart;
+    }
+}
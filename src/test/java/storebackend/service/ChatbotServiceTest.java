@@ -0,0 +1,26 @@
+package storebackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests für die Bestellnummer-Erkennung im Chatbot – gekoppelt an das Format des OrderNumberAllocator.
+ */
+class ChatbotServiceTest {
+
+    @Test
+    void recognisesAllocatedOrderNumbers() {
+        String orderNumber = OrderNumberAllocator.format("ORD", 6, 12L, 2026, 42);
+
+        assertEquals(orderNumber, ChatbotService.extractOrderNumber("wo ist meine bestellung " + orderNumber.toLowerCase() + "?"));
+        assertEquals("ORD-7-2026-1234567", ChatbotService.extractOrderNumber(
+            "Status " + OrderNumberAllocator.format("ORD", 6, 7L, 2026, 1_234_567)));
+    }
+
+    @Test
+    void recognisesLegacyOrderNumbers() {
+        assertEquals("ORD-2025-004711", ChatbotService.extractOrderNumber("Bestellung ORD-2025-004711 bitte"));
+        assertNull(ChatbotService.extractOrderNumber("Wo ist meine Bestellung?"));
+    }
+}
@@ -1,14 +1,17 @@
 package storebackend.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import storebackend.config.SaasProperties;
+import storebackend.dto.PublicStoreDTO;
 import storebackend.entity.Domain;
 import storebackend.entity.Plan;
 import storebackend.entity.Store;
@@ -40,6 +43,9 @@ class DomainServiceTest {
     @Mock
     private SaasProperties saasProperties;
 
+    @Spy
+    private StoreHostCache storeHostCache = new StoreHostCache(new SimpleMeterRegistry(), 100, 10, 30);
+
     @InjectMocks
     private DomainService domainService;
 
@@ -177,4 +183,97 @@ class DomainServiceTest {
                 () -> domainService.getDomainsForStore(1L, otherUser));
         assertEquals("Access denied", exception.getMessage());
     }
+
+    @Test
+    void resolveStoreByHost_CachesHitsAndMisses() {
+        // Given
+        Domain domain = new Domain();
+        domain.setId(1L);
+        domain.setStore(testStore);
+        domain.setHost("shop.customer.com");
+        domain.setIsVerified(true);
+        when(domainRepository.findActiveVerifiedDomainWithStoreByHost("shop.customer.com"))
+            .thenReturn(Optional.of(domain));
+        when(domainRepository.findActiveVerifiedDomainWithStoreByHost("unknown.example.com"))
+            .thenReturn(Optional.empty());
+
+        // When
+        Optional<PublicStoreDTO> first = domainService.resolveStoreByHost("Shop.Customer.com:443");
+        Optional<PublicStoreDTO> second = domainService.resolveStoreByHost("shop.customer.com");
+        domainService.resolveStoreByHost("unknown.example.com");
+        domainService.resolveStoreByHost("unknown.example.com");
+
+        // Then
+        assertTrue(first.isPresent());
+        assertSame(first.get(), second.get());
+        assertTrue(domainService.resolveStoreByHost("unknown.example.com").isEmpty());
+        verify(domainRepository, times(1)).findActiveVerifiedDomainWithStoreByHost("shop.customer.com");
+        verify(domainRepository, times(1)).findActiveVerifiedDomainWithStoreByHost("unknown.example.com");
+    }
+
+    @Test
+    void createCustomDomain_EvictsCachedMissForHost() {
+        // Given
+        Plan proPlan = new Plan();
+        proPlan.setMaxCustomDomains(5);
+        testUser.setPlan(proPlan);
+        when(domainRepository.findActiveVerifiedDomainWithStoreByHost("shop.customer.com"))
+            .thenReturn(Optional.empty());
+        when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore));
+        when(domainRepository.save(any(Domain.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        domainService.resolveStoreByHost("shop.customer.com");
+
+        // When
+        domainService.createCustomDomain(1L, "shop.customer.com", testUser);
+        domainService.resolveStoreByHost("shop.customer.com");
+
+        // Then
+        verify(domainRepository, times(2)).findActiveVerifiedDomainWithStoreByHost("shop.customer.com");
+    }
+
+    @Test
+    void deleteDomain_EvictsHostsResolvedViaSlugFallback() {
+        // Given: Alias-Host ohne eigene Domain, aufgelöst über den Slug der Subdomain
+        Domain subdomain = new Domain();
+        subdomain.setId(3L);
+        subdomain.setStore(testStore);
+        subdomain.setHost("testshop.markt.ma");
+        subdomain.setIsVerified(true);
+        subdomain.setIsPrimary(false);
+        when(saasProperties.isSubdomainOfBaseDomain("alias.testshop.markt.ma")).thenReturn(true);
+        when(saasProperties.extractSlugFromSubdomain("alias.testshop.markt.ma")).thenReturn("testshop");
+        when(domainRepository.findActiveVerifiedDomainWithStoreByHost("alias.testshop.markt.ma"))
+            .thenReturn(Optional.empty());
+        when(domainRepository.findVerifiedSubdomainBySlug("testshop")).thenReturn(Optional.of(subdomain));
+        when(domainRepository.findById(3L)).thenReturn(Optional.of(subdomain));
+
+        assertTrue(domainService.resolveStoreByHost("alias.testshop.markt.ma").isPresent());
+
+        // When
+        domainService.deleteDomain(3L, testUser);
+        domainService.resolveStoreByHost("alias.testshop.markt.ma");
+
+        // Then
+        verify(domainRepository, times(2)).findVerifiedSubdomainBySlug("testshop");
+    }
+
+    @Test
+    void setPrimaryDomain_EvictsCachedStore() {
+        // Given
+        Domain domain = new Domain();
+        domain.setId(2L);
+        domain.setStore(testStore);
+        domain.setHost("shop.customer.com");
+        domain.setIsVerified(true);
+        when(domainRepository.findById(2L)).thenReturn(Optional.of(domain));
+        when(domainRepository.findByStoreAndIsPrimary(testStore, true)).thenReturn(Optional.empty());
+
+        // When
+        domainService.setPrimaryDomain(2L, testUser);
+
+        // Then
+        assertTrue(domain.getIsPrimary());
+        verify(storeHostCache).evictStore(1L);
+    }
 }
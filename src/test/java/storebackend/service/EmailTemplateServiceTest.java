@@ -0,0 +1,58 @@
+package storebackend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests für EmailTemplateService - vorberechnete i18n-Kontexte und Batch-Rendering.
+ */
+class EmailTemplateServiceTest {
+
+    private final EmailTemplateService templateService = new EmailTemplateService(new ObjectMapper());
+
+    @Test
+    void variablesOverrideTranslatedTexts() {
+        String withoutOverride = templateService.render("cart-abandoned.html", "de", Map.of());
+        String withOverride = templateService.render("cart-abandoned.html", "de", Map.of("title", "Dein Warenkorb wartet"));
+
+        assertTrue(withoutOverride.contains("Bestellung bestätigt!"));
+        assertTrue(withOverride.contains("Dein Warenkorb wartet"));
+        assertFalse(withOverride.contains("Bestellung bestätigt!"));
+    }
+
+    @Test
+    void renderAllKeepsRequestOrderAndLanguagePerRequest() {
+        List<String> rendered = templateService.renderAll("cart-abandoned.html", List.of(
+            new EmailTemplateService.RenderRequest("en", vars("Store A")),
+            new EmailTemplateService.RenderRequest("de", vars("Store B")),
+            new EmailTemplateService.RenderRequest("xx", vars("Store C"))
+        ));
+
+        assertEquals(3, rendered.size());
+        assertTrue(rendered.get(0).contains("Store A") && rendered.get(0).contains("lang=\"en\""));
+        assertTrue(rendered.get(1).contains("Store B") && rendered.get(1).contains("lang=\"de\""));
+        // unbekannte Sprache → en
+        assertTrue(rendered.get(2).contains("Store C") && rendered.get(2).contains("lang=\"en\""));
+    }
+
+    @Test
+    void i18nValueUsesExactPathWithFallback() {
+        assertEquals("Order Confirmed!", templateService.getI18nValue("en", "orderConfirmation.title", "x"));
+        assertEquals("Bestellung bestätigt!", templateService.getI18nValue("de", "orderConfirmation.title", "x"));
+        assertEquals("fallback", templateService.getI18nValue("de", "orderConfirmation.unknown", "fallback"));
+    }
+
+    private static Map<String, Object> vars(String storeName) {
+        Map<String, Object> vars = new HashMap<>();
+        vars.put("storeName", storeName);
+        vars.put("storeLogo", null);
+        vars.put("itemCount", 2);
+        return vars;
+    }
+}
@@ -0,0 +1,93 @@
+package storebackend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import storebackend.enums.InvoiceParseStatus;
+import storebackend.repository.InvoiceOcrCacheEntryRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests für InvoiceOcrCacheService - Treffer über Dateihash, LRU-Eviction nach Textgröße.
+ */
+@SpringBootTest
+@Transactional
+class InvoiceOcrCacheServiceTest {
+
+    @Autowired
+    private InvoiceOcrCacheEntryRepository cacheRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private SimpleMeterRegistry meterRegistry;
+    private InvoiceOcrCacheService cacheService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // 1 MB Limit
+        cacheService = new InvoiceOcrCacheService(cacheRepository, jdbcTemplate, objectMapper, meterRegistry, 1);
+    }
+
+    @Test
+    void knownHashIsServedFromStoredPageText() {
+        cacheService.store("a".repeat(64), "v1", 6, ocr(List.of("Rechnung Nr. 4711", "Summe 119,00 EUR")));
+
+        Optional<LocalInvoiceOcrService.OcrExtractionResult> hit = cacheService.lookup("a".repeat(64), "v1", 6);
+        Optional<LocalInvoiceOcrService.OcrExtractionResult> otherPsm = cacheService.lookup("a".repeat(64), "v1", 4);
+        Optional<LocalInvoiceOcrService.OcrExtractionResult> otherVersion = cacheService.lookup("a".repeat(64), "v2", 6);
+
+        assertTrue(hit.isPresent());
+        assertEquals(InvoiceParseStatus.OCR_COMPLETED, hit.get().status());
+        assertEquals(List.of("Rechnung Nr. 4711", "Summe 119,00 EUR"), hit.get().textPerPage());
+        assertEquals("Rechnung Nr. 4711\n\nSumme 119,00 EUR\n\n", hit.get().rawText());
+        assertEquals("tesseract", hit.get().engine());
+        assertEquals(List.of("deu", "eng"), hit.get().languages());
+        assertTrue(otherPsm.isEmpty());
+        assertTrue(otherVersion.isEmpty());
+
+        assertEquals(1.0, meterRegistry.counter("invoice.ocr.cache.requests", "result", "hit").count());
+        assertEquals(2.0, meterRegistry.counter("invoice.ocr.cache.requests", "result", "miss").count());
+        assertEquals(1L, jdbcTemplate.queryForObject(
+            "SELECT hit_count FROM invoice_ocr_cache WHERE content_hash = ?", Long.class, "a".repeat(64)));
+    }
+
+    @Test
+    void leastRecentlyUsedEntriesAreEvictedOverSizeLimit() throws InterruptedException {
+        String page = "x".repeat(400 * 1024);
+
+        cacheService.store("a".repeat(64), "v1", 6, ocr(List.of(page)));
+        Thread.sleep(5);
+        cacheService.store("b".repeat(64), "v1", 6, ocr(List.of(page)));
+        Thread.sleep(5);
+        // A wieder genutzt → B ist jetzt am längsten unbenutzt
+        assertTrue(cacheService.lookup("a".repeat(64), "v1", 6).isPresent());
+        Thread.sleep(5);
+        cacheService.store("c".repeat(64), "v1", 6, ocr(List.of(page)));
+
+        assertTrue(cacheRepository.findByContentHashAndParserVersionAndPsmMode("a".repeat(64), "v1", 6).isPresent());
+        assertTrue(cacheRepository.findByContentHashAndParserVersionAndPsmMode("b".repeat(64), "v1", 6).isEmpty());
+        assertTrue(cacheRepository.findByContentHashAndParserVersionAndPsmMode("c".repeat(64), "v1", 6).isPresent());
+        assertTrue(cacheRepository.sumTextBytes() <= 1024 * 1024);
+        assertEquals(1.0, meterRegistry.counter("invoice.ocr.cache.evictions").count());
+    }
+
+    private static LocalInvoiceOcrService.OcrExtractionResult ocr(List<String> pages) {
+        return new LocalInvoiceOcrService.OcrExtractionResult(
+            LocalInvoiceOcrService.joinPages(pages), pages, pages.size(), "tesseract",
+            List.of("deu", "eng"), 6, 1500, InvoiceParseStatus.OCR_COMPLETED, null);
+    }
+}
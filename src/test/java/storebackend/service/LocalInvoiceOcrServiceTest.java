@@ -0,0 +1,151 @@
+package storebackend.service;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import storebackend.enums.InvoiceParseStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests für LocalInvoiceOcrService - Seiten mit Textebene laufen ohne Tesseract durch.
+ */
+class LocalInvoiceOcrServiceTest {
+
+    private LocalInvoiceOcrService ocrService;
+
+    @BeforeEach
+    void setUp() {
+        ocrService = new LocalInvoiceOcrService(new PDFBoxTextExtractor());
+        // Tesseract absichtlich nicht vorhanden: jeder OCR-Versuch würde fehlschlagen
+        ReflectionTestUtils.setField(ocrService, "tesseractCommand", "tesseract-not-installed");
+        ReflectionTestUtils.setField(ocrService, "languages", "deu+eng");
+        ReflectionTestUtils.setField(ocrService, "dpi", 72);
+        ReflectionTestUtils.setField(ocrService, "timeoutSeconds", 10L);
+        ReflectionTestUtils.setField(ocrService, "maxPages", 20);
+        ReflectionTestUtils.setField(ocrService, "psmMode", 6);
+        ReflectionTestUtils.setField(ocrService, "maxConcurrentJobs", 1);
+        ReflectionTestUtils.setField(ocrService, "workerThreads", 2);
+        ocrService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ocrService.shutdown();
+    }
+
+    @Test
+    void pagesWithTextLayerSkipOcr() throws IOException {
+        byte[] pdf = pdf(true, true, true);
+
+        LocalInvoiceOcrService.OcrExtractionResult result =
+            ocrService.extractTextWithOcr(new ByteArrayInputStream(pdf));
+
+        assertEquals(InvoiceParseStatus.OCR_COMPLETED, result.status());
+        assertEquals("pdfbox", result.engine());
+        assertEquals(3, result.pageCount());
+        assertEquals(3, result.textPerPage().size());
+        assertTrue(result.textPerPage().get(2).contains("Seite 3 Position 4"));
+        assertTrue(result.rawText().contains("Seite 1 Position 0"));
+    }
+
+    @Test
+    void scannedPageStillRequiresTesseract() throws IOException {
+        byte[] pdf = pdf(true, false);
+
+        LocalInvoiceOcrService.OcrExtractionResult result =
+            ocrService.extractTextWithOcr(new ByteArrayInputStream(pdf));
+
+        assertEquals(InvoiceParseStatus.FAILED, result.status());
+        assertEquals(2, result.pageCount());
+        assertTrue(result.errorMessage().contains("Tesseract ist nicht installiert"));
+    }
+
+    @Test
+    void scannedPagesArePipedThroughTesseractInParallel() throws IOException {
+        assumeTrue(!System.getProperty("os.name").toLowerCase().contains("win"), "Shell-Stub nur unter Unix");
+
+        // Stub: liest das PNG von stdin, gibt Bytegröße als "erkannten Text" auf stdout aus
+        Path stub = Files.createTempFile("tesseract-stub", ".sh");
+        Files.writeString(stub, "#!/bin/sh\n"
+            + "if [ \"$1\" = \"--version\" ]; then echo stub; exit 0; fi\n"
+            + "[ \"$1\" = stdin ] && [ \"$2\" = stdout ] || exit 3\n"
+            + "echo \"OCR $(wc -c | tr -d ' ') bytes\"\n");
+        Files.setPosixFilePermissions(stub, PosixFilePermissions.fromString("rwx------"));
+        ReflectionTestUtils.setField(ocrService, "tesseractCommand", stub.toString());
+
+        try {
+            LocalInvoiceOcrService.OcrExtractionResult result =
+                ocrService.extractTextWithOcr(new ByteArrayInputStream(pdf(false, true, false, false)));
+
+            assertEquals(InvoiceParseStatus.OCR_COMPLETED, result.status(), result.errorMessage());
+            assertEquals(stub.toString(), result.engine());
+            assertEquals(4, result.textPerPage().size());
+            // Reihenfolge bleibt erhalten: Seite 2 aus der Textebene, Rest per OCR
+            assertTrue(result.textPerPage().get(0).startsWith("OCR "));
+            assertTrue(result.textPerPage().get(1).contains("Seite 2 Position 0"));
+            assertTrue(result.textPerPage().get(3).startsWith("OCR "));
+        } finally {
+            Files.deleteIfExists(stub);
+        }
+    }
+
+    @Test
+    void backgroundJobsWaitForAFreeOcrSlot() throws Exception {
+        byte[] pdf = pdf(true);
+        Semaphore semaphore = (Semaphore) ReflectionTestUtils.getField(ocrService, "ocrSemaphore");
+        semaphore.acquire(); // ein anderer Job belegt den einzigen Slot
+
+        CompletableFuture<LocalInvoiceOcrService.OcrExtractionResult> job = CompletableFuture.supplyAsync(
+            () -> ocrService.extractTextWithOcr(new ByteArrayInputStream(pdf), 6, true));
+        Thread.sleep(300);
+        assertFalse(job.isDone(), "job must wait instead of failing");
+
+        semaphore.release();
+        assertEquals(InvoiceParseStatus.OCR_COMPLETED, job.get(10, TimeUnit.SECONDS).status());
+    }
+
+    /**
+     * PDF mit je einer Seite pro Eintrag: true = Rechnungstext als Textebene, false = leere "Scan"-Seite.
+     */
+    private static byte[] pdf(boolean... textPages) throws IOException {
+        try (PDDocument document = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            for (int i = 0; i < textPages.length; i++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                if (!textPages[i]) {
+                    continue;
+                }
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(PDType1Font.HELVETICA, 12);
+                    content.setLeading(16);
+                    content.newLineAtOffset(50, 700);
+                    for (int line = 0; line < 6; line++) {
+                        content.showText("Seite " + (i + 1) + " Position " + line + " Artikel 4711 Menge 2 Preis 19,99 EUR");
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+}
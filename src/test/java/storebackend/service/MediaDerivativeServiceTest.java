@@ -0,0 +1,284 @@
+package storebackend.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Transactional;
+import storebackend.entity.Media;
+import storebackend.entity.Store;
+import storebackend.entity.User;
+import storebackend.enums.MediaType;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests für die responsiven Bild-Ableitungen – MinIO wird durch einen In-Memory-Objektspeicher ersetzt.
+ */
+@SpringBootTest
+@Transactional
+class MediaDerivativeServiceTest {
+
+    @MockitoBean
+    private MinioService minioService;
+
+    @Autowired
+    private MediaDerivativeService derivativeService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private Store store;
+
+    @BeforeEach
+    void setUp() {
+        when(minioService.isAvailable()).thenReturn(true);
+        when(minioService.getFile(anyString())).thenAnswer(invocation -> {
+            byte[] data = objects.get(invocation.<String>getArgument(0));
+            if (data == null) {
+                throw new RuntimeException("Failed to get file from MinIO");
+            }
+            return new ByteArrayInputStream(data);
+        });
+        doAnswer(invocation -> {
+            try (InputStream input = invocation.getArgument(0)) {
+                objects.put(invocation.getArgument(3), input.readAllBytes());
+            }
+            return null;
+        }).when(minioService).uploadInputStream(any(), anyLong(), anyString(), anyString());
+
+        User owner = new User();
+        owner.setEmail("media-owner-" + System.nanoTime() + "@test.com");
+        owner.setPasswordHash("hash");
+        entityManager.persist(owner);
+
+        store = new Store();
+        store.setOwner(owner);
+        store.setName("Media Store");
+        store.setSlug("media-" + System.nanoTime());
+        entityManager.persist(store);
+    }
+
+    @Test
+    void derivativesAreStoredNextToTheOriginalAndExposedAsSrcset() throws IOException {
+        String objectName = "stores/" + store.getId() + "/product_image/foto.png";
+        objects.put(objectName, png(1200, 800));
+        Media media = media(objectName, "image/png");
+
+        derivativeService.process(media.getId());
+
+        for (int width : new int[]{160, 480, 960}) {
+            byte[] data = objects.get("stores/" + store.getId() + "/product_image/foto_w" + width + ".jpg");
+            assertNotNull(data, "missing derivative " + width);
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(data));
+            assertEquals(width, image.getWidth());
+            assertEquals(Math.round(800 * (width / 1200f)), image.getHeight());
+        }
+        assertFalse(objects.containsKey("stores/" + store.getId() + "/product_image/foto_w1600.jpg"));
+
+        Media processed = reload(media);
+        assertEquals(1200, processed.getImageWidth());
+        assertEquals(800, processed.getImageHeight());
+        assertEquals("160,480,960", processed.getDerivativeWidths());
+        assertNotNull(processed.getDerivativesProcessedAt());
+
+        String base = "https://cdn/stores/" + store.getId() + "/product_image/foto";
+        assertEquals(base + "_w160.jpg 160w, " + base + "_w480.jpg 480w, " + base + "_w960.jpg 960w, "
+                + base + ".png 1200w",
+            MediaDerivativeService.srcset(processed, MediaDerivativeService.JPEG, name -> "https://cdn/" + name));
+    }
+
+    @Test
+    void exifOrientationIsAppliedBeforeScaling() throws IOException {
+        // Handyfoto: 400x200 gespeichert, Orientation 6 = im Browser 90° gedreht (200x400)
+        String objectName = "stores/" + store.getId() + "/product_image/hochkant.jpg";
+        objects.put(objectName, withExifOrientation(jpeg(400, 200), 6));
+        Media media = media(objectName, "image/jpeg");
+
+        derivativeService.process(media.getId());
+
+        Media processed = reload(media);
+        assertEquals(200, processed.getImageWidth());
+        assertEquals(400, processed.getImageHeight());
+        assertEquals("160", processed.getDerivativeWidths());
+
+        BufferedImage derivative = ImageIO.read(new ByteArrayInputStream(
+            objects.get("stores/" + store.getId() + "/product_image/hochkant_w160.jpg")));
+        assertEquals(160, derivative.getWidth());
+        assertEquals(320, derivative.getHeight());
+        // Linke (rote) Hälfte des gespeicherten Bildes liegt nach der Drehung oben
+        assertTrue(red(derivative.getRGB(80, 40)) > 200);
+        assertTrue(red(derivative.getRGB(80, 280)) < 60);
+    }
+
+    @Test
+    void largeOriginalsAreSubsampledButKeepTheirDimensions() throws IOException {
+        String objectName = "stores/" + store.getId() + "/product_image/panorama.png";
+        objects.put(objectName, png(7000, 700));
+        Media media = media(objectName, "image/png");
+
+        derivativeService.process(media.getId());
+
+        Media processed = reload(media);
+        assertEquals(7000, processed.getImageWidth());
+        assertEquals(700, processed.getImageHeight());
+        assertEquals("160,480,960,1600", processed.getDerivativeWidths());
+        BufferedImage largest = ImageIO.read(new ByteArrayInputStream(
+            objects.get("stores/" + store.getId() + "/product_image/panorama_w1600.jpg")));
+        assertEquals(1600, largest.getWidth());
+        assertEquals(160, largest.getHeight());
+
+        assertEquals(1, MediaDerivativeService.subsamplingStep(1200, 1600));
+        assertEquals(2, MediaDerivativeService.subsamplingStep(6000, 1600));
+        assertEquals(2, MediaDerivativeService.subsamplingStep(7000, 1600));
+        assertEquals(3, MediaDerivativeService.subsamplingStep(8000, 1600));
+    }
+
+    @Test
+    void exifOrientationParsing() throws IOException {
+        byte[] jpeg = jpeg(20, 10);
+        assertEquals(1, MediaDerivativeService.exifOrientation(jpeg));
+        assertEquals(8, MediaDerivativeService.exifOrientation(withExifOrientation(jpeg, 8)));
+        assertEquals(1, MediaDerivativeService.exifOrientation(withExifOrientation(jpeg, 42)));
+        assertEquals(1, MediaDerivativeService.exifOrientation(png(20, 10)));
+
+        BufferedImage rotated = MediaDerivativeService.applyOrientation(new BufferedImage(20, 10, BufferedImage.TYPE_INT_RGB), 8);
+        assertEquals(10, rotated.getWidth());
+        assertEquals(20, rotated.getHeight());
+    }
+
+    @Test
+    void undecodableImagesAreMarkedDoneWithoutDerivatives() {
+        String objectName = "stores/" + store.getId() + "/product_image/kaputt.jpg";
+        objects.put(objectName, new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 0x00, 0x01});
+        Media media = media(objectName, "image/jpeg");
+
+        derivativeService.process(media.getId());
+
+        Media processed = reload(media);
+        assertNotNull(processed.getDerivativesProcessedAt());
+        assertEquals("", processed.getDerivativeWidths());
+        assertNull(MediaDerivativeService.srcset(processed, MediaDerivativeService.JPEG, name -> name));
+        verify(minioService, never()).uploadInputStream(any(), anyLong(), anyString(), anyString());
+    }
+
+    @Test
+    void storageFailuresLeaveTheImagePendingForBackfill() {
+        Media media = media("stores/" + store.getId() + "/product_image/fehlt.jpg", "image/jpeg");
+
+        derivativeService.process(media.getId());
+
+        Media pending = reload(media);
+        assertNull(pending.getDerivativesProcessedAt());
+        assertEquals(1, pending.getDerivativeAttempts());
+    }
+
+    @Test
+    void repeatedFailuresMarkTheImageDoneSoTheBackfillMovesOn() {
+        Media media = media("stores/" + store.getId() + "/product_image/weg.jpg", "image/jpeg");
+
+        for (int attempt = 1; attempt < 5; attempt++) {
+            derivativeService.process(media.getId());
+        }
+        assertNull(reload(media).getDerivativesProcessedAt());
+
+        derivativeService.process(media.getId());
+
+        Media done = reload(media);
+        assertNotNull(done.getDerivativesProcessedAt());
+        assertEquals(5, done.getDerivativeAttempts());
+        assertEquals("", done.getDerivativeWidths());
+    }
+
+    @Test
+    void derivativeNamesAndEligibility() {
+        assertEquals("stores/1/image/a_w480.jpg", MediaDerivativeService.derivativeObjectName("stores/1/image/a.png", 480, "jpg"));
+        assertEquals("stores/1/v1.2/a_w160.webp", MediaDerivativeService.derivativeObjectName("stores/1/v1.2/a", 160, "webp"));
+        assertTrue(MediaDerivativeService.isEligible(MediaType.PRODUCT_IMAGE, "image/jpeg"));
+        assertFalse(MediaDerivativeService.isEligible(MediaType.PRODUCT_IMAGE, "image/gif"));
+        assertFalse(MediaDerivativeService.isEligible(MediaType.OTHER, "image/png"));
+    }
+
+    private Media media(String objectName, String contentType) {
+        Media media = new Media();
+        media.setStore(store);
+        media.setFilename(objectName.substring(objectName.lastIndexOf('/') + 1));
+        media.setOriginalFilename(media.getFilename());
+        media.setContentType(contentType);
+        media.setSizeBytes(1L);
+        media.setMinioObjectName(objectName);
+        media.setMediaType(MediaType.PRODUCT_IMAGE);
+        entityManager.persist(media);
+        entityManager.flush();
+        return media;
+    }
+
+    /** Ableitungen werden per JDBC gespeichert – Persistence-Context leeren */
+    private Media reload(Media media) {
+        entityManager.flush();
+        entityManager.clear();
+        return entityManager.find(Media.class, media.getId());
+    }
+
+    private static byte[] jpeg(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                image.setRGB(x, y, x < width / 2 ? 0xFF0000 : 0x0000FF);
+            }
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", output);
+        return output.toByteArray();
+    }
+
+    /** Fügt hinter SOI ein APP1/EXIF-Segment (Big Endian, ein IFD0-Eintrag Orientation) ein */
+    private static byte[] withExifOrientation(byte[] jpeg, int orientation) {
+        byte[] exif = {
+            'E', 'x', 'i', 'f', 0, 0,
+            'M', 'M', 0, 42, 0, 0, 0, 8,
+            0, 1,
+            0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientation, 0, 0,
+            0, 0, 0, 0
+        };
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.write(jpeg, 0, 2);
+        output.write(0xFF);
+        output.write(0xE1);
+        output.write((exif.length + 2) >> 8);
+        output.write((exif.length + 2) & 0xFF);
+        output.write(exif, 0, exif.length);
+        output.write(jpeg, 2, jpeg.length - 2);
+        return output.toByteArray();
+    }
+
+    private static int red(int rgb) {
+        return (rgb >> 16) & 0xFF;
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        for (int x = 0; x < width; x += 10) {
+            for (int y = 0; y < height; y++) {
+                image.setRGB(x, y, 0xFF3366CC);
+            }
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        return output.toByteArray();
+    }
+}
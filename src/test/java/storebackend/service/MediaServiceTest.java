@@ -0,0 +1,71 @@
+package storebackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import storebackend.entity.Media;
+import storebackend.entity.Store;
+import storebackend.repository.MediaRepository;
+import storebackend.repository.StoreRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests für den Streaming-Import aus Base64 (Telegram MTProto).
+ */
+@ExtendWith(MockitoExtension.class)
+class MediaServiceTest {
+
+    @Mock private MediaRepository mediaRepository;
+    @Mock private MinioService minioService;
+    @Mock private StoreUsageService storeUsageService;
+    @Mock private StoreRepository storeRepository;
+    @Mock private StoreHostCache storeHostCache;
+    @Mock private StorefrontVersionService storefrontVersions;
+    @Mock private MediaDerivativeService mediaDerivatives;
+
+    @InjectMocks
+    private MediaService mediaService;
+
+    @Test
+    void uploadFromBase64StreamsDecodedBytesAndDetectsContentType() throws Exception {
+        byte[] png = new byte[40_000];
+        png[0] = (byte) 0x89;
+        png[1] = 0x50;
+        png[2] = 0x4E;
+        png[3] = 0x47;
+        for (int i = 4; i < png.length; i++) {
+            png[i] = (byte) (i * 31);
+        }
+
+        ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+        when(minioService.uploadStream(any(), eq("image/png"), startsWith("stores/7/telegram/telegram_"), anyLong()))
+            .thenAnswer(invocation -> {
+                try (InputStream input = invocation.getArgument(0)) {
+                    long size = input.transferTo(uploaded);
+                    return new MinioService.StreamedUpload(size, "sha");
+                }
+            });
+        when(mediaRepository.save(any(Media.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Store store = new Store();
+        store.setId(7L);
+
+        Media media = mediaService.uploadFromBase64(store, Base64.getEncoder().encodeToString(png), "Telegram");
+
+        assertArrayEquals(png, uploaded.toByteArray());
+        assertEquals("image/png", media.getContentType());
+        assertEquals(png.length, media.getSizeBytes());
+        assertTrue(media.getMinioObjectName().endsWith(".png"));
+        verify(storeUsageService).incrementStorage(store, png.length);
+        verify(mediaDerivatives).schedule(media);
+    }
+}
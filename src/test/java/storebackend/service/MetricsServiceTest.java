@@ -0,0 +1,73 @@
+package storebackend.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests für MetricsService - Request-Metriken je Route-Template mit begrenztem Tenant-Tag.
+ */
+class MetricsServiceTest {
+
+    private static final String ROUTE = "/api/stores/{storeId}/products/{productId}";
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void requestsOnSameRouteShareOneTimer() {
+        MetricsService metricsService = metricsService(false, 50);
+
+        metricsService.recordRequest(ROUTE, "GET", 200, "123", TimeUnit.MILLISECONDS.toNanos(40));
+        metricsService.recordRequest(ROUTE, "GET", 200, "124", TimeUnit.MILLISECONDS.toNanos(60));
+
+        assertEquals(1, meterRegistry.find("api.response.time").timers().size());
+        Timer timer = meterRegistry.get("api.response.time").tag("endpoint", ROUTE).tag("status", "200").timer();
+        assertEquals(2, timer.count());
+        assertEquals(100.0, timer.totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertNull(timer.getId().getTag("store"));
+        assertEquals(2.0, meterRegistry.get("api.success.detailed").counter().count());
+    }
+
+    @Test
+    void errorsAreTaggedWithStatusAndErrorType() {
+        MetricsService metricsService = metricsService(false, 50);
+
+        metricsService.recordRequest(ROUTE, "GET", 404, null, 1_000);
+
+        assertEquals(1.0, meterRegistry.get("api.errors.detailed")
+            .tag("endpoint", ROUTE).tag("error_type", "NOT_FOUND").counter().count());
+        assertEquals(1.0, meterRegistry.get("api.errors").counter().count());
+    }
+
+    @Test
+    void tenantTagIsCappedAtMaxTenants() {
+        MetricsService metricsService = metricsService(true, 2);
+
+        metricsService.recordRequest(ROUTE, "GET", 200, "1", 1_000);
+        metricsService.recordRequest(ROUTE, "GET", 200, "2", 1_000);
+        metricsService.recordRequest(ROUTE, "GET", 200, "3", 1_000);
+        metricsService.recordRequest(ROUTE, "GET", 200, "4", 1_000);
+        metricsService.recordRequest(ROUTE, "GET", 200, "1", 1_000);
+
+        assertEquals(3, meterRegistry.find("api.response.time").timers().size());
+        assertEquals(2, meterRegistry.get("api.response.time").tag("store", "1").timer().count());
+        assertEquals(2, meterRegistry.get("api.response.time").tag("store", MetricsService.OTHER_TENANT).timer().count());
+    }
+
+    private MetricsService metricsService(boolean tenantTag, int maxTenants) {
+        return new MetricsService(meterRegistry, tenantTag, maxTenants, false,
+            List.of(Duration.ofMillis(50), Duration.ofMillis(250)));
+    }
+}
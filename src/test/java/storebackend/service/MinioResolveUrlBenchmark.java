@@ -0,0 +1,111 @@
+package storebackend.service;
+
+import io.minio.MinioClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import storebackend.config.MinioProperties;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH-Benchmark für MinioService.resolveUrl():
+ * - signed: jede Auflösung signiert neu (Verhalten vor dem Cache)
+ * - cached: Presigned URL aus dem Cache
+ * - publicUrl: public-read Präfix → permanente URL ohne Signatur
+ *
+ * Start (kein Netzwerk nötig, Region ist gesetzt):
+ *   mvn test-compile
+ *   java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        storebackend.service.MinioResolveUrlBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MinioResolveUrlBenchmark {
+
+    private static final int OBJECTS = 200;
+
+    private MinioService signedService;
+    private MinioService cachedService;
+    private MinioService publicService;
+    private String[] objectNames;
+    private String[] publicObjectNames;
+
+    @Setup
+    public void setUp() {
+        MinioClient client = MinioClient.builder()
+                .endpoint("http://minio:9000")
+                .credentials("benchmark", "benchmark-secret")
+                .region("us-east-1")
+                .build();
+
+        MinioProperties properties = new MinioProperties();
+        properties.setEndpoint("http://minio:9000");
+        properties.setPublicEndpoint("https://minio.markt.ma");
+        properties.setBucket("store-assets");
+        properties.setPublicReadPrefixes(List.of("default-assets/"));
+
+        signedService = new MinioService(client, properties);
+        cachedService = new MinioService(client, properties);
+        publicService = new MinioService(client, properties);
+
+        objectNames = new String[OBJECTS];
+        publicObjectNames = new String[OBJECTS];
+        for (int i = 0; i < OBJECTS; i++) {
+            objectNames[i] = "stores/121/products/image-" + i + ".jpg";
+            publicObjectNames[i] = "default-assets/starter/image-" + i + ".jpg";
+            cachedService.resolveUrl(objectNames[i], 60);
+        }
+    }
+
+    /** Eine Produktliste mit 200 Bildern – jedes Bild neu signiert. */
+    @Benchmark
+    public int signed() {
+        int length = 0;
+        for (String objectName : objectNames) {
+            length += signedService.getPresignedUrl(objectName, 60).length();
+        }
+        return length;
+    }
+
+    /** Dieselbe Liste über resolveUrl() mit warmem Presigned-URL-Cache. */
+    @Benchmark
+    public int cached() {
+        int length = 0;
+        for (String objectName : objectNames) {
+            length += cachedService.resolveUrl(objectName, 60).length();
+        }
+        return length;
+    }
+
+    /** Objekte unter public-read Präfix → deterministische URL ohne HMAC. */
+    @Benchmark
+    public int publicUrl() {
+        int length = 0;
+        for (String objectName : publicObjectNames) {
+            length += publicService.resolveUrl(objectName, 60).length();
+        }
+        return length;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MinioResolveUrlBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -1,9 +1,25 @@
 package storebackend.service;
 
+import io.minio.GetPresignedObjectUrlArgs;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
 import org.junit.jupiter.api.Test;
 import storebackend.config.MinioProperties;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
 class MinioServiceTest {
 
@@ -36,4 +52,84 @@ class MinioServiceTest {
             minioService.getPublicUrl("stores/9/telegram/demo.png")
         );
     }
+
+    @Test
+    void resolveUrlReusesPresignedUrlForSameObjectAndExpiry() throws Exception {
+        MinioClient client = mock(MinioClient.class);
+        when(client.getPresignedObjectUrl(any(GetPresignedObjectUrlArgs.class)))
+            .thenReturn("http://minio:9000/store-assets/stores/1/a.jpg?X-Amz-Signature=abc");
+
+        MinioProperties properties = new MinioProperties();
+        properties.setEndpoint("http://minio:9000");
+        properties.setPublicEndpoint("https://minio.markt.ma");
+        properties.setBucket("store-assets");
+
+        MinioService minioService = new MinioService(client, properties);
+
+        String first = minioService.resolveUrl("stores/1/a.jpg", 60);
+        String second = minioService.resolveUrl("https://minio.markt.ma/store-assets/stores/1/a.jpg?X-Amz-Signature=old", 60);
+
+        assertEquals("https://minio.markt.ma/store-assets/stores/1/a.jpg?X-Amz-Signature=abc", first);
+        assertEquals(first, second);
+        verify(client, times(1)).getPresignedObjectUrl(any(GetPresignedObjectUrlArgs.class));
+    }
+
+    @Test
+    void resolveUrlReturnsUnsignedUrlForPublicReadPrefix() {
+        MinioProperties properties = new MinioProperties();
+        properties.setEndpoint("http://minio:9000");
+        properties.setPublicEndpoint("https://minio.markt.ma");
+        properties.setBucket("store-assets");
+        properties.setPublicReadPrefixes(List.of("default-assets/"));
+
+        MinioService minioService = new MinioService(null, properties);
+
+        assertEquals(
+            "https://minio.markt.ma/store-assets/default-assets/starter/pizza.jpg",
+            minioService.resolveUrl("default-assets/starter/pizza.jpg", 60)
+        );
+    }
+
+    @Test
+    void uploadStreamUsesMultipartWithFixedPartSizeAndMetersTheStream() throws Exception {
+        MinioClient client = mock(MinioClient.class);
+        ByteArrayOutputStream stored = new ByteArrayOutputStream();
+        when(client.putObject(any(PutObjectArgs.class))).thenAnswer(invocation -> {
+            PutObjectArgs args = invocation.getArgument(0);
+            assertEquals(-1, args.objectSize());
+            assertEquals(5L * 1024 * 1024, args.partSize());
+            args.stream().transferTo(stored);
+            return null;
+        });
+
+        MinioProperties properties = new MinioProperties();
+        properties.setBucket("store-assets");
+        MinioService minioService = new MinioService(client, properties);
+
+        byte[] data = "bild-daten".repeat(1000).getBytes(StandardCharsets.UTF_8);
+        MinioService.StreamedUpload upload = minioService.uploadStream(
+            new ByteArrayInputStream(data), "image/jpeg", "stores/1/telegram/a.jpg", 1024 * 1024);
+
+        assertEquals(data.length, upload.sizeBytes());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data)), upload.sha256());
+        assertArrayEquals(data, stored.toByteArray());
+    }
+
+    @Test
+    void uploadStreamAbortsAboveMaxBytes() throws Exception {
+        MinioClient client = mock(MinioClient.class);
+        when(client.putObject(any(PutObjectArgs.class))).thenAnswer(invocation -> {
+            PutObjectArgs args = invocation.getArgument(0);
+            args.stream().transferTo(OutputStream.nullOutputStream());
+            return null;
+        });
+
+        MinioProperties properties = new MinioProperties();
+        properties.setBucket("store-assets");
+        MinioService minioService = new MinioService(client, properties);
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> minioService.uploadStream(
+            new ByteArrayInputStream(new byte[2 * 1024 * 1024]), "image/jpeg", "stores/1/telegram/b.jpg", 1024 * 1024));
+        assertTrue(error.getMessage().contains("exceeds"));
+    }
 }
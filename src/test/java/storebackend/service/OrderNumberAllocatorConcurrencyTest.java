@@ -0,0 +1,188 @@
+package storebackend.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import storebackend.entity.Order;
+import storebackend.entity.Store;
+import storebackend.entity.User;
+import storebackend.enums.OrderStatus;
+import storebackend.enums.PaymentMethod;
+import storebackend.enums.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Stresstest: 10.000 parallel angelegte Bestellungen über mehrere Stores erhalten eindeutige,
+ * lückenlose Nummern – bei nur einem DB-Roundtrip pro Block.
+ * Läuft bewusst ohne Test-Transaktion – jede Bestellung committet in eigener Transaktion.
+ */
+@SpringBootTest
+class OrderNumberAllocatorConcurrencyTest {
+
+    private static final int STORES = 4;
+    private static final int THREADS = 16;
+    private static final int ORDERS = 10_000;
+
+    @Autowired
+    private OrderNumberAllocator orderNumberAllocator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private jakarta.persistence.EntityManager entityManager;
+
+    @Value("${order.number.block-size:50}")
+    private int blockSize;
+
+    private Long ownerId;
+    private final List<Store> stores = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            User owner = new User();
+            owner.setEmail("order-number-" + System.nanoTime() + "@test.com");
+            owner.setPasswordHash("dummy");
+            owner.setCreatedAt(LocalDateTime.now());
+            owner.setUpdatedAt(LocalDateTime.now());
+            entityManager.persist(owner);
+            ownerId = owner.getId();
+
+            for (int i = 0; i < STORES; i++) {
+                Store store = new Store();
+                store.setOwner(owner);
+                store.setName("Order Number Store " + i);
+                store.setSlug("order-number-" + i + "-" + System.nanoTime());
+                entityManager.persist(store);
+                stores.add(store);
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (Store store : stores) {
+            jdbcTemplate.update("DELETE FROM orders WHERE store_id = ?", store.getId());
+            jdbcTemplate.update("DELETE FROM order_number_blocks WHERE store_id = ?", store.getId());
+            jdbcTemplate.update("DELETE FROM stores WHERE id = ?", store.getId());
+        }
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", ownerId);
+    }
+
+    @Test
+    void parallelOrdersGetUniqueNumbersFromFewBlocks() throws Exception {
+        double allocationsBefore = meterRegistry.counter("orders.number.block_allocations").count();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            Store store = stores.get(i % STORES);
+            futures.add(executor.submit(() -> {
+                start.await();
+                transactionTemplate.executeWithoutResult(status -> {
+                    Order order = order(store);
+                    entityManager.persist(order);
+                    numbers.add(order.getOrderNumber());
+                });
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(120, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Eindeutig im Speicher und in der DB (unique constraint auf order_number)
+        assertThat(numbers).hasSize(ORDERS);
+        for (Store store : stores) {
+            Integer persisted = jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT order_number) FROM orders WHERE store_id = ?", Integer.class, store.getId());
+            assertThat(persisted).isEqualTo(ORDERS / STORES);
+        }
+
+        // Eine Instanz verbraucht jeden Block vollständig → pro Store lückenlos 1..n
+        int year = Year.now().getValue();
+        Store first = stores.get(0);
+        assertThat(numbers)
+            .contains(String.format("ORD-%d-%d-%06d", first.getId(), year, 1))
+            .contains(String.format("ORD-%d-%d-%06d", first.getId(), year, ORDERS / STORES));
+
+        // Ein DB-Roundtrip pro Block statt pro Bestellung
+        double allocations = meterRegistry.counter("orders.number.block_allocations").count() - allocationsBefore;
+        int blocksPerStore = (ORDERS / STORES + blockSize - 1) / blockSize;
+        assertThat(allocations).isEqualTo((double) blocksPerStore * STORES);
+    }
+
+    @Test
+    void allocationPoolInheritsHikariSettings() {
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl("jdbc:h2:mem:order-number-pool");
+        properties.setDriverClassName("org.h2.Driver");
+        MockEnvironment environment = new MockEnvironment()
+            .withProperty("spring.datasource.hikari.connection-timeout", "12345")
+            .withProperty("spring.datasource.hikari.maximum-pool-size", "10")
+            .withProperty("spring.datasource.hikari.data-source-properties.currentSchema", "public");
+
+        OrderNumberAllocator allocator = new OrderNumberAllocator(
+            properties, environment, new SimpleMeterRegistry(), 50, "ORD", 6, 2);
+        try {
+            HikariDataSource pool = (HikariDataSource) ReflectionTestUtils.getField(allocator, "allocationDataSource");
+            assertThat(pool.getConnectionTimeout()).isEqualTo(12345);
+            assertThat(pool.getDataSourceProperties()).containsEntry("currentSchema", "public");
+            // Eigener Name und eigene Größe bleiben
+            assertThat(pool.getMaximumPoolSize()).isEqualTo(2);
+            assertThat(pool.getPoolName()).isEqualTo("order-number-pool");
+        } finally {
+            allocator.close();
+        }
+    }
+
+    private Order order(Store store) {
+        Order order = new Order();
+        order.setStore(store);
+        order.setOrderNumber(orderNumberAllocator.next(store.getId()));
+        order.setStatus(OrderStatus.CONFIRMED);
+        order.setPaymentStatus(PaymentStatus.PAID);
+        order.setPaymentMethod(PaymentMethod.CASH_ON_DELIVERY);
+        order.setTotalGross(BigDecimal.TEN);
+        order.setTotalAmount(BigDecimal.TEN);
+        return order;
+    }
+}
@@ -45,6 +45,7 @@ public class OrderServiceCheckoutBehaviorTest {
     @Mock private PlatformSettingsService platformSettingsService;
     @Mock private ProductTierPriceService tierPriceService;
     @Mock private ProductRepository productRepository;
+    @Mock private OrderNumberAllocator orderNumberAllocator;
 
     private OrderService orderService;
 
@@ -61,7 +62,7 @@ public class OrderServiceCheckoutBehaviorTest {
             cartRepository, cartItemRepository, inventoryService, eventPublisher,
             publicDeliveryService, taxCalculationService, couponService, couponRepository,
             revenueShareService, storeProductRepository, platformSettingsService,
-            tierPriceService, productRepository
+            tierPriceService, productRepository, orderNumberAllocator
         );
 
         // Store
@@ -247,4 +248,14 @@ public class OrderServiceCheckoutBehaviorTest {
         System.out.println("   - Varianten-Preis = 12.00");
         System.out.println("   - calculateWithDetails basePrice = " + capturedBasePrice);
     }
+
+    @Test
+    public void publicOrderLookupRequiresTheOrderEmail() {
+        // Gastbestellung: nur die Bestell-E-Mail öffnet die (fortlaufend nummerierte) Bestellung
+        assertThat(OrderService.emailMatchesOrder(" Guest@Example.com ", "guest@example.com", null)).isTrue();
+        assertThat(OrderService.emailMatchesOrder("other@example.com", "guest@example.com", null)).isFalse();
+        assertThat(OrderService.emailMatchesOrder(null, "guest@example.com", null)).isFalse();
+        assertThat(OrderService.emailMatchesOrder("guest@example.com", null, null)).isFalse();
+        assertThat(OrderService.emailMatchesOrder("kunde@example.com", "guest@example.com", "kunde@example.com")).isTrue();
+    }
 }
@@ -0,0 +1,105 @@
+package storebackend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import storebackend.dto.ProductDTO;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCatalogCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductCatalogCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ProductCatalogCache(meterRegistry, 1_000_000, 10);
+    }
+
+    @Test
+    void getProductLoadsOnceAndServesHitsFromCache() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getProduct(1L, 10L, () -> { loads.incrementAndGet(); return product(10L); });
+        ProductDTO second = cache.getProduct(1L, 10L, () -> { loads.incrementAndGet(); return product(10L); });
+
+        assertEquals(1, loads.get());
+        assertEquals(10L, second.getId());
+        assertEquals(1.0, meterRegistry.get("cache.gets")
+            .tag("cache", "storefront.catalog.products").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void getProductRejectsForeignStore() {
+        cache.getProduct(1L, 10L, () -> product(10L));
+
+        assertThrows(RuntimeException.class, () -> cache.getProduct(2L, 10L, () -> product(10L)));
+    }
+
+    @Test
+    void evictProductRemovesOnlyListingsContainingIt() {
+        AtomicInteger topLoads = new AtomicInteger();
+        AtomicInteger newLoads = new AtomicInteger();
+
+        cache.getListing(1L, ProductCatalogCache.Listing.TOP, 10,
+            () -> { topLoads.incrementAndGet(); return List.of(product(10L), product(11L)); });
+        cache.getListing(1L, ProductCatalogCache.Listing.NEW, 10,
+            () -> { newLoads.incrementAndGet(); return List.of(product(12L)); });
+
+        cache.evictProduct(11L);
+
+        cache.getListing(1L, ProductCatalogCache.Listing.TOP, 10,
+            () -> { topLoads.incrementAndGet(); return List.of(product(10L), product(11L)); });
+        cache.getListing(1L, ProductCatalogCache.Listing.NEW, 10,
+            () -> { newLoads.incrementAndGet(); return List.of(product(12L)); });
+
+        assertEquals(2, topLoads.get());
+        assertEquals(1, newLoads.get());
+    }
+
+    @Test
+    void oversizedListingLimitsShareTheClampedEntry() {
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int limit : new int[] {100, 500, 10_000}) {
+            cache.getListing(1L, ProductCatalogCache.Listing.TRENDING, ProductService.listingLimit(limit),
+                () -> { loads.incrementAndGet(); return List.of(product(10L)); });
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(1, ProductService.listingLimit(-5));
+    }
+
+    @Test
+    void evictStoreListingsDoesNotTouchOtherStores() {
+        AtomicInteger store1Loads = new AtomicInteger();
+        AtomicInteger store2Loads = new AtomicInteger();
+
+        cache.getListing(1L, ProductCatalogCache.Listing.FEATURED, 0,
+            () -> { store1Loads.incrementAndGet(); return List.of(product(10L)); });
+        cache.getListing(2L, ProductCatalogCache.Listing.FEATURED, 0,
+            () -> { store2Loads.incrementAndGet(); return List.of(product(20L)); });
+
+        cache.evictStoreListings(1L);
+
+        cache.getListing(1L, ProductCatalogCache.Listing.FEATURED, 0,
+            () -> { store1Loads.incrementAndGet(); return List.of(product(10L)); });
+        cache.getListing(2L, ProductCatalogCache.Listing.FEATURED, 0,
+            () -> { store2Loads.incrementAndGet(); return List.of(product(20L)); });
+
+        assertEquals(2, store1Loads.get());
+        assertEquals(1, store2Loads.get());
+    }
+
+    private static ProductDTO product(Long id) {
+        ProductDTO dto = new ProductDTO();
+        dto.setId(id);
+        dto.setTitle("Product " + id);
+        return dto;
+    }
+}
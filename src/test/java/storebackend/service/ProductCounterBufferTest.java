@@ -0,0 +1,193 @@
+package storebackend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests für ProductCounterBuffer (Write-Behind view/sales counter).
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductCounterBufferTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductCounterBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        buffer = new ProductCounterBuffer(jdbcTemplate, transactionManager, meterRegistry, 1_000);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void concurrentViewsAreFlushedAsSingleBatchedDelta() throws Exception {
+        int threads = 8;
+        int perThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    buffer.recordView(42L);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        buffer.flush();
+
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(ProductCounterBuffer.VIEW_SQL), batch.capture());
+        assertEquals(1, batch.getValue().size());
+        assertArrayEquals(new Object[]{(long) threads * perThread, 42L}, batch.getValue().get(0));
+        verify(jdbcTemplate, never()).batchUpdate(eq(ProductCounterBuffer.SALES_SQL), anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void incrementsRacingWithFlushesAreNeverLost() throws Exception {
+        int threads = 4;
+        int perThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            writers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    buffer.recordView(42L);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        // Flushes während der Inkremente – leere Adder werden dabei laufend entfernt
+        while (writers.stream().anyMatch(f -> !f.isDone())) {
+            buffer.flush();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        buffer.flush();
+
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(eq(ProductCounterBuffer.VIEW_SQL), batch.capture());
+        long flushed = batch.getAllValues().stream()
+                .flatMap(List::stream)
+                .mapToLong(row -> (Long) row[0])
+                .sum();
+        assertEquals((long) threads * perThread, flushed);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void salesAreBatchedPerProductInIdOrder() {
+        buffer.recordSales(7L, 2);
+        buffer.recordSales(3L, 1);
+        buffer.recordSales(7L, 5);
+
+        buffer.flush();
+
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(ProductCounterBuffer.SALES_SQL), batch.capture());
+        assertArrayEquals(new Object[]{1L, 3L}, batch.getValue().get(0));
+        assertArrayEquals(new Object[]{7L, 7L}, batch.getValue().get(1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedFlushKeepsDeltasForNextRun() {
+        buffer.recordView(1L);
+        buffer.recordView(1L);
+        when(jdbcTemplate.batchUpdate(eq(ProductCounterBuffer.VIEW_SQL), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("db down"))
+                .thenReturn(new int[]{1});
+
+        buffer.flush();
+        buffer.recordView(1L);
+        buffer.flush();
+
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(ProductCounterBuffer.VIEW_SQL), batch.capture());
+        assertArrayEquals(new Object[]{3L, 1L}, batch.getAllValues().get(1).get(0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedSalesBatchRollsBackAndRequeuesTheWholeFlush() {
+        buffer.recordView(1L);
+        buffer.recordSales(2L, 4);
+        when(jdbcTemplate.batchUpdate(eq(ProductCounterBuffer.VIEW_SQL), anyList())).thenReturn(new int[]{1});
+        when(jdbcTemplate.batchUpdate(eq(ProductCounterBuffer.SALES_SQL), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("db down"))
+                .thenReturn(new int[]{1});
+
+        buffer.flush();
+        buffer.flush();
+
+        // Views des fehlgeschlagenen Flushs wurden zurückgerollt: zweiter Versuch mit demselben Delta
+        verify(transactionManager).rollback(any());
+        ArgumentCaptor<List<Object[]>> views = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(ProductCounterBuffer.VIEW_SQL), views.capture());
+        assertArrayEquals(new Object[]{1L, 1L}, views.getAllValues().get(0).get(0));
+        assertArrayEquals(new Object[]{1L, 1L}, views.getAllValues().get(1).get(0));
+        ArgumentCaptor<List<Object[]>> sales = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(ProductCounterBuffer.SALES_SQL), sales.capture());
+        assertArrayEquals(new Object[]{4L, 2L}, sales.getAllValues().get(1).get(0));
+    }
+
+    @Test
+    void idleProductsLeaveTheBufferAndPendingGaugeDrops() {
+        buffer.recordView(1L);
+        assertEquals(1.0, meterRegistry.get("product.counters.pending").gauge().value());
+
+        buffer.flush();
+        buffer.flush();
+
+        assertEquals(0.0, meterRegistry.get("product.counters.pending").gauge().value());
+        assertEquals(0.0, meterRegistry.get("product.counters.flush.lag").timeGauge().value());
+    }
+
+    @Test
+    void newProductsAreDroppedWhenBufferIsFull() {
+        ProductCounterBuffer small = new ProductCounterBuffer(jdbcTemplate, transactionManager, meterRegistry, 2);
+        small.recordView(1L);
+        small.recordView(2L);
+        small.recordView(3L);
+        small.recordView(1L);
+
+        assertEquals(2, small.pendingCount());
+        assertEquals(1.0, meterRegistry.get("product.counters.dropped").counter().count());
+    }
+}
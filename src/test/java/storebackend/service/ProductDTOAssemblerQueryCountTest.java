@@ -0,0 +1,151 @@
+package storebackend.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import storebackend.dto.ProductDTO;
+import storebackend.entity.Category;
+import storebackend.entity.Media;
+import storebackend.entity.Product;
+import storebackend.entity.ProductMedia;
+import storebackend.entity.ProductTierPrice;
+import storebackend.entity.ProductVariant;
+import storebackend.entity.Store;
+import storebackend.entity.User;
+import storebackend.enums.MediaType;
+import storebackend.enums.ProductStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Regressionstest: ProductService-Listen dürfen keine N+1-Queries erzeugen.
+ * Die Anzahl Statements muss unabhängig von der Produktanzahl konstant bleiben.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+public class ProductDTOAssemblerQueryCountTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Store testStore;
+    private int productCounter;
+
+    @BeforeEach
+    void setUp() {
+        User owner = new User();
+        owner.setEmail("query-count-" + System.nanoTime() + "@test.com");
+        owner.setPasswordHash("dummy");
+        owner.setCreatedAt(LocalDateTime.now());
+        owner.setUpdatedAt(LocalDateTime.now());
+        entityManager.persist(owner);
+
+        testStore = new Store();
+        testStore.setOwner(owner);
+        testStore.setName("Query Count Store");
+        testStore.setSlug("query-count-" + System.nanoTime());
+        entityManager.persist(testStore);
+    }
+
+    @Test
+    void getProductsByStoreUsesConstantNumberOfStatements() {
+        createProducts(3);
+        long statementsForSmallList = countStatements(3);
+
+        createProducts(37);
+        long statementsForLargeList = countStatements(40);
+
+        // 1× Produkte + 1× Media + 1× Varianten + 1× Staffelpreise + 1× Kategorien
+        assertThat(statementsForSmallList).isLessThanOrEqualTo(5);
+        assertThat(statementsForLargeList).isEqualTo(statementsForSmallList);
+    }
+
+    private long countStatements(int expectedProducts) {
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<ProductDTO> products = productService.getProductsByStore(testStore);
+
+        assertThat(products).hasSize(expectedProducts);
+        assertThat(products).allSatisfy(dto -> {
+            assertThat(dto.getMedia()).hasSize(1);
+            assertThat(dto.getVariants()).hasSize(1);
+            assertThat(dto.getTierPrices()).hasSize(1);
+            assertThat(dto.getCategoryName()).isEqualTo("Category " + dto.getCategoryId());
+        });
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void createProducts(int count) {
+        for (int i = 0; i < count; i++) {
+            int n = ++productCounter;
+
+            // Jedes Produkt mit eigener Kategorie – ein Nachladen je Produkt fiele sofort auf
+            Category category = new Category();
+            category.setStore(testStore);
+            category.setName("Category");
+            category.setSlug("category-" + n);
+            entityManager.persist(category);
+            category.setName("Category " + category.getId());
+
+            Product product = new Product();
+            product.setStore(testStore);
+            product.setCategory(category);
+            product.setTitle("Product " + n);
+            product.setBasePrice(new BigDecimal("9.99"));
+            product.setStatus(ProductStatus.ACTIVE);
+            product.setCreatedAt(LocalDateTime.now());
+            product.setUpdatedAt(LocalDateTime.now());
+            entityManager.persist(product);
+
+            Media media = new Media();
+            media.setStore(testStore);
+            media.setFilename("image-" + n + ".jpg");
+            media.setOriginalFilename("image-" + n + ".jpg");
+            media.setContentType("image/jpeg");
+            media.setSizeBytes(1024L);
+            media.setMinioObjectName("stores/1/products/image-" + n + ".jpg");
+            media.setMediaType(MediaType.PRODUCT_IMAGE);
+            entityManager.persist(media);
+
+            ProductMedia productMedia = new ProductMedia();
+            productMedia.setProduct(product);
+            productMedia.setMedia(media);
+            productMedia.setIsPrimary(true);
+            entityManager.persist(productMedia);
+
+            ProductVariant variant = new ProductVariant();
+            variant.setProduct(product);
+            variant.setSku("QC-" + testStore.getId() + "-" + n);
+            variant.setPrice(new BigDecimal("9.99"));
+            variant.setStockQuantity(10);
+            entityManager.persist(variant);
+
+            ProductTierPrice tierPrice = new ProductTierPrice();
+            tierPrice.setProduct(product);
+            tierPrice.setMinimumQuantity(10);
+            tierPrice.setUnitPrice(new BigDecimal("8.99"));
+            entityManager.persist(tierPrice);
+        }
+    }
+}
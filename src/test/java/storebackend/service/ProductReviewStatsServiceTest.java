@@ -0,0 +1,187 @@
+package storebackend.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import storebackend.dto.CreateReviewRequest;
+import storebackend.dto.ProductRatingSummary;
+import storebackend.dto.ProductReviewDTO;
+import storebackend.dto.ProductReviewStats;
+import storebackend.entity.Product;
+import storebackend.entity.ProductReviewAggregate;
+import storebackend.entity.Store;
+import storebackend.entity.User;
+import storebackend.enums.ProductStatus;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests für product_review_stats – inkrementelle Pflege, Bulk-Lesen und Reparatur per reconcile.
+ */
+@SpringBootTest
+@Transactional
+class ProductReviewStatsServiceTest {
+
+    @Autowired
+    private ProductReviewService reviewService;
+
+    @Autowired
+    private ProductReviewStatsService statsService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private Store store;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        owner = user("review-owner");
+
+        store = new Store();
+        store.setOwner(owner);
+        store.setName("Review Store");
+        store.setSlug("review-" + System.nanoTime());
+        entityManager.persist(store);
+
+        product = product("Teekanne");
+    }
+
+    @Test
+    void statsFollowApproveVoteAndDelete() {
+        ProductReviewDTO five = reviewService.createReview(request(product, 5), user("kunde-a"));
+        ProductReviewDTO four = reviewService.createReview(request(product, 4), user("kunde-b"));
+        ProductReviewDTO pending = reviewService.createReview(request(product, 1), user("kunde-c"));
+
+        // Unfreigegebene Reviews zählen nicht
+        assertEquals(0, stats(product.getId()).getTotalReviews());
+
+        reviewService.approveReview(five.getId(), owner);
+        reviewService.approveReview(four.getId(), owner);
+        reviewService.approveReview(four.getId(), owner); // erneute Freigabe zählt nicht doppelt
+        reviewService.voteReview(four.getId(), true, user("voter-a"));
+        reviewService.voteReview(pending.getId(), true, user("voter-b"));
+
+        ProductReviewStats stats = stats(product.getId());
+        assertEquals(2, stats.getTotalReviews());
+        assertEquals(4.5, stats.getAverageRating());
+        assertEquals(1, stats.getFiveStarCount());
+        assertEquals(1, stats.getFourStarCount());
+        assertEquals(0, stats.getOneStarCount());
+        assertEquals(2, stats.getRecentReviews().size());
+        assertEquals(1L, aggregateAfterFlush(product.getId()).getHelpfulCount());
+
+        reviewService.deleteReview(five.getId());
+
+        stats = stats(product.getId());
+        assertEquals(1, stats.getTotalReviews());
+        assertEquals(4.0, stats.getAverageRating());
+        assertEquals(0, stats.getFiveStarCount());
+        assertEquals(1L, aggregateAfterFlush(product.getId()).getHelpfulCount());
+        assertNoDrift();
+    }
+
+    @Test
+    void ratingSummariesCoverAllRequestedProducts() {
+        Product other = product("Tasse");
+        Product unrated = product("Untersetzer");
+        approve(reviewService.createReview(request(product, 5), user("kunde-a")));
+        approve(reviewService.createReview(request(product, 2), user("kunde-b")));
+        approve(reviewService.createReview(request(other, 3), user("kunde-c")));
+
+        Map<Long, ProductRatingSummary> summaries = reviewService.getRatingSummaries(
+            List.of(product.getId(), other.getId(), unrated.getId()));
+
+        assertEquals(List.of(product.getId(), other.getId(), unrated.getId()), List.copyOf(summaries.keySet()));
+        assertEquals(3.5, summaries.get(product.getId()).getAverageRating());
+        assertEquals(2, summaries.get(product.getId()).getReviewCount());
+        assertEquals(3.0, summaries.get(other.getId()).getAverageRating());
+        assertEquals(0, summaries.get(unrated.getId()).getReviewCount());
+        assertEquals(0.0, summaries.get(unrated.getId()).getAverageRating());
+    }
+
+    @Test
+    void reconcileRepairsDriftAndBackfillsMissingRows() {
+        Product other = product("Tasse");
+        approve(reviewService.createReview(request(product, 5), user("kunde-a")));
+        approve(reviewService.createReview(request(other, 3), user("kunde-b")));
+
+        entityManager.flush();
+        // Drift: falscher Zähler bzw. fehlende Zeile
+        jdbcTemplate.update("UPDATE product_review_stats SET review_count = 7, rating_5_count = 0 WHERE product_id = ?",
+            product.getId());
+        jdbcTemplate.update("DELETE FROM product_review_stats WHERE product_id = ?", other.getId());
+
+        assertTrue(statsService.reconcile() >= 2);
+
+        ProductReviewStats stats = stats(product.getId());
+        assertEquals(1, stats.getTotalReviews());
+        assertEquals(1, stats.getFiveStarCount());
+        assertEquals(5.0, stats.getAverageRating());
+        assertEquals(1, stats(other.getId()).getThreeStarCount());
+        assertNoDrift();
+    }
+
+    /**
+     * Zähler werden per JDBC fortgeschrieben – vor dem Lesen flushen und den Persistence-Context leeren
+     */
+    private ProductReviewStats stats(Long productId) {
+        entityManager.flush();
+        entityManager.clear();
+        return reviewService.getProductReviewStats(productId);
+    }
+
+    private ProductReviewAggregate aggregateAfterFlush(Long productId) {
+        entityManager.flush();
+        entityManager.clear();
+        return statsService.getAggregate(productId).orElseThrow();
+    }
+
+    private void assertNoDrift() {
+        entityManager.flush();
+        assertEquals(0, statsService.reconcile());
+    }
+
+    private void approve(ProductReviewDTO review) {
+        reviewService.approveReview(review.getId(), owner);
+    }
+
+    private static CreateReviewRequest request(Product product, int rating) {
+        CreateReviewRequest request = new CreateReviewRequest();
+        request.setProductId(product.getId());
+        request.setRating(rating);
+        request.setTitle("Bewertung");
+        request.setComment("Kommentar");
+        return request;
+    }
+
+    private User user(String prefix) {
+        User user = new User();
+        user.setEmail(prefix + "-" + System.nanoTime() + "@test.com");
+        user.setPasswordHash("hash");
+        entityManager.persist(user);
+        return user;
+    }
+
+    private Product product(String title) {
+        Product product = new Product();
+        product.setStore(store);
+        product.setTitle(title);
+        product.setBasePrice(BigDecimal.TEN);
+        product.setStatus(ProductStatus.ACTIVE);
+        entityManager.persist(product);
+        return product;
+    }
+}
@@ -34,6 +34,12 @@ public class ProductTierPricePutBehaviorTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductCatalogCache catalogCache;
+
+    @Mock
+    private StorefrontVersionService storefrontVersions;
+
     @InjectMocks
     private ProductTierPriceService tierPriceService;
 
@@ -0,0 +1,55 @@
+package storebackend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import storebackend.service.ratelimit.LocalBucketStore;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests für RateLimitService mit dem lokalen BucketStore.
+ */
+class RateLimitServiceTest {
+
+    private RateLimitService rateLimitService;
+
+    @BeforeEach
+    void setUp() {
+        rateLimitService = new RateLimitService(new LocalBucketStore());
+    }
+
+    @Test
+    void ipLimitAllowsTenRequestsPerMinute() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(rateLimitService.checkIpRateLimit("10.0.0.1"));
+        }
+        assertFalse(rateLimitService.checkIpRateLimit("10.0.0.1"));
+        assertTrue(rateLimitService.checkIpRateLimit("10.0.0.2"));
+    }
+
+    @Test
+    void endpointLimitsAreSeparatedPerEndpointAndIdentifier() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(rateLimitService.checkEndpointRateLimit("save-email", "10.0.0.1"));
+        }
+        assertFalse(rateLimitService.checkEndpointRateLimit("save-email", "10.0.0.1"));
+        assertTrue(rateLimitService.checkEndpointRateLimit("forgot-password", "10.0.0.1"));
+        assertTrue(rateLimitService.checkEndpointRateLimit("save-email", "10.0.0.2"));
+    }
+
+    @Test
+    void accountLocksAfterFiveFailedLoginsUntilReset() {
+        for (int i = 0; i < 4; i++) {
+            rateLimitService.recordLoginAttempt("User@Test.com");
+        }
+        assertFalse(rateLimitService.isAccountLocked("user@test.com"));
+        assertEquals(1, rateLimitService.getRemainingLoginAttempts("user@test.com"));
+
+        rateLimitService.recordLoginAttempt("user@test.com");
+        assertTrue(rateLimitService.isAccountLocked("USER@test.com"));
+        assertEquals(0, rateLimitService.getRemainingLoginAttempts("user@test.com"));
+
+        rateLimitService.resetLoginAttempts("user@test.com");
+        assertFalse(rateLimitService.isAccountLocked("user@test.com"));
+    }
+}
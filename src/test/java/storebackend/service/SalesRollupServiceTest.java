@@ -0,0 +1,205 @@
+package storebackend.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import storebackend.dto.analytics.OrderStatsDTO;
+import storebackend.dto.analytics.RevenueSummaryDTO;
+import storebackend.dto.analytics.TopProductDTO;
+import storebackend.entity.Order;
+import storebackend.entity.OrderItem;
+import storebackend.entity.Product;
+import storebackend.entity.SalesRollupCoverage;
+import storebackend.entity.Store;
+import storebackend.entity.User;
+import storebackend.enums.OrderStatus;
+import storebackend.enums.PaymentMethod;
+import storebackend.enums.PaymentStatus;
+import storebackend.enums.ProductStatus;
+import storebackend.repository.SalesDailyRollupRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests für SalesRollupService - Rollups müssen exakt die Live-Kennzahlen liefern.
+ */
+@SpringBootTest
+@Transactional
+class SalesRollupServiceTest {
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private StoreAnalyticsService storeAnalyticsService;
+
+    @Autowired
+    private SalesDailyRollupRepository salesDailyRollupRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDate today = LocalDate.now();
+    private Store store;
+    private Product hoodie;
+    private Product mug;
+    private Order paidOrder;
+
+    @BeforeEach
+    void setUp() {
+        User owner = new User();
+        owner.setEmail("rollup-" + System.nanoTime() + "@test.com");
+        owner.setPasswordHash("hash");
+        entityManager.persist(owner);
+
+        store = new Store();
+        store.setOwner(owner);
+        store.setName("Rollup Store");
+        store.setSlug("rollup-" + System.nanoTime());
+        entityManager.persist(store);
+
+        hoodie = product("Hoodie");
+        mug = product("Mug");
+
+        // Vor 3 Tagen: bezahlt (zählt), bezahlt aber storniert (nur Anzahl), unbezahlt
+        paidOrder = order(3, OrderStatus.CONFIRMED, PaymentStatus.PAID, PaymentMethod.CASH_ON_DELIVERY,
+            item(hoodie, 2, "100.00"), item(mug, 1, "20.00"));
+        order(3, OrderStatus.CANCELLED, PaymentStatus.PAID, PaymentMethod.PAYPAL, item(mug, 1, "50.00"));
+        order(2, OrderStatus.PENDING_PAYMENT, PaymentStatus.PENDING, PaymentMethod.PAYPAL, item(hoodie, 1, "30.00"));
+        // Heute: immer live
+        order(0, OrderStatus.CONFIRMED, PaymentStatus.PAID, PaymentMethod.CASH_ON_DELIVERY, item(mug, 4, "80.00"));
+        entityManager.flush();
+    }
+
+    @Test
+    void rollupsAnswerExactlyLikeLiveQueries() {
+        LocalDate from = today.minusDays(10);
+        RevenueSummaryDTO liveRevenue = storeAnalyticsService.getRevenueSummary(store.getId(), from, today);
+        OrderStatsDTO liveStats = storeAnalyticsService.getOrderStats(store.getId(), from, today);
+        List<TopProductDTO> liveTop = storeAnalyticsService.getTopProducts(store.getId(), 5, from, today);
+
+        salesRollupService.reconcileStore(store.getId());
+
+        SalesRollupCoverage coverage = salesRollupService.coverageFor(store.getId()).orElseThrow();
+        assertEquals(today.minusDays(1), coverage.getCoveredThrough());
+        assertEquals(0, new BigDecimal("120.00").compareTo(
+            salesDailyRollupRepository.sumRevenue(store.getId(), from, today)));
+
+        RevenueSummaryDTO revenue = storeAnalyticsService.getRevenueSummary(store.getId(), from, today);
+        assertEquals(0, new BigDecimal("200.00").compareTo(revenue.getTotalRevenue()));
+        assertEquals(0, liveRevenue.getTotalRevenue().compareTo(revenue.getTotalRevenue()));
+        assertEquals(liveRevenue.getPaidOrderCount(), revenue.getPaidOrderCount());
+        assertEquals(3L, revenue.getPaidOrderCount());
+
+        OrderStatsDTO stats = storeAnalyticsService.getOrderStats(store.getId(), from, today);
+        assertEquals(liveStats.getOrdersByStatus(), stats.getOrdersByStatus());
+        assertEquals(liveStats.getOrdersByPaymentMethod(), stats.getOrdersByPaymentMethod());
+        assertEquals(2L, stats.getOrdersByStatus().get(OrderStatus.CONFIRMED));
+
+        List<TopProductDTO> top = storeAnalyticsService.getTopProducts(store.getId(), 5, from, today);
+        assertEquals(liveTop.size(), top.size());
+        for (int i = 0; i < top.size(); i++) {
+            assertEquals(liveTop.get(i).getProductId(), top.get(i).getProductId());
+            assertEquals(0, liveTop.get(i).getTotalRevenue().compareTo(top.get(i).getTotalRevenue()));
+            assertEquals(liveTop.get(i).getTotalQuantitySold(), top.get(i).getTotalQuantitySold());
+            assertEquals(liveTop.get(i).getOrderCount(), top.get(i).getOrderCount());
+        }
+        // Mug: 20 + 50 (storniert, aber bezahlt) + 80 heute
+        assertEquals(mug.getId(), top.get(0).getProductId());
+        assertEquals(0, new BigDecimal("150.00").compareTo(top.get(0).getTotalRevenue()));
+    }
+
+    @Test
+    void dirtyDayIsRebuiltAfterStatusChange() {
+        salesRollupService.reconcileStore(store.getId());
+
+        jdbcTemplate.update("UPDATE orders SET status = 'REFUNDED', payment_status = 'REFUNDED' WHERE id = ?",
+            paidOrder.getId());
+        salesRollupService.markDirty(store.getId(), today.minusDays(3).atTime(10, 0));
+        salesRollupService.flushDirtyDays();
+
+        RevenueSummaryDTO revenue = storeAnalyticsService.getRevenueSummary(
+            store.getId(), today.minusDays(10), today);
+        assertEquals(0, new BigDecimal("80.00").compareTo(revenue.getTotalRevenue()));
+        assertEquals(2L, revenue.getPaidOrderCount());
+    }
+
+    @Test
+    void afterCommitMarkingWaitsForTheTransaction() {
+        salesRollupService.reconcileStore(store.getId());
+
+        jdbcTemplate.update("UPDATE orders SET status = 'REFUNDED', payment_status = 'REFUNDED' WHERE id = ?",
+            paidOrder.getId());
+        // Test-Transaktion committet nicht: der Tag darf noch nicht neu berechnet werden
+        salesRollupService.markDirtyAfterCommit(store.getId(), today.minusDays(3).atTime(10, 0));
+        salesRollupService.flushDirtyDays();
+
+        RevenueSummaryDTO revenue = storeAnalyticsService.getRevenueSummary(
+            store.getId(), today.minusDays(10), today);
+        assertEquals(0, new BigDecimal("200.00").compareTo(revenue.getTotalRevenue()));
+    }
+
+    private Product product(String title) {
+        Product product = new Product();
+        product.setStore(store);
+        product.setTitle(title);
+        product.setBasePrice(new BigDecimal("10.00"));
+        product.setStatus(ProductStatus.ACTIVE);
+        entityManager.persist(product);
+        return product;
+    }
+
+    private Order order(int daysAgo, OrderStatus status, PaymentStatus paymentStatus,
+                        PaymentMethod paymentMethod, OrderItem... items) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (OrderItem item : items) {
+            total = total.add(item.getTotal());
+        }
+        Order order = new Order();
+        order.setStore(store);
+        order.setOrderNumber("ROLL-" + System.nanoTime());
+        order.setStatus(status);
+        order.setPaymentStatus(paymentStatus);
+        order.setPaymentMethod(paymentMethod);
+        order.setTotalGross(total);
+        order.setTotalAmount(total);
+        entityManager.persist(order);
+        for (OrderItem item : items) {
+            item.setOrder(order);
+            entityManager.persist(item);
+        }
+        entityManager.flush();
+        // created_at ist nicht updatable – Bestelltag direkt setzen
+        jdbcTemplate.update("UPDATE orders SET created_at = ? WHERE id = ?",
+            today.minusDays(daysAgo).atTime(12, 0), order.getId());
+        return order;
+    }
+
+    private static OrderItem item(Product product, int quantity, String total) {
+        BigDecimal lineTotal = new BigDecimal(total);
+        BigDecimal unitPrice = lineTotal.divide(BigDecimal.valueOf(quantity));
+        OrderItem item = new OrderItem();
+        item.setProduct(product);
+        item.setName(product.getTitle());
+        item.setQuantity(quantity);
+        item.setPrice(unitPrice);
+        item.setTotal(lineTotal);
+        item.setUnitPriceNet(unitPrice);
+        item.setUnitPriceGross(unitPrice);
+        item.setLineNet(lineTotal);
+        item.setLineTax(BigDecimal.ZERO);
+        item.setLineGross(lineTotal);
+        return item;
+    }
+}
@@ -0,0 +1,211 @@
+package storebackend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import storebackend.dto.GeoIpData;
+import storebackend.entity.SecurityEvent;
+import storebackend.enums.BlockReason;
+import storebackend.enums.EventType;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests für SecurityEventWriter - Ring-Puffer, Überlast-Sampling und Batch-Inserts.
+ */
+@ExtendWith(MockitoExtension.class)
+class SecurityEventWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private GeoIpService geoIpService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void fullBufferDropsOldestEvent() {
+        // Blockierte Events werden nie gesampelt → volle Puffer verdrängen das älteste Event
+        SecurityEventWriter writer = writer(3, 1.0, 10);
+
+        for (int i = 0; i < 5; i++) {
+            writer.enqueue(event("/api/auth/login", "10.0.0." + i, true));
+        }
+
+        assertEquals(3, writer.pendingCount());
+        assertEquals(2.0, dropped("overflow"));
+        assertEquals(0.0, dropped("sampled"));
+
+        when(geoIpService.isEnabled()).thenReturn(false);
+        writer.flush();
+
+        List<Object[]> rows = capturedRows();
+        assertEquals(3, rows.size());
+        // Älteste Events (10.0.0.0, 10.0.0.1) wurden verworfen
+        assertEquals("10.0.0.2", rows.get(0)[5]);
+        assertEquals("10.0.0.4", rows.get(2)[5]);
+    }
+
+    @Test
+    void fullBufferKeepsBlockedEventsAndDropsNonCriticalOnesFirst() {
+        // Sampling-Schwelle über der Kapazität: nur die Overflow-Policy greift
+        SecurityEventWriter writer = writer(3, 2.0, 10);
+
+        writer.enqueue(event("/api/auth/login", "10.0.0.1", true));
+        writer.enqueue(event("/api/auth/login", "10.0.0.2", false));
+        writer.enqueue(event("/api/auth/login", "10.0.0.3", false));
+        // Unkritisch bei vollem Puffer: wird selbst verworfen
+        writer.enqueue(event("/api/auth/login", "10.0.0.4", false));
+        // Blockiert: verdrängt das älteste unkritische (10.0.0.2), nicht das blockierte 10.0.0.1
+        writer.enqueue(event("/api/auth/login", "10.0.0.5", true));
+
+        assertEquals(2.0, dropped("overflow"));
+        when(geoIpService.isEnabled()).thenReturn(false);
+        writer.flush();
+
+        List<Object[]> rows = capturedRows();
+        assertEquals(List.of("10.0.0.1", "10.0.0.3", "10.0.0.5"), rows.stream().map(row -> row[5]).toList());
+    }
+
+    @Test
+    void overloadSamplesNonCriticalEventsButKeepsBlockedOnes() {
+        // Ab 2 gepufferten Events wird nur noch jedes 5. unkritische Event angenommen
+        SecurityEventWriter writer = writer(100, 0.02, 5);
+
+        writer.enqueue(event("/api/auth/login", "10.0.0.1", false));
+        writer.enqueue(event("/api/auth/login", "10.0.0.2", false));
+        for (int i = 0; i < 10; i++) {
+            writer.enqueue(event("/api/auth/login", "10.0.1." + i, false));
+        }
+        writer.enqueue(event("/api/auth/register", "10.0.2.1", true));
+
+        assertEquals(2 + 2 + 1, writer.pendingCount());
+        assertEquals(8.0, dropped("sampled"));
+        assertEquals(0.0, dropped("overflow"));
+    }
+
+    @Test
+    void flushWritesBatchesAndLooksUpEachIpOnce() {
+        SecurityEventWriter writer = writer(100, 1.0, 10);
+        when(geoIpService.isEnabled()).thenReturn(true);
+        when(geoIpService.lookup("203.0.113.7")).thenReturn(GeoIpData.builder()
+            .countryCode("MA")
+            .countryName("Morocco")
+            .asnOrg("Example Hosting")
+            .build());
+
+        for (int i = 0; i < 4; i++) {
+            writer.enqueue(event("/api/auth/login", "203.0.113.7", i == 0));
+        }
+        writer.flush();
+
+        verify(geoIpService, times(1)).lookup("203.0.113.7");
+        List<Object[]> rows = capturedRows();
+        assertEquals(4, rows.size());
+        Object[] first = rows.get(0);
+        assertNotNull(first[0]);
+        assertEquals(EventType.LOGIN_FAILED.name(), first[2]);
+        assertEquals(Boolean.TRUE, first[17]);
+        assertEquals(BlockReason.IP_RATE_LIMIT.name(), first[18]);
+        assertEquals("MA", first[32]);
+        assertEquals(0, writer.pendingCount());
+    }
+
+    @Test
+    void failedBatchIsCountedAndDiscarded() {
+        SecurityEventWriter writer = writer(100, 1.0, 10);
+        when(geoIpService.isEnabled()).thenReturn(false);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new RuntimeException("db down"));
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenThrow(new RuntimeException("db down"));
+
+        writer.enqueue(event("/api/auth/login", "10.0.0.1", false));
+        writer.enqueue(event("/api/auth/login", "10.0.0.2", false));
+        writer.flush();
+
+        assertEquals(0, writer.pendingCount());
+        assertEquals(2.0, meterRegistry.counter("security.events.write.failures").count());
+    }
+
+    @Test
+    void failedBatchFallsBackToRowInsertsAndLosesOnlyBadRows() {
+        SecurityEventWriter writer = writer(100, 1.0, 10);
+        when(geoIpService.isEnabled()).thenReturn(false);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new RuntimeException("value too long"));
+        when(jdbcTemplate.update(eq(SecurityEventWriter.INSERT_SQL), any(Object[].class))).thenAnswer(invocation -> {
+            if ("10.0.0.2".equals(((Object[]) invocation.getRawArguments()[1])[5])) {
+                throw new RuntimeException("constraint violation");
+            }
+            return 1;
+        });
+
+        for (int i = 1; i <= 3; i++) {
+            writer.enqueue(event("/api/auth/login", "10.0.0." + i, false));
+        }
+        writer.flush();
+
+        verify(jdbcTemplate, times(3)).update(eq(SecurityEventWriter.INSERT_SQL), any(Object[].class));
+        assertEquals(1.0, meterRegistry.counter("security.events.write.failures").count());
+    }
+
+    @Test
+    void headerValuesAreTruncatedToColumnLength() {
+        SecurityEventWriter writer = writer(100, 1.0, 10);
+        when(geoIpService.isEnabled()).thenReturn(false);
+        SecurityEvent event = event("/api/auth/login", "10.0.0.1", false);
+        event.setUserAgent("a".repeat(2_000));
+        event.setXForwardedFor("10.0.0.1, ".repeat(100));
+        event.setReferer("https://example.com/" + "x".repeat(1_000));
+        event.setEmailMasked("ab***@" + "d".repeat(300) + ".com");
+        event.setEmailDomain("d".repeat(300) + ".com");
+
+        writer.enqueue(event);
+        writer.flush();
+
+        Object[] row = capturedRows().get(0);
+        assertEquals(200, ((String) row[7]).length());
+        assertEquals(500, ((String) row[9]).length());
+        assertEquals(500, ((String) row[31]).length());
+        assertEquals(100, ((String) row[10]).length());
+        assertEquals(100, ((String) row[11]).length());
+    }
+
+    private SecurityEventWriter writer(int capacity, double samplingThreshold, int sampleRate) {
+        return new SecurityEventWriter(jdbcTemplate, geoIpService, meterRegistry,
+            capacity, 500, samplingThreshold, sampleRate);
+    }
+
+    private double dropped(String reason) {
+        return meterRegistry.counter("security.events.dropped", "reason", reason).count();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> capturedRows() {
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(SecurityEventWriter.INSERT_SQL), captor.capture());
+        return captor.getValue();
+    }
+
+    private static SecurityEvent event(String endpoint, String clientIp, boolean blocked) {
+        SecurityEvent event = new SecurityEventService.SecurityEventBuilder(endpoint)
+            .eventType(EventType.LOGIN_FAILED)
+            .blocked(blocked, blocked ? BlockReason.IP_RATE_LIMIT : null)
+            .build();
+        event.setClientIp(clientIp);
+        return event;
+    }
+}
@@ -0,0 +1,202 @@
+package storebackend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import storebackend.dto.ProductDTO;
+import storebackend.entity.OrderItem;
+import storebackend.entity.Product;
+import storebackend.entity.ProductVariant;
+import storebackend.entity.Store;
+import storebackend.entity.User;
+import storebackend.enums.ProductStatus;
+import storebackend.exception.InsufficientStockException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Stresstest: parallele Checkouts auf dieselben Varianten dürfen nie überverkaufen.
+ * Läuft bewusst ohne Test-Transaktion – jeder Checkout committet in eigener Transaktion.
+ */
+@SpringBootTest
+class StockReservationStressTest {
+
+    private static final int STOCK = 50;
+    private static final int THREADS = 16;
+    private static final int ORDERS = 200;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ProductCatalogCache catalogCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private jakarta.persistence.EntityManager entityManager;
+
+    private Long storeId;
+    private Long ownerId;
+    private Long productId;
+    private ProductVariant variantA;
+    private ProductVariant variantB;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            User owner = new User();
+            owner.setEmail("stock-" + System.nanoTime() + "@test.com");
+            owner.setPasswordHash("dummy");
+            owner.setCreatedAt(LocalDateTime.now());
+            owner.setUpdatedAt(LocalDateTime.now());
+            entityManager.persist(owner);
+
+            Store store = new Store();
+            store.setOwner(owner);
+            store.setName("Flash Sale Store");
+            store.setSlug("flash-sale-" + System.nanoTime());
+            entityManager.persist(store);
+
+            Product product = new Product();
+            product.setStore(store);
+            product.setTitle("Limited Hoodie");
+            product.setBasePrice(new BigDecimal("49.00"));
+            product.setStatus(ProductStatus.ACTIVE);
+            entityManager.persist(product);
+
+            variantA = variant(product, "A");
+            variantB = variant(product, "B");
+
+            ownerId = owner.getId();
+            storeId = store.getId();
+            productId = product.getId();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM inventory_logs WHERE variant_id IN (?, ?)", variantA.getId(), variantB.getId());
+        jdbcTemplate.update("DELETE FROM product_variants WHERE product_id = ?", productId);
+        jdbcTemplate.update("DELETE FROM products WHERE id = ?", productId);
+        jdbcTemplate.update("DELETE FROM stores WHERE id = ?", storeId);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", ownerId);
+    }
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            // Jede Order: 1× A und 1× B, in wechselnder Reihenfolge (Deadlock-Prüfung)
+            List<OrderItem> items = i % 2 == 0
+                ? List.of(item(variantA, 1), item(variantB, 1))
+                : List.of(item(variantB, 1), item(variantA, 1));
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    inventoryService.reserveForOrder(items, "SALE", "stress", null);
+                    succeeded.incrementAndGet();
+                } catch (InsufficientStockException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(succeeded.get()).isEqualTo(STOCK);
+        assertThat(rejected.get()).isEqualTo(ORDERS - STOCK);
+        assertThat(stockOf(variantA)).isZero();
+        assertThat(stockOf(variantB)).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM inventory_logs WHERE variant_id = ?", Long.class, variantA.getId()))
+            .isEqualTo(STOCK);
+    }
+
+    @Test
+    void failedPositionRollsBackWholeOrder() {
+        jdbcTemplate.update("UPDATE product_variants SET stock_quantity = 1 WHERE id = ?", variantB.getId());
+
+        assertThatThrownBy(() -> inventoryService.reserveForOrder(
+                List.of(item(variantA, 3), item(variantB, 2)), "SALE", "rollback", null))
+            .isInstanceOf(InsufficientStockException.class);
+
+        assertThat(stockOf(variantA)).isEqualTo(STOCK);
+        assertThat(stockOf(variantB)).isEqualTo(1);
+    }
+
+    @Test
+    void releaseRestoresReservedStock() {
+        List<OrderItem> items = List.of(item(variantA, 2), item(variantA, 3));
+
+        inventoryService.reserveForOrder(items, "SALE", "order", null);
+        assertThat(stockOf(variantA)).isEqualTo(STOCK - 5);
+
+        inventoryService.releaseForOrder(items, "cancelled", null);
+        assertThat(stockOf(variantA)).isEqualTo(STOCK);
+    }
+
+    @Test
+    void reservationEvictsTheCachedProduct() {
+        AtomicInteger loads = new AtomicInteger();
+        catalogCache.getProduct(storeId, productId, () -> { loads.incrementAndGet(); return new ProductDTO(); });
+        catalogCache.getProduct(storeId, productId, () -> { loads.incrementAndGet(); return new ProductDTO(); });
+        assertThat(loads.get()).isEqualTo(1);
+
+        inventoryService.reserveForOrder(List.of(item(variantA, 1)), "SALE", "order", null);
+
+        catalogCache.getProduct(storeId, productId, () -> { loads.incrementAndGet(); return new ProductDTO(); });
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    private ProductVariant variant(Product product, String suffix) {
+        ProductVariant variant = new ProductVariant();
+        variant.setProduct(product);
+        variant.setSku("FLASH-" + suffix + "-" + System.nanoTime());
+        variant.setPrice(new BigDecimal("49.00"));
+        variant.setStockQuantity(STOCK);
+        entityManager.persist(variant);
+        return variant;
+    }
+
+    private int stockOf(ProductVariant variant) {
+        return jdbcTemplate.queryForObject(
+            "SELECT stock_quantity FROM product_variants WHERE id = ?", Integer.class, variant.getId());
+    }
+
+    private static OrderItem item(ProductVariant variant, int quantity) {
+        OrderItem item = new OrderItem();
+        item.setVariant(variant);
+        item.setQuantity(quantity);
+        return item;
+    }
+}
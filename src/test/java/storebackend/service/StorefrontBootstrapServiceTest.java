@@ -0,0 +1,147 @@
+package storebackend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import storebackend.dto.CreateHomepageSectionRequest;
+import storebackend.dto.PublicStoreDTO;
+import storebackend.entity.Store;
+import storebackend.entity.User;
+import storebackend.repository.StoreRepository;
+import storebackend.repository.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests für den Storefront-Bootstrap: gecachter Snapshot mit stabilem ETag, neue Version nach
+ * Admin-Änderung. Ohne Test-Transaktion – die Teile werden auf eigenen Threads geladen.
+ */
+@SpringBootTest
+class StorefrontBootstrapServiceTest {
+
+    private static final String HOST = "bootstrap-test.example.com";
+
+    @Autowired
+    private StorefrontBootstrapService bootstrapService;
+
+    @Autowired
+    private StorefrontVersionService versionService;
+
+    @Autowired
+    private HomepageSectionService sectionService;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User owner;
+    private Store store;
+
+    @BeforeEach
+    void setUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            owner = new User();
+            owner.setEmail("bootstrap-" + System.nanoTime() + "@test.com");
+            owner.setPasswordHash("hash");
+            owner = userRepository.save(owner);
+
+            store = new Store();
+            store.setOwner(owner);
+            store.setName("Bootstrap Store");
+            store.setSlug("bootstrap-" + System.nanoTime());
+            store = storeRepository.save(store);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM homepage_sections WHERE store_id = ?", store.getId());
+        jdbcTemplate.update("DELETE FROM store_slider_settings WHERE store_id = ?", store.getId());
+        jdbcTemplate.update("DELETE FROM storefront_versions WHERE store_id = ?", store.getId());
+        jdbcTemplate.update("DELETE FROM stores WHERE id = ?", store.getId());
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", owner.getId());
+    }
+
+    @Test
+    void snapshotIsCachedUntilTheStoreVersionChanges() throws Exception {
+        StorefrontBootstrapService.Snapshot first = bootstrapService.getBootstrap(publicStore(), HOST, 10);
+        StorefrontBootstrapService.Snapshot second = bootstrapService.getBootstrap(publicStore(), HOST, 10);
+
+        assertEquals(0L, first.version());
+        assertSame(first, second);
+        assertTrue(first.etag().startsWith("\"") && first.etag().endsWith("\""));
+        assertEquals(0, objectMapper.readTree(first.body()).get("sections").size());
+
+        CreateHomepageSectionRequest request = new CreateHomepageSectionRequest();
+        request.setStoreId(store.getId());
+        request.setSectionType("HERO");
+        request.setSortOrder(1);
+        sectionService.createSection(request);
+
+        StorefrontBootstrapService.Snapshot changed = bootstrapService.getBootstrap(publicStore(), HOST, 10);
+        JsonNode body = objectMapper.readTree(changed.body());
+
+        assertEquals(1L, changed.version());
+        assertNotEquals(first.etag(), changed.etag());
+        assertEquals(1, body.get("version").asLong());
+        assertEquals("HERO", body.get("sections").get(0).get("sectionType").asText());
+    }
+
+    @Test
+    void bumpCreatesAndIncrementsTheVersionRow() {
+        assertEquals(0L, versionService.currentVersion(store.getId()));
+
+        versionService.bump(store.getId());
+        versionService.bump(store.getId());
+
+        assertEquals(2L, versionService.currentVersion(store.getId()));
+        assertEquals(2L, jdbcTemplate.queryForObject(
+            "SELECT version FROM storefront_versions WHERE store_id = ?", Long.class, store.getId()));
+    }
+
+    @Test
+    void productLimitIsClamped() throws Exception {
+        StorefrontBootstrapService.Snapshot snapshot = bootstrapService.getBootstrap(publicStore(), HOST, 10_000);
+
+        JsonNode body = objectMapper.readTree(snapshot.body());
+        assertEquals(store.getId(), body.get("store").get("storeId").asLong());
+        assertTrue(body.get("topProducts").isArray());
+        assertSame(snapshot, bootstrapService.getBootstrap(publicStore(), HOST, StorefrontBootstrapService.MAX_PRODUCT_LIMIT));
+    }
+
+    @Test
+    void cacheLifetimeMustStayWithinThePresignedUrlValidity() {
+        // Defaults: 10 + 10 Minuten + 60s max-age bei 25 Minuten Restgültigkeit
+        assertEquals(25, MinioService.minRemainingValidityMinutes(60, 25));
+        assertEquals(30, MinioService.minRemainingValidityMinutes(60, 45));
+        assertDoesNotThrow(() -> StorefrontBootstrapService.checkUrlLifetime(10, 10, 60, 25));
+        assertThrows(IllegalStateException.class, () -> StorefrontBootstrapService.checkUrlLifetime(10, 10, 60, 15));
+        assertThrows(IllegalStateException.class, () -> StorefrontBootstrapService.checkUrlLifetime(10, 15, 1, 25));
+    }
+
+    private PublicStoreDTO publicStore() {
+        PublicStoreDTO dto = new PublicStoreDTO();
+        dto.setStoreId(store.getId());
+        dto.setName(store.getName());
+        dto.setSlug(store.getSlug());
+        return dto;
+    }
+}
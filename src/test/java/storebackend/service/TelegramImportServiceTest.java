@@ -38,6 +38,8 @@ class TelegramImportServiceTest {
     @Mock private MinioService minioService;
     @Mock private ProductMediaRepository productMediaRepository;
     @Mock private ProductRepository productRepository;
+    @Mock private ProductCatalogCache catalogCache;
+    @Mock private StorefrontVersionService storefrontVersions;
 
     @InjectMocks
     private TelegramImportService telegramImportService;
@@ -77,6 +79,7 @@ class TelegramImportServiceTest {
 
         TelegramImportResultDto result = new TelegramImportResultDto();
         telegramImportService.processPost(post, cfg, store, new User(), result);
+        verify(storefrontVersions).bump(121L);
 
         ArgumentCaptor<Product> productCaptor = ArgumentCaptor.forClass(Product.class);
         verify(productRepository).save(productCaptor.capture());
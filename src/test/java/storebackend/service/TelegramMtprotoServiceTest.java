@@ -36,6 +36,8 @@ class TelegramMtprotoServiceTest {
         ProductRepository productRepository = mock(ProductRepository.class);
         TelegramSyncNotificationRepository notificationRepository = mock(TelegramSyncNotificationRepository.class);
         AiModelProvider aiModelProvider = mock(AiModelProvider.class);
+        ProductCatalogCache catalogCache = mock(ProductCatalogCache.class);
+        StorefrontVersionService storefrontVersions = mock(StorefrontVersionService.class);
 
         TelegramMtprotoService service = new TelegramMtprotoService(
             mtprotoRepository,
@@ -50,7 +52,9 @@ class TelegramMtprotoServiceTest {
             productMediaRepository,
             productRepository,
             notificationRepository,
-            aiModelProvider
+            aiModelProvider,
+            catalogCache,
+            storefrontVersions
         );
 
         Store store = new Store();
@@ -84,6 +88,7 @@ class TelegramMtprotoServiceTest {
             """);
 
         service.saveOneProductFromPost(post, store, new User(), "@markt", new TelegramMtprotoConfig());
+        verify(storefrontVersions).bump(121L);
 
         ArgumentCaptor<Product> productCaptor = ArgumentCaptor.forClass(Product.class);
         verify(productRepository, org.mockito.Mockito.atLeast(2)).save(productCaptor.capture());
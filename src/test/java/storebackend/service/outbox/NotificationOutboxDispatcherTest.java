@@ -0,0 +1,196 @@
+package storebackend.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import storebackend.enums.NotificationChannel;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests für die Notification-Outbox: Schreiben in der Transaktion, Zustellung mit Kanal-Limit,
+ * Backoff bis FAILED und SKIP LOCKED beim Claimen. Ohne Test-Transaktion – wie im Betrieb.
+ */
+@SpringBootTest
+class NotificationOutboxDispatcherTest {
+
+    private static final String TEST_AGGREGATE = "TEST";
+
+    @Autowired
+    private NotificationOutboxService outboxService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private TransactionTemplate transactionTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private StubHandler handler;
+    private NotificationOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        meterRegistry = new SimpleMeterRegistry();
+        handler = new StubHandler();
+        // E-Mail max. 2 parallel, kein Backoff, 3 Versuche
+        dispatcher = new NotificationOutboxDispatcher(jdbcTemplate, transactionManager, objectMapper, meterRegistry,
+            List.of(handler), false, 50, 3, 0, 0, 300, 14, 2, 1, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+        jdbcTemplate.update("DELETE FROM notification_outbox WHERE aggregate_type = ?", TEST_AGGREGATE);
+    }
+
+    @Test
+    void messagesAreOnlyWrittenWhenTheTransactionCommits() {
+        transactionTemplate.executeWithoutResult(status -> {
+            enqueue(1L);
+            status.setRollbackOnly();
+        });
+        assertEquals(0, count(null));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            enqueue(2L);
+            enqueue(2L); // gleiche offene Nachricht → nicht doppelt
+        });
+        assertEquals(1, count("PENDING"));
+    }
+
+    @Test
+    void deliveriesRespectChannelLimitAndRecordLatency() throws Exception {
+        handler.delayMillis = 50;
+        for (long id = 1; id <= 10; id++) {
+            enqueue(id);
+        }
+
+        awaitStatus("SENT", 10);
+
+        assertEquals(10, handler.calls.get());
+        assertTrue(handler.maxConcurrent.get() <= 2, "max concurrent was " + handler.maxConcurrent.get());
+        assertEquals(10, meterRegistry.timer("notifications.outbox.lag", "channel", "EMAIL").count());
+        assertEquals(10.0, meterRegistry.counter("notifications.outbox.deliveries",
+            "channel", "EMAIL", "outcome", "SENT").count());
+
+        dispatcher.refreshQueueDepth();
+        assertEquals(0.0, meterRegistry.get("notifications.outbox.queue.depth").tag("channel", "EMAIL").gauge().value());
+    }
+
+    @Test
+    void failingDeliveriesAreRetriedUntilMaxAttempts() throws Exception {
+        handler.outcome = NotificationOutboxHandler.Outcome.RETRY;
+        enqueue(1L);
+
+        awaitStatus("FAILED", 1);
+
+        assertEquals(3, handler.calls.get());
+        assertEquals(3, jdbcTemplate.queryForObject(
+            "SELECT attempts FROM notification_outbox WHERE aggregate_type = ?", Integer.class, TEST_AGGREGATE));
+        assertNotNull(jdbcTemplate.queryForObject(
+            "SELECT last_error FROM notification_outbox WHERE aggregate_type = ?", String.class, TEST_AGGREGATE));
+    }
+
+    @Test
+    void claimSkipsRowsLockedByAnotherNode() throws Exception {
+        for (long id = 1; id <= 3; id++) {
+            enqueue(id);
+        }
+        Long lockedId = jdbcTemplate.queryForObject(
+            "SELECT MIN(id) FROM notification_outbox WHERE aggregate_type = ?", Long.class, TEST_AGGREGATE);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> otherNode = CompletableFuture.runAsync(() ->
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.queryForList("SELECT id FROM notification_outbox WHERE id = ? FOR UPDATE", lockedId);
+                locked.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+        List<NotificationOutboxDispatcher.ClaimedMessage> claimed = CompletableFuture
+            .supplyAsync(() -> dispatcher.claim(NotificationChannel.EMAIL, 10))
+            .get(10, TimeUnit.SECONDS);
+        release.countDown();
+        otherNode.get(10, TimeUnit.SECONDS);
+
+        assertEquals(2, claimed.size());
+        assertTrue(claimed.stream().noneMatch(message -> message.id().equals(lockedId)));
+        assertEquals(2, count("PROCESSING"));
+    }
+
+    private void enqueue(Long aggregateId) {
+        outboxService.enqueue(NotificationChannel.EMAIL, TEST_AGGREGATE, aggregateId, "TEST_EMAIL",
+            Map.of("recipient", "kunde-" + aggregateId + "@test.com"));
+    }
+
+    private int count(String status) {
+        return status == null
+            ? jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM notification_outbox WHERE aggregate_type = ?", Integer.class, TEST_AGGREGATE)
+            : jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM notification_outbox WHERE aggregate_type = ? AND status = ?",
+                Integer.class, TEST_AGGREGATE, status);
+    }
+
+    private void awaitStatus(String status, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (count(status) < expected && System.currentTimeMillis() < deadline) {
+            dispatcher.dispatchAvailable();
+            Thread.sleep(20);
+        }
+        assertEquals(expected, count(status));
+    }
+
+    private static class StubHandler implements NotificationOutboxHandler {
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxConcurrent = new AtomicInteger();
+        volatile Outcome outcome = Outcome.SENT;
+        volatile long delayMillis;
+
+        @Override
+        public String aggregateType() {
+            return TEST_AGGREGATE;
+        }
+
+        @Override
+        public Outcome deliver(String messageType, Long aggregateId, Map<String, Object> payload) {
+            calls.incrementAndGet();
+            maxConcurrent.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+            return outcome;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package storebackend.service.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests für PostgresBucketStore - atomarer Verbrauch in der DB, Ablehnung aus dem Near-Cache.
+ */
+@ExtendWith(MockitoExtension.class)
+class PostgresBucketStoreTest {
+
+    private static final BucketSpec SPEC = new BucketSpec("ip", 2, Duration.ofMinutes(1), 100);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PostgresBucketStore store;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        store = new PostgresBucketStore(jdbcTemplate, meterRegistry, 1_000);
+    }
+
+    @Test
+    void exhaustedBucketIsRejectedLocallyUntilWindowEnds() {
+        long windowEnd = System.currentTimeMillis() + 60_000;
+        stubConsume(1, windowEnd);
+        assertTrue(store.tryConsume(SPEC, "10.0.0.1"));
+        stubConsume(2, windowEnd);
+        assertTrue(store.tryConsume(SPEC, "10.0.0.1"));
+        stubConsume(3, windowEnd);
+        assertFalse(store.tryConsume(SPEC, "10.0.0.1"));
+
+        // Weitere Requests: keine DB-Abfrage mehr
+        assertFalse(store.tryConsume(SPEC, "10.0.0.1"));
+        assertFalse(store.tryConsume(SPEC, "10.0.0.1"));
+
+        verify(jdbcTemplate, times(3)).queryForObject(eq(PostgresBucketStore.CONSUME_SQL), any(RowMapper.class),
+            eq("ip:10.0.0.1"), any(Timestamp.class), any(Timestamp.class), any(Timestamp.class));
+        assertEquals(2.0, meterRegistry.get("rate_limit.near_cache.hits").counter().count());
+    }
+
+    @Test
+    void storeFailureAllowsRequest() {
+        when(jdbcTemplate.queryForObject(eq(PostgresBucketStore.CONSUME_SQL), any(RowMapper.class),
+                any(), any(), any(), any()))
+            .thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        assertTrue(store.tryConsume(SPEC, "10.0.0.1"));
+        assertEquals(1.0, meterRegistry.get("rate_limit.store.errors").counter().count());
+    }
+
+    @Test
+    void counterOperationsFailOpen() {
+        DataAccessResourceFailureException down = new DataAccessResourceFailureException("connection refused");
+        when(jdbcTemplate.queryForObject(eq(PostgresBucketStore.INCREMENT_SQL), eq(Long.class), any(), any(), any()))
+            .thenThrow(down);
+        when(jdbcTemplate.queryForList(eq(PostgresBucketStore.GET_SQL), eq(Long.class), any(), any()))
+            .thenThrow(down);
+        when(jdbcTemplate.update(eq(PostgresBucketStore.RESET_SQL), any(Object[].class))).thenThrow(down);
+
+        assertEquals(0, store.increment("login:a@b.c", Duration.ofMinutes(15)));
+        assertEquals(0, store.get("login:a@b.c"));
+        assertDoesNotThrow(() -> store.reset("login:a@b.c"));
+        assertEquals(3.0, meterRegistry.get("rate_limit.store.errors").counter().count());
+    }
+
+    @Test
+    void overlongKeysAreBoundedToColumnLength() {
+        String longKey = "login:" + "x".repeat(500) + "@example.com";
+        String otherKey = "login:" + "x".repeat(500) + "@example.org";
+
+        String bounded = PostgresBucketStore.storeKey(longKey);
+
+        assertEquals(PostgresBucketStore.MAX_KEY_LENGTH, bounded.length());
+        assertNotEquals(bounded, PostgresBucketStore.storeKey(otherKey));
+        assertEquals("ip:10.0.0.1", PostgresBucketStore.storeKey("ip:10.0.0.1"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubConsume(long consumed, long windowEndMillis) {
+        when(jdbcTemplate.queryForObject(eq(PostgresBucketStore.CONSUME_SQL), any(RowMapper.class),
+                any(), any(), any(), any()))
+            .thenAnswer(invocation -> {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong("consumed")).thenReturn(consumed);
+                when(rs.getTimestamp("window_end")).thenReturn(new Timestamp(windowEndMillis));
+                return ((RowMapper<?>) invocation.getArgument(1)).mapRow(rs, 0);
+            });
+    }
+}
@@ -0,0 +1,120 @@
+package storebackend.service.seo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import storebackend.entity.RedirectRule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * JMH-Benchmark: Redirect-Auflösung mit 10.000 Regeln (Migrations-Import).
+ *
+ * - linear: bisheriges Verhalten (Liste durchlaufen, Regex pro Prüfung kompilieren)
+ * - compiled: RedirectRuleMatcher (HashMap + Präfix-Trie + vorkompilierte Patterns)
+ *
+ * Regelmix: 9.000 exakte Pfade, 900 Wildcards ("/legacy/cat-N/.*"), 100 echte Regex.
+ * Pfade: Treffer am Listenende, Wildcard-Treffer und Miss (schlechtester Fall linear).
+ *
+ * Start:
+ *   mvn test-compile
+ *   java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        storebackend.service.seo.RedirectRuleMatcherBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RedirectRuleMatcherBenchmark {
+
+    private static final int RULES = 10_000;
+
+    @Param({"/old/product-8999", "/legacy/cat-450/shoes/red", "/not/redirected"})
+    public String path;
+
+    private List<RedirectRule> rules;
+    private RedirectRuleMatcher matcher;
+
+    @Setup
+    public void setUp() {
+        rules = new ArrayList<>(RULES);
+        long id = 1;
+        for (int i = 0; i < 9_000; i++) {
+            rules.add(rule(id++, "/old/product-" + i, false));
+        }
+        for (int i = 0; i < 900; i++) {
+            rules.add(rule(id++, "^/legacy/cat-" + i + "/.*", true));
+        }
+        for (int i = 0; i < 100; i++) {
+            rules.add(rule(id++, "/archive/" + i + "/(\\d+)/.*\\.html", true));
+        }
+        matcher = RedirectRuleMatcher.compile(rules);
+    }
+
+    @Benchmark
+    public RedirectRule linear() {
+        for (RedirectRule rule : rules) {
+            if (matchesUncompiled(rule, path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public RedirectRule compiled() {
+        return matcher.match(path);
+    }
+
+    @Benchmark
+    public RedirectRuleMatcher compile() {
+        return RedirectRuleMatcher.compile(rules);
+    }
+
+    private static boolean matchesUncompiled(RedirectRule rule, String path) {
+        if (rule.getRegex()) {
+            try {
+                return Pattern.compile(rule.getSourcePath()).matcher(path).matches();
+            } catch (PatternSyntaxException e) {
+                return false;
+            }
+        }
+        return rule.getSourcePath().equals(path);
+    }
+
+    private static RedirectRule rule(long id, String sourcePath, boolean regex) {
+        return RedirectRule.builder()
+                .id(id)
+                .storeId(1L)
+                .sourcePath(sourcePath)
+                .targetUrl("/new/" + id)
+                .httpCode(301)
+                .isRegex(regex)
+                .priority(100)
+                .isActive(true)
+                .build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RedirectRuleMatcherBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
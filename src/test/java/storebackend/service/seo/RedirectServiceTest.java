@@ -15,6 +15,8 @@ import java.util.Collections;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -144,5 +146,56 @@ class RedirectServiceTest {
 
         assertFalse(response.isFound());
     }
-}
 
+    @Test
+    void testWildcardRegexUsesPrefixAndRespectsPriority() {
+        RedirectRule wildcard = RedirectRule.builder()
+                .id(4L)
+                .sourcePath("^/old-shop/.*")
+                .targetUrl("/shop")
+                .httpCode(301)
+                .isRegex(true)
+                .priority(10)
+                .isActive(true)
+                .build();
+
+        RedirectRule exact = RedirectRule.builder()
+                .id(5L)
+                .sourcePath("/old-shop/hoodie")
+                .targetUrl("/p/hoodie")
+                .httpCode(301)
+                .isRegex(false)
+                .priority(100)
+                .isActive(true)
+                .build();
+
+        when(redirectRuleRepository.findActiveRulesForStoreAndDomain(anyLong(), anyLong()))
+                .thenReturn(Arrays.asList(wildcard, exact));
+
+        assertEquals("/shop", redirectService.resolve(testStoreId, testDomainId, "/old-shop/hoodie").getTargetUrl());
+        assertEquals("/shop", redirectService.resolve(testStoreId, testDomainId, "/old-shop/").getTargetUrl());
+        assertFalse(redirectService.resolve(testStoreId, testDomainId, "/old-shop").isFound());
+    }
+
+    @Test
+    void testRulesAreCompiledOncePerStoreAndDomain() {
+        RedirectRule rule = RedirectRule.builder()
+                .id(6L)
+                .storeId(testStoreId)
+                .sourcePath("/a")
+                .targetUrl("/b")
+                .httpCode(301)
+                .isRegex(false)
+                .priority(100)
+                .isActive(true)
+                .build();
+
+        when(redirectRuleRepository.findActiveRulesForStoreAndDomain(testStoreId, testDomainId))
+                .thenReturn(Collections.singletonList(rule));
+
+        redirectService.resolve(testStoreId, testDomainId, "/a");
+        redirectService.resolve(testStoreId, testDomainId, "/other");
+
+        verify(redirectRuleRepository, times(1)).findActiveRulesForStoreAndDomain(testStoreId, testDomainId);
+    }
+}
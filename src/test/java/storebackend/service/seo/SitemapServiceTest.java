@@ -0,0 +1,125 @@
+package storebackend.service.seo;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import storebackend.entity.Product;
+import storebackend.entity.SitemapConfig;
+import storebackend.entity.Store;
+import storebackend.entity.User;
+import storebackend.enums.ProductStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests für die gestreamte, seitenweise Produkt-Sitemap (Keyset über id, ETag je Seite).
+ */
+@SpringBootTest
+@Transactional
+class SitemapServiceTest {
+
+    @Autowired
+    private SitemapService sitemapService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Store store;
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User owner = new User();
+        owner.setEmail("sitemap-" + System.nanoTime() + "@test.com");
+        owner.setPasswordHash("dummy");
+        owner.setCreatedAt(LocalDateTime.now());
+        owner.setUpdatedAt(LocalDateTime.now());
+        entityManager.persist(owner);
+
+        store = new Store();
+        store.setOwner(owner);
+        store.setName("Sitemap Store");
+        store.setSlug("sitemap-" + System.nanoTime());
+        entityManager.persist(store);
+
+        entityManager.persist(SitemapConfig.builder()
+                .storeId(store.getId())
+                .splitThreshold(3)
+                .build());
+
+        for (int i = 0; i < 7; i++) {
+            Product product = new Product();
+            product.setStore(store);
+            product.setTitle("Product " + i);
+            product.setBasePrice(new BigDecimal("9.99"));
+            // Entwürfe gehören nicht in die Sitemap
+            product.setStatus(i == 3 ? ProductStatus.DRAFT : ProductStatus.ACTIVE);
+            entityManager.persist(product);
+            products.add(product);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void productSitemapIsSplitIntoPagesOfActiveProducts() throws Exception {
+        String page1 = write(sitemapService.getProductSitemapPage(store.getId(), 1));
+        String page2 = write(sitemapService.getProductSitemapPage(store.getId(), 2));
+        String page3 = write(sitemapService.getProductSitemapPage(store.getId(), 3));
+
+        assertThat(urls(page1)).containsExactly(url(0), url(1), url(2));
+        assertThat(urls(page2)).containsExactly(url(4), url(5), url(6));
+        assertThat(urls(page3)).isEmpty();
+        assertThat(page3).endsWith("</urlset>");
+
+        assertThat(sitemapService.generateSitemapIndex(store.getId(), null, "https://shop.test/public"))
+                .contains("sitemap-products.xml?page=2")
+                .doesNotContain("sitemap-products.xml?page=3");
+    }
+
+    @Test
+    void etagChangesOnlyForThePageThatChanged() {
+        SitemapService.ProductSitemapPage page1 = sitemapService.getProductSitemapPage(store.getId(), 1);
+        SitemapService.ProductSitemapPage page2 = sitemapService.getProductSitemapPage(store.getId(), 2);
+
+        Product changed = entityManager.find(Product.class, products.get(5).getId());
+        changed.setTitle("Renamed");
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(sitemapService.getProductSitemapPage(store.getId(), 1).etag()).isEqualTo(page1.etag());
+        assertThat(sitemapService.getProductSitemapPage(store.getId(), 2).etag()).isNotEqualTo(page2.etag());
+        assertThat(page2.urlCount()).isEqualTo(3);
+    }
+
+    private String write(SitemapService.ProductSitemapPage page) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        sitemapService.writeProductSitemap(page, "https://shop.test", out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private String url(int index) {
+        return "https://shop.test/products/" + products.get(index).getId();
+    }
+
+    private static List<String> urls(String xml) {
+        List<String> urls = new ArrayList<>();
+        int idx = 0;
+        while ((idx = xml.indexOf("<loc>", idx)) >= 0) {
+            int end = xml.indexOf("</loc>", idx);
+            urls.add(xml.substring(idx + 5, end));
+            idx = end;
+        }
+        return urls;
+    }
+}
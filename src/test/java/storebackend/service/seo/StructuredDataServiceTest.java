@@ -0,0 +1,103 @@
+package storebackend.service.seo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import storebackend.dto.seo.StructuredDataTemplateDTO;
+import storebackend.entity.StructuredDataTemplate;
+import storebackend.repository.StructuredDataTemplateRepository;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for StructuredDataService - compiled template cache and render metrics.
+ */
+@ExtendWith(MockitoExtension.class)
+class StructuredDataServiceTest {
+
+    @Mock
+    private StructuredDataTemplateRepository templateRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private StructuredDataService structuredDataService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        structuredDataService = new StructuredDataService(templateRepository, meterRegistry);
+    }
+
+    @Test
+    void storedTemplateIsCompiledOnceAndRenderedPerStore() {
+        when(templateRepository.findById(5L)).thenReturn(Optional.of(template(5L, 1L, "{\"name\":\"{{title}}\"}")));
+
+        String first = structuredDataService.renderTemplate(1L, 5L, Map.of("title", "Hoodie"));
+        String second = structuredDataService.renderTemplate(1L, 5L, Map.of("title", "Cap"));
+
+        assertEquals("{\"name\":\"Hoodie\"}", first);
+        assertEquals("{\"name\":\"Cap\"}", second);
+        verify(templateRepository, times(1)).findById(5L);
+        assertEquals(2, meterRegistry.get("seo.structured_data.render")
+                .tag("store", "1").tag("source", "stored").timer().count());
+    }
+
+    @Test
+    void saveTemplateNormalizesJsonAndEvictsCompiledTemplate() {
+        when(templateRepository.findById(5L))
+                .thenReturn(Optional.of(template(5L, 1L, "{\"name\":\"{{title}}\"}")))
+                .thenReturn(Optional.of(template(5L, 1L, "{\"headline\":\"{{title}}\"}")));
+        when(templateRepository.save(any(StructuredDataTemplate.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        structuredDataService.renderTemplate(1L, 5L, Map.of("title", "Hoodie"));
+
+        StructuredDataTemplateDTO dto = StructuredDataTemplateDTO.builder()
+                .id(5L)
+                .storeId(1L)
+                .type(StructuredDataTemplate.TemplateType.PRODUCT)
+                .templateJson("{\n  \"headline\" : \"{{title}}\"\n}")
+                .isActive(true)
+                .build();
+        StructuredDataTemplateDTO saved = structuredDataService.saveTemplate(dto);
+
+        assertEquals("{\"headline\":\"{{title}}\"}", saved.getTemplateJson());
+        assertEquals("{\"headline\":\"Hoodie\"}", structuredDataService.renderTemplate(1L, 5L, Map.of("title", "Hoodie")));
+    }
+
+    @Test
+    void templateOfAnotherStoreIsNotRendered() {
+        when(templateRepository.findById(5L)).thenReturn(Optional.of(template(5L, 2L, "{\"name\":\"{{title}}\"}")));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> structuredDataService.renderTemplate(1L, 5L, Map.of("title", "Hoodie")));
+    }
+
+    @Test
+    void invalidJsonIsRejectedOnSave() {
+        StructuredDataTemplateDTO dto = StructuredDataTemplateDTO.builder()
+                .storeId(1L)
+                .type(StructuredDataTemplate.TemplateType.PRODUCT)
+                .templateJson("{\"name\": {{title}}")
+                .build();
+
+        assertThrows(IllegalArgumentException.class, () -> structuredDataService.saveTemplate(dto));
+        verify(templateRepository, never()).save(any());
+    }
+
+    private static StructuredDataTemplate template(Long id, Long storeId, String json) {
+        return StructuredDataTemplate.builder()
+                .id(id)
+                .storeId(storeId)
+                .type(StructuredDataTemplate.TemplateType.PRODUCT)
+                .templateJson(json)
+                .isActive(true)
+                .build();
+    }
+}
@@ -0,0 +1,269 @@
+package storebackend.service.woocommerce;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import storebackend.dto.woocommerce.WooCommerceImportRequest;
+import storebackend.dto.woocommerce.WooCommerceImportResponse;
+import storebackend.dto.woocommerce.WooCommerceImportStatusResponse;
+import storebackend.dto.woocommerce.api.WooImageDto;
+import storebackend.dto.woocommerce.api.WooProductDto;
+import storebackend.entity.Product;
+import storebackend.entity.Store;
+import storebackend.entity.User;
+import storebackend.entity.WooCommerceConfig;
+import storebackend.enums.ProductStatus;
+import storebackend.repository.ProductRepository;
+import storebackend.repository.StoreRepository;
+import storebackend.repository.UserRepository;
+import storebackend.repository.WooCommerceConfigRepository;
+import storebackend.service.StorefrontVersionService;
+import storebackend.service.woocommerce.WooCommerceApiClient.WooProductPage;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests für den Chunk-Import: Seiten werden vorgeladen, Bestandsprodukte per IN-Query aufgelöst,
+ * Fortschritt landet im Job. Ohne Test-Transaktion – jeder Chunk committet selbst.
+ */
+@SpringBootTest(properties = {
+    "woocommerce.import.page-size=10",
+    "woocommerce.import.prefetch-pages=2"
+})
+class WooCommerceImportServiceTest {
+
+    private static final int PRODUCTS = 25;
+
+    @Autowired
+    private WooCommerceImportService importService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private WooCommerceConfigRepository configRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StorefrontVersionService versionService;
+
+    @MockitoBean
+    private WooCommerceApiClient apiClient;
+
+    @MockitoBean
+    private WooCommerceImageService imageService;
+
+    private User owner;
+    private Store store;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setEmail("woo-import-" + System.nanoTime() + "@test.com");
+        owner.setPasswordHash("dummy");
+        owner.setCreatedAt(LocalDateTime.now());
+        owner.setUpdatedAt(LocalDateTime.now());
+        owner = userRepository.save(owner);
+
+        store = new Store();
+        store.setOwner(owner);
+        store.setName("Woo Import Store");
+        store.setSlug("woo-import-" + System.nanoTime());
+        store = storeRepository.save(store);
+
+        WooCommerceConfig config = new WooCommerceConfig();
+        config.setStore(store);
+        config.setShopUrl("https://shop.example.com");
+        config.setConsumerKey("ck_test");
+        config.setConsumerSecret("cs_test");
+        configRepository.save(config);
+
+        // WC-ID 5 bereits importiert, SKU-3 existiert unverknüpft
+        productRepository.save(product("Alt 5", "SKU-5", "5"));
+        productRepository.save(product("Manuell 3", "SKU-3", null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM woocommerce_import_log WHERE store_id = ?", store.getId());
+        jdbcTemplate.update("DELETE FROM woocommerce_import_jobs WHERE store_id = ?", store.getId());
+        jdbcTemplate.update("DELETE FROM woocommerce_configs WHERE store_id = ?", store.getId());
+        jdbcTemplate.update("DELETE FROM products WHERE store_id = ?", store.getId());
+        jdbcTemplate.update("DELETE FROM storefront_versions WHERE store_id = ?", store.getId());
+        jdbcTemplate.update("DELETE FROM stores WHERE id = ?", store.getId());
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", owner.getId());
+    }
+
+    @Test
+    void pagesAreImportedChunkwiseWithProgressOnJob() {
+        List<WooProductDto> products = wooProducts();
+        for (int page = 1; page <= 3; page++) {
+            when(apiClient.getProductPage(any(), eq(page), eq(10)))
+                .thenReturn(new WooProductPage(slice(products, page), PRODUCTS, 3));
+        }
+
+        WooCommerceImportResponse response = importService.startImport(store.getId(), request(), owner);
+
+        assertEquals("COMPLETED", response.getStatus());
+        assertEquals(PRODUCTS - 2, response.getImportedCount());
+        assertEquals(2, response.getUpdatedCount());
+        assertEquals(0, response.getFailedCount());
+        verify(apiClient, times(3)).getProductPage(any(), anyInt(), eq(10));
+
+        assertEquals(PRODUCTS, productRepository.findByStoreIdAndExternalSourceAndExternalIdIn(
+            store.getId(), "WOOCOMMERCE", products.stream().map(p -> p.getId().toString()).toList()).size());
+        Product linked = productRepository.findByStoreIdAndSku(store.getId(), "SKU-3").orElseThrow();
+        assertEquals("3", linked.getExternalId());
+        assertEquals("Woo 3", linked.getTitle());
+
+        WooCommerceImportStatusResponse status = importService.getImportStatus(store.getId(), response.getJobId());
+        assertEquals("COMPLETED", status.getStatus());
+        assertEquals(PRODUCTS, status.getTotalProducts());
+        assertEquals(100, status.getProgress());
+        assertNotNull(status.getThroughputPerSecond());
+        assertEquals(0L, status.getEtaSeconds());
+        assertEquals(1, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM woocommerce_import_log WHERE job_id = ? AND status = 'SUCCESS'",
+            Integer.class, response.getJobId()));
+    }
+
+    @Test
+    void withoutPaginationHeadersPagesAreReadUntilShortPage() {
+        List<WooProductDto> products = wooProducts();
+        for (int page = 1; page <= 3; page++) {
+            when(apiClient.getProductPage(any(), eq(page), eq(10)))
+                .thenReturn(new WooProductPage(slice(products, page), -1, -1));
+        }
+
+        WooCommerceImportResponse response = importService.startImport(store.getId(), request(), owner);
+
+        assertEquals(PRODUCTS - 2, response.getImportedCount());
+        assertEquals(2, response.getUpdatedCount());
+        assertEquals(PRODUCTS, importService.getImportStatus(store.getId(), response.getJobId()).getTotalProducts());
+        verify(apiClient, times(3)).getProductPage(any(), anyInt(), eq(10));
+    }
+
+    @Test
+    void imagesAreUploadedAfterTheChunkCommitted() {
+        List<WooProductDto> products = wooProducts().subList(0, 3);
+        for (WooProductDto product : products) {
+            WooImageDto image = new WooImageDto();
+            image.setSrc("https://shop.example.com/img/" + product.getId() + ".jpg");
+            product.setImages(List.of(image));
+        }
+        when(apiClient.getProductPage(any(), eq(1), eq(10))).thenReturn(new WooProductPage(products, 3, 1));
+
+        List<Integer> committedAtUpload = new ArrayList<>();
+        when(imageService.importProductImage(any(Product.class), anyString(), any(Store.class), any()))
+            .thenAnswer(invocation -> {
+                Product product = invocation.getArgument(0);
+                // Upload läuft außerhalb der Chunk-Transaktion: Produkt ist bereits committet
+                committedAtUpload.add(jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM products WHERE id = ?", Integer.class, product.getId()));
+                product.setImageUrl("https://cdn.example.com/" + product.getExternalId() + ".jpg");
+                return true;
+            });
+
+        WooCommerceImportRequest request = WooCommerceImportRequest.builder().importImages(true).build();
+        WooCommerceImportResponse response = importService.startImport(store.getId(), request, owner);
+
+        assertEquals(2, response.getImportedCount());
+        assertEquals(List.of(1, 1, 1), committedAtUpload);
+        verify(imageService, times(3)).importProductImage(any(Product.class), anyString(), any(Store.class), any());
+        Product imported = productRepository.findByStoreIdAndSku(store.getId(), "SKU-1").orElseThrow();
+        assertEquals("https://cdn.example.com/1.jpg", imported.getImageUrl());
+        assertTrue(versionService.currentVersion(store.getId()) > 0, "storefront version not bumped");
+    }
+
+    @Test
+    void submittedImportReturnsJobIdBeforeItRuns() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(apiClient.getProductPage(any(), eq(1), eq(10))).thenAnswer(invocation -> {
+            assertTrue(release.await(10, TimeUnit.SECONDS));
+            return new WooProductPage(wooProducts().subList(0, 3), 3, 1);
+        });
+
+        WooCommerceImportResponse accepted = importService.submitImport(store.getId(), request(), owner);
+
+        assertEquals("IN_PROGRESS", accepted.getStatus());
+        assertNotNull(accepted.getJobId());
+        assertEquals("IN_PROGRESS", importService.getImportStatus(store.getId(), accepted.getJobId()).getStatus());
+
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while ("IN_PROGRESS".equals(importService.getImportStatus(store.getId(), accepted.getJobId()).getStatus())
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        WooCommerceImportResponse result = importService.getImportResult(store.getId(), accepted.getJobId());
+        assertEquals("COMPLETED", result.getStatus());
+        assertEquals(2, result.getImportedCount());
+        assertEquals(1, result.getUpdatedCount());
+    }
+
+    private static WooCommerceImportRequest request() {
+        return WooCommerceImportRequest.builder()
+            .importImages(false)
+            .build();
+    }
+
+    private static List<WooProductDto> wooProducts() {
+        List<WooProductDto> products = new ArrayList<>();
+        for (long id = 1; id <= PRODUCTS; id++) {
+            WooProductDto dto = new WooProductDto();
+            dto.setId(id);
+            dto.setName("Woo " + id);
+            dto.setSku("SKU-" + id);
+            dto.setType("simple");
+            dto.setStatus("publish");
+            dto.setRegularPrice("9.90");
+            products.add(dto);
+        }
+        return products;
+    }
+
+    private static List<WooProductDto> slice(List<WooProductDto> products, int page) {
+        return products.subList((page - 1) * 10, Math.min(page * 10, products.size()));
+    }
+
+    private Product product(String title, String sku, String externalId) {
+        Product product = new Product();
+        product.setStore(store);
+        product.setTitle(title);
+        product.setSku(sku);
+        product.setBasePrice(BigDecimal.ONE);
+        product.setStatus(ProductStatus.ACTIVE);
+        if (externalId != null) {
+            product.setExternalSource("WOOCOMMERCE");
+            product.setExternalId(externalId);
+        }
+        return product;
+    }
+}
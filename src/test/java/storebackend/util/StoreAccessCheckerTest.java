@@ -16,11 +16,12 @@ import org.springframework.security.core.userdetails.UserDetails;
 import storebackend.entity.Store;
 import storebackend.entity.User;
 import storebackend.enums.Role;
-import storebackend.repository.StoreRepository;
 import storebackend.repository.UserRepository;
+import storebackend.security.UserPrincipalCache;
 
 import java.util.Collections;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -33,11 +34,11 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class StoreAccessCheckerTest {
 
-    @Mock
-    private StoreRepository storeRepository;
-    
     @Mock
     private UserRepository userRepository;
+
+    @Mock
+    private UserPrincipalCache principalCache;
     
     @Mock
     private SecurityContext securityContext;
@@ -78,7 +79,7 @@ class StoreAccessCheckerTest {
         );
         when(securityContext.getAuthentication()).thenReturn(auth);
         when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
-        when(storeRepository.findById(121L)).thenReturn(Optional.of(testStore));
+        when(principalCache.ownedStoreIds(1L)).thenReturn(Set.of(121L));
         
         // Act
         boolean hasAccess = storeAccessChecker.isStoreAdmin(121L);
@@ -88,7 +89,7 @@ class StoreAccessCheckerTest {
         
         // Verify
         verify(userRepository).findByEmail(testUser.getEmail());
-        verify(storeRepository).findById(121L);
+        verify(principalCache).ownedStoreIds(1L);
     }
     
     @Test
@@ -107,7 +108,7 @@ class StoreAccessCheckerTest {
         );
         when(securityContext.getAuthentication()).thenReturn(auth);
         when(userRepository.findByEmail(otherUser.getEmail())).thenReturn(Optional.of(otherUser));
-        when(storeRepository.findById(121L)).thenReturn(Optional.of(testStore));
+        when(principalCache.ownedStoreIds(2L)).thenReturn(Set.of());
         
         // Act
         boolean hasAccess = storeAccessChecker.isStoreAdmin(121L);
@@ -132,7 +133,7 @@ class StoreAccessCheckerTest {
         );
         when(securityContext.getAuthentication()).thenReturn(auth);
         when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
-        when(storeRepository.findById(999L)).thenReturn(Optional.empty());
+        when(principalCache.ownedStoreIds(1L)).thenReturn(Set.of(121L));
         
         // Act
         boolean hasAccess = storeAccessChecker.isStoreAdmin(999L);
@@ -186,7 +187,7 @@ class StoreAccessCheckerTest {
         );
         when(securityContext.getAuthentication()).thenReturn(auth);
         when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
-        when(storeRepository.findById(999L)).thenReturn(Optional.of(orphanStore));
+        when(principalCache.ownedStoreIds(1L)).thenReturn(Set.of(121L));
         
         // Act
         boolean hasAccess = storeAccessChecker.isStoreAdmin(999L);
@@ -224,7 +225,7 @@ class StoreAccessCheckerTest {
         );
         when(securityContext.getAuthentication()).thenReturn(auth);
         when(userRepository.findByEmail("essoudati@hotmail.de")).thenReturn(Optional.of(productionUser));
-        when(storeRepository.findById(121L)).thenReturn(Optional.of(productionStore));
+        when(principalCache.ownedStoreIds(1L)).thenReturn(Set.of(121L));
         
         // Act
         boolean hasAccess = storeAccessChecker.isStoreAdmin(121L);
@@ -249,7 +250,7 @@ class StoreAccessCheckerTest {
             Collections.emptyList()
         );
         when(securityContext.getAuthentication()).thenReturn(auth);
-        when(storeRepository.findById(121L)).thenReturn(Optional.of(testStore));
+        when(principalCache.ownedStoreIds(1L)).thenReturn(Set.of(121L));
         
         // Act
         boolean hasAccess = storeAccessChecker.isStoreAdmin(121L);
@@ -280,7 +281,7 @@ class StoreAccessCheckerTest {
         );
         when(securityContext.getAuthentication()).thenReturn(auth);
         when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
-        when(storeRepository.findById(121L)).thenReturn(Optional.of(testStore));
+        when(principalCache.ownedStoreIds(1L)).thenReturn(Set.of(121L));
         
         // Act
         boolean hasAccess = storeAccessChecker.isStoreAdmin(121L);
@@ -303,7 +304,7 @@ class StoreAccessCheckerTest {
         );
         when(securityContext.getAuthentication()).thenReturn(auth);
         when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
-        when(storeRepository.findById(121L)).thenReturn(Optional.of(testStore));
+        when(principalCache.ownedStoreIds(1L)).thenReturn(Set.of(121L));
         
         // Act
         boolean hasAccess = storeAccessChecker.isStoreAdmin(121L);
@@ -330,7 +331,7 @@ class StoreAccessCheckerTest {
             Collections.emptyList()
         );
         when(securityContext.getAuthentication()).thenReturn(auth);
-        when(storeRepository.findById(121L)).thenReturn(Optional.of(testStore));
+        when(principalCache.ownedStoreIds(99L)).thenReturn(Set.of());
         
         // Act
         boolean hasAccess = storeAccessChecker.isStoreAdmin(121L);
@@ -360,7 +361,7 @@ class StoreAccessCheckerTest {
         
         // Verify - Keine Repository-Calls bei anonymous
         verify(userRepository, never()).findByEmail(anyString());
-        verify(storeRepository, never()).findById(anyLong());
+        verify(principalCache, never()).ownedStoreIds(anyLong());
     }
     
     /**
@@ -1,7 +1,7 @@
 import { Injectable } from '@angular/core';
-import { HttpClient, HttpEvent, HttpEventType, HttpHeaders } from '@angular/common/http';
-import { Observable, throwError } from 'rxjs';
-import { map, catchError } from 'rxjs/operators';
+import { HttpClient, HttpEvent, HttpEventType, HttpHeaders, HttpResponse } from '@angular/common/http';
+import { Observable, throwError, timer, of } from 'rxjs';
+import { map, catchError, switchMap, filter, take, timeout } from 'rxjs/operators';
 import { environment } from '../../../environments/environment';
 import { BackendDateTime } from '@app/core/utils/date.utils';
 import { SupplierInvoiceImportPreviewResponse } from '@app/core/models/import-preview.model';
@@ -53,12 +53,29 @@ export interface ParsedInvoiceFields {
   currency: string | null;
 }
 
+export type InvoiceParseStatus =
+  | 'NOT_STARTED' | 'EXTRACTING' | 'TEXT_EXTRACTED' | 'OCR_REQUIRED' | 'OCR_RUNNING'
+  | 'OCR_COMPLETED' | 'FAILED';
+
+/** Endzustände eines Parse-Jobs – alles andere läuft noch */
+export const FINAL_PARSE_STATUSES: InvoiceParseStatus[] = ['OCR_COMPLETED', 'FAILED'];
+
+/** 202-Antwort von POST /parse: Job läuft, Ergebnis über /parse-result abfragen */
+export interface InvoiceParseAccepted {
+  documentId: number;
+  status: InvoiceParseStatus;
+  startedAt?: string;
+  pollUrl: string;
+}
+
 export interface InvoiceParseResult {
   documentId: number;
-  status: 'OCR_COMPLETED' | 'FAILED';
+  status: InvoiceParseStatus;
   cached?: boolean;
   parsedAt?: string;
   parserVersion?: string;
+  startedAt?: string;
+  errorMessage?: string;
   ocr?: {
     engine: string;
     pageCount: number;
@@ -347,7 +364,9 @@ export class SupplierInvoiceService {
   }
 
   /**
-   * Parse invoice with OCR + field extraction
+   * Parse invoice with OCR + field extraction.
+   * Cache-Treffer kommen direkt (200); sonst startet das Backend einen Job (202)
+   * und das Ergebnis wird über /parse-result abgefragt, bis ein Endzustand erreicht ist.
    */
   parseInvoice(
     storeId: number,
@@ -355,12 +374,45 @@ export class SupplierInvoiceService {
     psmMode: 3 | 4 | 6 = 6,
     force: boolean = false
   ): Observable<InvoiceParseResult> {
-    return this.http.post<InvoiceParseResult>(
+    return this.http.post<InvoiceParseResult | InvoiceParseAccepted>(
       `${this.baseUrl}/${storeId}/supplier-invoices/documents/${documentId}/parse?psmMode=${psmMode}&force=${force}`,
-      null
+      null,
+      { observe: 'response' }
+    ).pipe(
+      switchMap((response: HttpResponse<InvoiceParseResult | InvoiceParseAccepted>) =>
+        response.status === 202
+          ? this.pollParseResult(storeId, documentId)
+          : of(response.body as InvoiceParseResult)
+      )
     );
   }
 
+  /**
+   * Fragt /parse-result ab, bis der Job OCR_COMPLETED oder FAILED erreicht hat.
+   */
+  pollParseResult(
+    storeId: number,
+    documentId: number,
+    intervalMs: number = 1500,
+    maxWaitMs: number = 5 * 60 * 1000
+  ): Observable<InvoiceParseResult> {
+    return timer(0, intervalMs).pipe(
+      switchMap(() => this.getParseResult(storeId, documentId).pipe(
+        // Zeile evtl. noch nicht sichtbar → weiter abfragen
+        catchError(err => err.status === 404 ? of(null) : throwError(() => err))
+      )),
+      filter((result): result is InvoiceParseResult =>
+        result !== null && FINAL_PARSE_STATUSES.includes(result.status)),
+      take(1),
+      timeout(maxWaitMs)
+    );
+  }
+
+  /** true, solange ein Parse-Job für das Ergebnis noch läuft */
+  isParseRunning(result: InvoiceParseResult): boolean {
+    return !FINAL_PARSE_STATUSES.includes(result.status);
+  }
+
   /**
    * Confirm supplier name correction (Phase 3A Learning System)
    */
@@ -1,6 +1,7 @@
 import { Injectable } from '@angular/core';
 import { HttpClient, HttpHeaders } from '@angular/common/http';
-import { Observable } from 'rxjs';
+import { Observable, of, timer } from 'rxjs';
+import { filter, switchMap, take } from 'rxjs/operators';
 import { environment } from '@env/environment';
 
 /**
@@ -11,6 +12,8 @@ import { environment } from '@env/environment';
  * - PUT  /api/stores/{storeId}/woocommerce/config
  * - POST /api/stores/{storeId}/woocommerce/test
  * - POST /api/stores/{storeId}/woocommerce/preview
+ * - POST /api/stores/{storeId}/woocommerce/import (202 + jobId)
+ * - GET  /api/stores/{storeId}/woocommerce/import/jobs/{jobId}[/result]
  */
 @Injectable({
   providedIn: 'root'
@@ -60,7 +63,8 @@ export class WooCommerceService {
   }
 
   /**
-   * Startet WooCommerce Import.
+   * Startet WooCommerce Import. Das Backend importiert im Hintergrund;
+   * das Observable liefert nach dem Polling das Endergebnis.
    */
   startImport(storeId: number, request?: WooCommerceImportRequest): Observable<WooCommerceImportResponse> {
     const body = request || {
@@ -71,6 +75,36 @@ export class WooCommerceService {
     return this.http.post<WooCommerceImportResponse>(
       `${this.apiUrl}/stores/${storeId}/woocommerce/import`,
       body
+    ).pipe(
+      switchMap(response => response.status === 'IN_PROGRESS'
+        ? this.pollImportResult(storeId, response.jobId)
+        : of(response))
+    );
+  }
+
+  /**
+   * Fragt den Job-Status ab, bis der Import COMPLETED oder FAILED ist, und lädt dann das Ergebnis.
+   */
+  pollImportResult(storeId: number, jobId: number, intervalMs: number = 2000): Observable<WooCommerceImportResponse> {
+    return timer(0, intervalMs).pipe(
+      switchMap(() => this.getImportStatus(storeId, jobId)),
+      filter(status => status.status !== 'IN_PROGRESS'),
+      take(1),
+      switchMap(() => this.getImportResult(storeId, jobId))
+    );
+  }
+
+  /** Fortschritt eines Imports (Durchsatz, ETA) */
+  getImportStatus(storeId: number, jobId: number): Observable<WooCommerceImportStatus> {
+    return this.http.get<WooCommerceImportStatus>(
+      `${this.apiUrl}/stores/${storeId}/woocommerce/import/jobs/${jobId}`
+    );
+  }
+
+  /** Ergebnis eines abgeschlossenen Imports */
+  getImportResult(storeId: number, jobId: number): Observable<WooCommerceImportResponse> {
+    return this.http.get<WooCommerceImportResponse>(
+      `${this.apiUrl}/stores/${storeId}/woocommerce/import/jobs/${jobId}/result`
     );
   }
 
@@ -190,6 +224,23 @@ export interface WooCommerceImportResponse {
   message?: string;
 }
 
+export interface WooCommerceImportStatus {
+  jobId: number;
+  status: string; // IN_PROGRESS | COMPLETED | FAILED
+  progress?: number;
+  totalProducts?: number;
+  importedProducts?: number;
+  updatedProducts?: number;
+  skippedProducts?: number;
+  failedProducts?: number;
+  currentProductName?: string;
+  throughputPerSecond?: number;
+  etaSeconds?: number;
+  startedAt?: string;
+  completedAt?: string;
+  errorMessage?: string;
+}
+
 export interface ImportedCustomerDto {
   userId: number;
   email: string;
@@ -320,6 +320,11 @@ export class SupplierInvoicePreviewComponent implements OnInit, OnDestroy {
       .subscribe({
         next: (result) => {
           console.log('GET /parse-result response:', result);
+          if (this.supplierInvoiceService.isParseRunning(result)) {
+            // Job läuft noch (z.B. Dialog neu geöffnet) → bis zum Endzustand abfragen
+            this.waitForParseResult();
+            return;
+          }
           this.applyParseResult(result);
         },
         error: (err) => {
@@ -340,31 +345,63 @@ export class SupplierInvoicePreviewComponent implements OnInit, OnDestroy {
       .subscribe({
         next: (result) => {
           console.log('POST /parse response:', result);
-          this.applyParseResult(result);
           this.parsing = false;
-          
-          const hasAnyField = Object.values(this.parsedFields || {}).some(v => v !== null && v !== '');
-          const message = hasAnyField
-            ? 'Rechnung erfolgreich ausgelesen'
-            : 'Text wurde erkannt, Rechnungsfelder konnten jedoch nicht zugeordnet werden';
-          
-          this.snackBar.open(
-            message,
-            this.translate.instant('COMMON.CLOSE'),
-            { duration: 3000 }
-          );
+          this.handleFinalParseResult(result);
         },
         error: (err) => {
           console.error('Parse failed:', err);
           this.parsing = false;
-          this.snackBar.open(
-            'Fehler beim Auslesen der Rechnung',
-            this.translate.instant('COMMON.CLOSE'),
-            { duration: 5000, panelClass: ['error-snackbar'] }
-          );
+          this.showParseError();
+        }
+      });
+  }
+
+  // Wait for a running parse job (started earlier) to finish
+  private waitForParseResult(): void {
+    this.parsing = true;
+
+    this.supplierInvoiceService.pollParseResult(this.data.storeId, this.data.document.id)
+      .pipe(takeUntil(this.destroy$))
+      .subscribe({
+        next: (result) => {
+          this.parsing = false;
+          this.handleFinalParseResult(result);
+        },
+        error: (err) => {
+          console.error('Polling parse result failed:', err);
+          this.parsing = false;
+          this.showParseError();
         }
       });
   }
+
+  private handleFinalParseResult(result: InvoiceParseResult): void {
+    if (result.status === 'FAILED') {
+      console.error('Parse job failed:', result.errorMessage);
+      this.showParseError();
+      return;
+    }
+    this.applyParseResult(result);
+
+    const hasAnyField = Object.values(this.parsedFields || {}).some(v => v !== null && v !== '');
+    const message = hasAnyField
+      ? 'Rechnung erfolgreich ausgelesen'
+      : 'Text wurde erkannt, Rechnungsfelder konnten jedoch nicht zugeordnet werden';
+
+    this.snackBar.open(
+      message,
+      this.translate.instant('COMMON.CLOSE'),
+      { duration: 3000 }
+    );
+  }
+
+  private showParseError(): void {
+    this.snackBar.open(
+      'Fehler beim Auslesen der Rechnung',
+      this.translate.instant('COMMON.CLOSE'),
+      { duration: 5000, panelClass: ['error-snackbar'] }
+    );
+  }
   
   // Central method to apply parse result (used by both GET and POST)
   private applyParseResult(result: InvoiceParseResult): void {